@@ -0,0 +1,35 @@
+package com.unconv.spring.annotation;
+
+import com.unconv.spring.persistence.UuidV7IdentifierGenerator;
+import com.unconv.spring.utils.UuidV7Generator;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * An annotation to generate the identifier of an entity as a time-ordered version 7 UUID, using
+ * {@link UuidV7Generator}. It replaces {@code @GeneratedValue} on a {@link java.util.UUID} primary
+ * key.
+ *
+ * <p>Random version 4 UUIDs scatter inserts across the whole primary-key index, splitting pages
+ * and evicting them from the cache once the index no longer fits in memory. Version 7 UUIDs are
+ * generated in increasing order, so new keys are appended to the most recent index pages. Use it
+ * for entities that are inserted at a high rate.
+ *
+ * <p>Example usage:
+ *
+ * <pre>{@code
+ * @Id
+ * @UuidV7
+ * @Column(name = "id", columnDefinition = "uuid")
+ * private UUID id;
+ * }</pre>
+ *
+ * @see UuidV7IdentifierGenerator
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@IdGeneratorType(UuidV7IdentifierGenerator.class)
+public @interface UuidV7 {}
@@ -0,0 +1,31 @@
+package com.unconv.spring.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/** Settings for bulk CSV imports of environmental readings. */
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "unconv.ingest.csv")
+public class CsvImportConfig {
+
+    /** Uploads at least this large are parsed in parallel on the CSV parsing pool. */
+    private DataSize parallelParseThreshold = DataSize.ofMegabytes(16);
+
+    /** Number of workers of the pool large uploads are parsed on. */
+    private int parseParallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Number of workers processing asynchronous import jobs. */
+    private int asyncWorkers = 2;
+
+    /** Maximum number of asynchronous import jobs waiting for a worker. */
+    private int asyncQueueCapacity = 20;
+
+    /** How long finished asynchronous import jobs remain available for progress requests. */
+    private Duration jobRetention = Duration.ofHours(1);
+}
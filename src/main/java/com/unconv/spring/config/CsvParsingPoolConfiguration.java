@@ -0,0 +1,33 @@
+package com.unconv.spring.config;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Configuration class providing the pool large CSV imports are parsed on. */
+@Configuration
+public class CsvParsingPoolConfiguration {
+
+    /**
+     * Provides the fork-join pool large CSV uploads are parsed on, kept apart from the common pool
+     * so imports neither compete with nor are held up by other parallel work in the JVM. The pool
+     * is shut down with the application context.
+     *
+     * @param csvImportConfig the CSV import settings, including the parallelism of the pool
+     * @return The pool with {@link CsvImportConfig#getParseParallelism()} workers.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool csvParsingPool(CsvImportConfig csvImportConfig) {
+        return new ForkJoinPool(
+                csvImportConfig.getParseParallelism(),
+                pool -> {
+                    ForkJoinWorkerThread worker =
+                            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    worker.setName("csv-parse-" + worker.getPoolIndex());
+                    return worker;
+                },
+                null,
+                false);
+    }
+}
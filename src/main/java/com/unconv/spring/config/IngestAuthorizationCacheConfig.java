@@ -0,0 +1,27 @@
+package com.unconv.spring.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the in-memory cache of the sensor system state checked on every ingested
+ * environmental reading.
+ */
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "unconv.ingest.authorization-cache")
+public class IngestAuthorizationCacheConfig {
+
+    /** Maximum number of sensor systems cached; the least recently used are evicted first. */
+    private int maxEntries = 10_000;
+
+    /**
+     * How long a cached entry is trusted. Changes made through the sensor system service evict the
+     * entry right away; this bounds staleness for changes made any other way.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
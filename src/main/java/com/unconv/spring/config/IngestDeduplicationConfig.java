@@ -0,0 +1,20 @@
+package com.unconv.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the in-memory filter that recognises retried environmental readings before they
+ * reach the database.
+ */
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "unconv.ingest.deduplication")
+public class IngestDeduplicationConfig {
+
+    /** Number of recently stored timestamps remembered per sensor system; 0 disables the filter. */
+    private int recentTimestampsPerSensor = 1024;
+}
@@ -0,0 +1,26 @@
+package com.unconv.spring.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the monthly partitions of the environmental readings table. They only take effect
+ * on a PostgreSQL database migrated to the partitioned table.
+ */
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "unconv.readings.partitioning")
+public class ReadingPartitionConfig {
+
+    /** Number of months after the current one for which partitions are kept ready. */
+    private int monthsAhead = 3;
+
+    /**
+     * Number of whole months before the current one whose partitions are kept; older partitions
+     * are dropped. 0 keeps every partition.
+     */
+    private int retainedMonths = 0;
+}
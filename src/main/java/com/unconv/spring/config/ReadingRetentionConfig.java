@@ -0,0 +1,66 @@
+package com.unconv.spring.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the retention of environmental readings. Raw readings are deleted once they expire,
+ * leaving the quarter-hourly, hourly and daily aggregates they were rolled up into, and each
+ * resolution of aggregates expires in turn. A duration that is unset or zero keeps that data
+ * forever.
+ */
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "unconv.readings.retention")
+public class ReadingRetentionConfig {
+
+    /** Whether the scheduled job deletes expired readings and aggregates. */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of rows deleted in one transaction, so that the job never holds locks long
+     * enough to hold up ingest.
+     */
+    private int batchSize = 5_000;
+
+    /** Policy of every sensor system that has no policy of its own. */
+    private Policy defaults = new Policy();
+
+    /** Policies of individual sensor systems by ID; each replaces the defaults entirely. */
+    private Map<UUID, Policy> sensorSystems = new HashMap<>();
+
+    /**
+     * Returns the policy applying to a sensor system.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @return the policy of the sensor system, or the defaults if it has none of its own
+     */
+    public Policy policyFor(UUID sensorSystemId) {
+        return sensorSystems.getOrDefault(sensorSystemId, defaults);
+    }
+
+    /** How long each resolution of environmental readings is kept. */
+    @Setter
+    @Getter
+    public static class Policy {
+
+        /** How long raw readings are kept before only their aggregates are left. */
+        private Duration raw = Duration.ofDays(30);
+
+        /** How long quarter-hourly aggregates are kept. */
+        private Duration quarterHourly = Duration.ofDays(365);
+
+        /** How long hourly aggregates are kept; forever unless set. */
+        private Duration hourly;
+
+        /** How long daily aggregates are kept; forever unless set. */
+        private Duration daily;
+    }
+}
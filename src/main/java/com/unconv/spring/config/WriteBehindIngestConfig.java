@@ -0,0 +1,42 @@
+package com.unconv.spring.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the write-behind ingest mode, in which single environmental readings are queued in
+ * memory and written to the database in group commits.
+ */
+@Setter
+@Getter
+@Component
+@ConfigurationProperties(prefix = "unconv.ingest.write-behind")
+public class WriteBehindIngestConfig {
+
+    /** Whether single-reading POSTs are queued instead of being saved synchronously. */
+    private boolean enabled;
+
+    /** Maximum number of readings held in the queue before requests are rejected with 429. */
+    private int capacity = 10_000;
+
+    /** Maximum number of readings written in one group commit. */
+    private int maxBatchSize = 500;
+
+    /** Longest time a queued reading waits for its group commit to fill up. */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** Value of the Retry-After header sent when the queue is full. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /** Number of times a group is written before a transient database failure drops it. */
+    private int maxWriteAttempts = 3;
+
+    /** Time waited before writing a group again after a transient database failure. */
+    private Duration writeRetryBackoff = Duration.ofMillis(500);
+
+    /** Longest time graceful shutdown waits for the queue to drain. */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
@@ -17,6 +17,11 @@ public final class AppConstants {
     // Environmental Reading
     public static final String DEFAULT_ER_SORT_BY = "timestamp";
     public static final String DEFAULT_ER_SORT_DIRECTION = "desc";
+    public static final int MAX_BATCH_INGEST_SIZE = 1000;
+    public static final int JDBC_BATCH_SIZE = 500;
+    public static final int CSV_IMPORT_CHUNK_SIZE = 1000;
+    public static final int MAX_STATS_BUCKETS = 1000;
+    public static final int EXPORT_FETCH_SIZE = 5000;
 
     // Sensor System
     public static final String DEFAULT_SS_SORT_BY = "sensorName";
@@ -8,14 +8,33 @@ public final class MessageConstants {
     public static final String ENVT_RECORD_REJ_SENS = "Unknown SensorSystem on request";
     public static final String ENVT_RECORD_REJ_DLTD = "Invalid Sensor system on request";
     public static final String ENVT_RECORD_REJ_INAT = "Inactive sensor system on request";
+    public static final String ENVT_BATCH_REJ_SIZE = "Batch cannot exceed %d readings";
+    public static final String ENVT_BATCH_REJ_NULL = "Batch cannot contain null readings";
+    public static final String ENVT_RECORD_QUEUED = "Record queued for storage";
+    public static final String ENVT_RECORD_DUPLICATE = "Record already stored, duplicate ignored";
+    public static final String ENVT_RECORD_REJ_BUSY = "Ingest queue is full, retry later";
 
     public static final String SENS_RECORD_REJ_USER = "Unknown UnconvUser on request";
 
     public static final String ENVT_FILE_REJ_ERR = "Could not upload the file: %s!";
     public static final String ENVT_FILE_FORMAT_ERROR = "Please upload a csv file!";
+    public static final String ENVT_FILE_JOB_ACCEPTED = "Import job accepted for file: %s";
+    public static final String ENVT_FILE_JOB_REJ_BUSY = "Import queue is full, retry later";
+    public static final String ENVT_FILE_JOB_CANCELLED = "Import job cancelled";
 
     public static final String ENVT_VALID_SENSOR_SYSTEM = "Sensor system cannot be empty";
 
+    public static final String ENVT_STATS_REJ_RANGE = "Stats range end must be after its start";
+    public static final String ENVT_STATS_REJ_INTERVAL =
+            "Stats interval must be a whole number of seconds, at least one";
+    public static final String ENVT_STATS_REJ_BUCKETS = "Stats query cannot exceed %d buckets";
+    public static final String ENVT_STATS_REJ_EMPTY =
+            "Stats query needs at least one metric and one aggregate";
+
+    public static final String ENVT_CURSOR_REJ_INVALID = "Invalid page cursor";
+
+    public static final String ENVT_EXPORT_REJ_RANGE = "Export range end must be after its start";
+
     // Unconv user
     public static final String USER_NAME_IN_USE = "Username already taken";
     public static final String USER_CREATE_SUCCESS = "User created successfully";
@@ -2,11 +2,11 @@
 
 import static com.unconv.spring.consts.MessageConstants.ENVT_VALID_SENSOR_SYSTEM;
 
+import com.unconv.spring.annotation.UuidV7;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -21,9 +21,31 @@
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-/** Represents an environmental reading entity in the database. */
+/**
+ * Represents an environmental reading entity in the database. A sensor system has at most one
+ * reading per timestamp, so retried and overlapping uploads do not create duplicates.
+ *
+ * <p>Almost every lookup of readings is scoped to a sensor system, so those indexes lead with
+ * {@code sensor_id}: the unique key serves the latest readings and time range counts, and the
+ * temperature and humidity indexes cover the extremes projections without visiting the table. The
+ * {@code (timestamp, id)} index serves the keyset pages of the listing of all readings.
+ */
 @Entity
-@Table(name = "environmental_readings")
+@Table(
+        name = "environmental_readings",
+        indexes = {
+            @Index(
+                    name = "uk_environmental_readings_sensor_timestamp",
+                    columnList = "sensor_id, timestamp DESC",
+                    unique = true),
+            @Index(
+                    name = "idx_environmental_readings_sensor_temperature",
+                    columnList = "sensor_id, temperature, humidity, timestamp"),
+            @Index(
+                    name = "idx_environmental_readings_sensor_humidity",
+                    columnList = "sensor_id, humidity, temperature, timestamp"),
+            @Index(name = "idx_environmental_readings_timestamp_id", columnList = "timestamp, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -31,7 +53,7 @@
 public class EnvironmentalReading {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     @Column(name = "id", columnDefinition = "uuid")
     private UUID id;
 
@@ -0,0 +1,77 @@
+package com.unconv.spring.domain;
+
+import com.unconv.spring.annotation.UuidV7;
+import com.unconv.spring.enums.AggregateResolution;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Represents the summary of the environmental readings of a sensor system within one time bucket.
+ * Aggregates are kept up to date as readings are written, and outlive the raw readings once those
+ * expire. Averages are derived from the sums and the reading count, so that aggregates of the same
+ * bucket can be merged.
+ */
+@Entity
+@Table(
+        name = "environmental_reading_aggregates",
+        uniqueConstraints =
+                @UniqueConstraint(
+                        name = "uk_environmental_reading_aggregates_sensor_bucket",
+                        columnNames = {"sensor_id", "resolution", "bucket_start"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvironmentalReadingAggregate {
+
+    @Id
+    @UuidV7
+    @Column(name = "id", columnDefinition = "uuid")
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sensor_id", nullable = false)
+    private SensorSystem sensorSystem;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AggregateResolution resolution;
+
+    @Column(nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long readingCount;
+
+    @Column(nullable = false)
+    private double minTemperature;
+
+    @Column(nullable = false)
+    private double maxTemperature;
+
+    @Column(nullable = false)
+    private double sumTemperature;
+
+    @Column(nullable = false)
+    private double minHumidity;
+
+    @Column(nullable = false)
+    private double maxHumidity;
+
+    @Column(nullable = false)
+    private double sumHumidity;
+}
@@ -0,0 +1,77 @@
+package com.unconv.spring.domain;
+
+import com.unconv.spring.annotation.UuidV7;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.enums.ReadingMetric;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Represents one bin of the quantile sketch of a metric of the environmental readings of a sensor
+ * system within one time bucket, as mapped by {@link com.unconv.spring.utils.QuantileSketch}. Bins
+ * are kept up to date alongside the {@link EnvironmentalReadingAggregate} of the same bucket, and
+ * the sketches of several buckets are merged by adding the counts of equal bins.
+ */
+@Entity
+@Table(
+        name = "environmental_reading_quantile_bins",
+        uniqueConstraints =
+                @UniqueConstraint(
+                        name = "uk_environmental_reading_quantile_bins_sensor_bucket_bin",
+                        columnNames = {
+                            "sensor_id",
+                            "resolution",
+                            "bucket_start",
+                            "metric",
+                            "value_sign",
+                            "bin_index"
+                        }))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvironmentalReadingQuantileBin {
+
+    @Id
+    @UuidV7
+    @Column(name = "id", columnDefinition = "uuid")
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sensor_id", nullable = false)
+    private SensorSystem sensorSystem;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AggregateResolution resolution;
+
+    @Column(nullable = false)
+    private OffsetDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReadingMetric metric;
+
+    @Column(name = "value_sign", nullable = false)
+    private short valueSign;
+
+    @Column(name = "bin_index", nullable = false)
+    private int binIndex;
+
+    @Column(nullable = false)
+    private long readingCount;
+}
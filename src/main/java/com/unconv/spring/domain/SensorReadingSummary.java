@@ -0,0 +1,130 @@
+package com.unconv.spring.domain;
+
+import com.unconv.spring.model.SummarizedReading;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Represents the summary of all stored environmental readings of a sensor system: how many there
+ * are, when the first was taken, and the latest, warmest, coldest, most and least humid of them.
+ * The summary is kept up to date as readings are written, updated and deleted, so that it can be
+ * read by primary key instead of scanning the readings, and is deleted along with the last
+ * reading. Sensor systems without readings have no summary.
+ */
+@Entity
+@Table(name = "sensor_reading_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorReadingSummary {
+
+    @Id
+    @Column(name = "sensor_id", columnDefinition = "uuid")
+    private UUID sensorSystemId;
+
+    @Column(nullable = false)
+    private long readingCount;
+
+    @Column(nullable = false)
+    private OffsetDateTime firstTimestamp;
+
+    @Column(nullable = false)
+    private double latestTemperature;
+
+    @Column(nullable = false)
+    private double latestHumidity;
+
+    @Column(nullable = false)
+    private OffsetDateTime latestTimestamp;
+
+    @Column(nullable = false)
+    private double warmestTemperature;
+
+    @Column(nullable = false)
+    private double warmestHumidity;
+
+    @Column(nullable = false)
+    private OffsetDateTime warmestTimestamp;
+
+    @Column(nullable = false)
+    private double coldestTemperature;
+
+    @Column(nullable = false)
+    private double coldestHumidity;
+
+    @Column(nullable = false)
+    private OffsetDateTime coldestTimestamp;
+
+    @Column(nullable = false)
+    private double mostHumidTemperature;
+
+    @Column(nullable = false)
+    private double mostHumidHumidity;
+
+    @Column(nullable = false)
+    private OffsetDateTime mostHumidTimestamp;
+
+    @Column(nullable = false)
+    private double leastHumidTemperature;
+
+    @Column(nullable = false)
+    private double leastHumidHumidity;
+
+    @Column(nullable = false)
+    private OffsetDateTime leastHumidTimestamp;
+
+    /**
+     * Returns the reading with the latest timestamp.
+     *
+     * @return the latest reading
+     */
+    public SummarizedReading getLatestReading() {
+        return new SummarizedReading(latestTemperature, latestHumidity, latestTimestamp);
+    }
+
+    /**
+     * Returns the reading with the highest temperature.
+     *
+     * @return the warmest reading
+     */
+    public SummarizedReading getWarmestReading() {
+        return new SummarizedReading(warmestTemperature, warmestHumidity, warmestTimestamp);
+    }
+
+    /**
+     * Returns the reading with the lowest temperature.
+     *
+     * @return the coldest reading
+     */
+    public SummarizedReading getColdestReading() {
+        return new SummarizedReading(coldestTemperature, coldestHumidity, coldestTimestamp);
+    }
+
+    /**
+     * Returns the reading with the highest humidity.
+     *
+     * @return the most humid reading
+     */
+    public SummarizedReading getMostHumidReading() {
+        return new SummarizedReading(mostHumidTemperature, mostHumidHumidity, mostHumidTimestamp);
+    }
+
+    /**
+     * Returns the reading with the lowest humidity.
+     *
+     * @return the least humid reading
+     */
+    public SummarizedReading getLeastHumidReading() {
+        return new SummarizedReading(
+                leastHumidTemperature, leastHumidHumidity, leastHumidTimestamp);
+    }
+}
@@ -0,0 +1,42 @@
+package com.unconv.spring.enums;
+
+import java.time.Duration;
+
+/** Enumeration representing the length of the buckets environmental readings are rolled up into. */
+public enum AggregateResolution {
+    /** Indicates buckets of 15 minutes. */
+    QUARTER_HOURLY("15 minutes", Duration.ofMinutes(15)),
+
+    /** Indicates buckets of one hour. */
+    HOURLY("1 hour", Duration.ofHours(1)),
+
+    /** Indicates buckets of one UTC day. */
+    DAILY("1 day", Duration.ofDays(1));
+
+    private final String interval;
+
+    private final Duration duration;
+
+    AggregateResolution(String interval, Duration duration) {
+        this.interval = interval;
+        this.duration = duration;
+    }
+
+    /**
+     * Returns the length of a bucket as a PostgreSQL interval literal.
+     *
+     * @return the interval literal, such as {@code 15 minutes}
+     */
+    public String getInterval() {
+        return interval;
+    }
+
+    /**
+     * Returns the length of a bucket.
+     *
+     * @return the length of a bucket
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+}
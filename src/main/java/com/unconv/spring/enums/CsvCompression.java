@@ -0,0 +1,13 @@
+package com.unconv.spring.enums;
+
+/** Enumeration representing the compression applied to an uploaded CSV file. */
+public enum CsvCompression {
+    /** Indicates that the file is plain CSV text. */
+    NONE,
+
+    /** Indicates that the file is gzip-compressed CSV. */
+    GZIP,
+
+    /** Indicates that the file is zstd-compressed CSV. */
+    ZSTD,
+}
@@ -0,0 +1,19 @@
+package com.unconv.spring.enums;
+
+/** Enumeration representing the lifecycle of an asynchronous CSV import job. */
+public enum CsvImportJobStatus {
+    /** Indicates that the job is waiting for a free worker. */
+    QUEUED,
+
+    /** Indicates that the job is parsing and inserting readings. */
+    RUNNING,
+
+    /** Indicates that every readable record was processed and committed. */
+    COMPLETED,
+
+    /** Indicates that the job stopped on an error and its readings were rolled back. */
+    FAILED,
+
+    /** Indicates that the job was cancelled and its readings were rolled back. */
+    CANCELLED,
+}
@@ -0,0 +1,37 @@
+package com.unconv.spring.enums;
+
+/** Enumeration representing the formats environmental readings can be exported in. */
+public enum ReadingExportFormat {
+    /** Indicates one JSON object per reading, each on its own line. */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /** Indicates CSV with a header row, in the columns accepted by the bulk upload. */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String fileExtension;
+
+    ReadingExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Returns the content type of an export in this format.
+     *
+     * @return the content type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns the extension of an exported file in this format.
+     *
+     * @return the file extension, without the leading dot
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
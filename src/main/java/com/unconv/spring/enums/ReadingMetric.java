@@ -0,0 +1,10 @@
+package com.unconv.spring.enums;
+
+/** Enumeration representing the measured values of an environmental reading. */
+public enum ReadingMetric {
+    /** Indicates the temperature of a reading. */
+    TEMPERATURE,
+
+    /** Indicates the humidity of a reading. */
+    HUMIDITY,
+}
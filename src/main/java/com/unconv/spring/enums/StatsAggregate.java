@@ -0,0 +1,48 @@
+package com.unconv.spring.enums;
+
+/** Enumeration representing the aggregate functions applied to the readings of a stats bucket. */
+public enum StatsAggregate {
+    /** Indicates the mean of the values. */
+    AVG(true),
+
+    /** Indicates the smallest value. */
+    MIN(true),
+
+    /** Indicates the largest value. */
+    MAX(true),
+
+    /** Indicates the sum of the values. */
+    SUM(true),
+
+    /** Indicates the number of readings. */
+    COUNT(true),
+
+    /** Indicates the sample standard deviation of the values. */
+    STDDEV(false),
+
+    /** Indicates the median of the values. */
+    P50(true),
+
+    /** Indicates the 95th percentile of the values. */
+    P95(true),
+
+    /** Indicates the 99th percentile of the values. */
+    P99(true);
+
+    private final boolean rollupSupported;
+
+    StatsAggregate(boolean rollupSupported) {
+        this.rollupSupported = rollupSupported;
+    }
+
+    /**
+     * Returns whether the aggregate can be computed from the rollups of the readings, which keep
+     * only their count, sum, minimum, maximum and quantile sketch. Percentiles computed from the
+     * sketches are estimates within its relative accuracy.
+     *
+     * @return true if the rollups are sufficient
+     */
+    public boolean isRollupSupported() {
+        return rollupSupported;
+    }
+}
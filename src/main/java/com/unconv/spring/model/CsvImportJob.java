@@ -0,0 +1,171 @@
+package com.unconv.spring.model;
+
+import com.unconv.spring.enums.CsvImportJobStatus;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+
+/**
+ * In-memory state of an asynchronous CSV import. Counters are updated by the worker running the
+ * job and may be read concurrently by progress requests.
+ */
+@Getter
+public class CsvImportJob {
+
+    private final UUID id = UUID.randomUUID();
+
+    private final UUID sensorSystemId;
+
+    private final String fileName;
+
+    private final String username;
+
+    private final OffsetDateTime createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+
+    private volatile CsvImportJobStatus status = CsvImportJobStatus.QUEUED;
+
+    private volatile OffsetDateTime startedAt;
+
+    private volatile OffsetDateTime finishedAt;
+
+    private volatile String message;
+
+    private volatile boolean cancelRequested;
+
+    private final AtomicLong parsed = new AtomicLong();
+
+    private final AtomicLong inserted = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Constructs a queued {@link CsvImportJob}.
+     *
+     * @param sensorSystemId the ID of the sensor system the readings belong to
+     * @param fileName the name of the uploaded file
+     * @param username the name of the user who submitted the job
+     */
+    public CsvImportJob(UUID sensorSystemId, String fileName, String username) {
+        this.sensorSystemId = sensorSystemId;
+        this.fileName = fileName;
+        this.username = username;
+    }
+
+    /** Marks the job as picked up by a worker. */
+    public void markRunning() {
+        startedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        status = CsvImportJobStatus.RUNNING;
+    }
+
+    /**
+     * Marks the job as finished with the given status.
+     *
+     * @param finalStatus one of {@code COMPLETED}, {@code FAILED} or {@code CANCELLED}
+     * @param finalMessage a message describing the outcome, or {@code null}
+     */
+    public void markFinished(CsvImportJobStatus finalStatus, String finalMessage) {
+        finishedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        message = finalMessage;
+        status = finalStatus;
+    }
+
+    /**
+     * Returns whether the job has reached a final status.
+     *
+     * @return true if the job is completed, failed or cancelled
+     */
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    /** Asks the worker to stop the job at the next chunk boundary. */
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    /**
+     * Throws if cancellation has been requested, so the surrounding transaction rolls back.
+     *
+     * @throws CancellationException if {@link #requestCancel()} has been called
+     */
+    public void throwIfCancelRequested() {
+        if (cancelRequested) {
+            throw new CancellationException("Import job " + id + " was cancelled");
+        }
+    }
+
+    /**
+     * Records a chunk of successfully parsed readings.
+     *
+     * @param count the number of readings in the chunk
+     */
+    public void recordParsed(long count) {
+        parsed.addAndGet(count);
+    }
+
+    /**
+     * Records a chunk of inserted readings.
+     *
+     * @param count the number of readings inserted
+     */
+    public void recordInserted(long count) {
+        inserted.addAndGet(count);
+    }
+
+    /**
+     * Records a record that could not be parsed and was skipped.
+     *
+     * @param reason the reason the record was rejected, kept as the job's latest message
+     */
+    public void recordRejected(String reason) {
+        parsed.incrementAndGet();
+        rejected.incrementAndGet();
+        message = reason;
+    }
+
+    /**
+     * Returns the number of records read so far, including rejected ones.
+     *
+     * @return the number of parsed records
+     */
+    public long getParsed() {
+        return parsed.get();
+    }
+
+    /**
+     * Returns the number of readings inserted so far.
+     *
+     * @return the number of inserted readings
+     */
+    public long getInserted() {
+        return inserted.get();
+    }
+
+    /**
+     * Returns the number of records rejected so far.
+     *
+     * @return the number of rejected records
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Returns the average number of records parsed per second since the job started.
+     *
+     * @return the parse rate, or 0 if the job has not started
+     */
+    public long getRowsPerSecond() {
+        OffsetDateTime start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        OffsetDateTime end = finishedAt != null ? finishedAt : OffsetDateTime.now(ZoneOffset.UTC);
+        long elapsedMillis = Math.max(Duration.between(start, end).toMillis(), 1);
+        return getParsed() * 1000 / elapsedMillis;
+    }
+}
@@ -0,0 +1,14 @@
+package com.unconv.spring.model;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Outcome of dropping the monthly partitions of environmental readings.
+ *
+ * @param months The months whose partition was dropped, in ascending order
+ * @param sensorSystemIds The IDs of the sensor systems that had readings in those partitions
+ */
+public record DroppedPartitions(List<YearMonth> months, Set<UUID> sensorSystemIds) {}
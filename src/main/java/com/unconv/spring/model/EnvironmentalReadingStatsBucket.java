@@ -0,0 +1,17 @@
+package com.unconv.spring.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Summary of the environmental readings of a sensor system that fall into one stats bucket.
+ *
+ * @param bucketStart The UTC start of the bucket
+ * @param readingCount The number of readings in the bucket
+ * @param temperature The summary of the temperatures of the readings
+ * @param humidity The summary of the humidities of the readings
+ */
+public record EnvironmentalReadingStatsBucket(
+        OffsetDateTime bucketStart,
+        long readingCount,
+        MetricSummary temperature,
+        MetricSummary humidity) {}
@@ -0,0 +1,14 @@
+package com.unconv.spring.model;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Number of environmental readings of a sensor system that fall into one UTC hour.
+ *
+ * @param sensorSystemId The ID of the sensor system
+ * @param hourStart The UTC start of the hour
+ * @param readingCount The number of readings in the hour
+ */
+public record HourlyReadingCount(
+        UUID sensorSystemId, OffsetDateTime hourStart, long readingCount) {}
@@ -0,0 +1,22 @@
+package com.unconv.spring.model;
+
+/**
+ * Summary of the values of one metric over the environmental readings of a stats bucket.
+ *
+ * @param sum The sum of the values
+ * @param min The smallest value
+ * @param max The largest value
+ * @param standardDeviation The sample standard deviation of the values, or {@code null} if it was
+ *     not computed or the bucket holds a single reading
+ * @param p50 The median of the values, or {@code null} if it was not computed
+ * @param p95 The 95th percentile of the values, or {@code null} if it was not computed
+ * @param p99 The 99th percentile of the values, or {@code null} if it was not computed
+ */
+public record MetricSummary(
+        double sum,
+        double min,
+        double max,
+        Double standardDeviation,
+        Double p50,
+        Double p95,
+        Double p99) {}
@@ -0,0 +1,79 @@
+package com.unconv.spring.model;
+
+import static com.unconv.spring.consts.MessageConstants.ENVT_CURSOR_REJ_INVALID;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a listing of environmental readings ordered by timestamp and then ID, from which the
+ * next or the previous page continues. Clients receive it as an opaque string, which carries the
+ * order of the listing so that following pages keep it. Timestamps are kept at microsecond
+ * precision, the precision the database stores.
+ *
+ * @param timestamp The timestamp of the reading the page continues from
+ * @param id The ID of the reading the page continues from
+ * @param descending Whether the listing is ordered from the newest reading to the oldest
+ * @param backward Whether the page before the reading is requested rather than the page after it
+ */
+public record ReadingPageCursor(
+        OffsetDateTime timestamp, UUID id, boolean descending, boolean backward) {
+
+    private static final String SEPARATOR = "~";
+
+    /**
+     * Encodes the cursor as an opaque, URL safe string.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String cursor =
+                (descending ? "D" : "A")
+                        + (backward ? "P" : "N")
+                        + SEPARATOR
+                        + ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.toInstant())
+                        + SEPARATOR
+                        + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(cursor.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor encoded by {@link #encode()}.
+     *
+     * @param cursor the encoded cursor
+     * @return the decoded cursor, with a UTC timestamp
+     * @throws IllegalArgumentException if the string is not an encoded cursor
+     */
+    public static ReadingPageCursor decode(String cursor) {
+        String[] parts;
+        try {
+            parts =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII)
+                            .split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(ENVT_CURSOR_REJ_INVALID, e);
+        }
+        if (parts.length != 3 || !parts[0].matches("[AD][NP]")) {
+            throw new IllegalArgumentException(ENVT_CURSOR_REJ_INVALID);
+        }
+        try {
+            return new ReadingPageCursor(
+                    OffsetDateTime.ofInstant(
+                            Instant.EPOCH.plus(Long.parseLong(parts[1]), ChronoUnit.MICROS),
+                            ZoneOffset.UTC),
+                    UUID.fromString(parts[2]),
+                    parts[0].charAt(0) == 'D',
+                    parts[0].charAt(1) == 'P');
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            throw new IllegalArgumentException(ENVT_CURSOR_REJ_INVALID, e);
+        }
+    }
+}
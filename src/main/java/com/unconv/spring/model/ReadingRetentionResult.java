@@ -0,0 +1,9 @@
+package com.unconv.spring.model;
+
+/**
+ * Outcome of applying the retention policies of environmental readings.
+ *
+ * @param compactedReadings The number of raw readings compacted into aggregates and deleted
+ * @param deletedAggregates The number of expired aggregates deleted
+ */
+public record ReadingRetentionResult(long compactedReadings, long deletedAggregates) {}
@@ -0,0 +1,24 @@
+package com.unconv.spring.model;
+
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.enums.StatsAggregate;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Set;
+
+/**
+ * Query for the stats of the environmental readings of a sensor system, bucketed over a time range.
+ *
+ * @param start The inclusive start of the range
+ * @param end The exclusive end of the range
+ * @param interval The length of each bucket; buckets are aligned to multiples of it since the Unix
+ *     epoch
+ * @param metrics The metrics to summarize
+ * @param aggregates The aggregate functions to apply to each metric
+ */
+public record ReadingStatsQuery(
+        OffsetDateTime start,
+        OffsetDateTime end,
+        Duration interval,
+        Set<ReadingMetric> metrics,
+        Set<StatsAggregate> aggregates) {}
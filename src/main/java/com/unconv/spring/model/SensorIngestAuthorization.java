@@ -0,0 +1,15 @@
+package com.unconv.spring.model;
+
+import com.unconv.spring.enums.SensorStatus;
+import java.util.UUID;
+
+/**
+ * The part of a SensorSystem that decides whether readings may be recorded against it.
+ *
+ * @param sensorSystemId The ID of the SensorSystem.
+ * @param ownerUsername The username of the UnconvUser owning the SensorSystem.
+ * @param deleted Whether the SensorSystem is deleted.
+ * @param sensorStatus The status of the SensorSystem.
+ */
+public record SensorIngestAuthorization(
+        UUID sensorSystemId, String ownerUsername, boolean deleted, SensorStatus sensorStatus) {}
@@ -0,0 +1,30 @@
+package com.unconv.spring.model;
+
+import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import java.time.OffsetDateTime;
+
+/**
+ * One of the environmental readings kept in the summary of a sensor system.
+ *
+ * @param temperature The temperature reading in degrees Celsius
+ * @param humidity The humidity reading as a percentage
+ * @param timestamp The timestamp of the reading
+ */
+public record SummarizedReading(double temperature, double humidity, OffsetDateTime timestamp)
+        implements EnvironmentalReadingProjection {
+
+    @Override
+    public double getTemperature() {
+        return temperature;
+    }
+
+    @Override
+    public double getHumidity() {
+        return humidity;
+    }
+
+    @Override
+    public OffsetDateTime getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,50 @@
+package com.unconv.spring.model.response;
+
+import java.util.UUID;
+
+/**
+ * Outcome of a single reading submitted as part of a batch ingest request.
+ *
+ * @param index The position of the reading in the submitted batch.
+ * @param accepted Whether the reading was accepted and stored.
+ * @param id The ID assigned to the stored reading, or {@code null} if it was rejected or was a
+ *     duplicate of a reading already stored.
+ * @param message A message describing the outcome.
+ */
+public record BatchIngestItemResult(int index, boolean accepted, UUID id, String message) {
+
+    /**
+     * Creates a result for a reading that was accepted and stored.
+     *
+     * @param index The position of the reading in the submitted batch.
+     * @param id The ID assigned to the stored reading.
+     * @param message A message describing the outcome.
+     * @return An accepted {@code BatchIngestItemResult}.
+     */
+    public static BatchIngestItemResult accepted(int index, UUID id, String message) {
+        return new BatchIngestItemResult(index, true, id, message);
+    }
+
+    /**
+     * Creates a result for a reading that was accepted but not stored again, because the sensor
+     * system already has a reading at the same timestamp.
+     *
+     * @param index The position of the reading in the submitted batch.
+     * @param message A message describing the outcome.
+     * @return An accepted {@code BatchIngestItemResult} without an ID.
+     */
+    public static BatchIngestItemResult duplicate(int index, String message) {
+        return new BatchIngestItemResult(index, true, null, message);
+    }
+
+    /**
+     * Creates a result for a reading that was rejected.
+     *
+     * @param index The position of the reading in the submitted batch.
+     * @param message The reason the reading was rejected.
+     * @return A rejected {@code BatchIngestItemResult}.
+     */
+    public static BatchIngestItemResult rejected(int index, String message) {
+        return new BatchIngestItemResult(index, false, null, message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.unconv.spring.model.response;
+
+import java.util.List;
+
+/**
+ * Summary of a batch ingest request, with one {@link BatchIngestItemResult} per submitted reading
+ * in submission order.
+ *
+ * @param acceptedCount The number of readings that were accepted and stored.
+ * @param rejectedCount The number of readings that were rejected.
+ * @param results The per-reading outcomes.
+ */
+public record BatchIngestResponse(
+        int acceptedCount, int rejectedCount, List<BatchIngestItemResult> results) {
+
+    /**
+     * Constructs a {@code BatchIngestResponse} by counting the accepted and rejected readings in
+     * the given results.
+     *
+     * @param results The per-reading outcomes.
+     */
+    public BatchIngestResponse(List<BatchIngestItemResult> results) {
+        this(
+                (int) results.stream().filter(BatchIngestItemResult::accepted).count(),
+                (int) results.stream().filter(result -> !result.accepted()).count(),
+                results);
+    }
+}
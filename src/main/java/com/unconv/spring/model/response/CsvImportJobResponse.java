@@ -0,0 +1,59 @@
+package com.unconv.spring.model.response;
+
+import com.unconv.spring.enums.CsvImportJobStatus;
+import com.unconv.spring.model.CsvImportJob;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Snapshot of the progress of an asynchronous CSV import job.
+ *
+ * @param id The ID of the job.
+ * @param sensorSystemId The ID of the sensor system the readings belong to.
+ * @param fileName The name of the uploaded file.
+ * @param status The current status of the job.
+ * @param parsed The number of records read so far, including rejected ones.
+ * @param inserted The number of readings inserted so far.
+ * @param rejected The number of records rejected so far.
+ * @param rowsPerSecond The average number of records parsed per second.
+ * @param createdAt When the job was submitted.
+ * @param startedAt When a worker picked the job up, or {@code null} while queued.
+ * @param finishedAt When the job reached its final status, or {@code null} while unfinished.
+ * @param message The latest rejection reason or the outcome of the job, if any.
+ */
+public record CsvImportJobResponse(
+        UUID id,
+        UUID sensorSystemId,
+        String fileName,
+        CsvImportJobStatus status,
+        long parsed,
+        long inserted,
+        long rejected,
+        long rowsPerSecond,
+        OffsetDateTime createdAt,
+        OffsetDateTime startedAt,
+        OffsetDateTime finishedAt,
+        String message) {
+
+    /**
+     * Creates a snapshot of the given job.
+     *
+     * @param csvImportJob The job to describe.
+     * @return A {@code CsvImportJobResponse} reflecting the job's current state.
+     */
+    public static CsvImportJobResponse of(CsvImportJob csvImportJob) {
+        return new CsvImportJobResponse(
+                csvImportJob.getId(),
+                csvImportJob.getSensorSystemId(),
+                csvImportJob.getFileName(),
+                csvImportJob.getStatus(),
+                csvImportJob.getParsed(),
+                csvImportJob.getInserted(),
+                csvImportJob.getRejected(),
+                csvImportJob.getRowsPerSecond(),
+                csvImportJob.getCreatedAt(),
+                csvImportJob.getStartedAt(),
+                csvImportJob.getFinishedAt(),
+                csvImportJob.getMessage());
+    }
+}
@@ -0,0 +1,62 @@
+package com.unconv.spring.model.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * A generic class representing a page of a listing navigated with cursors rather than page
+ * numbers, so that every page costs the same to fetch however deep it lies.
+ *
+ * @param <T> The type of data contained in the page.
+ */
+public record CursorPagedResult<T>(
+        /*
+         The list of data elements for the current page.
+        */
+        List<T> data,
+
+        /*
+         * The total number of elements across all pages, or null if it is not known.
+         */
+        Long totalElements,
+
+        /*
+         * The opaque cursor of the next page, or null if this is the last page.
+         */
+        String nextCursor,
+
+        /*
+         * The opaque cursor of the previous page, or null if this is the first page.
+         */
+        String previousCursor,
+
+        /*
+         * Indicates whether there is a next page.
+         */
+        @JsonProperty("hasNext") boolean hasNext,
+
+        /*
+         * Indicates whether there is a previous page.
+         */
+        @JsonProperty("hasPrevious") boolean hasPrevious) {
+
+    /**
+     * Constructs a {@code CursorPagedResult} from the data of a page and the cursors around it.
+     *
+     * @param data The list of data elements for the current page.
+     * @param totalElements The total number of elements across all pages, or null if it is not
+     *     known.
+     * @param nextCursor The cursor of the next page, or null if there is none.
+     * @param previousCursor The cursor of the previous page, or null if there is none.
+     */
+    public CursorPagedResult(
+            List<T> data, Long totalElements, String nextCursor, String previousCursor) {
+        this(
+                data,
+                totalElements,
+                nextCursor,
+                previousCursor,
+                nextCursor != null,
+                previousCursor != null);
+    }
+}
@@ -0,0 +1,27 @@
+package com.unconv.spring.model.response;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Environmental readings of a sensor system over a time range, laid out as parallel arrays for
+ * charting. The sensor system is described once instead of with every reading, and the values of
+ * the reading at a given index are found at that index of each array.
+ *
+ * @param sensorSystemId The ID of the sensor system.
+ * @param sensorName The name of the sensor system.
+ * @param start The start of the range.
+ * @param end The end of the range.
+ * @param timestamps The timestamps of the readings in milliseconds since the Unix epoch, in
+ *     ascending order.
+ * @param temperatures The temperatures of the readings in degrees Celsius.
+ * @param humidities The humidities of the readings as percentages.
+ */
+public record ReadingSeriesResponse(
+        UUID sensorSystemId,
+        String sensorName,
+        OffsetDateTime start,
+        OffsetDateTime end,
+        long[] timestamps,
+        double[] temperatures,
+        double[] humidities) {}
@@ -0,0 +1,18 @@
+package com.unconv.spring.model.response;
+
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.enums.StatsAggregate;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Requested aggregates of the environmental readings that fall into one stats bucket.
+ *
+ * @param bucketStart The UTC start of the bucket.
+ * @param readingCount The number of readings in the bucket.
+ * @param values The value of each requested aggregate, per requested metric.
+ */
+public record ReadingStatsBucket(
+        OffsetDateTime bucketStart,
+        long readingCount,
+        Map<ReadingMetric, Map<StatsAggregate, Double>> values) {}
@@ -0,0 +1,24 @@
+package com.unconv.spring.model.response;
+
+import com.unconv.spring.enums.AggregateResolution;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Stats of the environmental readings of a sensor system over a time range. Only buckets holding
+ * readings are listed.
+ *
+ * @param start The inclusive start of the range.
+ * @param end The exclusive end of the range.
+ * @param interval The length of each bucket.
+ * @param rollupResolution The resolution of the rollups the stats were computed from, or {@code
+ *     null} if they were computed from the raw readings.
+ * @param buckets The non-empty buckets in ascending order of their start.
+ */
+public record ReadingStatsResponse(
+        OffsetDateTime start,
+        OffsetDateTime end,
+        Duration interval,
+        AggregateResolution rollupResolution,
+        List<ReadingStatsBucket> buckets) {}
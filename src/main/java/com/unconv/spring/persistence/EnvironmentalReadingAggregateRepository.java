@@ -0,0 +1,50 @@
+package com.unconv.spring.persistence;
+
+import com.unconv.spring.domain.EnvironmentalReadingAggregate;
+import com.unconv.spring.enums.AggregateResolution;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for accessing {@link EnvironmentalReadingAggregate} entities in the
+ * database.
+ */
+public interface EnvironmentalReadingAggregateRepository
+        extends JpaRepository<EnvironmentalReadingAggregate, UUID>,
+                EnvironmentalReadingAggregateRepositoryCustom {
+
+    /**
+     * Retrieves the aggregates of a specific sensor system at a given resolution.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param resolution the length of the aggregated buckets
+     * @return a list of aggregates ordered by bucket start
+     */
+    List<EnvironmentalReadingAggregate> findBySensorSystemIdAndResolutionOrderByBucketStart(
+            UUID sensorSystemId, AggregateResolution resolution);
+
+    /**
+     * Retrieves the aggregates of a specific sensor system at a given resolution whose bucket
+     * starts at or after a given time.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param resolution the length of the aggregated buckets
+     * @param bucketStart the earliest bucket start to include
+     * @return a list of aggregates ordered by bucket start
+     */
+    List<EnvironmentalReadingAggregate>
+            findBySensorSystemIdAndResolutionAndBucketStartGreaterThanEqualOrderByBucketStart(
+                    UUID sensorSystemId,
+                    AggregateResolution resolution,
+                    OffsetDateTime bucketStart);
+
+    /**
+     * Checks whether a specific sensor system has any aggregates.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @return true if aggregates of the sensor system exist, false otherwise
+     */
+    boolean existsBySensorSystemId(UUID sensorSystemId);
+}
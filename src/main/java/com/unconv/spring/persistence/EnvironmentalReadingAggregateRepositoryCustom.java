@@ -0,0 +1,75 @@
+package com.unconv.spring.persistence;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.EnvironmentalReadingAggregate;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.model.EnvironmentalReadingStatsBucket;
+import com.unconv.spring.model.HourlyReadingCount;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Custom repository fragment that keeps the {@link EnvironmentalReadingAggregate} rollups of every
+ * resolution in step with the environmental readings written, updated and deleted, and summarizes
+ * them into coarser buckets.
+ */
+public interface EnvironmentalReadingAggregateRepositoryCustom {
+
+    /**
+     * Adds stored environmental readings to the aggregates and quantile bins of their buckets at
+     * every resolution and to the summaries of their sensor systems, creating the rows that do not
+     * exist yet.
+     *
+     * @param environmentalReadings the readings that were stored; each must reference a persisted
+     *     sensor system
+     */
+    void mergeReadings(List<EnvironmentalReading> environmentalReadings);
+
+    /**
+     * Takes environmental readings that are no longer stored, or were stored with other values,
+     * out of the aggregates and quantile bins of their buckets at every resolution and out of the
+     * summaries of their sensor systems. Aggregates, bins and summaries left without readings are
+     * deleted. The readings must already be deleted or updated in the database.
+     *
+     * @param environmentalReadings the readings as they were stored
+     */
+    void removeReadings(List<EnvironmentalReading> environmentalReadings);
+
+    /**
+     * Merges the aggregates of one resolution that start from {@code start} up to {@code end} into
+     * buckets of the given length, aligned to multiples of it since the Unix epoch. Standard
+     * deviations are not available from the aggregates and are left out. Percentiles are estimated
+     * from the merged quantile bins, within the relative accuracy of {@link
+     * com.unconv.spring.utils.QuantileSketch}. Only the non-empty buckets are returned.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param resolution the resolution of the aggregates to merge; the interval must be a multiple
+     *     of it
+     * @param start the inclusive start of the range
+     * @param end the exclusive end of the range
+     * @param interval the length of each bucket
+     * @param percentiles whether to estimate the percentiles of the metrics; left out otherwise
+     * @return the buckets in ascending order of their start
+     * @throws UnsupportedOperationException if the data source is not PostgreSQL, where the
+     *     aggregates are not maintained
+     */
+    List<EnvironmentalReadingStatsBucket> findStatsBuckets(
+            UUID sensorSystemId,
+            AggregateResolution resolution,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            Duration interval,
+            boolean percentiles);
+
+    /**
+     * Retrieves the reading counts of the hourly aggregates of all sensor systems whose bucket
+     * starts from {@code start} up to {@code end}.
+     *
+     * @param start the inclusive start of the range
+     * @param end the exclusive end of the range
+     * @return the counts of the non-empty hours
+     */
+    List<HourlyReadingCount> findHourlyReadingCounts(OffsetDateTime start, OffsetDateTime end);
+}
@@ -0,0 +1,485 @@
+package com.unconv.spring.persistence;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.model.EnvironmentalReadingStatsBucket;
+import com.unconv.spring.model.HourlyReadingCount;
+import com.unconv.spring.model.MetricSummary;
+import com.unconv.spring.utils.QuantileSketch;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * PostgreSQL implementation of {@link EnvironmentalReadingAggregateRepositoryCustom}. Picked up by
+ * Spring Data as a fragment of {@link EnvironmentalReadingAggregateRepository}. The readings are
+ * bound as arrays and unnested into a {@code batch} common table expression, so that a whole batch
+ * is rolled up into every resolution by a single statement. Along with each aggregate, the values
+ * of each metric are counted in the bins of a {@link QuantileSketch}, one row per non-empty bin.
+ * The same statement updates the {@link com.unconv.spring.domain.SensorReadingSummary} of each
+ * sensor system. Buckets are aligned to UTC.
+ */
+public class EnvironmentalReadingAggregateRepositoryCustomImpl
+        implements EnvironmentalReadingAggregateRepositoryCustom {
+
+    private static final String SET_UTC_TIME_ZONE_SQL = "SET LOCAL TIME ZONE 'UTC'";
+
+    private static final String AGGREGATE_COLUMNS =
+            "id, sensor_id, resolution, bucket_start, reading_count, min_temperature,"
+                    + " max_temperature, sum_temperature, min_humidity, max_humidity, sum_humidity";
+
+    private static final String QUANTILE_BIN_COLUMNS =
+            "id, sensor_id, resolution, bucket_start, metric, value_sign, bin_index, reading_count";
+
+    /** Pairs every reading of the {@code batch} with each of its metrics. */
+    private static final String METRIC_VALUES_SQL =
+            " CROSS JOIN LATERAL (VALUES ('TEMPERATURE', temperature), ('HUMIDITY', humidity))"
+                    + " AS m(metric, value)";
+
+    /** Maps a metric value to its bin, as {@link QuantileSketch#signOf} and {@code binOf} do. */
+    private static final String QUANTILE_BIN_SQL =
+            "CAST(CASE WHEN abs(m.value) < "
+                    + QuantileSketch.MIN_INDEXABLE_VALUE
+                    + " THEN 0 ELSE sign(m.value) END AS SMALLINT) AS value_sign,"
+                    + " CASE WHEN abs(m.value) < "
+                    + QuantileSketch.MIN_INDEXABLE_VALUE
+                    + " THEN 0 ELSE CAST(ceil(ln(abs(m.value)) / "
+                    + QuantileSketch.LOG_GAMMA
+                    + ") AS INTEGER) END AS bin_index";
+
+    private static final String UNNEST_READINGS_SQL =
+            "SELECT * FROM unnest(CAST(? AS UUID[]), CAST(? AS TIMESTAMPTZ[]),"
+                    + " CAST(? AS FLOAT8[]), CAST(? AS FLOAT8[]))"
+                    + " AS b(sensor_id, timestamp, temperature, humidity)";
+
+    private static final String MERGE_READINGS_SQL =
+            "WITH batch AS (" + UNNEST_READINGS_SQL + ")" + mergeBatchSql() + " SELECT 1";
+
+    private static final String DELETE_EMPTY_AGGREGATES_SQL =
+            "DELETE FROM environmental_reading_aggregates"
+                    + " WHERE sensor_id = ANY(CAST(? AS UUID[])) AND reading_count <= 0";
+
+    private static final String DELETE_EMPTY_QUANTILE_BINS_SQL =
+            "DELETE FROM environmental_reading_quantile_bins"
+                    + " WHERE sensor_id = ANY(CAST(? AS UUID[])) AND reading_count <= 0";
+
+    private static final String REMOVE_FROM_SUMMARIES_SQL =
+            "WITH batch AS ("
+                    + UNNEST_READINGS_SQL
+                    + ")"
+                    + SensorReadingSummaryRepositoryCustomImpl.removeBatchSql();
+
+    private static final String DELETE_EMPTY_SUMMARIES_SQL =
+            "DELETE FROM sensor_reading_summaries"
+                    + " WHERE sensor_id = ANY(CAST(? AS UUID[])) AND reading_count <= 0";
+
+    private static final String FIND_STATS_BUCKETS_SQL =
+            "SELECT CAST(extract(epoch FROM date_bin(make_interval(secs => ?), bucket_start,"
+                    + " '1970-01-01')) AS BIGINT) AS stats_bucket_start, sum(reading_count),"
+                    + " sum(sum_temperature), min(min_temperature), max(max_temperature),"
+                    + " sum(sum_humidity), min(min_humidity), max(max_humidity)"
+                    + " FROM environmental_reading_aggregates"
+                    + " WHERE sensor_id = ? AND resolution = ?"
+                    + " AND bucket_start >= ? AND bucket_start < ?"
+                    + " GROUP BY stats_bucket_start ORDER BY stats_bucket_start";
+
+    private static final String FIND_QUANTILE_BINS_SQL =
+            "SELECT CAST(extract(epoch FROM date_bin(make_interval(secs => ?), bucket_start,"
+                    + " '1970-01-01')) AS BIGINT) AS stats_bucket_start, metric, value_sign,"
+                    + " bin_index, sum(reading_count) FROM environmental_reading_quantile_bins"
+                    + " WHERE sensor_id = ? AND resolution = ?"
+                    + " AND bucket_start >= ? AND bucket_start < ?"
+                    + " GROUP BY stats_bucket_start, metric, value_sign, bin_index";
+
+    private static final String FIND_HOURLY_READING_COUNTS_SQL =
+            "SELECT sensor_id, CAST(extract(epoch FROM bucket_start) AS BIGINT), reading_count"
+                    + " FROM environmental_reading_aggregates WHERE resolution = '"
+                    + AggregateResolution.HOURLY.name()
+                    + "' AND bucket_start >= ? AND bucket_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    /**
+     * Constructs an {@link EnvironmentalReadingAggregateRepositoryCustomImpl} with the given {@link
+     * JdbcTemplate}.
+     *
+     * @param jdbcTemplate the template used to execute the rollup statements
+     */
+    public EnvironmentalReadingAggregateRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds stored environmental readings to the aggregates and quantile bins of their buckets at
+     * every resolution and to the summaries of their sensor systems, creating the rows that do not
+     * exist yet. The statements run in the current transaction, whose session time zone is set to
+     * UTC.
+     *
+     * @param environmentalReadings the readings that were stored; each must reference a persisted
+     *     sensor system
+     */
+    @Override
+    public void mergeReadings(List<EnvironmentalReading> environmentalReadings) {
+        if (environmentalReadings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute(SET_UTC_TIME_ZONE_SQL);
+        execute(MERGE_READINGS_SQL, environmentalReadings);
+    }
+
+    /**
+     * Takes environmental readings out of the aggregates of their buckets at every resolution. The
+     * counts and sums are decremented; a minimum or maximum the readings may have set is
+     * recomputed from the readings still stored in the bucket, and kept as it is if none are left.
+     * The counts of the quantile bins are decremented too, and so are the summaries of the sensor
+     * systems, whose kept readings are looked up again if they were removed. Aggregates, bins and
+     * summaries left without readings are deleted.
+     *
+     * @param environmentalReadings the readings as they were stored
+     */
+    @Override
+    public void removeReadings(List<EnvironmentalReading> environmentalReadings) {
+        if (environmentalReadings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute(SET_UTC_TIME_ZONE_SQL);
+        for (AggregateResolution resolution : AggregateResolution.values()) {
+            execute(removeReadingsSql(resolution), environmentalReadings);
+            execute(removeQuantileBinsSql(resolution), environmentalReadings);
+        }
+        execute(REMOVE_FROM_SUMMARIES_SQL, environmentalReadings);
+        UUID[] sensorSystemIds =
+                environmentalReadings.stream()
+                        .map(environmentalReading -> environmentalReading.getSensorSystem().getId())
+                        .distinct()
+                        .toArray(UUID[]::new);
+        deleteEmpty(DELETE_EMPTY_AGGREGATES_SQL, sensorSystemIds);
+        deleteEmpty(DELETE_EMPTY_QUANTILE_BINS_SQL, sensorSystemIds);
+        deleteEmpty(DELETE_EMPTY_SUMMARIES_SQL, sensorSystemIds);
+    }
+
+    /**
+     * Merges the aggregates of one resolution into coarser buckets with a single grouped query, in
+     * a session whose time zone is set to UTC. If percentiles are requested, the quantile bins of
+     * the same buckets are summed by a second grouped query and merged into a sketch per bucket
+     * and metric.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param resolution the resolution of the aggregates to merge
+     * @param start the inclusive start of the range
+     * @param end the exclusive end of the range
+     * @param interval the length of each bucket
+     * @param percentiles whether to estimate the percentiles of the metrics
+     * @return the buckets in ascending order of their start
+     * @throws UnsupportedOperationException if the data source is not PostgreSQL, where the
+     *     aggregates are not maintained
+     */
+    @Override
+    public List<EnvironmentalReadingStatsBucket> findStatsBuckets(
+            UUID sensorSystemId,
+            AggregateResolution resolution,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            Duration interval,
+            boolean percentiles) {
+        if (!isPostgres()) {
+            throw new UnsupportedOperationException(
+                    "Aggregates are only maintained on PostgreSQL");
+        }
+        jdbcTemplate.execute(SET_UTC_TIME_ZONE_SQL);
+        Map<Long, Map<ReadingMetric, QuantileSketch>> sketches =
+                percentiles
+                        ? findQuantileSketches(sensorSystemId, resolution, start, end, interval)
+                        : Map.of();
+        return jdbcTemplate.query(
+                FIND_STATS_BUCKETS_SQL,
+                (rs, rowNum) -> {
+                    Map<ReadingMetric, QuantileSketch> bucketSketches =
+                            sketches.getOrDefault(rs.getLong(1), Map.of());
+                    return new EnvironmentalReadingStatsBucket(
+                            OffsetDateTime.ofInstant(
+                                    Instant.ofEpochSecond(rs.getLong(1)), ZoneOffset.UTC),
+                            rs.getLong(2),
+                            metricSummary(
+                                    rs.getDouble(3),
+                                    rs.getDouble(4),
+                                    rs.getDouble(5),
+                                    bucketSketches.get(ReadingMetric.TEMPERATURE)),
+                            metricSummary(
+                                    rs.getDouble(6),
+                                    rs.getDouble(7),
+                                    rs.getDouble(8),
+                                    bucketSketches.get(ReadingMetric.HUMIDITY)));
+                },
+                interval.getSeconds(),
+                sensorSystemId,
+                resolution.name(),
+                start.withOffsetSameInstant(ZoneOffset.UTC),
+                end.withOffsetSameInstant(ZoneOffset.UTC));
+    }
+
+    /**
+     * Retrieves the reading counts of the hourly aggregates of all sensor systems in the range
+     * with a single query.
+     *
+     * @param start the inclusive start of the range
+     * @param end the exclusive end of the range
+     * @return the counts of the non-empty hours
+     */
+    @Override
+    public List<HourlyReadingCount> findHourlyReadingCounts(
+            OffsetDateTime start, OffsetDateTime end) {
+        return jdbcTemplate.query(
+                FIND_HOURLY_READING_COUNTS_SQL,
+                (rs, rowNum) ->
+                        new HourlyReadingCount(
+                                rs.getObject(1, UUID.class),
+                                OffsetDateTime.ofInstant(
+                                        Instant.ofEpochSecond(rs.getLong(2)), ZoneOffset.UTC),
+                                rs.getLong(3)),
+                start.withOffsetSameInstant(ZoneOffset.UTC),
+                end.withOffsetSameInstant(ZoneOffset.UTC));
+    }
+
+    /**
+     * Returns the common table expressions that merge the rows of a preceding {@code batch}
+     * expression, with columns {@code sensor_id}, {@code timestamp}, {@code temperature} and
+     * {@code humidity}, into the aggregates and quantile bins of every resolution and into the
+     * summaries of their sensor systems. The session time zone must be UTC.
+     *
+     * @return the expressions, each preceded by a comma
+     */
+    static String mergeBatchSql() {
+        StringBuilder sql = new StringBuilder();
+        for (AggregateResolution resolution : AggregateResolution.values()) {
+            sql.append(", ")
+                    .append(resolution.name().toLowerCase(Locale.ROOT))
+                    .append(" AS (")
+                    .append(mergeAggregatesSql(resolution))
+                    .append("), ")
+                    .append(resolution.name().toLowerCase(Locale.ROOT))
+                    .append("_bins AS (")
+                    .append(mergeQuantileBinsSql(resolution))
+                    .append(')');
+        }
+        return sql.append(SensorReadingSummaryRepositoryCustomImpl.mergeBatchSql()).toString();
+    }
+
+    /** Sums the quantile bins of every stats bucket, keyed by its start in epoch seconds. */
+    private Map<Long, Map<ReadingMetric, QuantileSketch>> findQuantileSketches(
+            UUID sensorSystemId,
+            AggregateResolution resolution,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            Duration interval) {
+        Map<Long, Map<ReadingMetric, QuantileSketch>> sketches = new HashMap<>();
+        jdbcTemplate.query(
+                FIND_QUANTILE_BINS_SQL,
+                (RowCallbackHandler)
+                        rs -> {
+                            Map<ReadingMetric, QuantileSketch> bucketSketches =
+                                    sketches.computeIfAbsent(
+                                            rs.getLong(1),
+                                            bucket -> new EnumMap<>(ReadingMetric.class));
+                            bucketSketches
+                                    .computeIfAbsent(
+                                            ReadingMetric.valueOf(rs.getString(2)),
+                                            metric -> new QuantileSketch())
+                                    .addBin(rs.getInt(3), rs.getInt(4), rs.getLong(5));
+                        },
+                interval.getSeconds(),
+                sensorSystemId,
+                resolution.name(),
+                start.withOffsetSameInstant(ZoneOffset.UTC),
+                end.withOffsetSameInstant(ZoneOffset.UTC));
+        return sketches;
+    }
+
+    private static MetricSummary metricSummary(
+            double sum, double min, double max, QuantileSketch sketch) {
+        if (sketch == null) {
+            return new MetricSummary(sum, min, max, null, null, null, null);
+        }
+        return new MetricSummary(
+                sum,
+                min,
+                max,
+                null,
+                sketch.getQuantile(0.5),
+                sketch.getQuantile(0.95),
+                sketch.getQuantile(0.99));
+    }
+
+    private void deleteEmpty(String sql, UUID[] sensorSystemIds) {
+        jdbcTemplate.execute(
+                sql,
+                (PreparedStatementCallback<Integer>)
+                        ps -> {
+                            ps.setArray(
+                                    1, ps.getConnection().createArrayOf("uuid", sensorSystemIds));
+                            return ps.executeUpdate();
+                        });
+    }
+
+    private void execute(String sql, List<EnvironmentalReading> environmentalReadings) {
+        jdbcTemplate.execute(
+                sql,
+                (PreparedStatementCallback<Boolean>)
+                        ps -> {
+                            bindReadings(ps, environmentalReadings);
+                            return ps.execute();
+                        });
+    }
+
+    private static void bindReadings(
+            PreparedStatement ps, List<EnvironmentalReading> environmentalReadings)
+            throws SQLException {
+        int size = environmentalReadings.size();
+        UUID[] sensorSystemIds = new UUID[size];
+        String[] timestamps = new String[size];
+        Double[] temperatures = new Double[size];
+        Double[] humidities = new Double[size];
+        for (int i = 0; i < size; i++) {
+            EnvironmentalReading environmentalReading = environmentalReadings.get(i);
+            sensorSystemIds[i] = environmentalReading.getSensorSystem().getId();
+            timestamps[i] =
+                    environmentalReading
+                            .getTimestamp()
+                            .withOffsetSameInstant(ZoneOffset.UTC)
+                            .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            temperatures[i] = environmentalReading.getTemperature();
+            humidities[i] = environmentalReading.getHumidity();
+        }
+        Connection connection = ps.getConnection();
+        ps.setArray(1, connection.createArrayOf("uuid", sensorSystemIds));
+        ps.setArray(2, connection.createArrayOf("timestamptz", timestamps));
+        ps.setArray(3, connection.createArrayOf("float8", temperatures));
+        ps.setArray(4, connection.createArrayOf("float8", humidities));
+    }
+
+    private static String mergeAggregatesSql(AggregateResolution resolution) {
+        return "INSERT INTO environmental_reading_aggregates AS a ("
+                + AGGREGATE_COLUMNS
+                + ") SELECT gen_random_uuid(), sensor_id, '"
+                + resolution.name()
+                + "', bucket_start, count(*), min(temperature), max(temperature),"
+                + " sum(temperature), min(humidity), max(humidity), sum(humidity)"
+                + " FROM (SELECT sensor_id, "
+                + bucketStartSql(resolution)
+                + " AS bucket_start, temperature, humidity FROM batch) b"
+                + " GROUP BY sensor_id, bucket_start"
+                + " ON CONFLICT (sensor_id, resolution, bucket_start) DO UPDATE SET"
+                + " reading_count = a.reading_count + EXCLUDED.reading_count,"
+                + " min_temperature = LEAST(a.min_temperature, EXCLUDED.min_temperature),"
+                + " max_temperature = GREATEST(a.max_temperature, EXCLUDED.max_temperature),"
+                + " sum_temperature = a.sum_temperature + EXCLUDED.sum_temperature,"
+                + " min_humidity = LEAST(a.min_humidity, EXCLUDED.min_humidity),"
+                + " max_humidity = GREATEST(a.max_humidity, EXCLUDED.max_humidity),"
+                + " sum_humidity = a.sum_humidity + EXCLUDED.sum_humidity";
+    }
+
+    private static String mergeQuantileBinsSql(AggregateResolution resolution) {
+        return "INSERT INTO environmental_reading_quantile_bins AS q ("
+                + QUANTILE_BIN_COLUMNS
+                + ") SELECT gen_random_uuid(), sensor_id, '"
+                + resolution.name()
+                + "', bucket_start, metric, value_sign, bin_index, count(*)"
+                + " FROM (SELECT sensor_id, "
+                + bucketStartSql(resolution)
+                + " AS bucket_start, m.metric, "
+                + QUANTILE_BIN_SQL
+                + " FROM batch"
+                + METRIC_VALUES_SQL
+                + ") b GROUP BY sensor_id, bucket_start, metric, value_sign, bin_index"
+                + " ON CONFLICT (sensor_id, resolution, bucket_start, metric, value_sign,"
+                + " bin_index) DO UPDATE SET"
+                + " reading_count = q.reading_count + EXCLUDED.reading_count";
+    }
+
+    private static String removeQuantileBinsSql(AggregateResolution resolution) {
+        return "WITH batch AS ("
+                + UNNEST_READINGS_SQL
+                + "), removed AS (SELECT sensor_id, "
+                + bucketStartSql(resolution)
+                + " AS bucket_start, m.metric, "
+                + QUANTILE_BIN_SQL
+                + ", count(*) AS reading_count FROM batch"
+                + METRIC_VALUES_SQL
+                + " GROUP BY 1, 2, 3, 4, 5)"
+                + " UPDATE environmental_reading_quantile_bins AS q SET"
+                + " reading_count = q.reading_count - r.reading_count"
+                + " FROM removed r WHERE q.sensor_id = r.sensor_id AND q.resolution = '"
+                + resolution.name()
+                + "' AND q.bucket_start = r.bucket_start AND q.metric = r.metric"
+                + " AND q.value_sign = r.value_sign AND q.bin_index = r.bin_index";
+    }
+
+    private static String removeReadingsSql(AggregateResolution resolution) {
+        return "WITH batch AS ("
+                + UNNEST_READINGS_SQL
+                + "), removed AS (SELECT sensor_id, "
+                + bucketStartSql(resolution)
+                + " AS bucket_start, count(*) AS reading_count,"
+                + " min(temperature) AS min_temperature, max(temperature) AS max_temperature,"
+                + " sum(temperature) AS sum_temperature, min(humidity) AS min_humidity,"
+                + " max(humidity) AS max_humidity, sum(humidity) AS sum_humidity"
+                + " FROM batch GROUP BY 1, 2)"
+                + " UPDATE environmental_reading_aggregates AS a SET"
+                + " reading_count = a.reading_count - r.reading_count,"
+                + " sum_temperature = a.sum_temperature - r.sum_temperature,"
+                + " sum_humidity = a.sum_humidity - r.sum_humidity,"
+                + " min_temperature = CASE WHEN r.min_temperature > a.min_temperature"
+                + " THEN a.min_temperature ELSE COALESCE(s.min_temperature, a.min_temperature) END,"
+                + " max_temperature = CASE WHEN r.max_temperature < a.max_temperature"
+                + " THEN a.max_temperature ELSE COALESCE(s.max_temperature, a.max_temperature) END,"
+                + " min_humidity = CASE WHEN r.min_humidity > a.min_humidity"
+                + " THEN a.min_humidity ELSE COALESCE(s.min_humidity, a.min_humidity) END,"
+                + " max_humidity = CASE WHEN r.max_humidity < a.max_humidity"
+                + " THEN a.max_humidity ELSE COALESCE(s.max_humidity, a.max_humidity) END"
+                + " FROM removed r CROSS JOIN LATERAL (SELECT min(temperature) AS min_temperature,"
+                + " max(temperature) AS max_temperature, min(humidity) AS min_humidity,"
+                + " max(humidity) AS max_humidity FROM environmental_readings e"
+                + " WHERE e.sensor_id = r.sensor_id AND e.timestamp >= r.bucket_start"
+                + " AND e.timestamp < r.bucket_start + INTERVAL '"
+                + resolution.getInterval()
+                + "') s WHERE a.sensor_id = r.sensor_id AND a.resolution = '"
+                + resolution.name()
+                + "' AND a.bucket_start = r.bucket_start";
+    }
+
+    private static String bucketStartSql(AggregateResolution resolution) {
+        return "date_bin('" + resolution.getInterval() + "', timestamp, '2000-01-01')";
+    }
+
+    /** Returns whether the data source is PostgreSQL, looked up on first use and cached. */
+    private boolean isPostgres() {
+        Boolean supported = postgres;
+        if (supported == null) {
+            supported =
+                    jdbcTemplate.execute(
+                            (ConnectionCallback<Boolean>)
+                                    connection -> connection.isWrapperFor(PGConnection.class));
+            postgres = supported;
+        }
+        return Boolean.TRUE.equals(supported);
+    }
+}
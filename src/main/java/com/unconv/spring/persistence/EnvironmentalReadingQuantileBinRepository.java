@@ -0,0 +1,29 @@
+package com.unconv.spring.persistence;
+
+import com.unconv.spring.domain.EnvironmentalReadingQuantileBin;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.enums.ReadingMetric;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for accessing {@link EnvironmentalReadingQuantileBin} entities in the
+ * database. The bins are written along with the aggregates by {@link
+ * EnvironmentalReadingAggregateRepository}.
+ */
+public interface EnvironmentalReadingQuantileBinRepository
+        extends JpaRepository<EnvironmentalReadingQuantileBin, UUID> {
+
+    /**
+     * Retrieves the bins of one metric of a specific sensor system at a given resolution.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param resolution the length of the aggregated buckets
+     * @param metric the metric the bins count the values of
+     * @return a list of bins ordered by bucket start, sign and index
+     */
+    List<EnvironmentalReadingQuantileBin>
+            findBySensorSystemIdAndResolutionAndMetricOrderByBucketStartAscValueSignAscBinIndexAsc(
+                    UUID sensorSystemId, AggregateResolution resolution, ReadingMetric metric);
+}
@@ -2,16 +2,20 @@
 
 import com.unconv.spring.domain.EnvironmentalReading;
 import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import com.unconv.spring.projection.SensorReadingCountProjection;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.lang.Nullable;
 
 /** Repository interface for accessing {@link EnvironmentalReading} entities in the database. */
-public interface EnvironmentalReadingRepository extends JpaRepository<EnvironmentalReading, UUID> {
+public interface EnvironmentalReadingRepository
+        extends JpaRepository<EnvironmentalReading, UUID>, EnvironmentalReadingRepositoryCustom {
 
     /**
      * Retrieves environmental readings within a specified time range.
@@ -34,6 +38,18 @@ public interface EnvironmentalReadingRepository extends JpaRepository<Environmen
     List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
             UUID sensorSystemId, OffsetDateTime start, OffsetDateTime end);
 
+    /**
+     * Retrieves only the temperature, humidity and timestamp of the readings of a specific sensor
+     * system within a specified time range, without loading the readings as entities.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param start the start time of the range
+     * @param end the end time of the range
+     * @return the projected readings in ascending order of their timestamp
+     */
+    List<EnvironmentalReadingProjection> findBySensorSystemIdAndTimestampBetweenOrderByTimestampAsc(
+            UUID sensorSystemId, OffsetDateTime start, OffsetDateTime end);
+
     /**
      * Retrieves a page of environmental readings for a specific sensor system.
      *
@@ -44,6 +60,95 @@ List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
      */
     Page<EnvironmentalReading> findAllBySensorSystemId(UUID sensorSystemId, Pageable pageable);
 
+    /**
+     * Retrieves the first environmental readings in the order of the given page, without counting
+     * all readings.
+     *
+     * @param pageable the size and order of the page; its number should be 0
+     * @return a list of environmental readings
+     */
+    List<EnvironmentalReading> findAllBy(Pageable pageable);
+
+    /**
+     * Retrieves the first environmental readings of a specific sensor system in the order of the
+     * given page, without counting the readings of the sensor system.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param pageable the size and order of the page; its number should be 0
+     * @return a list of environmental readings for the specified sensor system
+     */
+    List<EnvironmentalReading> findBySensorSystemId(UUID sensorSystemId, Pageable pageable);
+
+    /**
+     * Retrieves the environmental readings that precede a key in the order of timestamp and then
+     * ID, from the closest one back.
+     *
+     * @param timestamp the timestamp of the key
+     * @param id the ID of the key
+     * @param limit the maximum number of readings to retrieve
+     * @return a list of environmental readings in descending order
+     */
+    @Query(
+            value =
+                    "SELECT * FROM environmental_readings WHERE (timestamp, id) < (:timestamp, :id)"
+                            + " ORDER BY timestamp DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<EnvironmentalReading> findAllBeforeKey(OffsetDateTime timestamp, UUID id, int limit);
+
+    /**
+     * Retrieves the environmental readings that follow a key in the order of timestamp and then
+     * ID, from the closest one on.
+     *
+     * @param timestamp the timestamp of the key
+     * @param id the ID of the key
+     * @param limit the maximum number of readings to retrieve
+     * @return a list of environmental readings in ascending order
+     */
+    @Query(
+            value =
+                    "SELECT * FROM environmental_readings WHERE (timestamp, id) > (:timestamp, :id)"
+                            + " ORDER BY timestamp, id LIMIT :limit",
+            nativeQuery = true)
+    List<EnvironmentalReading> findAllAfterKey(OffsetDateTime timestamp, UUID id, int limit);
+
+    /**
+     * Retrieves the environmental readings of a specific sensor system that precede a key in the
+     * order of timestamp and then ID, from the closest one back.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param timestamp the timestamp of the key
+     * @param id the ID of the key
+     * @param limit the maximum number of readings to retrieve
+     * @return a list of environmental readings in descending order
+     */
+    @Query(
+            value =
+                    "SELECT * FROM environmental_readings WHERE sensor_id = :sensorSystemId"
+                            + " AND (timestamp, id) < (:timestamp, :id)"
+                            + " ORDER BY timestamp DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<EnvironmentalReading> findBySensorSystemIdBeforeKey(
+            UUID sensorSystemId, OffsetDateTime timestamp, UUID id, int limit);
+
+    /**
+     * Retrieves the environmental readings of a specific sensor system that follow a key in the
+     * order of timestamp and then ID, from the closest one on.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param timestamp the timestamp of the key
+     * @param id the ID of the key
+     * @param limit the maximum number of readings to retrieve
+     * @return a list of environmental readings in ascending order
+     */
+    @Query(
+            value =
+                    "SELECT * FROM environmental_readings WHERE sensor_id = :sensorSystemId"
+                            + " AND (timestamp, id) > (:timestamp, :id)"
+                            + " ORDER BY timestamp, id LIMIT :limit",
+            nativeQuery = true)
+    List<EnvironmentalReading> findBySensorSystemIdAfterKey(
+            UUID sensorSystemId, OffsetDateTime timestamp, UUID id, int limit);
+
     /**
      * Counts the number of environmental readings for a specific sensor system.
      *
@@ -52,6 +157,19 @@ List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
      */
     long countBySensorSystemId(UUID sensorSystemId);
 
+    /**
+     * Counts the environmental readings of each of the given sensor systems with a single grouped
+     * query. Sensor systems without readings are left out.
+     *
+     * @param sensorSystemIds the IDs of the sensor systems
+     * @return the number of readings of each sensor system that has any
+     */
+    @Query(
+            "SELECT r.sensorSystem.id AS sensorSystemId, count(r) AS readingCount"
+                    + " FROM EnvironmentalReading r WHERE r.sensorSystem.id IN :sensorSystemIds"
+                    + " GROUP BY r.sensorSystem.id")
+    List<SensorReadingCountProjection> countBySensorSystemIds(Collection<UUID> sensorSystemIds);
+
     /**
      * Counts the number of environmental readings for a specific sensor system within a specified
      * time range.
@@ -75,6 +193,21 @@ long countBySensorSystemIdAndTimestampBetween(
     @Nullable
     EnvironmentalReading findFirstBySensorSystemIdOrderByTimestampDesc(UUID sensorSystemId);
 
+    /**
+     * Retrieves the most recent environmental reading of each of the given sensor systems with a
+     * single query. Sensor systems without readings are left out.
+     *
+     * @param sensorSystemIds the IDs of the sensor systems
+     * @return the most recent reading of each sensor system that has any
+     */
+    @Query(
+            value =
+                    "SELECT DISTINCT ON (sensor_id) * FROM environmental_readings"
+                            + " WHERE sensor_id IN (:sensorSystemIds)"
+                            + " ORDER BY sensor_id, timestamp DESC",
+            nativeQuery = true)
+    List<EnvironmentalReading> findLatestBySensorSystemIds(Collection<UUID> sensorSystemIds);
+
     /**
      * Retrieves the first 10 environmental readings for a specific user's sensor systems, ordered
      * by timestamp in descending order.
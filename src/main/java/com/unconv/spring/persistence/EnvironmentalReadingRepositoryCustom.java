@@ -0,0 +1,113 @@
+package com.unconv.spring.persistence;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.model.EnvironmentalReadingStatsBucket;
+import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Custom repository fragment for {@link EnvironmentalReading} operations that bypass the
+ * persistence context and talk to the database through plain JDBC.
+ */
+public interface EnvironmentalReadingRepositoryCustom {
+
+    /**
+     * Inserts the given environmental readings using JDBC batching. Readings whose sensor system
+     * and timestamp are already stored, or repeat an earlier reading in the list, are skipped.
+     * Readings without an ID are assigned one before being written, so callers can read the
+     * generated IDs back from the passed instances.
+     *
+     * @param environmentalReadings the readings to insert; each must reference a persisted sensor
+     *     system
+     * @return the number of readings inserted
+     */
+    int batchInsert(List<EnvironmentalReading> environmentalReadings);
+
+    /**
+     * Inserts the given environmental readings in batches, skipping readings whose sensor system
+     * and timestamp are already stored or repeat an earlier reading in the list. Readings without
+     * an ID are assigned one before being written. On PostgreSQL the inserted readings are told
+     * apart by the IDs the database returns and rolled up into the aggregates of their buckets in
+     * the same transaction.
+     *
+     * @param environmentalReadings the readings to insert; each must reference a persisted sensor
+     *     system
+     * @return for each reading, in order, whether it was inserted
+     */
+    boolean[] batchInsertIfAbsent(List<EnvironmentalReading> environmentalReadings);
+
+    /**
+     * Returns whether the underlying database supports {@link #copyInsert(List)}.
+     *
+     * @return true if the data source is PostgreSQL
+     */
+    boolean isCopySupported();
+
+    /**
+     * Streams the given environmental readings into the table with PostgreSQL's {@code COPY ...
+     * FROM STDIN}, skipping readings whose sensor system and timestamp are already stored. The
+     * inserted readings are rolled up into the aggregates of their buckets by the same statement.
+     * Readings without an ID are assigned one before being written.
+     *
+     * @param environmentalReadings the readings to insert; each must reference a persisted sensor
+     *     system
+     * @return the number of readings inserted
+     * @throws UnsupportedOperationException if the data source is not PostgreSQL
+     */
+    long copyInsert(List<EnvironmentalReading> environmentalReadings);
+
+    /**
+     * Groups the readings of a sensor system taken from {@code start} up to {@code end} into
+     * buckets of the given length, aligned to multiples of it since the Unix epoch, and summarizes
+     * their temperatures and humidities, including their standard deviations and, if requested,
+     * their exact percentiles. On PostgreSQL the buckets are summarized in the database; elsewhere
+     * they are summarized as the readings are streamed. Only the non-empty buckets are returned.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param start the inclusive start of the range
+     * @param end the exclusive end of the range
+     * @param interval the length of each bucket
+     * @param percentiles whether to compute the percentiles of the metrics, which sorts the values
+     *     of every bucket; left out otherwise
+     * @return the buckets in ascending order of their start
+     */
+    List<EnvironmentalReadingStatsBucket> findStatsBuckets(
+            UUID sensorSystemId,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            Duration interval,
+            boolean percentiles);
+
+    /**
+     * Counts the readings of a sensor system taken before {@code end} and from each of the given
+     * starts on, with a single query that reads the range of the earliest start once.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param starts the inclusive starts of the ranges to count; must not be empty
+     * @param end the exclusive end shared by all ranges
+     * @return the number of readings in each range, in the order of {@code starts}
+     */
+    long[] countReadingsSince(UUID sensorSystemId, List<OffsetDateTime> starts, OffsetDateTime end);
+
+    /**
+     * Streams the readings of a sensor system taken from {@code start} up to {@code end} to the
+     * given consumer in ascending order of their timestamp, reading them through a forward-only
+     * cursor so that only one fetch of rows is held in memory at a time. Must be called within a
+     * transaction for the cursor to be used.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param start the inclusive start of the range
+     * @param end the exclusive end of the range
+     * @param consumer the consumer each reading is passed to as it is read
+     * @return the number of readings streamed
+     */
+    long streamReadings(
+            UUID sensorSystemId,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            Consumer<EnvironmentalReadingProjection> consumer);
+}
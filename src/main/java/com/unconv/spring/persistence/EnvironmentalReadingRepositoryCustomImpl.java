@@ -0,0 +1,609 @@
+package com.unconv.spring.persistence;
+
+import static com.unconv.spring.consts.AppConstants.EXPORT_FETCH_SIZE;
+import static com.unconv.spring.consts.AppConstants.JDBC_BATCH_SIZE;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.model.EnvironmentalReadingStatsBucket;
+import com.unconv.spring.model.MetricSummary;
+import com.unconv.spring.model.SummarizedReading;
+import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import com.unconv.spring.utils.UuidV7Generator;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * JDBC backed implementation of {@link EnvironmentalReadingRepositoryCustom}. Picked up by Spring
+ * Data as a fragment of {@link EnvironmentalReadingRepository}.
+ */
+public class EnvironmentalReadingRepositoryCustomImpl
+        implements EnvironmentalReadingRepositoryCustom {
+
+    /** Inserts a chunk of readings bound as arrays and returns the IDs of the inserted ones. */
+    private static final String INSERT_IF_ABSENT_SQL =
+            "INSERT INTO environmental_readings (id, temperature, humidity, timestamp, sensor_id)"
+                    + " SELECT * FROM unnest(CAST(? AS UUID[]), CAST(? AS FLOAT8[]),"
+                    + " CAST(? AS FLOAT8[]), CAST(? AS TIMESTAMPTZ[]), CAST(? AS UUID[]))"
+                    + " ON CONFLICT (sensor_id, timestamp) DO NOTHING RETURNING id";
+
+    /** Fallback for databases without {@code ON CONFLICT}; relies on the unique key for races. */
+    private static final String INSERT_IF_NOT_EXISTS_SQL =
+            "INSERT INTO environmental_readings (id, temperature, humidity, timestamp, sensor_id)"
+                    + " SELECT CAST(? AS UUID), CAST(? AS DOUBLE PRECISION),"
+                    + " CAST(? AS DOUBLE PRECISION), CAST(? AS TIMESTAMP WITH TIME ZONE),"
+                    + " CAST(? AS UUID) WHERE NOT EXISTS (SELECT 1 FROM environmental_readings"
+                    + " WHERE sensor_id = ? AND timestamp = ?)";
+
+    private static final String CREATE_STAGING_TABLE_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS environmental_readings_staging"
+                    + " (LIKE environmental_readings INCLUDING DEFAULTS) ON COMMIT DROP";
+
+    private static final String COPY_SQL =
+            "COPY environmental_readings_staging"
+                    + " (id, temperature, humidity, timestamp, sensor_id)"
+                    + " FROM STDIN WITH (FORMAT csv)";
+
+    /** Moves the staged readings into the table and rolls the inserted ones up. */
+    private static final String MERGE_STAGING_TABLE_SQL =
+            "WITH batch AS (INSERT INTO environmental_readings"
+                    + " (id, temperature, humidity, timestamp, sensor_id)"
+                    + " SELECT id, temperature, humidity, timestamp, sensor_id"
+                    + " FROM environmental_readings_staging"
+                    + " ON CONFLICT (sensor_id, timestamp) DO NOTHING"
+                    + " RETURNING sensor_id, timestamp, temperature, humidity)"
+                    + EnvironmentalReadingAggregateRepositoryCustomImpl.mergeBatchSql()
+                    + " SELECT count(*) FROM batch";
+
+    private static final String TRUNCATE_STAGING_TABLE_SQL =
+            "TRUNCATE environmental_readings_staging";
+
+    private static final String SET_UTC_TIME_ZONE_SQL = "SET LOCAL TIME ZONE 'UTC'";
+
+    private static final String FIND_STATS_BUCKETS_SQL = findStatsBucketsSql(false);
+
+    private static final String FIND_STATS_BUCKETS_WITH_PERCENTILES_SQL =
+            findStatsBucketsSql(true);
+
+    private static final String STREAM_READINGS_SQL =
+            "SELECT temperature, humidity, timestamp FROM environmental_readings"
+                    + " WHERE sensor_id = ? AND timestamp >= ? AND timestamp < ?"
+                    + " ORDER BY timestamp";
+
+    /** Rough size of one CSV row, used to pre-size the COPY buffer. */
+    private static final int COPY_ROW_LENGTH_ESTIMATE = 128;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    private volatile Boolean copySupported;
+
+    /**
+     * Constructs an {@link EnvironmentalReadingRepositoryCustomImpl} with the given {@link
+     * JdbcTemplate}.
+     *
+     * @param jdbcTemplate the template used to execute the batched statements
+     * @param environmentalReadingAggregateRepository the repository the inserted readings are
+     *     rolled up with
+     */
+    public EnvironmentalReadingRepositoryCustomImpl(
+            JdbcTemplate jdbcTemplate,
+            EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.environmentalReadingAggregateRepository = environmentalReadingAggregateRepository;
+    }
+
+    /**
+     * Inserts the given environmental readings using JDBC batching. Readings whose sensor system
+     * and timestamp are already stored, or repeat an earlier reading in the list, are skipped.
+     * Readings without an ID are assigned one before being written, so callers can read the
+     * generated IDs back from the passed instances.
+     *
+     * @param environmentalReadings the readings to insert; each must reference a persisted sensor
+     *     system
+     * @return the number of readings inserted
+     */
+    @Override
+    public int batchInsert(List<EnvironmentalReading> environmentalReadings) {
+        int inserted = 0;
+        for (boolean readingInserted : batchInsertIfAbsent(environmentalReadings)) {
+            if (readingInserted) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Inserts the given environmental readings, skipping readings whose sensor system and
+     * timestamp are already stored or repeat an earlier reading in the list. On PostgreSQL each
+     * chunk of {@link com.unconv.spring.consts.AppConstants#JDBC_BATCH_SIZE} readings is bound as
+     * arrays into a single {@code INSERT ... ON CONFLICT DO NOTHING RETURNING id}, so the inserted
+     * readings are known from the IDs the database returns rather than from update counts, which
+     * drivers that rewrite batches do not report. The inserted readings are then merged into the
+     * aggregates of their buckets. Elsewhere the readings are inserted with JDBC batching, each
+     * row guarded by a {@code NOT EXISTS} check, and the aggregates are not maintained. Readings
+     * without an ID are assigned one before being written.
+     *
+     * @param environmentalReadings the readings to insert; each must reference a persisted sensor
+     *     system
+     * @return for each reading, in order, whether it was inserted
+     */
+    @Override
+    public boolean[] batchInsertIfAbsent(List<EnvironmentalReading> environmentalReadings) {
+        if (environmentalReadings.isEmpty()) {
+            return new boolean[0];
+        }
+
+        for (EnvironmentalReading environmentalReading : environmentalReadings) {
+            if (environmentalReading.getId() == null) {
+                environmentalReading.setId(UuidV7Generator.generate());
+            }
+        }
+
+        if (!isCopySupported()) {
+            return batchInsertIfNotExists(environmentalReadings);
+        }
+
+        jdbcTemplate.execute(SET_UTC_TIME_ZONE_SQL);
+        Set<UUID> insertedIds = new HashSet<>();
+        for (int from = 0; from < environmentalReadings.size(); from += JDBC_BATCH_SIZE) {
+            List<EnvironmentalReading> chunk =
+                    environmentalReadings.subList(
+                            from, Math.min(from + JDBC_BATCH_SIZE, environmentalReadings.size()));
+            jdbcTemplate.query(
+                    INSERT_IF_ABSENT_SQL,
+                    ps -> bindReadings(ps, chunk),
+                    (RowCallbackHandler) rs -> insertedIds.add(rs.getObject(1, UUID.class)));
+        }
+
+        boolean[] inserted = new boolean[environmentalReadings.size()];
+        List<EnvironmentalReading> insertedReadings = new ArrayList<>(insertedIds.size());
+        for (int index = 0; index < inserted.length; index++) {
+            EnvironmentalReading environmentalReading = environmentalReadings.get(index);
+            inserted[index] = insertedIds.contains(environmentalReading.getId());
+            if (inserted[index]) {
+                insertedReadings.add(environmentalReading);
+            }
+        }
+        environmentalReadingAggregateRepository.mergeReadings(insertedReadings);
+        return inserted;
+    }
+
+    /**
+     * Returns whether the underlying database supports {@link #copyInsert(List)}. The answer is
+     * looked up on first use and cached.
+     *
+     * @return true if the data source is PostgreSQL
+     */
+    @Override
+    public boolean isCopySupported() {
+        Boolean supported = copySupported;
+        if (supported == null) {
+            supported =
+                    jdbcTemplate.execute(
+                            (ConnectionCallback<Boolean>)
+                                    connection -> connection.isWrapperFor(PGConnection.class));
+            copySupported = supported;
+        }
+        return Boolean.TRUE.equals(supported);
+    }
+
+    /**
+     * Streams the given environmental readings into a session-local staging table with
+     * PostgreSQL's {@code COPY ... FROM STDIN}, then moves them into the table with {@code INSERT
+     * ... ON CONFLICT DO NOTHING}, so readings whose sensor system and timestamp are already stored
+     * are skipped. The same statement merges the inserted rows into the aggregates of their
+     * buckets. The statements run on the connection bound to the current transaction, if any.
+     * Readings without an ID are assigned one before being written.
+     *
+     * @param environmentalReadings the readings to insert; each must reference a persisted sensor
+     *     system
+     * @return the number of readings inserted
+     * @throws UnsupportedOperationException if the data source is not PostgreSQL
+     */
+    @Override
+    public long copyInsert(List<EnvironmentalReading> environmentalReadings) {
+        if (!isCopySupported()) {
+            throw new UnsupportedOperationException("COPY is only supported on PostgreSQL");
+        }
+        if (environmentalReadings.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder rows =
+                new StringBuilder(environmentalReadings.size() * COPY_ROW_LENGTH_ESTIMATE);
+        for (EnvironmentalReading environmentalReading : environmentalReadings) {
+            if (environmentalReading.getId() == null) {
+                environmentalReading.setId(UuidV7Generator.generate());
+            }
+            rows.append(environmentalReading.getId())
+                    .append(',')
+                    .append(environmentalReading.getTemperature())
+                    .append(',')
+                    .append(environmentalReading.getHumidity())
+                    .append(',')
+                    .append(
+                            environmentalReading
+                                    .getTimestamp()
+                                    .withOffsetSameInstant(ZoneOffset.UTC)
+                                    .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+                    .append(',')
+                    .append(environmentalReading.getSensorSystem().getId())
+                    .append('\n');
+        }
+
+        Long inserted =
+                jdbcTemplate.execute(
+                        (ConnectionCallback<Long>)
+                                connection -> copyIn(connection, rows.toString()));
+        return inserted == null ? 0 : inserted;
+    }
+
+    /**
+     * Summarizes the readings of a sensor system per bucket with a single grouped query, in a
+     * session whose time zone is set to UTC. Elsewhere, where {@code date_bin} and {@code
+     * percentile_cont} are not available, the readings are streamed in order and summarized one
+     * bucket at a time.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param start the inclusive start of the range
+     * @param end the exclusive end of the range
+     * @param interval the length of each bucket
+     * @param percentiles whether to compute the percentiles of the metrics
+     * @return the buckets in ascending order of their start
+     */
+    @Override
+    public List<EnvironmentalReadingStatsBucket> findStatsBuckets(
+            UUID sensorSystemId,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            Duration interval,
+            boolean percentiles) {
+        if (!isCopySupported()) {
+            return summarizeStatsBuckets(sensorSystemId, start, end, interval, percentiles);
+        }
+        jdbcTemplate.execute(SET_UTC_TIME_ZONE_SQL);
+        return jdbcTemplate.query(
+                percentiles ? FIND_STATS_BUCKETS_WITH_PERCENTILES_SQL : FIND_STATS_BUCKETS_SQL,
+                (rs, rowNum) ->
+                        new EnvironmentalReadingStatsBucket(
+                                OffsetDateTime.ofInstant(
+                                        Instant.ofEpochSecond(rs.getLong(1)), ZoneOffset.UTC),
+                                rs.getLong(2),
+                                metricSummary(rs, 3),
+                                metricSummary(rs, 8)),
+                interval.getSeconds(),
+                sensorSystemId,
+                start.withOffsetSameInstant(ZoneOffset.UTC),
+                end.withOffsetSameInstant(ZoneOffset.UTC));
+    }
+
+    /**
+     * Counts the readings of a sensor system in each range with one conditional aggregate per
+     * start over the widest range. On PostgreSQL the session time zone is set to UTC for the
+     * current transaction, so that the ranges line up with the stored timestamps whatever the
+     * column type.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param starts the inclusive starts of the ranges to count; must not be empty
+     * @param end the exclusive end shared by all ranges
+     * @return the number of readings in each range, in the order of {@code starts}
+     */
+    @Override
+    public long[] countReadingsSince(
+            UUID sensorSystemId, List<OffsetDateTime> starts, OffsetDateTime end) {
+        if (isCopySupported()) {
+            jdbcTemplate.execute(SET_UTC_TIME_ZONE_SQL);
+        }
+        StringBuilder sql = new StringBuilder("SELECT ");
+        List<Object> args = new ArrayList<>(starts.size() + 3);
+        OffsetDateTime earliestStart = starts.get(0);
+        for (OffsetDateTime start : starts) {
+            sql.append(args.isEmpty() ? "" : ", ").append("count(*) FILTER (WHERE timestamp >= ?)");
+            args.add(start.withOffsetSameInstant(ZoneOffset.UTC));
+            if (start.isBefore(earliestStart)) {
+                earliestStart = start;
+            }
+        }
+        sql.append(" FROM environmental_readings")
+                .append(" WHERE sensor_id = ? AND timestamp >= ? AND timestamp < ?");
+        args.add(sensorSystemId);
+        args.add(earliestStart.withOffsetSameInstant(ZoneOffset.UTC));
+        args.add(end.withOffsetSameInstant(ZoneOffset.UTC));
+        return jdbcTemplate.queryForObject(
+                sql.toString(),
+                (rs, rowNum) -> {
+                    long[] counts = new long[starts.size()];
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] = rs.getLong(i + 1);
+                    }
+                    return counts;
+                },
+                args.toArray());
+    }
+
+    /**
+     * Streams the readings of a sensor system through a forward-only, read-only statement with a
+     * fetch size of {@link com.unconv.spring.consts.AppConstants#EXPORT_FETCH_SIZE}. Within a
+     * transaction the PostgreSQL driver then reads the rows through a cursor, one fetch at a time,
+     * instead of loading the whole result. On PostgreSQL the session time zone is set to UTC for
+     * the current transaction first, so that the range lines up with the stored timestamps
+     * whatever the column type.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param start the inclusive start of the range
+     * @param end the exclusive end of the range
+     * @param consumer the consumer each reading is passed to as it is read
+     * @return the number of readings streamed
+     */
+    @Override
+    public long streamReadings(
+            UUID sensorSystemId,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            Consumer<EnvironmentalReadingProjection> consumer) {
+        if (isCopySupported()) {
+            jdbcTemplate.execute(SET_UTC_TIME_ZONE_SQL);
+        }
+        long[] streamed = new long[1];
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement preparedStatement =
+                            connection.prepareStatement(
+                                    STREAM_READINGS_SQL,
+                                    ResultSet.TYPE_FORWARD_ONLY,
+                                    ResultSet.CONCUR_READ_ONLY);
+                    preparedStatement.setFetchSize(EXPORT_FETCH_SIZE);
+                    preparedStatement.setObject(1, sensorSystemId);
+                    preparedStatement.setObject(2, start.withOffsetSameInstant(ZoneOffset.UTC));
+                    preparedStatement.setObject(3, end.withOffsetSameInstant(ZoneOffset.UTC));
+                    return preparedStatement;
+                },
+                rs -> {
+                    consumer.accept(
+                            new SummarizedReading(
+                                    rs.getDouble(1),
+                                    rs.getDouble(2),
+                                    rs.getObject(3, OffsetDateTime.class)));
+                    streamed[0]++;
+                });
+        return streamed[0];
+    }
+
+    /**
+     * Inserts the readings with JDBC batching on databases without {@code ON CONFLICT}, guarding
+     * each row with a {@code NOT EXISTS} check.
+     */
+    private boolean[] batchInsertIfNotExists(List<EnvironmentalReading> environmentalReadings) {
+        int[][] updateCounts =
+                jdbcTemplate.batchUpdate(
+                        INSERT_IF_NOT_EXISTS_SQL,
+                        environmentalReadings,
+                        JDBC_BATCH_SIZE,
+                        (ps, environmentalReading) -> {
+                            OffsetDateTime timestamp =
+                                    environmentalReading
+                                            .getTimestamp()
+                                            .withOffsetSameInstant(ZoneOffset.UTC);
+                            UUID sensorSystemId = environmentalReading.getSensorSystem().getId();
+                            ps.setObject(1, environmentalReading.getId());
+                            ps.setDouble(2, environmentalReading.getTemperature());
+                            ps.setDouble(3, environmentalReading.getHumidity());
+                            ps.setObject(4, timestamp);
+                            ps.setObject(5, sensorSystemId);
+                            ps.setObject(6, sensorSystemId);
+                            ps.setObject(7, timestamp);
+                        });
+
+        boolean[] inserted = new boolean[environmentalReadings.size()];
+        int index = 0;
+        for (int[] batchUpdateCounts : updateCounts) {
+            for (int updateCount : batchUpdateCounts) {
+                inserted[index++] = updateCount > 0;
+            }
+        }
+        return inserted;
+    }
+
+    /** Binds the columns of the readings as the arrays {@link #INSERT_IF_ABSENT_SQL} unnests. */
+    private static void bindReadings(
+            PreparedStatement ps, List<EnvironmentalReading> environmentalReadings)
+            throws SQLException {
+        int size = environmentalReadings.size();
+        UUID[] ids = new UUID[size];
+        Double[] temperatures = new Double[size];
+        Double[] humidities = new Double[size];
+        String[] timestamps = new String[size];
+        UUID[] sensorSystemIds = new UUID[size];
+        for (int i = 0; i < size; i++) {
+            EnvironmentalReading environmentalReading = environmentalReadings.get(i);
+            ids[i] = environmentalReading.getId();
+            temperatures[i] = environmentalReading.getTemperature();
+            humidities[i] = environmentalReading.getHumidity();
+            timestamps[i] =
+                    environmentalReading
+                            .getTimestamp()
+                            .withOffsetSameInstant(ZoneOffset.UTC)
+                            .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            sensorSystemIds[i] = environmentalReading.getSensorSystem().getId();
+        }
+        Connection connection = ps.getConnection();
+        ps.setArray(1, connection.createArrayOf("uuid", ids));
+        ps.setArray(2, connection.createArrayOf("float8", temperatures));
+        ps.setArray(3, connection.createArrayOf("float8", humidities));
+        ps.setArray(4, connection.createArrayOf("timestamptz", timestamps));
+        ps.setArray(5, connection.createArrayOf("uuid", sensorSystemIds));
+    }
+
+    /**
+     * Summarizes the readings of a sensor system per bucket as {@link #findStatsBuckets} does on
+     * PostgreSQL, from the readings streamed in ascending order of their timestamp. Only the values
+     * of the bucket being read are held, and the bucket is summarized once a reading of a later one
+     * comes in.
+     */
+    private List<EnvironmentalReadingStatsBucket> summarizeStatsBuckets(
+            UUID sensorSystemId,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            Duration interval,
+            boolean percentiles) {
+        long intervalSeconds = interval.getSeconds();
+        List<EnvironmentalReadingStatsBucket> buckets = new ArrayList<>();
+        List<Double> temperatures = new ArrayList<>();
+        List<Double> humidities = new ArrayList<>();
+        long[] bucketStart = new long[1];
+        streamReadings(
+                sensorSystemId,
+                start,
+                end,
+                reading -> {
+                    long readingBucketStart =
+                            Math.floorDiv(reading.getTimestamp().toEpochSecond(), intervalSeconds)
+                                    * intervalSeconds;
+                    if (!temperatures.isEmpty() && readingBucketStart != bucketStart[0]) {
+                        buckets.add(
+                                statsBucket(bucketStart[0], temperatures, humidities, percentiles));
+                        temperatures.clear();
+                        humidities.clear();
+                    }
+                    bucketStart[0] = readingBucketStart;
+                    temperatures.add(reading.getTemperature());
+                    humidities.add(reading.getHumidity());
+                });
+        if (!temperatures.isEmpty()) {
+            buckets.add(statsBucket(bucketStart[0], temperatures, humidities, percentiles));
+        }
+        return buckets;
+    }
+
+    private static EnvironmentalReadingStatsBucket statsBucket(
+            long bucketStart,
+            List<Double> temperatures,
+            List<Double> humidities,
+            boolean percentiles) {
+        return new EnvironmentalReadingStatsBucket(
+                OffsetDateTime.ofInstant(Instant.ofEpochSecond(bucketStart), ZoneOffset.UTC),
+                temperatures.size(),
+                metricSummary(temperatures, percentiles),
+                metricSummary(humidities, percentiles));
+    }
+
+    /**
+     * Summarizes the values of a metric in a bucket like the grouped query does: the standard
+     * deviation is the sample one, left out for a single value, and the percentiles are
+     * interpolated between the closest values as {@code percentile_cont} does.
+     */
+    private static MetricSummary metricSummary(List<Double> values, boolean percentiles) {
+        double[] sorted = values.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        double sum = 0;
+        for (double value : sorted) {
+            sum += value;
+        }
+        Double standardDeviation = null;
+        if (sorted.length > 1) {
+            double mean = sum / sorted.length;
+            double squaredDeviations = 0;
+            for (double value : sorted) {
+                squaredDeviations += (value - mean) * (value - mean);
+            }
+            standardDeviation = Math.sqrt(squaredDeviations / (sorted.length - 1));
+        }
+        return new MetricSummary(
+                sum,
+                sorted[0],
+                sorted[sorted.length - 1],
+                standardDeviation,
+                percentiles ? percentile(sorted, 0.5) : null,
+                percentiles ? percentile(sorted, 0.95) : null,
+                percentiles ? percentile(sorted, 0.99) : null);
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        double position = fraction * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+    }
+
+    /**
+     * Returns the grouped query of {@link #findStatsBuckets}, which selects the sum, minimum,
+     * maximum, standard deviation and percentiles of each metric in turn. The percentiles are
+     * selected as null arrays unless requested.
+     */
+    private static String findStatsBucketsSql(boolean percentiles) {
+        return "SELECT CAST(extract(epoch FROM date_bin(make_interval(secs => ?), timestamp,"
+                + " '1970-01-01')) AS BIGINT) AS bucket_start, count(*),"
+                + " sum(temperature), min(temperature), max(temperature),"
+                + " stddev_samp(temperature), "
+                + percentilesSql("temperature", percentiles)
+                + ", sum(humidity), min(humidity), max(humidity), stddev_samp(humidity), "
+                + percentilesSql("humidity", percentiles)
+                + " FROM environmental_readings"
+                + " WHERE sensor_id = ? AND timestamp >= ? AND timestamp < ?"
+                + " GROUP BY bucket_start ORDER BY bucket_start";
+    }
+
+    private static String percentilesSql(String column, boolean percentiles) {
+        return percentiles
+                ? "percentile_cont(ARRAY[0.5, 0.95, 0.99]) WITHIN GROUP (ORDER BY " + column + ")"
+                : "CAST(NULL AS FLOAT8[])";
+    }
+
+    /** Reads the five columns of a metric selected by {@link #findStatsBucketsSql}. */
+    private static MetricSummary metricSummary(ResultSet rs, int firstColumn)
+            throws SQLException {
+        Array percentiles = rs.getArray(firstColumn + 4);
+        Double[] values = percentiles == null ? new Double[3] : (Double[]) percentiles.getArray();
+        return new MetricSummary(
+                rs.getDouble(firstColumn),
+                rs.getDouble(firstColumn + 1),
+                rs.getDouble(firstColumn + 2),
+                rs.getObject(firstColumn + 3, Double.class),
+                values[0],
+                values[1],
+                values[2]);
+    }
+
+    private static long copyIn(Connection connection, String rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_TABLE_SQL);
+            connection
+                    .unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyIn(COPY_SQL, new StringReader(rows));
+            statement.execute(SET_UTC_TIME_ZONE_SQL);
+            long inserted;
+            try (ResultSet resultSet = statement.executeQuery(MERGE_STAGING_TABLE_SQL)) {
+                resultSet.next();
+                inserted = resultSet.getLong(1);
+            }
+            statement.execute(TRUNCATE_STAGING_TABLE_SQL);
+            return inserted;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.unconv.spring.persistence;
+
+import com.unconv.spring.domain.SensorReadingSummary;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Repository interface for accessing {@link SensorReadingSummary} entities in the database, keyed
+ * by the ID of their sensor system. The summaries are written along with the aggregates by {@link
+ * EnvironmentalReadingAggregateRepository}.
+ */
+public interface SensorReadingSummaryRepository
+        extends JpaRepository<SensorReadingSummary, UUID>, SensorReadingSummaryRepositoryCustom {
+
+    /**
+     * Adds up the reading counts of all summaries, which is the number of stored readings without
+     * counting them.
+     *
+     * @return the total number of readings of all sensor systems
+     */
+    @Query("SELECT COALESCE(SUM(s.readingCount), 0) FROM SensorReadingSummary s")
+    long sumReadingCounts();
+}
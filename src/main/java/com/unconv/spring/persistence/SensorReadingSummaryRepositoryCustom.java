@@ -0,0 +1,21 @@
+package com.unconv.spring.persistence;
+
+import com.unconv.spring.domain.SensorReadingSummary;
+import java.util.UUID;
+
+/**
+ * Custom repository fragment that recomputes a {@link SensorReadingSummary} from the stored
+ * environmental readings, for readings removed without going through {@link
+ * EnvironmentalReadingAggregateRepositoryCustom#removeReadings}.
+ */
+public interface SensorReadingSummaryRepositoryCustom {
+
+    /**
+     * Replaces the summary of a sensor system with one computed from its stored readings, or
+     * deletes it if none are stored. Runs in the current transaction, and keeps ingest from
+     * updating any summary until it ends.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     */
+    void rebuildSummary(UUID sensorSystemId);
+}
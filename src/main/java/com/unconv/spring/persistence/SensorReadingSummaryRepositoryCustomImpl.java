@@ -0,0 +1,254 @@
+package com.unconv.spring.persistence;
+
+import java.util.Locale;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * PostgreSQL implementation of {@link SensorReadingSummaryRepositoryCustom}. Picked up by Spring
+ * Data as a fragment of {@link SensorReadingSummaryRepository}. Also holds the statements that
+ * {@link EnvironmentalReadingAggregateRepositoryCustomImpl} keeps the summaries up to date with,
+ * so that a summary is only ever computed in one way. Each of the readings kept in a summary is
+ * the first one in the order of its {@link Kept} constant, ties going to the earliest reading.
+ */
+public class SensorReadingSummaryRepositoryCustomImpl
+        implements SensorReadingSummaryRepositoryCustom {
+
+    /** The columns of each kept reading, after the prefix of its {@link Kept} constant. */
+    private static final String[] KEPT_FIELDS = {"temperature", "humidity", "timestamp"};
+
+    private static final String SUMMARY_COLUMNS = summaryColumns();
+
+    private static final String REBUILD_SUMMARY_SQL =
+            "WITH readings AS (SELECT sensor_id, timestamp, temperature, humidity"
+                    + " FROM environmental_readings WHERE sensor_id = ?),"
+                    + " summary AS (INSERT INTO sensor_reading_summaries AS s ("
+                    + SUMMARY_COLUMNS
+                    + ") "
+                    + summarizeSql("readings")
+                    + " ON CONFLICT (sensor_id) DO UPDATE SET "
+                    + replaceAllSql()
+                    + ") DELETE FROM sensor_reading_summaries"
+                    + " WHERE sensor_id = ? AND NOT EXISTS (SELECT 1 FROM readings)";
+
+    /**
+     * Conflicts with the row exclusive lock that ingest takes when it upserts a summary, but not
+     * with plain reads of the summaries.
+     */
+    private static final String LOCK_SUMMARIES_SQL =
+            "LOCK TABLE sensor_reading_summaries IN SHARE ROW EXCLUSIVE MODE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a {@link SensorReadingSummaryRepositoryCustomImpl} with the given {@link
+     * JdbcTemplate}.
+     *
+     * @param jdbcTemplate the template used to execute the summary statements
+     */
+    public SensorReadingSummaryRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Replaces the summary of a sensor system with one computed from its stored readings by a
+     * single upsert, or deletes it if none are stored. The summaries are locked against ingest
+     * until the transaction ends: the lock waits for the transactions that have already merged
+     * readings into a summary, so that the readings the upsert counts include theirs, and holds
+     * off the others until the rebuilt summary is committed, so that their merges are not
+     * overwritten.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     */
+    @Override
+    public void rebuildSummary(UUID sensorSystemId) {
+        jdbcTemplate.execute(LOCK_SUMMARIES_SQL);
+        jdbcTemplate.update(REBUILD_SUMMARY_SQL, sensorSystemId, sensorSystemId);
+    }
+
+    /**
+     * Returns the common table expression that merges the rows of a preceding {@code batch}
+     * expression, with columns {@code sensor_id}, {@code timestamp}, {@code temperature} and
+     * {@code humidity}, into the summaries of their sensor systems. Concurrent batches of the same
+     * sensor system queue up on its summary row.
+     *
+     * @return the expression, preceded by a comma
+     */
+    static String mergeBatchSql() {
+        StringBuilder sql =
+                new StringBuilder(", sensor_summaries AS (INSERT INTO sensor_reading_summaries")
+                        .append(" AS s (")
+                        .append(SUMMARY_COLUMNS)
+                        .append(") ")
+                        .append(summarizeSql("batch"))
+                        .append(" ON CONFLICT (sensor_id) DO UPDATE SET")
+                        .append(" reading_count = s.reading_count + EXCLUDED.reading_count,")
+                        .append(" first_timestamp = LEAST(s.first_timestamp,")
+                        .append(" EXCLUDED.first_timestamp)");
+        for (Kept kept : Kept.values()) {
+            for (String field : KEPT_FIELDS) {
+                String column = kept.prefix() + "_" + field;
+                sql.append(", ")
+                        .append(column)
+                        .append(" = CASE WHEN ")
+                        .append(kept.precedesSql())
+                        .append(" THEN EXCLUDED.")
+                        .append(column)
+                        .append(" ELSE s.")
+                        .append(column)
+                        .append(" END");
+            }
+        }
+        return sql.append(')').toString();
+    }
+
+    /**
+     * Returns the statement that takes the rows of a preceding {@code batch} expression, with
+     * columns {@code sensor_id} and {@code timestamp}, out of the summaries of their sensor
+     * systems. The counts are decremented; a kept reading that is among the rows is replaced by
+     * the first of the readings still stored, and kept as it is if none are left. The readings
+     * must already be deleted or updated in the database.
+     *
+     * @return the expressions and the update, preceded by a comma
+     */
+    static String removeBatchSql() {
+        StringBuilder sql =
+                new StringBuilder(", removed AS (SELECT sensor_id, count(*) AS reading_count,")
+                        .append(" array_agg(timestamp) AS timestamps")
+                        .append(" FROM batch GROUP BY sensor_id),")
+                        .append(" remaining AS (SELECT s.sensor_id, r.reading_count,")
+                        .append(" CASE WHEN s.first_timestamp = ANY(r.timestamps)")
+                        .append(" THEN (SELECT min(e.timestamp) FROM environmental_readings e")
+                        .append(" WHERE e.sensor_id = s.sensor_id) END AS first_timestamp");
+        for (Kept kept : Kept.values()) {
+            for (String field : KEPT_FIELDS) {
+                sql.append(", ")
+                        .append(kept.prefix())
+                        .append('.')
+                        .append(field)
+                        .append(" AS ")
+                        .append(kept.prefix())
+                        .append('_')
+                        .append(field);
+            }
+        }
+        sql.append(" FROM sensor_reading_summaries s JOIN removed r ON r.sensor_id = s.sensor_id");
+        for (Kept kept : Kept.values()) {
+            // Only looked up when the kept reading was removed
+            sql.append(" LEFT JOIN LATERAL (SELECT temperature, humidity, timestamp")
+                    .append(" FROM environmental_readings e WHERE e.sensor_id = s.sensor_id AND s.")
+                    .append(kept.prefix())
+                    .append("_timestamp = ANY(r.timestamps) ORDER BY ")
+                    .append(kept.orderBy())
+                    .append(" LIMIT 1) ")
+                    .append(kept.prefix())
+                    .append(" ON true");
+        }
+        sql.append(") UPDATE sensor_reading_summaries AS s SET")
+                .append(" reading_count = s.reading_count - x.reading_count,")
+                .append(" first_timestamp = COALESCE(x.first_timestamp, s.first_timestamp)");
+        for (Kept kept : Kept.values()) {
+            for (String field : KEPT_FIELDS) {
+                String column = kept.prefix() + "_" + field;
+                sql.append(", ")
+                        .append(column)
+                        .append(" = COALESCE(x.")
+                        .append(column)
+                        .append(", s.")
+                        .append(column)
+                        .append(')');
+            }
+        }
+        return sql.append(" FROM remaining x WHERE s.sensor_id = x.sensor_id").toString();
+    }
+
+    /** Selects the summary columns of every sensor system among the given readings. */
+    private static String summarizeSql(String readings) {
+        StringBuilder sql =
+                new StringBuilder("SELECT g.sensor_id, g.reading_count, g.first_timestamp");
+        for (Kept kept : Kept.values()) {
+            for (String field : KEPT_FIELDS) {
+                sql.append(", ").append(kept.prefix()).append('.').append(field);
+            }
+        }
+        sql.append(" FROM (SELECT sensor_id, count(*) AS reading_count,")
+                .append(" min(timestamp) AS first_timestamp FROM ")
+                .append(readings)
+                .append(" GROUP BY sensor_id) g");
+        for (Kept kept : Kept.values()) {
+            sql.append(" JOIN (SELECT DISTINCT ON (sensor_id) sensor_id, temperature, humidity,")
+                    .append(" timestamp FROM ")
+                    .append(readings)
+                    .append(" ORDER BY sensor_id, ")
+                    .append(kept.orderBy())
+                    .append(") ")
+                    .append(kept.prefix())
+                    .append(" ON ")
+                    .append(kept.prefix())
+                    .append(".sensor_id = g.sensor_id");
+        }
+        return sql.toString();
+    }
+
+    private static String summaryColumns() {
+        StringBuilder columns = new StringBuilder("sensor_id, reading_count, first_timestamp");
+        for (Kept kept : Kept.values()) {
+            for (String field : KEPT_FIELDS) {
+                columns.append(", ").append(kept.prefix()).append('_').append(field);
+            }
+        }
+        return columns.toString();
+    }
+
+    private static String replaceAllSql() {
+        StringBuilder sql =
+                new StringBuilder("reading_count = EXCLUDED.reading_count,")
+                        .append(" first_timestamp = EXCLUDED.first_timestamp");
+        for (Kept kept : Kept.values()) {
+            for (String field : KEPT_FIELDS) {
+                String column = kept.prefix() + "_" + field;
+                sql.append(", ").append(column).append(" = EXCLUDED.").append(column);
+            }
+        }
+        return sql.toString();
+    }
+
+    /** The readings kept in a summary, each with the order it comes first in. */
+    private enum Kept {
+        LATEST("timestamp", true),
+        WARMEST("temperature", true),
+        COLDEST("temperature", false),
+        MOST_HUMID("humidity", true),
+        LEAST_HUMID("humidity", false);
+
+        private final String column;
+
+        private final boolean descending;
+
+        Kept(String column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        String prefix() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        String orderBy() {
+            return column + (descending ? " DESC" : "") + ", timestamp";
+        }
+
+        /** Whether the kept reading of the {@code EXCLUDED} row comes before that of {@code s}. */
+        String precedesSql() {
+            return descending
+                    ? rowSql("EXCLUDED", "s") + " > " + rowSql("s", "EXCLUDED")
+                    : rowSql("EXCLUDED", "EXCLUDED") + " < " + rowSql("s", "s");
+        }
+
+        private String rowSql(String valueTable, String timestampTable) {
+            String value = prefix() + "_" + column;
+            String timestamp = prefix() + "_timestamp";
+            return "(" + valueTable + "." + value + ", " + timestampTable + "." + timestamp + ")";
+        }
+    }
+}
@@ -2,6 +2,8 @@
 
 import com.unconv.spring.domain.SensorLocation;
 import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.model.SensorIngestAuthorization;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
@@ -25,6 +27,21 @@ public interface SensorSystemRepository extends JpaRepository<SensorSystem, UUID
      */
     SensorSystem findSensorSystemById(UUID id);
 
+    /**
+     * Retrieves the ingest authorization state of the sensor systems with the specified UUIDs,
+     * without loading the sensor systems with their location, owner and roles.
+     *
+     * @param ids The UUIDs identifying the sensor systems.
+     * @return A {@link List} of {@link SensorIngestAuthorization}s, one for each sensor system
+     *     found.
+     */
+    @Query(
+            "SELECT new com.unconv.spring.model.SensorIngestAuthorization(s.id,"
+                    + " s.unconvUser.username, s.deleted, s.sensorStatus)"
+                    + " FROM SensorSystem s WHERE s.id IN :ids")
+    List<SensorIngestAuthorization> findSensorIngestAuthorizationsByIdIn(
+            @Param("ids") Collection<UUID> ids);
+
     /**
      * Retrieves a distinct list of sensor locations associated with sensor systems belonging to a
      * specific UnconvUser identified by the provided UUID.
@@ -97,4 +114,12 @@ List<SensorSystem> findDistinctBySensorNameContainingIgnoreCaseOrderBySensorName
      *     UnconvUser.
      */
     Page<SensorSystem> findByUnconvUserIdAndDeletedFalse(UUID unconvUserId, Pageable pageable);
+
+    /**
+     * Retrieves the UUIDs of all sensor systems, including deleted ones that still have readings.
+     *
+     * @return A {@link List} of the UUIDs of all sensor systems.
+     */
+    @Query("SELECT s.id FROM SensorSystem s")
+    List<UUID> findAllIds();
 }
@@ -0,0 +1,56 @@
+package com.unconv.spring.persistence;
+
+import com.unconv.spring.annotation.UuidV7;
+import com.unconv.spring.utils.UuidV7Generator;
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+/**
+ * Hibernate identifier generator backing {@link UuidV7}, assigning {@link UuidV7Generator}
+ * identifiers to entities when they are first persisted.
+ */
+public class UuidV7IdentifierGenerator implements BeforeExecutionGenerator {
+
+    /**
+     * Constructs a {@link UuidV7IdentifierGenerator}. Invoked by Hibernate for each identifier
+     * annotated with {@link UuidV7}.
+     *
+     * @param config the annotation on the identifier
+     * @param idMember the annotated identifier field or property
+     * @param creationContext the context the generator is created in
+     */
+    public UuidV7IdentifierGenerator(
+            UuidV7 config, Member idMember, CustomIdGeneratorCreationContext creationContext) {}
+
+    /**
+     * Generates a new time-ordered identifier.
+     *
+     * @param session the current session
+     * @param owner the entity being persisted
+     * @param currentValue the current identifier value, ignored
+     * @param eventType the event the identifier is generated for
+     * @return a new version 7 UUID
+     */
+    @Override
+    public Object generate(
+            SharedSessionContractImplementor session,
+            Object owner,
+            Object currentValue,
+            EventType eventType) {
+        return UuidV7Generator.generate();
+    }
+
+    /**
+     * Returns the events identifiers are generated for, which is only the insert.
+     *
+     * @return the insert event
+     */
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+}
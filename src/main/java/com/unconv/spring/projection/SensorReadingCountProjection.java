@@ -0,0 +1,21 @@
+package com.unconv.spring.projection;
+
+import java.util.UUID;
+
+/** Represents a projection of the number of environmental readings of a sensor system. */
+public interface SensorReadingCountProjection {
+
+    /**
+     * Retrieves the ID of the sensor system the readings belong to.
+     *
+     * @return the ID of the sensor system
+     */
+    UUID getSensorSystemId();
+
+    /**
+     * Retrieves the number of readings of the sensor system.
+     *
+     * @return the number of readings
+     */
+    long getReadingCount();
+}
@@ -0,0 +1,54 @@
+package com.unconv.spring.service;
+
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.model.CsvImportJob;
+import com.unconv.spring.model.response.CsvImportJobResponse;
+import com.unconv.spring.model.response.MessageResponse;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.multipart.MultipartFile;
+
+/** Service interface for running CSV imports of EnvironmentalReadings asynchronously. */
+public interface CsvImportJobService {
+
+    /**
+     * Verifies the CSV file, which may be gzip- or zstd-compressed, and queues it for import on
+     * the bounded worker pool.
+     *
+     * @param sensorSystem The SensorSystem to associate with the readings.
+     * @param file The CSV file containing EnvironmentalReadings.
+     * @param contentEncoding The Content-Encoding of the file part, or {@code null}.
+     * @param authentication The authentication object of the submitting user.
+     * @return ResponseEntity with status 202 (Accepted) and the queued job, 400 (Bad Request) if
+     *     the file is not a CSV file, 417 (Expectation Failed) if the upload cannot be stored, or
+     *     429 (Too Many Requests) if the import queue is full.
+     */
+    ResponseEntity<MessageResponse<CsvImportJobResponse>> verifyCSVFileAndSubmitCsvImportJob(
+            SensorSystem sensorSystem,
+            MultipartFile file,
+            String contentEncoding,
+            Authentication authentication);
+
+    /**
+     * Retrieves a CSV import job submitted by the given user.
+     *
+     * @param id The ID of the job.
+     * @param username The name of the user asking for the job.
+     * @return An Optional containing the job, or empty if it is unknown, expired or owned by
+     *     another user.
+     */
+    Optional<CsvImportJob> findCsvImportJobById(UUID id, String username);
+
+    /**
+     * Cancels a CSV import job submitted by the given user. A queued job is cancelled immediately;
+     * a running job stops at its next chunk and rolls back the readings it saved.
+     *
+     * @param id The ID of the job.
+     * @param username The name of the user cancelling the job.
+     * @return An Optional containing the job, or empty if it is unknown, expired or owned by
+     *     another user.
+     */
+    Optional<CsvImportJob> cancelCsvImportJob(UUID id, String username);
+}
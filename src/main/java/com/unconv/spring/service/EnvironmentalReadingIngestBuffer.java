@@ -0,0 +1,33 @@
+package com.unconv.spring.service;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import java.time.Duration;
+
+/**
+ * Bounded in-memory buffer in front of the {@code environmental_readings} table. Readings offered
+ * to the buffer are written asynchronously in group commits.
+ */
+public interface EnvironmentalReadingIngestBuffer {
+
+    /**
+     * Returns whether the write-behind ingest mode is enabled.
+     *
+     * @return true if readings should be offered to this buffer instead of being saved directly
+     */
+    boolean isEnabled();
+
+    /**
+     * Queues the given reading for a later group commit without blocking.
+     *
+     * @param environmentalReading the reading to queue; it must already carry its ID
+     * @return true if the reading was queued, false if the buffer is full or not running
+     */
+    boolean offer(EnvironmentalReading environmentalReading);
+
+    /**
+     * Returns how long clients should wait before retrying when the buffer is full.
+     *
+     * @return the retry delay advertised in the Retry-After header
+     */
+    Duration getRetryAfter();
+}
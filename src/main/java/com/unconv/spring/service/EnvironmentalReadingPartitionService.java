@@ -0,0 +1,46 @@
+package com.unconv.spring.service;
+
+import com.unconv.spring.model.DroppedPartitions;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Manages the monthly range partitions of the environmental readings table. Every operation is a
+ * no-op when the table is not partitioned, as when the schema is generated by Hibernate.
+ */
+public interface EnvironmentalReadingPartitionService {
+
+    /**
+     * Checks whether the environmental readings table is partitioned.
+     *
+     * @return true if the table is a partitioned table, false otherwise.
+     */
+    boolean isPartitioned();
+
+    /**
+     * Retrieves the months that have a partition of their own.
+     *
+     * @return The months with a partition, in ascending order.
+     */
+    List<YearMonth> findPartitions();
+
+    /**
+     * Creates the missing partitions of a range of months. Readings of those months held in the
+     * default partition are moved into the new partitions.
+     *
+     * @param from The first month to create a partition for.
+     * @param to The last month to create a partition for, inclusive.
+     * @return The months whose partition was created, in ascending order.
+     */
+    List<YearMonth> createPartitions(YearMonth from, YearMonth to);
+
+    /**
+     * Drops the partitions of all months before the given one, removing their readings without
+     * scanning them. Old readings held in the default partition are left untouched.
+     *
+     * @param month The first month whose partition is kept.
+     * @return The months whose partition was dropped and the sensor systems that had readings in
+     *     them.
+     */
+    DroppedPartitions dropPartitionsBefore(YearMonth month);
+}
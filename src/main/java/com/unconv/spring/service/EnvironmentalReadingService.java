@@ -3,9 +3,19 @@
 import com.unconv.spring.domain.EnvironmentalReading;
 import com.unconv.spring.domain.SensorSystem;
 import com.unconv.spring.dto.EnvironmentalReadingDTO;
+import com.unconv.spring.enums.CsvCompression;
+import com.unconv.spring.enums.ReadingExportFormat;
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.model.CsvImportJob;
+import com.unconv.spring.model.response.BatchIngestResponse;
+import com.unconv.spring.model.response.CursorPagedResult;
 import com.unconv.spring.model.response.ExtremeReadingsResponse;
 import com.unconv.spring.model.response.MessageResponse;
 import com.unconv.spring.model.response.PagedResult;
+import com.unconv.spring.model.response.ReadingSeriesResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -42,6 +52,59 @@ PagedResult<EnvironmentalReading> findAllEnvironmentalReadings(
     PagedResult<EnvironmentalReading> findAllEnvironmentalReadingsBySensorSystemId(
             UUID sensorSystemId, int pageNo, int pageSize, String sortBy, String sortDir);
 
+    /**
+     * Retrieves a page of all EnvironmentalReadings ordered by timestamp and then ID, continuing
+     * from a cursor rather than skipping the readings of earlier pages.
+     *
+     * @param cursor The cursor of the page to retrieve, as returned with an earlier page, or null
+     *     for the first page.
+     * @param pageSize The size of each page.
+     * @param sortDir The sort direction (ASC or DESC) of the first page; later pages keep the
+     *     direction of their cursor.
+     * @return A page of EnvironmentalReadings with the cursors of the pages around it, and their
+     *     total if it is known without counting the readings.
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    CursorPagedResult<EnvironmentalReading> findEnvironmentalReadingsPage(
+            String cursor, int pageSize, String sortDir);
+
+    /**
+     * Retrieves a page of the EnvironmentalReadings of a SensorSystem ordered by timestamp and
+     * then ID, continuing from a cursor rather than skipping the readings of earlier pages.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     * @param cursor The cursor of the page to retrieve, as returned with an earlier page, or null
+     *     for the first page.
+     * @param pageSize The size of each page.
+     * @param sortDir The sort direction (ASC or DESC) of the first page; later pages keep the
+     *     direction of their cursor.
+     * @return A page of EnvironmentalReadings with the cursors of the pages around it, and their
+     *     total if it is known without counting the readings.
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    CursorPagedResult<EnvironmentalReading> findEnvironmentalReadingsPageBySensorSystemId(
+            UUID sensorSystemId, String cursor, int pageSize, String sortDir);
+
+    /**
+     * Writes the readings of a sensor system taken from {@code start} up to {@code end} to the
+     * given stream in ascending order of their timestamp, as they are read from the database.
+     *
+     * @param sensorSystemId the unique identifier of the sensor system
+     * @param start the inclusive start of the time range
+     * @param end the exclusive end of the time range
+     * @param format the format to write the readings in
+     * @param outputStream the stream to write to; flushed but not closed
+     * @return the number of readings written
+     * @throws IOException if writing to the stream fails
+     */
+    long exportReadings(
+            UUID sensorSystemId,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            ReadingExportFormat format,
+            OutputStream outputStream)
+            throws IOException;
+
     /**
      * Finds a list of {@link EnvironmentalReading} entities associated with a specific sensor
      * system within a given time range.
@@ -55,6 +118,39 @@ PagedResult<EnvironmentalReading> findAllEnvironmentalReadingsBySensorSystemId(
     List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
             UUID sensorSystemId, OffsetDateTime startTime, OffsetDateTime endTime);
 
+    /**
+     * Retrieves the readings of a sensor system within a given time range as parallel arrays of
+     * their timestamps, temperatures and humidities.
+     *
+     * @param sensorSystem the sensor system whose readings are requested
+     * @param startTime the start of the time range
+     * @param endTime the end of the time range
+     * @return the readings in ascending order of their timestamp, along with the sensor system
+     */
+    ReadingSeriesResponse findReadingSeries(
+            SensorSystem sensorSystem, OffsetDateTime startTime, OffsetDateTime endTime);
+
+    /**
+     * Retrieves at most {@code maxPoints} readings of a sensor system within a given time range as
+     * parallel arrays, downsampled with Largest-Triangle-Three-Buckets so that the series keeps
+     * the shape of the chosen metric.
+     *
+     * @param sensorSystem the sensor system whose readings are requested
+     * @param startTime the inclusive start of the time range
+     * @param endTime the exclusive end of the time range
+     * @param maxPoints the maximum number of readings to return; at least 3
+     * @param metric the metric whose shape the kept readings follow
+     * @return the kept readings in ascending order of their timestamp, along with the sensor
+     *     system
+     * @throws IllegalArgumentException if {@code maxPoints} is less than 3
+     */
+    ReadingSeriesResponse findDownsampledReadingSeries(
+            SensorSystem sensorSystem,
+            OffsetDateTime startTime,
+            OffsetDateTime endTime,
+            int maxPoints,
+            ReadingMetric metric);
+
     /**
      * Retrieves an EnvironmentalReading by its ID.
      *
@@ -81,7 +177,9 @@ List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
 
     /**
      * Validates the UnconvUser, generates timestamp if required, and saves a new
-     * EnvironmentalReading.
+     * EnvironmentalReading. When the write-behind ingest mode is enabled the reading is queued
+     * instead, and the response is 202 (Accepted), or 429 (Too Many Requests) if the queue is full.
+     * The response is 404 (Not Found) if the SensorSystem does not exist.
      *
      * @param environmentalReadingDTO The EnvironmentalReadingDTO to save.
      * @param authentication The authentication object.
@@ -91,6 +189,17 @@ List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
             generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
                     EnvironmentalReadingDTO environmentalReadingDTO, Authentication authentication);
 
+    /**
+     * Validates a batch of EnvironmentalReadings, possibly spanning several SensorSystems, and
+     * saves the ones that pass. Each distinct SensorSystem is loaded and checked only once.
+     *
+     * @param environmentalReadingDTOs The EnvironmentalReadingDTOs to save.
+     * @param authentication The authentication object.
+     * @return ResponseEntity containing a BatchIngestResponse with the outcome of each reading.
+     */
+    ResponseEntity<BatchIngestResponse> validateSensorSystemsAndSaveEnvironmentalReadingsInBatch(
+            List<EnvironmentalReadingDTO> environmentalReadingDTOs, Authentication authentication);
+
     /**
      * Parses EnvironmentalReadings from a CSV file and saves them for the given SensorSystem.
      *
@@ -100,6 +209,35 @@ List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
      */
     int parseFromCSVAndSaveEnvironmentalReading(MultipartFile file, SensorSystem sensorSystem);
 
+    /**
+     * Parses EnvironmentalReadings from a possibly compressed CSV file, decompressing it as it is
+     * read, and saves them for the given SensorSystem.
+     *
+     * @param file The CSV file containing EnvironmentalReadings.
+     * @param csvCompression The compression of the file.
+     * @param sensorSystem The SensorSystem to associate with the readings.
+     * @return The number of readings successfully parsed and saved.
+     */
+    int parseFromCSVAndSaveEnvironmentalReading(
+            MultipartFile file, CsvCompression csvCompression, SensorSystem sensorSystem);
+
+    /**
+     * Parses EnvironmentalReadings from a CSV stream and saves them for the given SensorSystem.
+     * When a job is given, its progress counters are updated as the import advances, malformed
+     * records are skipped and counted as rejected, and a cancellation request stops the import.
+     *
+     * @param inputStream The CSV content.
+     * @param size The size of the CSV content in bytes, used to choose the parsing mode.
+     * @param sensorSystem The SensorSystem to associate with the readings.
+     * @param csvImportJob The job to report progress to, or {@code null} for a strict import.
+     * @return The number of readings successfully parsed and saved.
+     */
+    int parseFromCSVAndSaveEnvironmentalReading(
+            InputStream inputStream,
+            long size,
+            SensorSystem sensorSystem,
+            CsvImportJob csvImportJob);
+
     /**
      * Deletes an EnvironmentalReading by its ID.
      *
@@ -118,6 +256,19 @@ List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
     ResponseEntity<String> verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings(
             SensorSystem sensorSystem, MultipartFile file);
 
+    /**
+     * Verifies the CSV file, which may be gzip- or zstd-compressed, validates the SensorSystem,
+     * and parses EnvironmentalReadings.
+     *
+     * @param sensorSystem The SensorSystem to validate and associate with the readings.
+     * @param file The CSV file containing EnvironmentalReadings.
+     * @param contentEncoding The Content-Encoding of the file part, or {@code null}.
+     * @return ResponseEntity containing a message indicating the success or failure of the
+     *     operation.
+     */
+    ResponseEntity<String> verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings(
+            SensorSystem sensorSystem, MultipartFile file, String contentEncoding);
+
     /**
      * Retrieves the extreme readings (highest and lowest temperature, highest and lowest humidity)
      * for a given sensor system.
@@ -1,14 +1,16 @@
 package com.unconv.spring.service;
 
 import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.model.ReadingStatsQuery;
+import com.unconv.spring.model.response.ReadingStatsResponse;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 /**
- * EnvironmentalReadingStatsService defines methods for calculating average temperatures based on
- * environmental readings.
+ * EnvironmentalReadingStatsService defines methods for calculating average temperatures and other
+ * stats based on environmental readings.
  */
 public interface EnvironmentalReadingStatsService {
 
@@ -63,4 +65,18 @@ public interface EnvironmentalReadingStatsService {
      * @return a map containing the average temperatures for each daily interval
      */
     Map<OffsetDateTime, Double> getAverageTempsForDaily(List<EnvironmentalReading> data);
+
+    /**
+     * Computes the requested aggregates of the requested metrics of a sensor system per bucket
+     * over a time range. The stats are computed from the rollups of the readings when their
+     * resolution divides the interval and the range and every requested aggregate can be derived
+     * from them, and from the raw readings otherwise.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param query the range, bucket length, metrics and aggregates to compute
+     * @return the stats of the non-empty buckets
+     * @throws IllegalArgumentException if the query is invalid or spans more than {@link
+     *     com.unconv.spring.consts.AppConstants#MAX_STATS_BUCKETS} buckets
+     */
+    ReadingStatsResponse getStats(UUID sensorSystemId, ReadingStatsQuery query);
 }
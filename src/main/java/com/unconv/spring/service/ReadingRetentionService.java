@@ -0,0 +1,43 @@
+package com.unconv.spring.service;
+
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.model.ReadingRetentionResult;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Applies the retention policies of environmental readings: expired raw readings are deleted,
+ * leaving only the aggregates they were rolled up into when written, and expired aggregates are
+ * deleted. Work is done in bounded batches, each in a transaction of its own.
+ */
+public interface ReadingRetentionService {
+
+    /**
+     * Applies the retention policy of every sensor system.
+     *
+     * @return The number of readings compacted and aggregates deleted.
+     */
+    ReadingRetentionResult applyRetentionPolicies();
+
+    /**
+     * Compacts the raw readings of a sensor system taken before a cutoff by deleting them. Their
+     * aggregates, maintained as the readings were written, are left as they are, while the reading
+     * summary of the sensor system is rebuilt.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     * @param cutoff The time before which readings are compacted.
+     * @return The number of readings compacted.
+     */
+    long compactReadingsBefore(UUID sensorSystemId, OffsetDateTime cutoff);
+
+    /**
+     * Deletes the aggregates of a sensor system whose bucket starts before a cutoff.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     * @param resolution The resolution of the aggregates to delete.
+     * @param cutoff The time before which aggregates are deleted.
+     * @return The number of aggregates deleted.
+     */
+    long deleteAggregatesBefore(
+            UUID sensorSystemId, AggregateResolution resolution, OffsetDateTime cutoff);
+}
@@ -0,0 +1,65 @@
+package com.unconv.spring.service;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Counts the environmental readings of each sensor system per hour over the last week, so that the
+ * number of readings in any trailing window of whole hours can be answered without querying the
+ * readings. Counters are loaded from the hourly aggregates, which are written along with the
+ * readings, and then follow the readings inserted since; a sensor system whose counters are not
+ * loaded is cold, and its counts have to be queried instead.
+ */
+public interface RecentReadingCounter {
+
+    /** The number of hours counted per sensor system, and so the longest window answered. */
+    int COUNTED_HOURS = 168;
+
+    /**
+     * Returns the number of readings of a sensor system in each trailing window, counting the
+     * current UTC hour as the last hour of every window.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param windowsInHours the lengths of the windows, each from 1 to {@link #COUNTED_HOURS}
+     * @return the number of readings per window length, or empty if the counters of the sensor
+     *     system are cold
+     */
+    Optional<Map<Integer, Long>> findRecentCounts(
+            UUID sensorSystemId, List<Integer> windowsInHours);
+
+    /**
+     * Counts the given readings as inserted. If a transaction is active they are counted once it
+     * commits, so a rollback cannot leave the counters ahead of the database.
+     *
+     * @param environmentalReadings the readings that were inserted
+     */
+    void recordInserted(Collection<EnvironmentalReading> environmentalReadings);
+
+    /**
+     * Counts the given readings as inserted if all of them were, as {@link
+     * #recordInserted(Collection)} does, and ignores them if none were. Otherwise it is not known
+     * which of them were skipped, and the counters of their sensor systems are forgotten instead.
+     *
+     * @param environmentalReadings the readings that were written
+     * @param insertedCount the number of them that were inserted
+     */
+    void recordInserted(Collection<EnvironmentalReading> environmentalReadings, long insertedCount);
+
+    /**
+     * Forgets the counters of a sensor system, for example after one of its readings is deleted or
+     * moved to another timestamp. The sensor system stays cold until the counters are reloaded.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     */
+    void forgetSensorSystem(UUID sensorSystemId);
+
+    /**
+     * Replaces the counters of all sensor systems with the counts of the hourly aggregates of the
+     * last {@link #COUNTED_HOURS} hours. Sensor systems without readings in that time stay cold.
+     */
+    void reload();
+}
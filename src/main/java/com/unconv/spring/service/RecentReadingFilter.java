@@ -0,0 +1,38 @@
+package com.unconv.spring.service;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Remembers the timestamps of recently stored environmental readings per sensor system, so that
+ * retried readings can be recognised as duplicates without a round trip to the database. The
+ * filter never reports a false duplicate: a reading it does not recognise is still inserted with
+ * conflicts on the unique (sensor, timestamp) key skipped.
+ */
+public interface RecentReadingFilter {
+
+    /**
+     * Returns whether a reading with the same sensor system and timestamp is known to be stored.
+     *
+     * @param environmentalReading the reading to check
+     * @return true if the reading is a known duplicate
+     */
+    boolean isKnownDuplicate(EnvironmentalReading environmentalReading);
+
+    /**
+     * Records the given readings as stored. If a transaction is active they are recorded once it
+     * commits, so a rollback cannot leave the filter ahead of the database.
+     *
+     * @param environmentalReadings the readings that are stored, whether inserted now or earlier
+     */
+    void recordStored(Collection<EnvironmentalReading> environmentalReadings);
+
+    /**
+     * Forgets everything remembered for a sensor system, for example after one of its readings is
+     * deleted or moved to another timestamp.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     */
+    void forgetSensorSystem(UUID sensorSystemId);
+}
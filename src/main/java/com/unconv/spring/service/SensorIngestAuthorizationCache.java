@@ -0,0 +1,42 @@
+package com.unconv.spring.service;
+
+import com.unconv.spring.model.SensorIngestAuthorization;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded cache of the {@link SensorIngestAuthorization} of sensor systems, so that ingesting a
+ * reading does not load the whole SensorSystem with its location, owner and roles.
+ */
+public interface SensorIngestAuthorizationCache {
+
+    /**
+     * Retrieves the ingest authorization of a SensorSystem, loading it if it is not cached.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     * @return An Optional containing the SensorIngestAuthorization, or empty if the SensorSystem
+     *     does not exist.
+     */
+    Optional<SensorIngestAuthorization> find(UUID sensorSystemId);
+
+    /**
+     * Retrieves the ingest authorizations of several SensorSystems, loading the ones that are not
+     * cached in a single query.
+     *
+     * @param sensorSystemIds The IDs of the SensorSystems.
+     * @return The SensorIngestAuthorizations by SensorSystem ID; SensorSystems that do not exist
+     *     are absent.
+     */
+    Map<UUID, SensorIngestAuthorization> findAll(Collection<UUID> sensorSystemIds);
+
+    /**
+     * Evicts the ingest authorization of a SensorSystem that is being changed or deleted. When a
+     * transaction is active the entry is evicted again once it completes, so that a concurrent
+     * ingest cannot cache the state from before the change.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     */
+    void invalidate(UUID sensorSystemId);
+}
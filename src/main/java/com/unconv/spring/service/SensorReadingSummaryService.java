@@ -0,0 +1,27 @@
+package com.unconv.spring.service;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Repairs the reading summaries of sensor systems, which are maintained on ingest but drift from
+ * the stored readings when readings are removed in bulk, such as when monthly partitions are
+ * dropped. Each summary is rebuilt in a transaction of its own.
+ */
+public interface SensorReadingSummaryService {
+
+    /**
+     * Rebuilds the reading summary of a sensor system from its stored readings.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     */
+    void rebuildSummary(UUID sensorSystemId);
+
+    /**
+     * Rebuilds the reading summaries of the given sensor systems.
+     *
+     * @param sensorSystemIds The IDs of the SensorSystems.
+     * @return The number of summaries rebuilt.
+     */
+    int rebuildSummaries(Collection<UUID> sensorSystemIds);
+}
@@ -108,10 +108,11 @@ List<SensorSystem> findAllBySensorSystemsBySensorNameAndUnconvUserId(
             String sensorName, UUID unconvUserId);
 
     /**
-     * Finds recent statistics by SensorSystem ID.
+     * Counts the EnvironmentalReadings of a SensorSystem in the trailing windows of 1, 3, 8, 24 and
+     * 168 hours, each ending with the current UTC hour.
      *
      * @param sensorSystemId The ID of the SensorSystem.
-     * @return A map containing recent statistics for the SensorSystem.
+     * @return A map of the number of readings per window length in hours.
      */
     Map<Integer, Long> findRecentStatsBySensorSystemId(UUID sensorSystemId);
 }
@@ -0,0 +1,290 @@
+package com.unconv.spring.service.impl;
+
+import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_FORMAT_ERROR;
+import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_JOB_ACCEPTED;
+import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_JOB_CANCELLED;
+import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_JOB_REJ_BUSY;
+import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_REJ_ERR;
+
+import com.unconv.spring.config.CsvImportConfig;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.enums.CsvCompression;
+import com.unconv.spring.enums.CsvImportJobStatus;
+import com.unconv.spring.model.CsvImportJob;
+import com.unconv.spring.model.response.CsvImportJobResponse;
+import com.unconv.spring.model.response.MessageResponse;
+import com.unconv.spring.service.CsvImportJobService;
+import com.unconv.spring.service.EnvironmentalReadingService;
+import com.unconv.spring.utils.CSVUtil;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Runs CSV imports on a fixed-size worker pool with a bounded queue. Uploads are copied to a
+ * temporary file before the request returns, still compressed if they were uploaded compressed,
+ * and decompressed as the job reads them. Each job imports its file in a single transaction
+ * through {@link EnvironmentalReadingService#parseFromCSVAndSaveEnvironmentalReading(InputStream,
+ * long, SensorSystem, CsvImportJob)}. Job state is kept in memory for {@link
+ * CsvImportConfig#getJobRetention()} after a job finishes.
+ */
+@Slf4j
+@Service
+public class CsvImportJobServiceImpl implements CsvImportJobService {
+
+    private final EnvironmentalReadingService environmentalReadingService;
+
+    private final CsvImportConfig csvImportConfig;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<UUID, CsvImportTask> csvImportTasks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@link CsvImportJobServiceImpl} with the given reading service and settings.
+     *
+     * @param environmentalReadingService the service that parses and saves the readings
+     * @param csvImportConfig the CSV import settings, including the worker pool size
+     */
+    public CsvImportJobServiceImpl(
+            EnvironmentalReadingService environmentalReadingService,
+            CsvImportConfig csvImportConfig) {
+        this.environmentalReadingService = environmentalReadingService;
+        this.csvImportConfig = csvImportConfig;
+        this.executor =
+                new ThreadPoolExecutor(
+                        csvImportConfig.getAsyncWorkers(),
+                        csvImportConfig.getAsyncWorkers(),
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(csvImportConfig.getAsyncQueueCapacity()),
+                        new CustomizableThreadFactory("csv-import-"));
+    }
+
+    /**
+     * Verifies the CSV file, which may be gzip- or zstd-compressed, and queues it for import on
+     * the bounded worker pool.
+     *
+     * @param sensorSystem The SensorSystem to associate with the readings.
+     * @param file The CSV file containing EnvironmentalReadings.
+     * @param contentEncoding The Content-Encoding of the file part, or {@code null}.
+     * @param authentication The authentication object of the submitting user.
+     * @return ResponseEntity with status 202 (Accepted) and the queued job, 400 (Bad Request) if
+     *     the file is not a CSV file, 417 (Expectation Failed) if the upload cannot be stored, or
+     *     429 (Too Many Requests) if the import queue is full.
+     */
+    @Override
+    public ResponseEntity<MessageResponse<CsvImportJobResponse>> verifyCSVFileAndSubmitCsvImportJob(
+            SensorSystem sensorSystem,
+            MultipartFile file,
+            String contentEncoding,
+            Authentication authentication) {
+        Optional<CsvCompression> csvCompression =
+                CSVUtil.getCsvCompression(file.getContentType(), contentEncoding);
+        if (csvCompression.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse<>(null, ENVT_FILE_FORMAT_ERROR));
+        }
+
+        evictExpiredJobs();
+
+        Path csvFile;
+        try {
+            csvFile = Files.createTempFile("readings-import-", ".csv");
+        } catch (IOException e) {
+            return rejectUpload(file);
+        }
+        try {
+            file.transferTo(csvFile);
+        } catch (IOException e) {
+            deleteQuietly(csvFile);
+            return rejectUpload(file);
+        }
+
+        CsvImportJob csvImportJob =
+                new CsvImportJob(
+                        sensorSystem.getId(), file.getOriginalFilename(), authentication.getName());
+        CsvImportTask csvImportTask =
+                new CsvImportTask(csvImportJob, sensorSystem, csvFile, csvCompression.get());
+        csvImportTasks.put(csvImportJob.getId(), csvImportTask);
+        try {
+            executor.execute(csvImportTask);
+        } catch (RejectedExecutionException e) {
+            csvImportTasks.remove(csvImportJob.getId());
+            deleteQuietly(csvFile);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(new MessageResponse<>(null, ENVT_FILE_JOB_REJ_BUSY));
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(
+                        new MessageResponse<>(
+                                CsvImportJobResponse.of(csvImportJob),
+                                ENVT_FILE_JOB_ACCEPTED.formatted(file.getOriginalFilename())));
+    }
+
+    /**
+     * Retrieves a CSV import job submitted by the given user.
+     *
+     * @param id The ID of the job.
+     * @param username The name of the user asking for the job.
+     * @return An Optional containing the job, or empty if it is unknown, expired or owned by
+     *     another user.
+     */
+    @Override
+    public Optional<CsvImportJob> findCsvImportJobById(UUID id, String username) {
+        return Optional.ofNullable(csvImportTasks.get(id))
+                .map(csvImportTask -> csvImportTask.csvImportJob)
+                .filter(csvImportJob -> csvImportJob.getUsername().equals(username));
+    }
+
+    /**
+     * Cancels a CSV import job submitted by the given user. A queued job is cancelled immediately;
+     * a running job stops at its next chunk and rolls back the readings it saved.
+     *
+     * @param id The ID of the job.
+     * @param username The name of the user cancelling the job.
+     * @return An Optional containing the job, or empty if it is unknown, expired or owned by
+     *     another user.
+     */
+    @Override
+    public Optional<CsvImportJob> cancelCsvImportJob(UUID id, String username) {
+        CsvImportTask csvImportTask = csvImportTasks.get(id);
+        if (csvImportTask == null || !csvImportTask.csvImportJob.getUsername().equals(username)) {
+            return Optional.empty();
+        }
+
+        CsvImportJob csvImportJob = csvImportTask.csvImportJob;
+        csvImportJob.requestCancel();
+        if (executor.remove(csvImportTask)) {
+            csvImportJob.markFinished(CsvImportJobStatus.CANCELLED, ENVT_FILE_JOB_CANCELLED);
+            deleteQuietly(csvImportTask.csvFile);
+        }
+        return Optional.of(csvImportJob);
+    }
+
+    /**
+     * Cancels unfinished jobs and waits for the workers to roll them back before the data source
+     * is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        csvImportTasks
+                .values()
+                .forEach(csvImportTask -> csvImportTask.csvImportJob.requestCancel());
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("CSV import workers did not stop within 30 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runCsvImportJob(CsvImportTask csvImportTask) {
+        CsvImportJob csvImportJob = csvImportTask.csvImportJob;
+        try {
+            if (csvImportJob.isCancelRequested()) {
+                csvImportJob.markFinished(CsvImportJobStatus.CANCELLED, ENVT_FILE_JOB_CANCELLED);
+                return;
+            }
+
+            csvImportJob.markRunning();
+            try (InputStream inputStream =
+                    CSVUtil.decompress(
+                            Files.newInputStream(csvImportTask.csvFile),
+                            csvImportTask.csvCompression)) {
+                environmentalReadingService.parseFromCSVAndSaveEnvironmentalReading(
+                        inputStream,
+                        Files.size(csvImportTask.csvFile),
+                        csvImportTask.sensorSystem,
+                        csvImportJob);
+            }
+            csvImportJob.markFinished(CsvImportJobStatus.COMPLETED, csvImportJob.getMessage());
+        } catch (CancellationException e) {
+            csvImportJob.markFinished(CsvImportJobStatus.CANCELLED, ENVT_FILE_JOB_CANCELLED);
+        } catch (Exception e) {
+            log.error("CSV import job {} failed", csvImportJob.getId(), e);
+            csvImportJob.markFinished(CsvImportJobStatus.FAILED, e.getMessage());
+        } finally {
+            deleteQuietly(csvImportTask.csvFile);
+        }
+    }
+
+    private void evictExpiredJobs() {
+        OffsetDateTime cutoff =
+                OffsetDateTime.now(ZoneOffset.UTC).minus(csvImportConfig.getJobRetention());
+        csvImportTasks
+                .values()
+                .removeIf(
+                        csvImportTask -> {
+                            OffsetDateTime finishedAt = csvImportTask.csvImportJob.getFinishedAt();
+                            return finishedAt != null && finishedAt.isBefore(cutoff);
+                        });
+    }
+
+    private static ResponseEntity<MessageResponse<CsvImportJobResponse>> rejectUpload(
+            MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.EXPECTATION_FAILED)
+                .body(
+                        new MessageResponse<>(
+                                null, ENVT_FILE_REJ_ERR.formatted(file.getOriginalFilename())));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary import file {}", path, e);
+        }
+    }
+
+    /** A queued or running import, kept so that queued jobs can be removed from the executor. */
+    private final class CsvImportTask implements Runnable {
+
+        private final CsvImportJob csvImportJob;
+
+        private final SensorSystem sensorSystem;
+
+        private final Path csvFile;
+
+        private final CsvCompression csvCompression;
+
+        private CsvImportTask(
+                CsvImportJob csvImportJob,
+                SensorSystem sensorSystem,
+                Path csvFile,
+                CsvCompression csvCompression) {
+            this.csvImportJob = csvImportJob;
+            this.sensorSystem = sensorSystem;
+            this.csvFile = csvFile;
+            this.csvCompression = csvCompression;
+        }
+
+        @Override
+        public void run() {
+            runCsvImportJob(this);
+        }
+    }
+}
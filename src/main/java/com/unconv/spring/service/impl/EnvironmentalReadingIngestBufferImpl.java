@@ -0,0 +1,335 @@
+package com.unconv.spring.service.impl;
+
+import com.unconv.spring.config.WriteBehindIngestConfig;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.service.EnvironmentalReadingIngestBuffer;
+import com.unconv.spring.service.RecentReadingCounter;
+import com.unconv.spring.service.RecentReadingFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind implementation of {@link EnvironmentalReadingIngestBuffer}. A single writer thread
+ * drains the queue and writes each group of readings in one transaction, so sustained ingest uses
+ * one database connection regardless of the number of posting sensors. A group is committed once
+ * it reaches {@link WriteBehindIngestConfig#getMaxBatchSize()} readings or once its first reading
+ * has waited {@link WriteBehindIngestConfig#getFlushInterval()}, whichever comes first. Readings
+ * already stored for the same sensor system and timestamp are skipped.
+ *
+ * <p>A group failing on a transient database error is written again, up to {@link
+ * WriteBehindIngestConfig#getMaxWriteAttempts()} times. A group violating a constraint, such as a
+ * reading of a sensor system deleted while it was queued, is split per sensor system and then per
+ * reading, so only the offending readings are lost. Readings that cannot be written are counted by
+ * the {@value #DROPPED_READINGS_METER} meter.
+ *
+ * <p>The buffer stops after the web server has finished its graceful shutdown, and the writer
+ * drains everything still queued before the data source is closed.
+ */
+@Slf4j
+@Service
+public class EnvironmentalReadingIngestBufferImpl
+        implements EnvironmentalReadingIngestBuffer, SmartLifecycle {
+
+    /** Below the web server lifecycles, so the buffer stops only once requests have drained. */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    /** Name of the counter of queued readings that could not be written. */
+    static final String DROPPED_READINGS_METER = "unconv.ingest.write-behind.dropped";
+
+    private final WriteBehindIngestConfig writeBehindIngestConfig;
+
+    private final EnvironmentalReadingRepository environmentalReadingRepository;
+
+    private final RecentReadingFilter recentReadingFilter;
+
+    private final RecentReadingCounter recentReadingCounter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<EnvironmentalReading> queue;
+
+    private final Counter droppedReadings;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    /**
+     * Constructs an {@link EnvironmentalReadingIngestBufferImpl} with the given settings,
+     * repository, duplicate filter, reading counter, transaction manager and meter registry.
+     *
+     * @param writeBehindIngestConfig the write-behind ingest settings
+     * @param environmentalReadingRepository the repository used to write each group of readings
+     * @param recentReadingFilter the filter told about each committed group
+     * @param recentReadingCounter the counter told about the readings of each committed group
+     * @param transactionManager the transaction manager used to commit each group
+     * @param meterRegistry the registry the counter of dropped readings is registered with
+     */
+    public EnvironmentalReadingIngestBufferImpl(
+            WriteBehindIngestConfig writeBehindIngestConfig,
+            EnvironmentalReadingRepository environmentalReadingRepository,
+            RecentReadingFilter recentReadingFilter,
+            RecentReadingCounter recentReadingCounter,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.writeBehindIngestConfig = writeBehindIngestConfig;
+        this.environmentalReadingRepository = environmentalReadingRepository;
+        this.recentReadingFilter = recentReadingFilter;
+        this.recentReadingCounter = recentReadingCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(writeBehindIngestConfig.getCapacity());
+        this.droppedReadings =
+                Counter.builder(DROPPED_READINGS_METER)
+                        .description("Queued environmental readings that could not be written")
+                        .baseUnit("readings")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether the write-behind ingest mode is enabled.
+     *
+     * @return true if readings should be offered to this buffer instead of being saved directly
+     */
+    @Override
+    public boolean isEnabled() {
+        return writeBehindIngestConfig.isEnabled();
+    }
+
+    /**
+     * Queues the given reading for a later group commit without blocking.
+     *
+     * @param environmentalReading the reading to queue; it must already carry its ID
+     * @return true if the reading was queued, false if the buffer is full or not running
+     */
+    @Override
+    public boolean offer(EnvironmentalReading environmentalReading) {
+        return running && queue.offer(environmentalReading);
+    }
+
+    /**
+     * Returns how long clients should wait before retrying when the buffer is full.
+     *
+     * @return the retry delay advertised in the Retry-After header
+     */
+    @Override
+    public Duration getRetryAfter() {
+        return writeBehindIngestConfig.getRetryAfter();
+    }
+
+    /** Starts the writer thread if the write-behind ingest mode is enabled. */
+    @Override
+    public void start() {
+        if (!isEnabled() || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainContinuously, "environmental-reading-writer");
+        writer.start();
+    }
+
+    /**
+     * Stops accepting readings and waits for the writer to drain the queue, up to {@link
+     * WriteBehindIngestConfig#getShutdownTimeout()}.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(writeBehindIngestConfig.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error(
+                    "Shutdown timed out with {} environmental readings left unwritten",
+                    queue.size());
+        }
+    }
+
+    /**
+     * Returns whether the writer thread is running.
+     *
+     * @return true if readings are currently being accepted
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the lifecycle phase of the buffer.
+     *
+     * @return a phase lower than the web server's, so the buffer starts before it and stops after
+     */
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Writes the readings currently in the queue as group commits until the queue is empty.
+     *
+     * @return the number of readings written
+     */
+    int drainQueue() {
+        int written = 0;
+        List<EnvironmentalReading> group = new ArrayList<>();
+        while (queue.drainTo(group, writeBehindIngestConfig.getMaxBatchSize()) > 0) {
+            written += write(group);
+            group.clear();
+        }
+        return written;
+    }
+
+    private void drainContinuously() {
+        int maxBatchSize = writeBehindIngestConfig.getMaxBatchSize();
+        long flushIntervalNanos = writeBehindIngestConfig.getFlushInterval().toNanos();
+        List<EnvironmentalReading> group = new ArrayList<>(maxBatchSize);
+
+        try {
+            while (running) {
+                EnvironmentalReading first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                group.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (group.size() < maxBatchSize) {
+                    queue.drainTo(group, maxBatchSize - group.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (group.size() >= maxBatchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    EnvironmentalReading next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+
+                write(group);
+                group.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!group.isEmpty()) {
+                write(group);
+            }
+            drainQueue();
+        }
+    }
+
+    private int write(List<EnvironmentalReading> group) {
+        try {
+            return insertRetryingTransientFailures(group);
+        } catch (DataIntegrityViolationException e) {
+            if (group.size() == 1) {
+                drop(group, e);
+                return 0;
+            }
+            return writeSplit(group);
+        } catch (RuntimeException e) {
+            drop(group, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Writes a group that violated a constraint in smaller parts: one per sensor system, or one per
+     * reading if the group holds the readings of a single sensor system.
+     */
+    private int writeSplit(List<EnvironmentalReading> group) {
+        Collection<List<EnvironmentalReading>> readingsBySensorSystem =
+                group.stream()
+                        .collect(
+                                Collectors.groupingBy(
+                                        environmentalReading ->
+                                                environmentalReading.getSensorSystem().getId(),
+                                        LinkedHashMap::new,
+                                        Collectors.toList()))
+                        .values();
+        int written = 0;
+        if (readingsBySensorSystem.size() == 1) {
+            for (EnvironmentalReading environmentalReading : group) {
+                written += write(List.of(environmentalReading));
+            }
+        } else {
+            for (List<EnvironmentalReading> readingsOfSensorSystem : readingsBySensorSystem) {
+                written += write(readingsOfSensorSystem);
+            }
+        }
+        return written;
+    }
+
+    private int insertRetryingTransientFailures(List<EnvironmentalReading> group) {
+        int attempt = 1;
+        while (true) {
+            try {
+                return insert(group);
+            } catch (RuntimeException e) {
+                if (!isTransient(e) || attempt >= writeBehindIngestConfig.getMaxWriteAttempts()) {
+                    throw e;
+                }
+                log.warn(
+                        "Attempt {} to write {} queued environmental readings failed, retrying",
+                        attempt,
+                        group.size(),
+                        e);
+                attempt++;
+                try {
+                    Thread.sleep(writeBehindIngestConfig.getWriteRetryBackoff().toMillis());
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private int insert(List<EnvironmentalReading> group) {
+        Integer written =
+                transactionTemplate.execute(
+                        status -> environmentalReadingRepository.batchInsert(group));
+        recentReadingFilter.recordStored(group);
+        int inserted = written == null ? 0 : written;
+        recentReadingCounter.recordInserted(group, inserted);
+        return inserted;
+    }
+
+    private void drop(List<EnvironmentalReading> group, RuntimeException e) {
+        log.error("Failed to write {} queued environmental readings", group.size(), e);
+        droppedReadings.increment(group.size());
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+}
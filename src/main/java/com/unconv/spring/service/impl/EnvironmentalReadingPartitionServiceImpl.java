@@ -0,0 +1,212 @@
+package com.unconv.spring.service.impl;
+
+import com.unconv.spring.model.DroppedPartitions;
+import com.unconv.spring.service.EnvironmentalReadingPartitionService;
+import com.unconv.spring.service.RecentReadingCounter;
+import com.unconv.spring.service.RecentReadingFilter;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * PostgreSQL implementation of {@link EnvironmentalReadingPartitionService}. Partitions are named
+ * {@code environmental_readings_yYYYYmMM} and hold the readings whose UTC timestamp falls in that
+ * month; readings outside every partition land in {@code environmental_readings_default}.
+ */
+@Slf4j
+@Service
+@Transactional
+public class EnvironmentalReadingPartitionServiceImpl
+        implements EnvironmentalReadingPartitionService {
+
+    private static final String PARTITION_PREFIX = "environmental_readings_";
+
+    private static final String DEFAULT_PARTITION = "environmental_readings_default";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER =
+            DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final Pattern PARTITION_NAME_PATTERN =
+            Pattern.compile("environmental_readings_y(\\d{4})m(\\d{2})");
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table"
+                    + " WHERE partrelid = to_regclass('environmental_readings'))";
+
+    private static final String FIND_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                    + " WHERE i.inhparent = 'environmental_readings'::regclass";
+
+    private static final String CREATE_PARTITION_TABLE_SQL =
+            "CREATE TABLE %s (LIKE environmental_readings INCLUDING DEFAULTS)";
+
+    private static final String MOVE_DEFAULT_PARTITION_ROWS_SQL =
+            "WITH moved AS (DELETE FROM "
+                    + DEFAULT_PARTITION
+                    + " WHERE timestamp >= '%2$s' AND timestamp < '%3$s'"
+                    + " RETURNING id, humidity, temperature, timestamp, sensor_id)"
+                    + " INSERT INTO %1$s (id, humidity, temperature, timestamp, sensor_id)"
+                    + " SELECT id, humidity, temperature, timestamp, sensor_id FROM moved";
+
+    private static final String ATTACH_PARTITION_SQL =
+            "ALTER TABLE environmental_readings ATTACH PARTITION %s"
+                    + " FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String FIND_PARTITION_SENSOR_SYSTEMS_SQL =
+            "SELECT DISTINCT sensor_id FROM %s WHERE sensor_id IS NOT NULL";
+
+    private static final String DROP_PARTITION_SQL = "DROP TABLE %s";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final RecentReadingFilter recentReadingFilter;
+
+    private final RecentReadingCounter recentReadingCounter;
+
+    /**
+     * Constructs an {@link EnvironmentalReadingPartitionServiceImpl}.
+     *
+     * @param jdbcTemplate the template the partition DDL is run with
+     * @param recentReadingFilter the filter told to forget the sensor systems of dropped readings
+     * @param recentReadingCounter the counter told to forget the sensor systems of dropped readings
+     */
+    public EnvironmentalReadingPartitionServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            RecentReadingFilter recentReadingFilter,
+            RecentReadingCounter recentReadingCounter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recentReadingFilter = recentReadingFilter;
+        this.recentReadingCounter = recentReadingCounter;
+    }
+
+    /**
+     * Checks whether the environmental readings table is partitioned.
+     *
+     * @return true if the table is a partitioned table, false otherwise.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isPartitioned() {
+        boolean postgres =
+                Boolean.TRUE.equals(
+                        jdbcTemplate.execute(
+                                (ConnectionCallback<Boolean>)
+                                        connection -> connection.isWrapperFor(PGConnection.class)));
+        return postgres
+                && Boolean.TRUE.equals(
+                        jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class));
+    }
+
+    /**
+     * Retrieves the months that have a partition of their own.
+     *
+     * @return The months with a partition, in ascending order.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<YearMonth> findPartitions() {
+        return isPartitioned() ? findPartitionMonths() : List.of();
+    }
+
+    /**
+     * Creates the missing partitions of a range of months. Each partition is filled as a plain
+     * table with the readings of its month found in the default partition, then attached, so that
+     * the attach never conflicts with rows left in the default partition.
+     *
+     * @param from The first month to create a partition for.
+     * @param to The last month to create a partition for, inclusive.
+     * @return The months whose partition was created, in ascending order.
+     */
+    @Override
+    public List<YearMonth> createPartitions(YearMonth from, YearMonth to) {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        Set<YearMonth> existingMonths = new HashSet<>(findPartitionMonths());
+        List<YearMonth> createdMonths = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (existingMonths.contains(month)) {
+                continue;
+            }
+            String partitionName = partitionName(month);
+            String lowerBound = month.atDay(1).toString();
+            String upperBound = month.plusMonths(1).atDay(1).toString();
+            jdbcTemplate.execute(String.format(CREATE_PARTITION_TABLE_SQL, partitionName));
+            String moveSql =
+                    String.format(
+                            MOVE_DEFAULT_PARTITION_ROWS_SQL, partitionName, lowerBound, upperBound);
+            jdbcTemplate.update(moveSql);
+            jdbcTemplate.execute(
+                    String.format(ATTACH_PARTITION_SQL, partitionName, lowerBound, upperBound));
+            log.info("Created environmental readings partition {}", partitionName);
+            createdMonths.add(month);
+        }
+        return createdMonths;
+    }
+
+    /**
+     * Drops the partitions of all months before the given one, removing their readings without
+     * scanning them. Old readings held in the default partition are left untouched. The sensor
+     * systems that had readings in the dropped partitions are looked up on the index of each
+     * partition first, and forgotten by the duplicate filter and the reading counter, so that
+     * readings sent again are stored again.
+     *
+     * @param month The first month whose partition is kept.
+     * @return The months whose partition was dropped and the sensor systems that had readings in
+     *     them.
+     */
+    @Override
+    public DroppedPartitions dropPartitionsBefore(YearMonth month) {
+        List<YearMonth> droppedMonths = new ArrayList<>();
+        Set<UUID> sensorSystemIds = new HashSet<>();
+        for (YearMonth partitionMonth : findPartitions()) {
+            if (!partitionMonth.isBefore(month)) {
+                break;
+            }
+            String partitionName = partitionName(partitionMonth);
+            sensorSystemIds.addAll(
+                    jdbcTemplate.queryForList(
+                            String.format(FIND_PARTITION_SENSOR_SYSTEMS_SQL, partitionName),
+                            UUID.class));
+            jdbcTemplate.execute(String.format(DROP_PARTITION_SQL, partitionName));
+            log.info("Dropped environmental readings partition {}", partitionName);
+            droppedMonths.add(partitionMonth);
+        }
+        for (UUID sensorSystemId : sensorSystemIds) {
+            recentReadingFilter.forgetSensorSystem(sensorSystemId);
+            recentReadingCounter.forgetSensorSystem(sensorSystemId);
+        }
+        return new DroppedPartitions(droppedMonths, sensorSystemIds);
+    }
+
+    private List<YearMonth> findPartitionMonths() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String partitionName : jdbcTemplate.queryForList(FIND_PARTITIONS_SQL, String.class)) {
+            Matcher matcher = PARTITION_NAME_PATTERN.matcher(partitionName);
+            if (matcher.matches()) {
+                months.add(
+                        YearMonth.of(
+                                Integer.parseInt(matcher.group(1)),
+                                Integer.parseInt(matcher.group(2))));
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX_FORMATTER.format(month);
+    }
+}
@@ -1,52 +1,123 @@
 package com.unconv.spring.service.impl;
 
+import static com.unconv.spring.consts.AppConstants.CSV_IMPORT_CHUNK_SIZE;
+import static com.unconv.spring.consts.AppConstants.MAX_BATCH_INGEST_SIZE;
 import static com.unconv.spring.consts.AppConstants.MAX_PAGE_SIZE;
+import static com.unconv.spring.consts.MessageConstants.ENVT_BATCH_REJ_SIZE;
 import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_FORMAT_ERROR;
 import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_REJ_ERR;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_ACCEPTED;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_DUPLICATE;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_QUEUED;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_BUSY;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_DLTD;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_INAT;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_SENS;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_USER;
 import static java.lang.Math.min;
 
+import com.unconv.spring.config.CsvImportConfig;
 import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorReadingSummary;
 import com.unconv.spring.domain.SensorSystem;
 import com.unconv.spring.dto.EnvironmentalReadingDTO;
+import com.unconv.spring.enums.CsvCompression;
+import com.unconv.spring.enums.ReadingExportFormat;
+import com.unconv.spring.enums.ReadingMetric;
 import com.unconv.spring.enums.SensorStatus;
+import com.unconv.spring.exception.ReadingsCSVProcessingException;
+import com.unconv.spring.model.CsvImportJob;
+import com.unconv.spring.model.ReadingPageCursor;
+import com.unconv.spring.model.SensorIngestAuthorization;
+import com.unconv.spring.model.response.BatchIngestItemResult;
+import com.unconv.spring.model.response.BatchIngestResponse;
+import com.unconv.spring.model.response.CursorPagedResult;
 import com.unconv.spring.model.response.ExtremeReadingsResponse;
 import com.unconv.spring.model.response.MessageResponse;
 import com.unconv.spring.model.response.PagedResult;
+import com.unconv.spring.model.response.ReadingSeriesResponse;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
 import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import com.unconv.spring.service.EnvironmentalReadingIngestBuffer;
 import com.unconv.spring.service.EnvironmentalReadingService;
+import com.unconv.spring.service.RecentReadingCounter;
+import com.unconv.spring.service.RecentReadingFilter;
+import com.unconv.spring.service.SensorIngestAuthorizationCache;
 import com.unconv.spring.utils.CSVUtil;
+import com.unconv.spring.utils.LttbDownsampler;
+import com.unconv.spring.utils.UuidV7Generator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import org.modelmapper.ModelMapper;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
 @Transactional
 public class EnvironmentalReadingServiceImpl implements EnvironmentalReadingService {
 
+    /** Size of the buffer exported readings are collected in before reaching the response. */
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
 
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
     @Autowired private SensorSystemRepository sensorSystemRepository;
 
-    @Autowired private ModelMapper modelMapper;
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Autowired private Validator validator;
+
+    @Autowired private EnvironmentalReadingIngestBuffer environmentalReadingIngestBuffer;
+
+    @Autowired private CsvImportConfig csvImportConfig;
+
+    @Autowired private ForkJoinPool csvParsingPool;
+
+    @Autowired private RecentReadingFilter recentReadingFilter;
+
+    @Autowired private RecentReadingCounter recentReadingCounter;
+
+    @Autowired private SensorIngestAuthorizationCache sensorIngestAuthorizationCache;
 
     /**
      * Retrieves a paginated list of all EnvironmentalReadings.
@@ -99,6 +170,204 @@ public PagedResult<EnvironmentalReading> findAllEnvironmentalReadingsBySensorSys
         return new PagedResult<>(environmentalReadingsPage);
     }
 
+    /**
+     * Retrieves a page of all EnvironmentalReadings by seeking to the reading of the cursor along
+     * the {@code (timestamp, id)} index. The total is summed from the reading summaries of the
+     * sensor systems instead of counting the readings. The summaries are only maintained on
+     * PostgreSQL, so elsewhere the total is left out.
+     *
+     * @param cursor The cursor of the page to retrieve, or null for the first page.
+     * @param pageSize The size of each page.
+     * @param sortDir The sort direction (ASC or DESC) of the first page.
+     * @return A page of EnvironmentalReadings with the cursors of the pages around it.
+     */
+    @Override
+    public CursorPagedResult<EnvironmentalReading> findEnvironmentalReadingsPage(
+            String cursor, int pageSize, String sortDir) {
+        Long totalElements =
+                environmentalReadingRepository.isCopySupported()
+                        ? sensorReadingSummaryRepository.sumReadingCounts()
+                        : null;
+        return findReadingsPage(null, cursor, pageSize, sortDir, totalElements);
+    }
+
+    /**
+     * Retrieves a page of the EnvironmentalReadings of a SensorSystem by seeking to the reading of
+     * the cursor along the index of the sensor system and timestamp. The total is taken from the
+     * reading summary of the SensorSystem instead of counting its readings. On PostgreSQL the
+     * summary is kept with every write, so a SensorSystem without one has no readings; elsewhere
+     * the summaries are not maintained and the total is left out.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     * @param cursor The cursor of the page to retrieve, or null for the first page.
+     * @param pageSize The size of each page.
+     * @param sortDir The sort direction (ASC or DESC) of the first page.
+     * @return A page of EnvironmentalReadings with the cursors of the pages around it.
+     */
+    @Override
+    public CursorPagedResult<EnvironmentalReading> findEnvironmentalReadingsPageBySensorSystemId(
+            UUID sensorSystemId, String cursor, int pageSize, String sortDir) {
+        Long totalElements =
+                environmentalReadingRepository.isCopySupported()
+                        ? sensorReadingSummaryRepository
+                                .findById(sensorSystemId)
+                                .map(SensorReadingSummary::getReadingCount)
+                                .orElse(0L)
+                        : null;
+        return findReadingsPage(sensorSystemId, cursor, pageSize, sortDir, totalElements);
+    }
+
+    /**
+     * Fetches one reading more than the page holds to learn whether the listing goes on in the
+     * direction of the cursor. A backward page is fetched in the reverse order and turned around.
+     */
+    private CursorPagedResult<EnvironmentalReading> findReadingsPage(
+            UUID sensorSystemId,
+            String cursor,
+            int pageSize,
+            String sortDir,
+            Long totalElements) {
+        ReadingPageCursor pageCursor = cursor == null ? null : ReadingPageCursor.decode(cursor);
+        boolean descending =
+                pageCursor == null
+                        ? !sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())
+                        : pageCursor.descending();
+        boolean backward = pageCursor != null && pageCursor.backward();
+        int size = Math.max(1, min(pageSize, MAX_PAGE_SIZE));
+
+        List<EnvironmentalReading> readings =
+                new ArrayList<>(
+                        findReadingsFrom(
+                                sensorSystemId, pageCursor, descending != backward, size + 1));
+        boolean hasMore = readings.size() > size;
+        if (hasMore) {
+            readings.subList(size, readings.size()).clear();
+        }
+        if (backward) {
+            Collections.reverse(readings);
+        }
+        if (readings.isEmpty()) {
+            return new CursorPagedResult<>(readings, totalElements, null, null);
+        }
+
+        boolean hasNext = backward || hasMore;
+        boolean hasPrevious = backward ? hasMore : pageCursor != null;
+        return new CursorPagedResult<>(
+                readings,
+                totalElements,
+                hasNext ? cursorOf(readings.get(readings.size() - 1), descending, false) : null,
+                hasPrevious ? cursorOf(readings.get(0), descending, true) : null);
+    }
+
+    private static String cursorOf(
+            EnvironmentalReading environmentalReading, boolean descending, boolean backward) {
+        return new ReadingPageCursor(
+                        environmentalReading.getTimestamp(),
+                        environmentalReading.getId(),
+                        descending,
+                        backward)
+                .encode();
+    }
+
+    private List<EnvironmentalReading> findReadingsFrom(
+            UUID sensorSystemId, ReadingPageCursor pageCursor, boolean descending, int limit) {
+        if (pageCursor == null) {
+            Sort sort = Sort.by("timestamp", "id");
+            Pageable pageable =
+                    PageRequest.of(0, limit, descending ? sort.descending() : sort.ascending());
+            return sensorSystemId == null
+                    ? environmentalReadingRepository.findAllBy(pageable)
+                    : environmentalReadingRepository.findBySensorSystemId(sensorSystemId, pageable);
+        }
+        OffsetDateTime timestamp = pageCursor.timestamp();
+        UUID id = pageCursor.id();
+        if (sensorSystemId == null) {
+            return descending
+                    ? environmentalReadingRepository.findAllBeforeKey(timestamp, id, limit)
+                    : environmentalReadingRepository.findAllAfterKey(timestamp, id, limit);
+        }
+        return descending
+                ? environmentalReadingRepository.findBySensorSystemIdBeforeKey(
+                        sensorSystemId, timestamp, id, limit)
+                : environmentalReadingRepository.findBySensorSystemIdAfterKey(
+                        sensorSystemId, timestamp, id, limit);
+    }
+
+    /**
+     * Writes the readings of a sensor system to the given stream as they are read from a JDBC
+     * cursor, in a read-only transaction that keeps the cursor open. Only the rows of the current
+     * fetch and the buffer of the writer are held in memory, whatever the length of the range.
+     *
+     * @param sensorSystemId the unique identifier of the sensor system
+     * @param start the inclusive start of the time range
+     * @param end the exclusive end of the time range
+     * @param format the format to write the readings in
+     * @param outputStream the stream to write to; flushed but not closed
+     * @return the number of readings written
+     * @throws IOException if writing to the stream fails
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportReadings(
+            UUID sensorSystemId,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            ReadingExportFormat format,
+            OutputStream outputStream)
+            throws IOException {
+        Writer writer =
+                new BufferedWriter(
+                        new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                        EXPORT_BUFFER_SIZE);
+        if (format == ReadingExportFormat.CSV) {
+            writer.write("temperature,humidity,timestamp\n");
+        }
+        long exported;
+        try {
+            exported =
+                    environmentalReadingRepository.streamReadings(
+                            sensorSystemId,
+                            start,
+                            end,
+                            environmentalReading ->
+                                    writeExportedReading(writer, format, environmentalReading));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return exported;
+    }
+
+    private static void writeExportedReading(
+            Writer writer,
+            ReadingExportFormat format,
+            EnvironmentalReadingProjection environmentalReading) {
+        String timestamp =
+                DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(environmentalReading.getTimestamp());
+        try {
+            if (format == ReadingExportFormat.CSV) {
+                writer.write(
+                        environmentalReading.getTemperature()
+                                + ","
+                                + environmentalReading.getHumidity()
+                                + ","
+                                + timestamp
+                                + "\n");
+            } else {
+                writer.write(
+                        "{\"temperature\":"
+                                + environmentalReading.getTemperature()
+                                + ",\"humidity\":"
+                                + environmentalReading.getHumidity()
+                                + ",\"timestamp\":\""
+                                + timestamp
+                                + "\"}\n");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Finds a list of {@link EnvironmentalReading} entities associated with a specific sensor
      * system within a given time range.
@@ -116,6 +385,85 @@ public List<EnvironmentalReading> findBySensorSystemIdAndTimestampBetween(
                 sensorSystemId, startTime, endTime);
     }
 
+    /**
+     * Retrieves the readings of a sensor system within a given time range as parallel arrays. Only
+     * the temperature, humidity and timestamp columns are selected, through {@link
+     * EnvironmentalReadingProjection}, so no reading or sensor system entity is loaded per row.
+     *
+     * @param sensorSystem the sensor system whose readings are requested
+     * @param startTime the start of the time range
+     * @param endTime the end of the time range
+     * @return the readings in ascending order of their timestamp, along with the sensor system
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ReadingSeriesResponse findReadingSeries(
+            SensorSystem sensorSystem, OffsetDateTime startTime, OffsetDateTime endTime) {
+        List<EnvironmentalReadingProjection> readings =
+                environmentalReadingRepository
+                        .findBySensorSystemIdAndTimestampBetweenOrderByTimestampAsc(
+                                sensorSystem.getId(), startTime, endTime);
+        return toReadingSeries(sensorSystem, startTime, endTime, readings);
+    }
+
+    /**
+     * Retrieves at most {@code maxPoints} readings of a sensor system within a given time range as
+     * parallel arrays, chosen with {@link LttbDownsampler} in a single pass over a JDBC cursor, so
+     * that only the readings of the last two buckets are held besides the ones kept.
+     *
+     * @param sensorSystem the sensor system whose readings are requested
+     * @param startTime the inclusive start of the time range
+     * @param endTime the exclusive end of the time range
+     * @param maxPoints the maximum number of readings to return; at least 3
+     * @param metric the metric whose shape the kept readings follow
+     * @return the kept readings in ascending order of their timestamp, along with the sensor
+     *     system
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ReadingSeriesResponse findDownsampledReadingSeries(
+            SensorSystem sensorSystem,
+            OffsetDateTime startTime,
+            OffsetDateTime endTime,
+            int maxPoints,
+            ReadingMetric metric) {
+        LttbDownsampler downsampler =
+                new LttbDownsampler(
+                        maxPoints,
+                        startTime,
+                        endTime,
+                        metric == ReadingMetric.HUMIDITY
+                                ? EnvironmentalReadingProjection::getHumidity
+                                : EnvironmentalReadingProjection::getTemperature);
+        environmentalReadingRepository.streamReadings(
+                sensorSystem.getId(), startTime, endTime, downsampler);
+        return toReadingSeries(sensorSystem, startTime, endTime, downsampler.finish());
+    }
+
+    private static ReadingSeriesResponse toReadingSeries(
+            SensorSystem sensorSystem,
+            OffsetDateTime startTime,
+            OffsetDateTime endTime,
+            List<EnvironmentalReadingProjection> readings) {
+        long[] timestamps = new long[readings.size()];
+        double[] temperatures = new double[readings.size()];
+        double[] humidities = new double[readings.size()];
+        for (int i = 0; i < readings.size(); i++) {
+            EnvironmentalReadingProjection reading = readings.get(i);
+            timestamps[i] = reading.getTimestamp().toInstant().toEpochMilli();
+            temperatures[i] = reading.getTemperature();
+            humidities[i] = reading.getHumidity();
+        }
+        return new ReadingSeriesResponse(
+                sensorSystem.getId(),
+                sensorSystem.getSensorName(),
+                startTime,
+                endTime,
+                timestamps,
+                temperatures,
+                humidities);
+    }
+
     /**
      * Retrieves an EnvironmentalReading by its ID.
      *
@@ -140,7 +488,8 @@ public List<EnvironmentalReading> findLatestEnvironmentalReadingsByUnconvUserId(
     }
 
     /**
-     * Saves a new EnvironmentalReading.
+     * Saves a new EnvironmentalReading, or updates a stored one, and moves it between the rollups
+     * of its buckets accordingly.
      *
      * @param environmentalReading The EnvironmentalReading to save.
      * @return The saved EnvironmentalReading.
@@ -148,12 +497,47 @@ public List<EnvironmentalReading> findLatestEnvironmentalReadingsByUnconvUserId(
     @Override
     public EnvironmentalReading saveEnvironmentalReading(
             EnvironmentalReading environmentalReading) {
-        return environmentalReadingRepository.save(environmentalReading);
+        Optional<EnvironmentalReading> previousReading = Optional.empty();
+        if (environmentalReading.getId() != null) {
+            // Copied, as saving the update overwrites the stored reading in the persistence context
+            previousReading =
+                    environmentalReadingRepository
+                            .findById(environmentalReading.getId())
+                            .map(EnvironmentalReadingServiceImpl::copyOf);
+            // An update may move the reading off a timestamp the duplicate filter remembers
+            previousReading.ifPresent(
+                    storedReading -> {
+                        recentReadingFilter.forgetSensorSystem(
+                                storedReading.getSensorSystem().getId());
+                        recentReadingCounter.forgetSensorSystem(
+                                storedReading.getSensorSystem().getId());
+                    });
+        }
+        EnvironmentalReading savedReading =
+                environmentalReadingRepository.save(environmentalReading);
+        environmentalReadingRepository.flush();
+        // The rollups are only kept on PostgreSQL, see batchInsertIfAbsent
+        if (environmentalReadingRepository.isCopySupported()) {
+            previousReading.ifPresent(
+                    storedReading ->
+                            environmentalReadingAggregateRepository.removeReadings(
+                                    List.of(storedReading)));
+            environmentalReadingAggregateRepository.mergeReadings(List.of(savedReading));
+        }
+        if (previousReading.isEmpty()) {
+            recentReadingCounter.recordInserted(List.of(savedReading));
+        }
+        return savedReading;
     }
 
     /**
      * Validates the UnconvUser, generates timestamp if required, and saves a new
-     * EnvironmentalReading.
+     * EnvironmentalReading. When the write-behind ingest mode is enabled the reading is queued
+     * instead, and the response is 202 (Accepted), or 429 (Too Many Requests) if the queue is full.
+     * A reading whose SensorSystem already has a reading at the same timestamp is not stored again;
+     * the response is then 200 (OK), so that clients can safely retry. The SensorSystem is checked
+     * through the {@link SensorIngestAuthorizationCache} and is not loaded, so the response echoes
+     * the submitted reading with its new ID, or 404 (Not Found) if the SensorSystem does not exist.
      *
      * @param environmentalReadingDTO The EnvironmentalReadingDTO to save.
      * @param authentication The authentication object.
@@ -165,48 +549,240 @@ public EnvironmentalReading saveEnvironmentalReading(
                     EnvironmentalReadingDTO environmentalReadingDTO,
                     Authentication authentication) {
 
-        SensorSystem sensorSystem =
-                sensorSystemRepository.findSensorSystemById(
-                        environmentalReadingDTO.getSensorSystem().getId());
+        UUID sensorSystemId = environmentalReadingDTO.getSensorSystem().getId();
+        Optional<SensorIngestAuthorization> sensorIngestAuthorization =
+                sensorIngestAuthorizationCache.find(sensorSystemId);
+
+        if (sensorIngestAuthorization.isEmpty()) {
+            MessageResponse<EnvironmentalReadingDTO> environmentalReadingDTOMessageResponse =
+                    new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_REJ_SENS);
+            return new ResponseEntity<>(
+                    environmentalReadingDTOMessageResponse, HttpStatus.NOT_FOUND);
+        }
 
-        if (!sensorSystem.getUnconvUser().getUsername().equals(authentication.getName())) {
+        if (!sensorIngestAuthorization.get().ownerUsername().equals(authentication.getName())) {
             MessageResponse<EnvironmentalReadingDTO> environmentalReadingDTOMessageResponse =
                     new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_REJ_USER);
             return new ResponseEntity<>(
                     environmentalReadingDTOMessageResponse, HttpStatus.UNAUTHORIZED);
         }
 
-        if (sensorSystem.isDeleted()) {
+        if (sensorIngestAuthorization.get().deleted()) {
             MessageResponse<EnvironmentalReadingDTO> environmentalReadingDTOMessageResponse =
                     new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_REJ_DLTD);
             return new ResponseEntity<>(
                     environmentalReadingDTOMessageResponse, HttpStatus.BAD_REQUEST);
         }
 
-        if (sensorSystem.getSensorStatus() != SensorStatus.ACTIVE) {
+        if (sensorIngestAuthorization.get().sensorStatus() != SensorStatus.ACTIVE) {
             MessageResponse<EnvironmentalReadingDTO> environmentalReadingDTOMessageResponse =
                     new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_REJ_INAT);
             return new ResponseEntity<>(
                     environmentalReadingDTOMessageResponse, HttpStatus.BAD_REQUEST);
         }
 
+        // Only the ID of the SensorSystem is written, so a reference avoids loading it
+        SensorSystem sensorSystem = sensorSystemRepository.getReferenceById(sensorSystemId);
+
         if (environmentalReadingDTO.getTimestamp() == null) {
             environmentalReadingDTO.setTimestamp();
         }
 
         EnvironmentalReading environmentalReading =
-                saveEnvironmentalReading(
-                        modelMapper.map(environmentalReadingDTO, EnvironmentalReading.class));
+                new EnvironmentalReading(
+                        null,
+                        environmentalReadingDTO.getTemperature(),
+                        environmentalReadingDTO.getHumidity(),
+                        environmentalReadingDTO.getTimestamp(),
+                        sensorSystem);
+
+        if (recentReadingFilter.isKnownDuplicate(environmentalReading)) {
+            return new ResponseEntity<>(
+                    new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_DUPLICATE),
+                    HttpStatus.OK);
+        }
+
+        if (environmentalReadingIngestBuffer.isEnabled()) {
+            return queueEnvironmentalReading(environmentalReadingDTO, sensorSystem);
+        }
 
+        int inserted = environmentalReadingRepository.batchInsert(List.of(environmentalReading));
+        recentReadingFilter.recordStored(List.of(environmentalReading));
+        recentReadingCounter.recordInserted(List.of(environmentalReading), inserted);
+        if (inserted == 0) {
+            return new ResponseEntity<>(
+                    new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_DUPLICATE),
+                    HttpStatus.OK);
+        }
+
+        environmentalReadingDTO.setId(environmentalReading.getId());
         MessageResponse<EnvironmentalReadingDTO> environmentalReadingDTOMessageResponse =
-                new MessageResponse<>(
-                        modelMapper.map(environmentalReading, EnvironmentalReadingDTO.class),
-                        ENVT_RECORD_ACCEPTED);
+                new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_ACCEPTED);
         return new ResponseEntity<>(environmentalReadingDTOMessageResponse, HttpStatus.CREATED);
     }
 
     /**
-     * Parses EnvironmentalReadings from a CSV file and saves them for the given SensorSystem.
+     * Hands a validated EnvironmentalReading to the write-behind ingest buffer. The reading is
+     * assigned its ID up front so it can be returned to the client before it is written.
+     *
+     * @param environmentalReadingDTO The validated EnvironmentalReadingDTO.
+     * @param sensorSystem The SensorSystem the reading belongs to.
+     * @return ResponseEntity with status 202 (Accepted) if the reading was queued, or 429 (Too Many
+     *     Requests) with a Retry-After header if the buffer is full.
+     */
+    private ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> queueEnvironmentalReading(
+            EnvironmentalReadingDTO environmentalReadingDTO, SensorSystem sensorSystem) {
+        EnvironmentalReading environmentalReading =
+                new EnvironmentalReading(
+                        UuidV7Generator.generate(),
+                        environmentalReadingDTO.getTemperature(),
+                        environmentalReadingDTO.getHumidity(),
+                        environmentalReadingDTO.getTimestamp(),
+                        sensorSystem);
+
+        if (!environmentalReadingIngestBuffer.offer(environmentalReading)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(
+                            HttpHeaders.RETRY_AFTER,
+                            String.valueOf(
+                                    environmentalReadingIngestBuffer.getRetryAfter().toSeconds()))
+                    .body(new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_REJ_BUSY));
+        }
+
+        environmentalReadingDTO.setId(environmentalReading.getId());
+        return new ResponseEntity<>(
+                new MessageResponse<>(environmentalReadingDTO, ENVT_RECORD_QUEUED),
+                HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Validates a batch of EnvironmentalReadings, possibly spanning several SensorSystems, and
+     * saves the ones that pass. All referenced SensorSystems are fetched in a single query and the
+     * ownership, deleted and status checks are evaluated once per distinct SensorSystem. Accepted
+     * readings are written with JDBC batching; readings already stored for the same SensorSystem
+     * and timestamp are skipped and reported as accepted duplicates without an ID.
+     *
+     * @param environmentalReadingDTOs The EnvironmentalReadingDTOs to save.
+     * @param authentication The authentication object.
+     * @return ResponseEntity containing a BatchIngestResponse with the outcome of each reading.
+     */
+    @Override
+    public ResponseEntity<BatchIngestResponse>
+            validateSensorSystemsAndSaveEnvironmentalReadingsInBatch(
+                    List<EnvironmentalReadingDTO> environmentalReadingDTOs,
+                    Authentication authentication) {
+        if (environmentalReadingDTOs.size() > MAX_BATCH_INGEST_SIZE) {
+            throw new IllegalArgumentException(
+                    ENVT_BATCH_REJ_SIZE.formatted(MAX_BATCH_INGEST_SIZE));
+        }
+
+        Set<UUID> sensorSystemIds = new HashSet<>();
+        for (EnvironmentalReadingDTO environmentalReadingDTO : environmentalReadingDTOs) {
+            SensorSystem sensorSystem = environmentalReadingDTO.getSensorSystem();
+            if (sensorSystem != null && sensorSystem.getId() != null) {
+                sensorSystemIds.add(sensorSystem.getId());
+            }
+        }
+
+        Map<UUID, SensorIngestAuthorization> sensorIngestAuthorizationsById =
+                sensorIngestAuthorizationCache.findAll(sensorSystemIds);
+        Map<UUID, String> rejectionsBySensorSystemId = new HashMap<>();
+        for (SensorIngestAuthorization sensorIngestAuthorization :
+                sensorIngestAuthorizationsById.values()) {
+            String rejection = findSensorSystemRejection(sensorIngestAuthorization, authentication);
+            if (rejection != null) {
+                rejectionsBySensorSystemId.put(
+                        sensorIngestAuthorization.sensorSystemId(), rejection);
+            }
+        }
+
+        BatchIngestItemResult[] results =
+                new BatchIngestItemResult[environmentalReadingDTOs.size()];
+        List<EnvironmentalReading> acceptedReadings = new ArrayList<>();
+        List<Integer> acceptedIndices = new ArrayList<>();
+
+        for (int index = 0; index < environmentalReadingDTOs.size(); index++) {
+            EnvironmentalReadingDTO environmentalReadingDTO = environmentalReadingDTOs.get(index);
+
+            Set<ConstraintViolation<EnvironmentalReadingDTO>> violations =
+                    validator.validate(environmentalReadingDTO);
+            if (!violations.isEmpty()) {
+                results[index] =
+                        BatchIngestItemResult.rejected(
+                                index,
+                                violations.stream()
+                                        .map(ConstraintViolation::getMessage)
+                                        .sorted()
+                                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            UUID sensorSystemId = environmentalReadingDTO.getSensorSystem().getId();
+            if (!sensorIngestAuthorizationsById.containsKey(sensorSystemId)) {
+                results[index] = BatchIngestItemResult.rejected(index, ENVT_RECORD_REJ_SENS);
+                continue;
+            }
+
+            String rejection = rejectionsBySensorSystemId.get(sensorSystemId);
+            if (rejection != null) {
+                results[index] = BatchIngestItemResult.rejected(index, rejection);
+                continue;
+            }
+
+            if (environmentalReadingDTO.getTimestamp() == null) {
+                environmentalReadingDTO.setTimestamp();
+            }
+
+            EnvironmentalReading environmentalReading =
+                    new EnvironmentalReading(
+                            null,
+                            environmentalReadingDTO.getTemperature(),
+                            environmentalReadingDTO.getHumidity(),
+                            environmentalReadingDTO.getTimestamp(),
+                            sensorSystemRepository.getReferenceById(sensorSystemId));
+            if (recentReadingFilter.isKnownDuplicate(environmentalReading)) {
+                results[index] = BatchIngestItemResult.duplicate(index, ENVT_RECORD_DUPLICATE);
+                continue;
+            }
+
+            acceptedReadings.add(environmentalReading);
+            acceptedIndices.add(index);
+        }
+
+        boolean[] inserted = environmentalReadingRepository.batchInsertIfAbsent(acceptedReadings);
+        recentReadingFilter.recordStored(acceptedReadings);
+
+        List<EnvironmentalReading> insertedReadings = new ArrayList<>(acceptedReadings.size());
+        for (int i = 0; i < acceptedIndices.size(); i++) {
+            int index = acceptedIndices.get(i);
+            if (inserted[i]) {
+                insertedReadings.add(acceptedReadings.get(i));
+            }
+            results[index] =
+                    inserted[i]
+                            ? BatchIngestItemResult.accepted(
+                                    index, acceptedReadings.get(i).getId(), ENVT_RECORD_ACCEPTED)
+                            : BatchIngestItemResult.duplicate(index, ENVT_RECORD_DUPLICATE);
+        }
+        recentReadingCounter.recordInserted(insertedReadings);
+
+        BatchIngestResponse batchIngestResponse = new BatchIngestResponse(Arrays.asList(results));
+        HttpStatus httpStatus =
+                batchIngestResponse.rejectedCount() == 0
+                        ? HttpStatus.CREATED
+                        : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(batchIngestResponse, httpStatus);
+    }
+
+    /**
+     * Parses EnvironmentalReadings from a CSV file and saves them for the given SensorSystem. The
+     * file is streamed in chunks of {@link
+     * com.unconv.spring.consts.AppConstants#CSV_IMPORT_CHUNK_SIZE} records. On PostgreSQL each
+     * chunk is written with {@code COPY}; elsewhere it is written with JDBC batching. Either way
+     * the readings bypass the persistence context, so memory usage stays flat regardless of the
+     * size of the file. Files of at least {@link CsvImportConfig#getParallelParseThreshold()} are
+     * parsed in parallel on the dedicated CSV parsing pool, with chunks still written in file
+     * order on the calling thread.
      *
      * @param file The CSV file containing EnvironmentalReadings.
      * @param sensorSystem The SensorSystem to associate with the readings.
@@ -215,25 +791,133 @@ public EnvironmentalReading saveEnvironmentalReading(
     @Override
     public int parseFromCSVAndSaveEnvironmentalReading(
             MultipartFile file, SensorSystem sensorSystem) {
-        try {
-            List<EnvironmentalReading> environmentalReadings =
-                    CSVUtil.csvToEnvironmentalReadings(file.getInputStream(), sensorSystem);
-            List<EnvironmentalReading> savedEnvironmentalReadings =
-                    environmentalReadingRepository.saveAll(environmentalReadings);
-            return savedEnvironmentalReadings.size();
+        return parseFromCSVAndSaveEnvironmentalReading(
+                file,
+                CSVUtil.getCsvCompression(file.getContentType(), null).orElse(CsvCompression.NONE),
+                sensorSystem);
+    }
+
+    /**
+     * Parses EnvironmentalReadings from a possibly compressed CSV file and saves them for the
+     * given SensorSystem. The file is decompressed while it is parsed, so neither the compressed
+     * nor the decompressed content is buffered. The parsing mode is chosen by the size of the
+     * upload as received.
+     *
+     * @param file The CSV file containing EnvironmentalReadings.
+     * @param csvCompression The compression of the file.
+     * @param sensorSystem The SensorSystem to associate with the readings.
+     * @return The number of readings successfully parsed and saved.
+     */
+    @Override
+    public int parseFromCSVAndSaveEnvironmentalReading(
+            MultipartFile file, CsvCompression csvCompression, SensorSystem sensorSystem) {
+        try (InputStream inputStream =
+                CSVUtil.decompress(file.getInputStream(), csvCompression)) {
+            return parseFromCSVAndSaveEnvironmentalReading(
+                    inputStream, file.getSize(), sensorSystem, null);
         } catch (IOException e) {
             throw new RuntimeException("Failed to read file data" + e.getMessage());
         }
     }
 
     /**
-     * Deletes an EnvironmentalReading by its ID.
+     * Parses EnvironmentalReadings from a CSV stream and saves them for the given SensorSystem,
+     * chunk by chunk as described in {@link #parseFromCSVAndSaveEnvironmentalReading(MultipartFile,
+     * SensorSystem)}. When a job is given, its progress counters are updated after every chunk,
+     * malformed records are skipped and counted as rejected instead of aborting the import, and a
+     * cancellation request stops the import at the next chunk boundary. Readings already stored for
+     * the SensorSystem at the same timestamp are skipped, and count as saved.
+     *
+     * @param inputStream The CSV content.
+     * @param size The size of the CSV content in bytes, used to choose the parsing mode.
+     * @param sensorSystem The SensorSystem to associate with the readings.
+     * @param csvImportJob The job to report progress to, or {@code null} for a strict import.
+     * @return The number of readings successfully parsed and saved.
+     * @throws java.util.concurrent.CancellationException if the job is cancelled, rolling back the
+     *     readings saved so far.
+     */
+    @Override
+    public int parseFromCSVAndSaveEnvironmentalReading(
+            InputStream inputStream,
+            long size,
+            SensorSystem sensorSystem,
+            CsvImportJob csvImportJob) {
+        boolean copySupported = environmentalReadingRepository.isCopySupported();
+        Consumer<List<EnvironmentalReading>> chunkWriter =
+                environmentalReadings -> {
+                    if (csvImportJob != null) {
+                        csvImportJob.throwIfCancelRequested();
+                        csvImportJob.recordParsed(environmentalReadings.size());
+                    }
+                    List<EnvironmentalReading> newReadings =
+                            new ArrayList<>(environmentalReadings.size());
+                    for (EnvironmentalReading environmentalReading : environmentalReadings) {
+                        if (!recentReadingFilter.isKnownDuplicate(environmentalReading)) {
+                            newReadings.add(environmentalReading);
+                        }
+                    }
+                    long inserted =
+                            copySupported
+                                    ? environmentalReadingRepository.copyInsert(newReadings)
+                                    : environmentalReadingRepository.batchInsert(newReadings);
+                    recentReadingFilter.recordStored(newReadings);
+                    recentReadingCounter.recordInserted(newReadings, inserted);
+                    if (csvImportJob != null) {
+                        csvImportJob.recordInserted(inserted);
+                    }
+                };
+        Consumer<ReadingsCSVProcessingException> malformedRecordHandler =
+                csvImportJob == null ? null : e -> csvImportJob.recordRejected(e.getMessage());
+
+        if (size >= csvImportConfig.getParallelParseThreshold().toBytes()) {
+            return CSVUtil.csvToEnvironmentalReadingChunksInParallel(
+                    inputStream,
+                    sensorSystem,
+                    CSV_IMPORT_CHUNK_SIZE,
+                    chunkWriter,
+                    malformedRecordHandler,
+                    csvParsingPool);
+        }
+        return CSVUtil.csvToEnvironmentalReadingChunks(
+                inputStream,
+                sensorSystem,
+                CSV_IMPORT_CHUNK_SIZE,
+                chunkWriter,
+                malformedRecordHandler);
+    }
+
+    /**
+     * Deletes an EnvironmentalReading by its ID and takes it out of the rollups of its buckets.
      *
      * @param id The ID of the EnvironmentalReading to delete.
      */
     @Override
     public void deleteEnvironmentalReadingById(UUID id) {
+        Optional<EnvironmentalReading> storedReading =
+                environmentalReadingRepository
+                        .findById(id)
+                        .map(EnvironmentalReadingServiceImpl::copyOf);
+        storedReading.ifPresent(
+                environmentalReading -> {
+                    recentReadingFilter.forgetSensorSystem(
+                            environmentalReading.getSensorSystem().getId());
+                    recentReadingCounter.forgetSensorSystem(
+                            environmentalReading.getSensorSystem().getId());
+                });
         environmentalReadingRepository.deleteById(id);
+        if (storedReading.isPresent() && environmentalReadingRepository.isCopySupported()) {
+            environmentalReadingRepository.flush();
+            environmentalReadingAggregateRepository.removeReadings(List.of(storedReading.get()));
+        }
+    }
+
+    private static EnvironmentalReading copyOf(EnvironmentalReading environmentalReading) {
+        return new EnvironmentalReading(
+                environmentalReading.getId(),
+                environmentalReading.getTemperature(),
+                environmentalReading.getHumidity(),
+                environmentalReading.getTimestamp(),
+                environmentalReading.getSensorSystem());
     }
 
     /**
@@ -247,20 +931,51 @@ public void deleteEnvironmentalReadingById(UUID id) {
     @Override
     public ResponseEntity<String> verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings(
             SensorSystem sensorSystem, MultipartFile file) {
+        return verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings(
+                sensorSystem, file, null);
+    }
+
+    /**
+     * Verifies the CSV file, which may be gzip- or zstd-compressed, validates the SensorSystem,
+     * and parses EnvironmentalReadings.
+     *
+     * @param sensorSystem The SensorSystem to validate and associate with the readings.
+     * @param file The CSV file containing EnvironmentalReadings.
+     * @param contentEncoding The Content-Encoding of the file part, or {@code null}.
+     * @return ResponseEntity containing a message indicating the success or failure of the
+     *     operation.
+     */
+    @Override
+    public ResponseEntity<String> verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings(
+            SensorSystem sensorSystem, MultipartFile file, String contentEncoding) {
         String message;
 
-        if (CSVUtil.isOfCSVFormat(file)) {
+        Optional<CsvCompression> csvCompression =
+                CSVUtil.getCsvCompression(file.getContentType(), contentEncoding);
+        if (csvCompression.isPresent()) {
             try {
-                int recordsProcessed = parseFromCSVAndSaveEnvironmentalReading(file, sensorSystem);
+                long startNanos = System.nanoTime();
+                int recordsProcessed =
+                        parseFromCSVAndSaveEnvironmentalReading(
+                                file, csvCompression.get(), sensorSystem);
+                long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
 
                 message =
                         "Uploaded the file successfully: "
                                 + file.getOriginalFilename()
                                 + " with "
                                 + recordsProcessed
-                                + " records";
+                                + " records in "
+                                + elapsedMillis
+                                + " ms ("
+                                + recordsProcessed * 1000L / Math.max(elapsedMillis, 1)
+                                + " records/s)";
                 return ResponseEntity.status(HttpStatus.CREATED).body(message);
             } catch (Exception e) {
+                // Earlier chunks may already have been flushed, so keep the import all-or-nothing
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                }
                 message = ENVT_FILE_REJ_ERR.formatted(file.getOriginalFilename());
                 return ResponseEntity.status(HttpStatus.EXPECTATION_FAILED).body(message);
             }
@@ -272,21 +987,63 @@ public ResponseEntity<String> verifyCSVFileAndValidateSensorSystemAndParseEnviro
 
     /**
      * Retrieves the extreme readings (highest and lowest temperature, highest and lowest humidity)
-     * for a given sensor system.
+     * for a given sensor system from its reading summary, which is kept up to date on ingest. The
+     * summary is only kept on PostgreSQL, so without one the readings are sorted instead. All of
+     * them are {@code null} if the sensor system has no readings.
      *
      * @param sensorSystemId the ID of the sensor system
      * @return an {@link ExtremeReadingsResponse} object containing the extreme readings
      */
     @Override
     public ExtremeReadingsResponse getExtremeReadingsResponseBySensorSystemId(UUID sensorSystemId) {
-        return new ExtremeReadingsResponse(
-                environmentalReadingRepository.findFirstBySensorSystemIdOrderByTemperatureDesc(
-                        sensorSystemId),
-                environmentalReadingRepository.findFirstBySensorSystemIdOrderByTemperatureAsc(
-                        sensorSystemId),
-                environmentalReadingRepository.findFirstBySensorSystemIdOrderByHumidityDesc(
-                        sensorSystemId),
-                environmentalReadingRepository.findFirstBySensorSystemIdOrderByHumidityAsc(
-                        sensorSystemId));
+        return sensorReadingSummaryRepository
+                .findById(sensorSystemId)
+                .map(
+                        sensorReadingSummary ->
+                                new ExtremeReadingsResponse(
+                                        sensorReadingSummary.getWarmestReading(),
+                                        sensorReadingSummary.getColdestReading(),
+                                        sensorReadingSummary.getMostHumidReading(),
+                                        sensorReadingSummary.getLeastHumidReading()))
+                .orElseGet(
+                        () ->
+                                new ExtremeReadingsResponse(
+                                        environmentalReadingRepository
+                                                .findFirstBySensorSystemIdOrderByTemperatureDesc(
+                                                        sensorSystemId),
+                                        environmentalReadingRepository
+                                                .findFirstBySensorSystemIdOrderByTemperatureAsc(
+                                                        sensorSystemId),
+                                        environmentalReadingRepository
+                                                .findFirstBySensorSystemIdOrderByHumidityDesc(
+                                                        sensorSystemId),
+                                        environmentalReadingRepository
+                                                .findFirstBySensorSystemIdOrderByHumidityAsc(
+                                                        sensorSystemId)));
+    }
+
+    /**
+     * Checks whether readings may be recorded against a SensorSystem by the authenticated user.
+     *
+     * @param sensorIngestAuthorization the ingest authorization of the SensorSystem the readings
+     *     are meant for
+     * @param authentication the authentication object
+     * @return the rejection message, or {@code null} if readings may be recorded
+     */
+    private String findSensorSystemRejection(
+            SensorIngestAuthorization sensorIngestAuthorization, Authentication authentication) {
+        if (!sensorIngestAuthorization.ownerUsername().equals(authentication.getName())) {
+            return ENVT_RECORD_REJ_USER;
+        }
+
+        if (sensorIngestAuthorization.deleted()) {
+            return ENVT_RECORD_REJ_DLTD;
+        }
+
+        if (sensorIngestAuthorization.sensorStatus() != SensorStatus.ACTIVE) {
+            return ENVT_RECORD_REJ_INAT;
+        }
+
+        return null;
     }
 }
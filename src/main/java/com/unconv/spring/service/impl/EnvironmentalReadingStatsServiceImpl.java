@@ -1,19 +1,40 @@
 package com.unconv.spring.service.impl;
 
+import static com.unconv.spring.consts.AppConstants.MAX_STATS_BUCKETS;
+import static com.unconv.spring.consts.MessageConstants.ENVT_STATS_REJ_BUCKETS;
+import static com.unconv.spring.consts.MessageConstants.ENVT_STATS_REJ_EMPTY;
+import static com.unconv.spring.consts.MessageConstants.ENVT_STATS_REJ_INTERVAL;
+import static com.unconv.spring.consts.MessageConstants.ENVT_STATS_REJ_RANGE;
+
 import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.EnvironmentalReadingAggregate;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.enums.StatsAggregate;
+import com.unconv.spring.model.EnvironmentalReadingStatsBucket;
+import com.unconv.spring.model.MetricSummary;
+import com.unconv.spring.model.ReadingStatsQuery;
+import com.unconv.spring.model.response.ReadingStatsBucket;
+import com.unconv.spring.model.response.ReadingStatsResponse;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
 import com.unconv.spring.service.EnvironmentalReadingStatsService;
+import com.unconv.spring.utils.ReadingBucketAggregator;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,17 +42,26 @@
 @Transactional
 public class EnvironmentalReadingStatsServiceImpl implements EnvironmentalReadingStatsService {
 
+    private static final Set<StatsAggregate> PERCENTILES =
+            EnumSet.of(StatsAggregate.P50, StatsAggregate.P95, StatsAggregate.P99);
+
     private final EnvironmentalReadingRepository environmentalReadingRepository;
 
+    private final EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
     /**
      * Constructs an instance of {@link EnvironmentalReadingStatsServiceImpl} with the specified
-     * repository.
+     * repositories.
      *
-     * @param environmentalReadingRepository the repository for accessing environmental reading data
+     * @param environmentalReadingRepository the repository for accessing environmental readings
+     * @param environmentalReadingAggregateRepository the repository for accessing the rollups of
+     *     environmental readings
      */
     public EnvironmentalReadingStatsServiceImpl(
-            EnvironmentalReadingRepository environmentalReadingRepository) {
+            EnvironmentalReadingRepository environmentalReadingRepository,
+            EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository) {
         this.environmentalReadingRepository = environmentalReadingRepository;
+        this.environmentalReadingAggregateRepository = environmentalReadingAggregateRepository;
     }
 
     /**
@@ -43,14 +73,8 @@ public EnvironmentalReadingStatsServiceImpl(
      */
     @Override
     public Map<OffsetDateTime, Double> getAverageTempsForQuarterHourly(UUID sensorSystemId) {
-
-        List<EnvironmentalReading> data =
-                environmentalReadingRepository.findBySensorSystemIdAndTimestampBetween(
-                        sensorSystemId,
-                        OffsetDateTime.now(ZoneOffset.UTC).minusHours(3),
-                        OffsetDateTime.now(ZoneOffset.UTC));
-
-        return new TreeMap<>(getAverageTempsForQuarterHourly(data));
+        return getAverageTemps(
+                sensorSystemId, Duration.ofHours(3), AggregateResolution.QUARTER_HOURLY);
     }
 
     /**
@@ -63,21 +87,7 @@ public Map<OffsetDateTime, Double> getAverageTempsForQuarterHourly(UUID sensorSy
     @Override
     public Map<OffsetDateTime, Double> getAverageTempsForQuarterHourly(
             List<EnvironmentalReading> data) {
-        OffsetDateTime endTime = OffsetDateTime.now(ZoneOffset.UTC);
-        OffsetDateTime startTime = endTime.minusHours(3);
-        Duration interval = Duration.ofMinutes(15);
-
-        Map<OffsetDateTime, List<EnvironmentalReading>> groupedData =
-                data.stream()
-                        .filter(d -> d.getTimestamp().isAfter(startTime))
-                        .collect(
-                                Collectors.groupingBy(
-                                        d -> roundTimeToInterval(d.getTimestamp(), interval)));
-
-        return groupedData.entrySet().stream()
-                .collect(
-                        Collectors.toMap(
-                                Map.Entry::getKey, e -> calculateAverageTemp(e.getValue())));
+        return getAverageTemps(data, Duration.ofHours(3), Duration.ofMinutes(15));
     }
 
     /**
@@ -88,14 +98,7 @@ public Map<OffsetDateTime, Double> getAverageTempsForQuarterHourly(
      */
     @Override
     public Map<OffsetDateTime, Double> getAverageTempsForHourly(UUID sensorSystemId) {
-
-        List<EnvironmentalReading> data =
-                environmentalReadingRepository.findBySensorSystemIdAndTimestampBetween(
-                        sensorSystemId,
-                        OffsetDateTime.now(ZoneOffset.UTC).minusHours(24),
-                        OffsetDateTime.now(ZoneOffset.UTC));
-
-        return new TreeMap<>(getAverageTempsForHourly(data));
+        return getAverageTemps(sensorSystemId, Duration.ofHours(24), AggregateResolution.HOURLY);
     }
 
     /**
@@ -107,21 +110,7 @@ public Map<OffsetDateTime, Double> getAverageTempsForHourly(UUID sensorSystemId)
      */
     @Override
     public Map<OffsetDateTime, Double> getAverageTempsForHourly(List<EnvironmentalReading> data) {
-        OffsetDateTime endTime = OffsetDateTime.now(ZoneOffset.UTC);
-        OffsetDateTime startTime = endTime.minusHours(24);
-        Duration interval = Duration.ofMinutes(60);
-
-        Map<OffsetDateTime, List<EnvironmentalReading>> groupedData =
-                data.stream()
-                        .filter(d -> d.getTimestamp().isAfter(startTime))
-                        .collect(
-                                Collectors.groupingBy(
-                                        d -> roundTimeToInterval(d.getTimestamp(), interval)));
-
-        return groupedData.entrySet().stream()
-                .collect(
-                        Collectors.toMap(
-                                Map.Entry::getKey, e -> calculateAverageTemp(e.getValue())));
+        return getAverageTemps(data, Duration.ofHours(24), Duration.ofHours(1));
     }
 
     /**
@@ -132,14 +121,7 @@ public Map<OffsetDateTime, Double> getAverageTempsForHourly(List<EnvironmentalRe
      */
     @Override
     public Map<OffsetDateTime, Double> getAverageTempsForDaily(UUID sensorSystemId) {
-
-        List<EnvironmentalReading> data =
-                environmentalReadingRepository.findBySensorSystemIdAndTimestampBetween(
-                        sensorSystemId,
-                        OffsetDateTime.now(ZoneOffset.UTC).minusDays(7),
-                        OffsetDateTime.now(ZoneOffset.UTC));
-
-        return new TreeMap<>(getAverageTempsForDaily(data));
+        return getAverageTemps(sensorSystemId, Duration.ofDays(7), AggregateResolution.DAILY);
     }
 
     /**
@@ -151,21 +133,200 @@ public Map<OffsetDateTime, Double> getAverageTempsForDaily(UUID sensorSystemId)
      */
     @Override
     public Map<OffsetDateTime, Double> getAverageTempsForDaily(List<EnvironmentalReading> data) {
+        return getAverageTemps(data, Duration.ofDays(7), Duration.ofDays(1));
+    }
+
+    /**
+     * Computes the requested aggregates of the requested metrics of a sensor system per bucket
+     * over a time range, from the coarsest rollups that can answer the query or else from the raw
+     * readings. Either way the buckets are summarized by a single grouped query. The rollups are
+     * only maintained on PostgreSQL, so elsewhere the readings are always read. Percentiles are
+     * only computed when requested: from the rollups, by merging their quantile sketches, or else
+     * exactly from the readings.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param query the range, bucket length, metrics and aggregates to compute
+     * @return the stats of the non-empty buckets
+     */
+    @Override
+    public ReadingStatsResponse getStats(UUID sensorSystemId, ReadingStatsQuery query) {
+        validateStatsQuery(query);
+        AggregateResolution rollupResolution =
+                environmentalReadingRepository.isCopySupported()
+                        ? findRollupResolution(query)
+                        : null;
+        boolean percentiles = !Collections.disjoint(query.aggregates(), PERCENTILES);
+        List<EnvironmentalReadingStatsBucket> statsBuckets =
+                rollupResolution != null
+                        ? environmentalReadingAggregateRepository.findStatsBuckets(
+                                sensorSystemId,
+                                rollupResolution,
+                                query.start(),
+                                query.end(),
+                                query.interval(),
+                                percentiles)
+                        : environmentalReadingRepository.findStatsBuckets(
+                                sensorSystemId,
+                                query.start(),
+                                query.end(),
+                                query.interval(),
+                                percentiles);
+        List<ReadingStatsBucket> buckets = new ArrayList<>(statsBuckets.size());
+        for (EnvironmentalReadingStatsBucket statsBucket : statsBuckets) {
+            buckets.add(toReadingStatsBucket(statsBucket, query));
+        }
+        return new ReadingStatsResponse(
+                query.start(), query.end(), query.interval(), rollupResolution, buckets);
+    }
+
+    /**
+     * Averages the temperatures of a sensor system within a trailing window from its rollups, so
+     * that one row is read per bucket. The bucket the window starts in is included whole. The
+     * rollups are only maintained on PostgreSQL, so elsewhere the readings from the start of that
+     * bucket on are streamed and averaged in a single pass instead.
+     */
+    private Map<OffsetDateTime, Double> getAverageTemps(
+            UUID sensorSystemId, Duration window, AggregateResolution resolution) {
         OffsetDateTime endTime = OffsetDateTime.now(ZoneOffset.UTC);
-        OffsetDateTime startTime = endTime.minusDays(7);
-        Duration interval = Duration.ofDays(1);
+        OffsetDateTime firstBucketStart =
+                roundTimeToInterval(endTime.minus(window), resolution.getDuration());
+        if (!environmentalReadingRepository.isCopySupported()) {
+            // The aggregator's start is exclusive, while the first bucket's start is not
+            ReadingBucketAggregator aggregator =
+                    new ReadingBucketAggregator(
+                            firstBucketStart.minusSeconds(1), endTime, resolution.getDuration());
+            environmentalReadingRepository.streamReadings(
+                    sensorSystemId,
+                    firstBucketStart,
+                    endTime,
+                    reading -> aggregator.add(reading.getTimestamp(), reading.getTemperature()));
+            return getAverageTemps(aggregator);
+        }
+        Map<OffsetDateTime, Double> averageTemps = new TreeMap<>();
+        for (EnvironmentalReadingAggregate aggregate :
+                environmentalReadingAggregateRepository
+                        .findBySensorSystemIdAndResolutionAndBucketStartGreaterThanEqualOrderByBucketStart(
+                                sensorSystemId, resolution, firstBucketStart)) {
+            averageTemps.put(
+                    aggregate.getBucketStart().withOffsetSameInstant(ZoneOffset.UTC),
+                    roundValue(aggregate.getSumTemperature() / aggregate.getReadingCount()));
+        }
+        return averageTemps;
+    }
+
+    /**
+     * Averages the temperatures of the given readings taken within a trailing window in a single
+     * pass, bucketing them by their offset from the bucket the window starts in.
+     */
+    private Map<OffsetDateTime, Double> getAverageTemps(
+            List<EnvironmentalReading> data, Duration window, Duration interval) {
+        OffsetDateTime endTime = OffsetDateTime.now(ZoneOffset.UTC);
+        ReadingBucketAggregator aggregator =
+                new ReadingBucketAggregator(endTime.minus(window), endTime, interval);
+        for (EnvironmentalReading environmentalReading : data) {
+            aggregator.add(
+                    environmentalReading.getTimestamp(), environmentalReading.getTemperature());
+        }
+        return getAverageTemps(aggregator);
+    }
+
+    /** Maps the start of each non-empty bucket of an aggregator to its rounded average. */
+    private Map<OffsetDateTime, Double> getAverageTemps(ReadingBucketAggregator aggregator) {
+        Map<OffsetDateTime, Double> averageTemps = new TreeMap<>();
+        for (int bucket = 0; bucket < aggregator.getBucketCount(); bucket++) {
+            if (aggregator.getCount(bucket) > 0) {
+                averageTemps.put(
+                        aggregator.getBucketStart(bucket),
+                        roundValue(aggregator.getAverage(bucket)));
+            }
+        }
+        return averageTemps;
+    }
 
-        Map<OffsetDateTime, List<EnvironmentalReading>> groupedData =
-                data.stream()
-                        .filter(d -> d.getTimestamp().isAfter(startTime))
-                        .collect(
-                                Collectors.groupingBy(
-                                        d -> roundTimeToInterval(d.getTimestamp(), interval)));
+    private static void validateStatsQuery(ReadingStatsQuery query) {
+        if (query.metrics() == null
+                || query.metrics().isEmpty()
+                || query.aggregates() == null
+                || query.aggregates().isEmpty()) {
+            throw new IllegalArgumentException(ENVT_STATS_REJ_EMPTY);
+        }
+        if (!query.end().isAfter(query.start())) {
+            throw new IllegalArgumentException(ENVT_STATS_REJ_RANGE);
+        }
+        long intervalSeconds = query.interval().getSeconds();
+        if (intervalSeconds < 1 || query.interval().getNano() != 0) {
+            throw new IllegalArgumentException(ENVT_STATS_REJ_INTERVAL);
+        }
+        // The end is exclusive, so a reading at the very end does not open another bucket
+        long lastSecond = query.end().toEpochSecond() - (query.end().getNano() == 0 ? 1 : 0);
+        long bucketCount =
+                Math.floorDiv(lastSecond, intervalSeconds)
+                        - Math.floorDiv(query.start().toEpochSecond(), intervalSeconds)
+                        + 1;
+        if (bucketCount > MAX_STATS_BUCKETS) {
+            throw new IllegalArgumentException(
+                    ENVT_STATS_REJ_BUCKETS.formatted(MAX_STATS_BUCKETS));
+        }
+    }
+
+    /**
+     * Returns the coarsest rollup resolution that the interval and both ends of the range are
+     * aligned to, so that every bucket is made of whole rollups, or {@code null} if there is none
+     * or an aggregate cannot be derived from rollups.
+     */
+    private static AggregateResolution findRollupResolution(ReadingStatsQuery query) {
+        for (StatsAggregate aggregate : query.aggregates()) {
+            if (!aggregate.isRollupSupported()) {
+                return null;
+            }
+        }
+        AggregateResolution[] resolutions = AggregateResolution.values();
+        for (int i = resolutions.length - 1; i >= 0; i--) {
+            long resolutionSeconds = resolutions[i].getDuration().getSeconds();
+            if (query.interval().getSeconds() % resolutionSeconds == 0
+                    && isAligned(query.start(), resolutionSeconds)
+                    && isAligned(query.end(), resolutionSeconds)) {
+                return resolutions[i];
+            }
+        }
+        return null;
+    }
 
-        return groupedData.entrySet().stream()
-                .collect(
-                        Collectors.toMap(
-                                Map.Entry::getKey, e -> calculateAverageTemp(e.getValue())));
+    private static boolean isAligned(OffsetDateTime dateTime, long seconds) {
+        return dateTime.getNano() == 0 && Math.floorMod(dateTime.toEpochSecond(), seconds) == 0;
+    }
+
+    private ReadingStatsBucket toReadingStatsBucket(
+            EnvironmentalReadingStatsBucket statsBucket, ReadingStatsQuery query) {
+        Map<ReadingMetric, Map<StatsAggregate, Double>> values = new EnumMap<>(ReadingMetric.class);
+        for (ReadingMetric metric : query.metrics()) {
+            MetricSummary summary =
+                    metric == ReadingMetric.TEMPERATURE
+                            ? statsBucket.temperature()
+                            : statsBucket.humidity();
+            Map<StatsAggregate, Double> aggregates = new EnumMap<>(StatsAggregate.class);
+            for (StatsAggregate aggregate : query.aggregates()) {
+                aggregates.put(
+                        aggregate, aggregate(aggregate, statsBucket.readingCount(), summary));
+            }
+            values.put(metric, aggregates);
+        }
+        return new ReadingStatsBucket(
+                statsBucket.bucketStart(), statsBucket.readingCount(), values);
+    }
+
+    private Double aggregate(StatsAggregate aggregate, long readingCount, MetricSummary summary) {
+        return switch (aggregate) {
+            case AVG -> roundValue(summary.sum() / readingCount);
+            case MIN -> summary.min();
+            case MAX -> summary.max();
+            case SUM -> roundValue(summary.sum());
+            case COUNT -> (double) readingCount;
+            case STDDEV -> roundValue(summary.standardDeviation());
+            case P50 -> roundValue(summary.p50());
+            case P95 -> roundValue(summary.p95());
+            case P99 -> roundValue(summary.p99());
+        };
     }
 
     private OffsetDateTime roundTimeToInterval(OffsetDateTime dateTime, Duration interval) {
@@ -174,10 +335,11 @@ private OffsetDateTime roundTimeToInterval(OffsetDateTime dateTime, Duration int
         return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
     }
 
-    private double calculateAverageTemp(List<EnvironmentalReading> data) {
-        double sum = data.stream().mapToDouble(EnvironmentalReading::getTemperature).sum();
-        return BigDecimal.valueOf(sum / data.size())
-                .setScale(3, RoundingMode.HALF_UP)
-                .doubleValue();
+    private double roundValue(double value) {
+        return BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private Double roundValue(Double value) {
+        return value == null ? null : roundValue(value.doubleValue());
     }
 }
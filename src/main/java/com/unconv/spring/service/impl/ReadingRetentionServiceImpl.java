@@ -0,0 +1,244 @@
+package com.unconv.spring.service.impl;
+
+import com.unconv.spring.config.ReadingRetentionConfig;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.model.ReadingRetentionResult;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.service.ReadingRetentionService;
+import com.unconv.spring.service.RecentReadingCounter;
+import com.unconv.spring.service.RecentReadingFilter;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * PostgreSQL implementation of {@link ReadingRetentionService}. Readings are rolled up into their
+ * aggregates as they are written, so expired readings are simply deleted. Raw readings are deleted
+ * whole UTC days at a time, so that a day is never left with only part of its readings, and the
+ * reading summary of the sensor system is rebuilt from the readings left afterwards.
+ */
+@Slf4j
+@Service
+public class ReadingRetentionServiceImpl implements ReadingRetentionService {
+
+    private static final String SET_UTC_TIME_ZONE_SQL = "SET LOCAL TIME ZONE 'UTC'";
+
+    private static final String COMPACT_READINGS_SQL =
+            "DELETE FROM environmental_readings WHERE (sensor_id, timestamp) IN"
+                    + " (SELECT sensor_id, timestamp FROM environmental_readings"
+                    + " WHERE sensor_id = ? AND timestamp < ? ORDER BY timestamp LIMIT ?)";
+
+    private static final String DELETE_AGGREGATES_SQL =
+            "DELETE FROM environmental_reading_aggregates WHERE id IN (SELECT id"
+                    + " FROM environmental_reading_aggregates WHERE sensor_id = ?"
+                    + " AND resolution = ? AND bucket_start < ? LIMIT ?)";
+
+    private static final String DELETE_QUANTILE_BINS_SQL =
+            "DELETE FROM environmental_reading_quantile_bins WHERE id IN (SELECT id"
+                    + " FROM environmental_reading_quantile_bins WHERE sensor_id = ?"
+                    + " AND resolution = ? AND bucket_start < ? LIMIT ?)";
+
+    private final ReadingRetentionConfig readingRetentionConfig;
+
+    private final SensorSystemRepository sensorSystemRepository;
+
+    private final SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    private final RecentReadingFilter recentReadingFilter;
+
+    private final RecentReadingCounter recentReadingCounter;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs a {@link ReadingRetentionServiceImpl}.
+     *
+     * @param readingRetentionConfig the retention policies and batch size
+     * @param sensorSystemRepository the repository listing the sensor systems to apply them to
+     * @param sensorReadingSummaryRepository the repository rebuilding the summaries of compacted
+     *     sensor systems
+     * @param recentReadingFilter the filter told to forget compacted sensor systems
+     * @param recentReadingCounter the counter told to forget compacted sensor systems
+     * @param jdbcTemplate the template the compaction statements are run with
+     * @param transactionManager the transaction manager each batch is committed with
+     */
+    public ReadingRetentionServiceImpl(
+            ReadingRetentionConfig readingRetentionConfig,
+            SensorSystemRepository sensorSystemRepository,
+            SensorReadingSummaryRepository sensorReadingSummaryRepository,
+            RecentReadingFilter recentReadingFilter,
+            RecentReadingCounter recentReadingCounter,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.readingRetentionConfig = readingRetentionConfig;
+        this.sensorSystemRepository = sensorSystemRepository;
+        this.sensorReadingSummaryRepository = sensorReadingSummaryRepository;
+        this.recentReadingFilter = recentReadingFilter;
+        this.recentReadingCounter = recentReadingCounter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Applies the retention policy of every sensor system. A sensor system whose policy fails to
+     * apply is logged and skipped, so that it does not hold up the others.
+     *
+     * @return The number of readings compacted and aggregates deleted.
+     */
+    @Override
+    public ReadingRetentionResult applyRetentionPolicies() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        long compactedReadings = 0;
+        long deletedAggregates = 0;
+
+        for (UUID sensorSystemId : sensorSystemRepository.findAllIds()) {
+            ReadingRetentionConfig.Policy policy =
+                    readingRetentionConfig.policyFor(sensorSystemId);
+            try {
+                if (expires(policy.getRaw())) {
+                    compactedReadings +=
+                            compactReadingsBefore(
+                                    sensorSystemId,
+                                    now.minus(policy.getRaw()).truncatedTo(ChronoUnit.DAYS));
+                }
+                if (expires(policy.getQuarterHourly())) {
+                    deletedAggregates +=
+                            deleteAggregatesBefore(
+                                    sensorSystemId,
+                                    AggregateResolution.QUARTER_HOURLY,
+                                    now.minus(policy.getQuarterHourly()));
+                }
+                if (expires(policy.getHourly())) {
+                    deletedAggregates +=
+                            deleteAggregatesBefore(
+                                    sensorSystemId,
+                                    AggregateResolution.HOURLY,
+                                    now.minus(policy.getHourly()));
+                }
+                if (expires(policy.getDaily())) {
+                    deletedAggregates +=
+                            deleteAggregatesBefore(
+                                    sensorSystemId,
+                                    AggregateResolution.DAILY,
+                                    now.minus(policy.getDaily()));
+                }
+            } catch (DataAccessException e) {
+                log.error(
+                        "Failed to apply the retention policy of sensor system {}",
+                        sensorSystemId,
+                        e);
+            }
+        }
+
+        log.info(
+                "Compacted {} expired environmental readings and deleted {} expired aggregates",
+                compactedReadings,
+                deletedAggregates);
+        return new ReadingRetentionResult(compactedReadings, deletedAggregates);
+    }
+
+    /**
+     * Compacts the raw readings of a sensor system taken before a cutoff by deleting them. Their
+     * aggregates, maintained as the readings were written, are left as they are. Once all batches
+     * are deleted, the reading summary of the sensor system is rebuilt, and the duplicate filter
+     * and the reading counter forget it, so that readings sent again are stored again.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     * @param cutoff The time before which readings are compacted.
+     * @return The number of readings compacted.
+     */
+    @Override
+    public long compactReadingsBefore(UUID sensorSystemId, OffsetDateTime cutoff) {
+        int batchSize = readingRetentionConfig.getBatchSize();
+        long compacted = 0;
+        int batch;
+        do {
+            batch =
+                    inUtcTransaction(
+                            () ->
+                                    jdbcTemplate.update(
+                                            COMPACT_READINGS_SQL,
+                                            sensorSystemId,
+                                            cutoff,
+                                            batchSize));
+            compacted += batch;
+        } while (batch == batchSize);
+        if (compacted > 0) {
+            transactionTemplate.executeWithoutResult(
+                    status -> sensorReadingSummaryRepository.rebuildSummary(sensorSystemId));
+            recentReadingFilter.forgetSensorSystem(sensorSystemId);
+            recentReadingCounter.forgetSensorSystem(sensorSystemId);
+        }
+        return compacted;
+    }
+
+    /**
+     * Deletes the aggregates of a sensor system whose bucket starts before a cutoff, along with the
+     * quantile bins of the same buckets.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     * @param resolution The resolution of the aggregates to delete.
+     * @param cutoff The time before which aggregates are deleted.
+     * @return The number of aggregates deleted.
+     */
+    @Override
+    public long deleteAggregatesBefore(
+            UUID sensorSystemId, AggregateResolution resolution, OffsetDateTime cutoff) {
+        deleteInBatches(DELETE_QUANTILE_BINS_SQL, sensorSystemId, resolution, cutoff);
+        return deleteInBatches(DELETE_AGGREGATES_SQL, sensorSystemId, resolution, cutoff);
+    }
+
+    /** Runs a batched delete of rollup rows until a batch comes back short. */
+    private long deleteInBatches(
+            String sql,
+            UUID sensorSystemId,
+            AggregateResolution resolution,
+            OffsetDateTime cutoff) {
+        int batchSize = readingRetentionConfig.getBatchSize();
+        long deleted = 0;
+        int batch;
+        do {
+            batch =
+                    inUtcTransaction(
+                            () ->
+                                    jdbcTemplate.update(
+                                            sql,
+                                            sensorSystemId,
+                                            resolution.name(),
+                                            cutoff,
+                                            batchSize));
+            deleted += batch;
+        } while (batch == batchSize);
+        return deleted;
+    }
+
+    /**
+     * Runs one batch in a transaction of its own, with UTC as the session time zone so that
+     * buckets and cutoffs line up with the stored timestamps whatever the JVM time zone.
+     */
+    private int inUtcTransaction(IntSupplier batch) {
+        Integer processed =
+                transactionTemplate.execute(
+                        status -> {
+                            jdbcTemplate.execute(SET_UTC_TIME_ZONE_SQL);
+                            return batch.getAsInt();
+                        });
+        return processed == null ? 0 : processed;
+    }
+
+    private static boolean expires(Duration retention) {
+        return retention != null && retention.isPositive();
+    }
+}
@@ -0,0 +1,258 @@
+package com.unconv.spring.service.impl;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.model.HourlyReadingCount;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
+import com.unconv.spring.service.RecentReadingCounter;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link RecentReadingCounter} keeping a ring of {@link RecentReadingCounter#COUNTED_HOURS} hourly
+ * counts for each warm sensor system, indexed by the hour since the Unix epoch. Readings inserted
+ * while their sensor system is cold, or stamped with a future hour, are not counted.
+ *
+ * <p>Readings committed while a reload is reading the aggregates may be counted twice or not at
+ * all, until the next reload.
+ */
+@Service
+public class RecentReadingCounterImpl implements RecentReadingCounter {
+
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    private final EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, HourlyCounts> hourlyCountsBySensorSystemId = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@link RecentReadingCounterImpl} with the given repository and transaction
+     * manager.
+     *
+     * @param environmentalReadingAggregateRepository the repository the hourly counts are loaded
+     *     from
+     * @param transactionManager the transaction manager used to load the hourly counts
+     */
+    public RecentReadingCounterImpl(
+            EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository,
+            PlatformTransactionManager transactionManager) {
+        this.environmentalReadingAggregateRepository = environmentalReadingAggregateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Returns the number of readings of a sensor system in each trailing window of whole hours.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param windowsInHours the lengths of the windows, each from 1 to {@link #COUNTED_HOURS}
+     * @return the number of readings per window length, or empty if the sensor system is cold
+     * @throws IllegalArgumentException if a window is shorter than an hour or longer than {@link
+     *     #COUNTED_HOURS}
+     */
+    @Override
+    public Optional<Map<Integer, Long>> findRecentCounts(
+            UUID sensorSystemId, List<Integer> windowsInHours) {
+        return findRecentCounts(sensorSystemId, windowsInHours, Instant.now());
+    }
+
+    /**
+     * Counts the given readings as inserted, after the current transaction commits if one is
+     * active.
+     *
+     * @param environmentalReadings the readings that were inserted
+     */
+    @Override
+    public void recordInserted(Collection<EnvironmentalReading> environmentalReadings) {
+        if (environmentalReadings.isEmpty()) {
+            return;
+        }
+        List<EnvironmentalReading> insertedReadings = new ArrayList<>(environmentalReadings);
+        afterCommit(() -> record(insertedReadings, Instant.now()));
+    }
+
+    /**
+     * Counts the given readings as inserted if all of them were, ignores them if none were, and
+     * forgets the counters of their sensor systems otherwise.
+     *
+     * @param environmentalReadings the readings that were written
+     * @param insertedCount the number of them that were inserted
+     */
+    @Override
+    public void recordInserted(
+            Collection<EnvironmentalReading> environmentalReadings, long insertedCount) {
+        if (insertedCount == 0) {
+            return;
+        }
+        if (insertedCount == environmentalReadings.size()) {
+            recordInserted(environmentalReadings);
+            return;
+        }
+        environmentalReadings.stream()
+                .map(environmentalReading -> environmentalReading.getSensorSystem().getId())
+                .distinct()
+                .forEach(this::forgetSensorSystem);
+    }
+
+    /**
+     * Forgets the counters of a sensor system, and again after the current transaction commits if
+     * one is active, so that a reload in the meantime cannot bring back the counts from before it.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     */
+    @Override
+    public void forgetSensorSystem(UUID sensorSystemId) {
+        hourlyCountsBySensorSystemId.remove(sensorSystemId);
+        afterCommit(() -> hourlyCountsBySensorSystemId.remove(sensorSystemId));
+    }
+
+    /**
+     * Replaces the counters of all sensor systems with the counts of the hourly aggregates of the
+     * last {@link #COUNTED_HOURS} hours, loaded in a read-only transaction.
+     */
+    @Override
+    public void reload() {
+        reload(Instant.now());
+    }
+
+    Optional<Map<Integer, Long>> findRecentCounts(
+            UUID sensorSystemId, List<Integer> windowsInHours, Instant now) {
+        for (int windowInHours : windowsInHours) {
+            if (windowInHours < 1 || windowInHours > COUNTED_HOURS) {
+                throw new IllegalArgumentException(
+                        "Window must be from 1 to " + COUNTED_HOURS + " hours: " + windowInHours);
+            }
+        }
+        HourlyCounts hourlyCounts = hourlyCountsBySensorSystemId.get(sensorSystemId);
+        if (hourlyCounts == null) {
+            return Optional.empty();
+        }
+        return Optional.of(hourlyCounts.countTrailing(windowsInHours, epochHourOf(now)));
+    }
+
+    void record(List<EnvironmentalReading> environmentalReadings, Instant now) {
+        long currentHour = epochHourOf(now);
+        for (EnvironmentalReading environmentalReading : environmentalReadings) {
+            HourlyCounts hourlyCounts =
+                    hourlyCountsBySensorSystemId.get(
+                            environmentalReading.getSensorSystem().getId());
+            if (hourlyCounts != null) {
+                hourlyCounts.add(
+                        epochHourOf(environmentalReading.getTimestamp().toInstant()),
+                        1,
+                        currentHour);
+            }
+        }
+    }
+
+    void reload(Instant now) {
+        long currentHour = epochHourOf(now);
+        OffsetDateTime start = hourStartOf(currentHour - COUNTED_HOURS + 1);
+        OffsetDateTime end = hourStartOf(currentHour + 1);
+        List<HourlyReadingCount> hourlyReadingCounts =
+                transactionTemplate.execute(
+                        status ->
+                                environmentalReadingAggregateRepository.findHourlyReadingCounts(
+                                        start, end));
+        Map<UUID, HourlyCounts> reloadedCounts = new HashMap<>();
+        if (hourlyReadingCounts != null) {
+            for (HourlyReadingCount hourlyReadingCount : hourlyReadingCounts) {
+                reloadedCounts
+                        .computeIfAbsent(
+                                hourlyReadingCount.sensorSystemId(),
+                                sensorSystemId -> new HourlyCounts(currentHour))
+                        .add(
+                                epochHourOf(hourlyReadingCount.hourStart().toInstant()),
+                                hourlyReadingCount.readingCount(),
+                                currentHour);
+            }
+        }
+        hourlyCountsBySensorSystemId.keySet().retainAll(reloadedCounts.keySet());
+        hourlyCountsBySensorSystemId.putAll(reloadedCounts);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            action.run();
+                        }
+                    });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long epochHourOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_HOUR);
+    }
+
+    private static OffsetDateTime hourStartOf(long epochHour) {
+        return OffsetDateTime.ofInstant(
+                Instant.ofEpochSecond(epochHour * SECONDS_PER_HOUR), ZoneOffset.UTC);
+    }
+
+    /** Ring of the reading counts of the last hours, ending with the latest hour seen. */
+    private static final class HourlyCounts {
+
+        private final long[] counts = new long[COUNTED_HOURS];
+
+        private long currentHour;
+
+        private HourlyCounts(long currentHour) {
+            this.currentHour = currentHour;
+        }
+
+        private synchronized void add(long hour, long count, long nowHour) {
+            advanceTo(nowHour);
+            if (hour <= currentHour && hour > currentHour - COUNTED_HOURS) {
+                counts[slotOf(hour)] += count;
+            }
+        }
+
+        private synchronized Map<Integer, Long> countTrailing(
+                List<Integer> windowsInHours, long nowHour) {
+            advanceTo(nowHour);
+            Map<Integer, Long> countsByWindow = new HashMap<>();
+            for (int windowInHours : windowsInHours) {
+                long count = 0;
+                for (int hoursAgo = 0; hoursAgo < windowInHours; hoursAgo++) {
+                    count += counts[slotOf(currentHour - hoursAgo)];
+                }
+                countsByWindow.put(windowInHours, count);
+            }
+            return countsByWindow;
+        }
+
+        /** Moves the ring on to a later hour, clearing the slots of the hours it passes. */
+        private void advanceTo(long nowHour) {
+            for (long hour = currentHour + 1;
+                    hour <= nowHour && hour <= currentHour + COUNTED_HOURS;
+                    hour++) {
+                counts[slotOf(hour)] = 0;
+            }
+            currentHour = Math.max(currentHour, nowHour);
+        }
+
+        private static int slotOf(long hour) {
+            return Math.floorMod(hour, COUNTED_HOURS);
+        }
+    }
+}
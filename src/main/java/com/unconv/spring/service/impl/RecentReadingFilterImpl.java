@@ -0,0 +1,143 @@
+package com.unconv.spring.service.impl;
+
+import com.unconv.spring.config.IngestDeduplicationConfig;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.service.RecentReadingFilter;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link RecentReadingFilter} keeping a fixed-size ring of the most recently stored timestamps for
+ * each sensor system. Timestamps are compared at microsecond precision, the precision the database
+ * stores.
+ */
+@Service
+public class RecentReadingFilterImpl implements RecentReadingFilter {
+
+    private final int capacity;
+
+    private final Map<UUID, RecentTimestamps> recentTimestampsBySensorSystemId =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@link RecentReadingFilterImpl} with the given settings.
+     *
+     * @param ingestDeduplicationConfig the settings holding the number of timestamps per sensor
+     */
+    public RecentReadingFilterImpl(IngestDeduplicationConfig ingestDeduplicationConfig) {
+        this.capacity = ingestDeduplicationConfig.getRecentTimestampsPerSensor();
+    }
+
+    /**
+     * Returns whether a reading with the same sensor system and timestamp is known to be stored.
+     *
+     * @param environmentalReading the reading to check
+     * @return true if the reading is a known duplicate
+     */
+    @Override
+    public boolean isKnownDuplicate(EnvironmentalReading environmentalReading) {
+        if (capacity <= 0) {
+            return false;
+        }
+        RecentTimestamps recentTimestamps =
+                recentTimestampsBySensorSystemId.get(
+                        environmentalReading.getSensorSystem().getId());
+        return recentTimestamps != null
+                && recentTimestamps.contains(toEpochMicros(environmentalReading.getTimestamp()));
+    }
+
+    /**
+     * Records the given readings as stored, after the current transaction commits if one is
+     * active.
+     *
+     * @param environmentalReadings the readings that are stored, whether inserted now or earlier
+     */
+    @Override
+    public void recordStored(Collection<EnvironmentalReading> environmentalReadings) {
+        if (capacity <= 0 || environmentalReadings.isEmpty()) {
+            return;
+        }
+        List<EnvironmentalReading> storedReadings = new ArrayList<>(environmentalReadings);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            record(storedReadings);
+                        }
+                    });
+        } else {
+            record(storedReadings);
+        }
+    }
+
+    /**
+     * Forgets everything remembered for a sensor system.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     */
+    @Override
+    public void forgetSensorSystem(UUID sensorSystemId) {
+        recentTimestampsBySensorSystemId.remove(sensorSystemId);
+    }
+
+    private void record(List<EnvironmentalReading> environmentalReadings) {
+        for (EnvironmentalReading environmentalReading : environmentalReadings) {
+            recentTimestampsBySensorSystemId
+                    .computeIfAbsent(
+                            environmentalReading.getSensorSystem().getId(),
+                            sensorSystemId -> new RecentTimestamps(capacity))
+                    .add(toEpochMicros(environmentalReading.getTimestamp()));
+        }
+    }
+
+    private static long toEpochMicros(OffsetDateTime timestamp) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.toInstant());
+    }
+
+    /** Insertion-ordered ring of timestamps with constant-time lookups. */
+    private static final class RecentTimestamps {
+
+        private final long[] ring;
+
+        private final Set<Long> members;
+
+        private int next;
+
+        private int size;
+
+        private RecentTimestamps(int capacity) {
+            this.ring = new long[capacity];
+            this.members = new HashSet<>(capacity * 2);
+        }
+
+        private synchronized boolean contains(long epochMicros) {
+            return members.contains(epochMicros);
+        }
+
+        private synchronized void add(long epochMicros) {
+            if (!members.add(epochMicros)) {
+                return;
+            }
+            if (size == ring.length) {
+                members.remove(ring[next]);
+            } else {
+                size++;
+            }
+            ring[next] = epochMicros;
+            next = (next + 1) % ring.length;
+        }
+    }
+}
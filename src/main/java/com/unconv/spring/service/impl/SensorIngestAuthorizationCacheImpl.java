@@ -0,0 +1,147 @@
+package com.unconv.spring.service.impl;
+
+import com.unconv.spring.config.IngestAuthorizationCacheConfig;
+import com.unconv.spring.model.SensorIngestAuthorization;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.service.SensorIngestAuthorizationCache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link SensorIngestAuthorizationCache} holding a least-recently-used map of authorizations, each
+ * trusted for a limited time. Entries are only ever loaded from the database; an entry loaded while
+ * an invalidation happened is returned to the caller but not cached.
+ */
+@Service
+public class SensorIngestAuthorizationCacheImpl implements SensorIngestAuthorizationCache {
+
+    private final SensorSystemRepository sensorSystemRepository;
+
+    private final int maxEntries;
+
+    private final long timeToLiveNanos;
+
+    private final Map<UUID, CachedAuthorization> entries;
+
+    private long invalidations;
+
+    /**
+     * Constructs a {@link SensorIngestAuthorizationCacheImpl} with the given settings.
+     *
+     * @param ingestAuthorizationCacheConfig the size and time-to-live of the cache
+     * @param sensorSystemRepository the repository authorizations are loaded from
+     */
+    public SensorIngestAuthorizationCacheImpl(
+            IngestAuthorizationCacheConfig ingestAuthorizationCacheConfig,
+            SensorSystemRepository sensorSystemRepository) {
+        this.sensorSystemRepository = sensorSystemRepository;
+        this.maxEntries = ingestAuthorizationCacheConfig.getMaxEntries();
+        this.timeToLiveNanos = ingestAuthorizationCacheConfig.getTimeToLive().toNanos();
+        this.entries =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(
+                            Map.Entry<UUID, CachedAuthorization> eldest) {
+                        return size() > maxEntries;
+                    }
+                };
+    }
+
+    /**
+     * Retrieves the ingest authorization of a SensorSystem, loading it if it is not cached.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     * @return An Optional containing the SensorIngestAuthorization, or empty if the SensorSystem
+     *     does not exist.
+     */
+    @Override
+    public Optional<SensorIngestAuthorization> find(UUID sensorSystemId) {
+        return Optional.ofNullable(findAll(List.of(sensorSystemId)).get(sensorSystemId));
+    }
+
+    /**
+     * Retrieves the ingest authorizations of several SensorSystems, loading the ones that are not
+     * cached in a single query.
+     *
+     * @param sensorSystemIds The IDs of the SensorSystems.
+     * @return The SensorIngestAuthorizations by SensorSystem ID; SensorSystems that do not exist
+     *     are absent.
+     */
+    @Override
+    public Map<UUID, SensorIngestAuthorization> findAll(Collection<UUID> sensorSystemIds) {
+        Map<UUID, SensorIngestAuthorization> authorizations = new HashMap<>();
+        List<UUID> missingIds = new ArrayList<>();
+        long loadedAtNanos = System.nanoTime();
+        long invalidationsBeforeLoad;
+
+        synchronized (this) {
+            for (UUID sensorSystemId : sensorSystemIds) {
+                CachedAuthorization cachedAuthorization = entries.get(sensorSystemId);
+                if (cachedAuthorization != null
+                        && loadedAtNanos - cachedAuthorization.loadedAtNanos() < timeToLiveNanos) {
+                    authorizations.put(sensorSystemId, cachedAuthorization.authorization());
+                } else {
+                    missingIds.add(sensorSystemId);
+                }
+            }
+            invalidationsBeforeLoad = invalidations;
+        }
+
+        if (missingIds.isEmpty()) {
+            return authorizations;
+        }
+
+        List<SensorIngestAuthorization> loadedAuthorizations =
+                sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(missingIds);
+
+        synchronized (this) {
+            boolean cacheable = maxEntries > 0 && invalidations == invalidationsBeforeLoad;
+            for (SensorIngestAuthorization authorization : loadedAuthorizations) {
+                authorizations.put(authorization.sensorSystemId(), authorization);
+                if (cacheable) {
+                    entries.put(
+                            authorization.sensorSystemId(),
+                            new CachedAuthorization(authorization, loadedAtNanos));
+                }
+            }
+        }
+        return authorizations;
+    }
+
+    /**
+     * Evicts the ingest authorization of a SensorSystem that is being changed or deleted, and again
+     * once the current transaction completes if one is active.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     */
+    @Override
+    public void invalidate(UUID sensorSystemId) {
+        evict(sensorSystemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            evict(sensorSystemId);
+                        }
+                    });
+        }
+    }
+
+    private synchronized void evict(UUID sensorSystemId) {
+        entries.remove(sensorSystemId);
+        invalidations++;
+    }
+
+    private record CachedAuthorization(
+            SensorIngestAuthorization authorization, long loadedAtNanos) {}
+}
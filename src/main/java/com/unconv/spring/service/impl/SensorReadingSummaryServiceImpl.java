@@ -0,0 +1,75 @@
+package com.unconv.spring.service.impl;
+
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
+import com.unconv.spring.service.SensorReadingSummaryService;
+import java.util.Collection;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of {@link SensorReadingSummaryService} that recomputes each summary with a single
+ * statement over the stored readings of its sensor system.
+ */
+@Slf4j
+@Service
+public class SensorReadingSummaryServiceImpl implements SensorReadingSummaryService {
+
+    private final SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs a {@link SensorReadingSummaryServiceImpl}.
+     *
+     * @param sensorReadingSummaryRepository the repository rebuilding the summaries
+     * @param transactionManager the transaction manager each summary is rebuilt with
+     */
+    public SensorReadingSummaryServiceImpl(
+            SensorReadingSummaryRepository sensorReadingSummaryRepository,
+            PlatformTransactionManager transactionManager) {
+        this.sensorReadingSummaryRepository = sensorReadingSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Rebuilds the reading summary of a sensor system from its stored readings, in a transaction
+     * of its own.
+     *
+     * @param sensorSystemId The ID of the SensorSystem.
+     */
+    @Override
+    public void rebuildSummary(UUID sensorSystemId) {
+        transactionTemplate.executeWithoutResult(
+                status -> sensorReadingSummaryRepository.rebuildSummary(sensorSystemId));
+    }
+
+    /**
+     * Rebuilds the reading summaries of the given sensor systems one at a time, so that ingest is
+     * only held up for one summary at once. A summary that fails to rebuild is logged and skipped,
+     * so that it does not hold up the others.
+     *
+     * @param sensorSystemIds The IDs of the SensorSystems.
+     * @return The number of summaries rebuilt.
+     */
+    @Override
+    public int rebuildSummaries(Collection<UUID> sensorSystemIds) {
+        int rebuilt = 0;
+        for (UUID sensorSystemId : sensorSystemIds) {
+            try {
+                rebuildSummary(sensorSystemId);
+                rebuilt++;
+            } catch (DataAccessException e) {
+                log.error(
+                        "Failed to rebuild the reading summary of sensor system {}",
+                        sensorSystemId,
+                        e);
+            }
+        }
+        log.info("Rebuilt the reading summaries of {} sensor systems", rebuilt);
+        return rebuilt;
+    }
+}
@@ -6,22 +6,29 @@
 
 import com.unconv.spring.domain.EnvironmentalReading;
 import com.unconv.spring.domain.SensorLocation;
+import com.unconv.spring.domain.SensorReadingSummary;
 import com.unconv.spring.domain.SensorSystem;
 import com.unconv.spring.domain.UnconvUser;
 import com.unconv.spring.dto.SensorSystemDTO;
 import com.unconv.spring.dto.base.BaseEnvironmentalReadingDTO;
 import com.unconv.spring.enums.SensorStatus;
+import com.unconv.spring.model.SummarizedReading;
 import com.unconv.spring.model.response.MessageResponse;
 import com.unconv.spring.model.response.PagedResult;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
 import com.unconv.spring.persistence.SensorLocationRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
 import com.unconv.spring.persistence.SensorSystemRepository;
 import com.unconv.spring.persistence.UnconvUserRepository;
+import com.unconv.spring.projection.SensorReadingCountProjection;
+import com.unconv.spring.service.RecentReadingCounter;
+import com.unconv.spring.service.SensorIngestAuthorizationCache;
 import com.unconv.spring.service.SensorSystemService;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,16 +51,27 @@
 @Transactional
 public class SensorSystemServiceImpl implements SensorSystemService {
 
+    private static final List<Integer> RECENT_READING_WINDOWS_IN_HOURS = List.of(1, 3, 8, 24, 168);
+
     @Autowired private SensorSystemRepository sensorSystemRepository;
 
     @Autowired private SensorLocationRepository sensorLocationRepository;
 
     @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
 
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
     @Autowired private UnconvUserRepository unconvUserRepository;
 
     @Autowired private ModelMapper modelMapper;
 
+    @Autowired private SensorIngestAuthorizationCache sensorIngestAuthorizationCache;
+
+    @Autowired private RecentReadingCounter recentReadingCounter;
+
     /**
      * Retrieves a paginated list of all SensorSystems.
      *
@@ -138,18 +156,8 @@ public Optional<SensorSystemDTO> findSensorSystemDTOById(UUID id) {
         if (sensorSystem.isEmpty()) {
             return Optional.ofNullable(modelMapper.map(sensorSystem, SensorSystemDTO.class));
         } else {
-            SensorSystemDTO sensorSystemDTO =
-                    modelMapper.map(sensorSystem.get(), SensorSystemDTO.class);
-            sensorSystemDTO.setReadingCount(
-                    environmentalReadingRepository.countBySensorSystemId(id));
-            EnvironmentalReading environmentalReading =
-                    environmentalReadingRepository.findFirstBySensorSystemIdOrderByTimestampDesc(
-                            id);
-            if (environmentalReading != null) {
-                sensorSystemDTO.setLatestReading(
-                        modelMapper.map(environmentalReading, BaseEnvironmentalReadingDTO.class));
-            }
-            return Optional.of(sensorSystemDTO);
+            return Optional.of(
+                    mapSensorSystemEntityToDTOAndPopulateExtraFields(sensorSystem.get()));
         }
     }
 
@@ -165,13 +173,17 @@ public boolean isActiveSensorSystem(SensorSystem sensorSystem) {
     }
 
     /**
-     * Saves a new SensorSystem.
+     * Saves a new or updated SensorSystem. The cached ingest authorization of an updated
+     * SensorSystem is evicted.
      *
      * @param sensorSystem The SensorSystem to save.
      * @return The saved SensorSystem.
      */
     @Override
     public SensorSystem saveSensorSystem(SensorSystem sensorSystem) {
+        if (sensorSystem.getId() != null) {
+            sensorIngestAuthorizationCache.invalidate(sensorSystem.getId());
+        }
         return sensorSystemRepository.save(sensorSystem);
     }
 
@@ -220,14 +232,17 @@ public ResponseEntity<MessageResponse<SensorSystemDTO>> validateUnconvUserAndSav
     }
 
     /**
-     * Deletes a SensorSystem by its ID.
+     * Deletes a SensorSystem by its ID, or marks it as deleted if it has readings or aggregates of
+     * compacted readings. Either way its cached ingest authorization is evicted.
      *
      * @param id The ID of the SensorSystem to delete.
      * @return true if the deletion was successful, false otherwise.
      */
     @Override
     public boolean deleteSensorSystemById(UUID id) {
-        if (environmentalReadingRepository.countBySensorSystemId(id) != 0) {
+        sensorIngestAuthorizationCache.invalidate(id);
+        if (environmentalReadingRepository.countBySensorSystemId(id) != 0
+                || environmentalReadingAggregateRepository.existsBySensorSystemId(id)) {
             SensorSystem sensorSystem = sensorSystemRepository.findSensorSystemById(id);
             sensorSystem.setDeleted(true);
             sensorSystemRepository.save(sensorSystem);
@@ -251,23 +266,32 @@ public List<SensorSystem> findAllSensorSystemsBySensorName(String sensorName) {
     }
 
     /**
-     * Finds recent statistics by SensorSystem ID.
+     * Counts the EnvironmentalReadings of a SensorSystem in the trailing windows of 1, 3, 8, 24 and
+     * 168 hours, each ending with the current UTC hour. The counts come from the {@link
+     * RecentReadingCounter} while the SensorSystem is warm there, and from a single query that
+     * counts all windows at once otherwise.
      *
      * @param sensorSystemId The ID of the SensorSystem.
-     * @return A map containing recent statistics for the SensorSystem.
+     * @return A map of the number of readings per window length in hours.
      */
     @Override
     public Map<Integer, Long> findRecentStatsBySensorSystemId(UUID sensorSystemId) {
-        List<Integer> timePeriods = Arrays.asList(1, 3, 8, 24, 168);
+        return recentReadingCounter
+                .findRecentCounts(sensorSystemId, RECENT_READING_WINDOWS_IN_HOURS)
+                .orElseGet(() -> countRecentReadings(sensorSystemId));
+    }
+
+    private Map<Integer, Long> countRecentReadings(UUID sensorSystemId) {
+        OffsetDateTime nextHourStart =
+                OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        List<OffsetDateTime> windowStarts =
+                RECENT_READING_WINDOWS_IN_HOURS.stream().map(nextHourStart::minusHours).toList();
+        long[] counts =
+                environmentalReadingRepository.countReadingsSince(
+                        sensorSystemId, windowStarts, nextHourStart);
         Map<Integer, Long> recentReadingCounts = new HashMap<>();
-        for (Integer timePeriod : timePeriods) {
-
-            long count =
-                    environmentalReadingRepository.countBySensorSystemIdAndTimestampBetween(
-                            sensorSystemId,
-                            OffsetDateTime.now(ZoneOffset.UTC).minusHours(timePeriod),
-                            OffsetDateTime.now(ZoneOffset.UTC));
-            recentReadingCounts.put(timePeriod, count);
+        for (int i = 0; i < counts.length; i++) {
+            recentReadingCounts.put(RECENT_READING_WINDOWS_IN_HOURS.get(i), counts[i]);
         }
         return recentReadingCounts;
     }
@@ -290,10 +314,52 @@ public List<SensorSystem> findAllBySensorSystemsBySensorNameAndUnconvUserId(
     private List<SensorSystemDTO> populateSensorSystemDTOFromSensorSystemPage(
             Page<SensorSystem> sensorSystemsPage) {
         List<SensorSystem> sensorSystems = sensorSystemsPage.getContent();
-        List<SensorSystemDTO> sensorSystemDTOs = new ArrayList<>();
+        // One primary key read of the summaries of the whole page, rather than one per sensor
+        List<UUID> sensorSystemIds = sensorSystems.stream().map(SensorSystem::getId).toList();
+        Map<UUID, SensorReadingSummary> sensorReadingSummaries = new HashMap<>();
+        for (SensorReadingSummary sensorReadingSummary :
+                sensorReadingSummaryRepository.findAllById(sensorSystemIds)) {
+            sensorReadingSummaries.put(
+                    sensorReadingSummary.getSensorSystemId(), sensorReadingSummary);
+        }
+
+        // Off PostgreSQL no summaries are kept, so the remaining sensors are resolved together
+        List<UUID> unsummarizedSensorSystemIds =
+                sensorSystemIds.stream()
+                        .filter(
+                                sensorSystemId ->
+                                        !sensorReadingSummaries.containsKey(sensorSystemId))
+                        .toList();
+        Map<UUID, Long> readingCounts = new HashMap<>();
+        Map<UUID, EnvironmentalReading> latestReadings = new HashMap<>();
+        if (!unsummarizedSensorSystemIds.isEmpty() && !isSummaryMaintained()) {
+            for (SensorReadingCountProjection sensorReadingCount :
+                    environmentalReadingRepository.countBySensorSystemIds(
+                            unsummarizedSensorSystemIds)) {
+                readingCounts.put(
+                        sensorReadingCount.getSensorSystemId(),
+                        sensorReadingCount.getReadingCount());
+            }
+            for (EnvironmentalReading environmentalReading :
+                    environmentalReadingRepository.findLatestBySensorSystemIds(
+                            unsummarizedSensorSystemIds)) {
+                latestReadings.put(
+                        environmentalReading.getSensorSystem().getId(), environmentalReading);
+            }
+        }
+
+        List<SensorSystemDTO> sensorSystemDTOs = new ArrayList<>(sensorSystems.size());
         for (SensorSystem sensorSystem : sensorSystems) {
+            SensorReadingSummary sensorReadingSummary =
+                    sensorReadingSummaries.get(sensorSystem.getId());
             SensorSystemDTO sensorSystemDTO =
-                    mapSensorSystemEntityToDTOAndPopulateExtraFields(sensorSystem);
+                    sensorReadingSummary != null
+                            ? mapSensorSystemEntityToDTOAndPopulateExtraFields(
+                                    sensorSystem, sensorReadingSummary)
+                            : mapSensorSystemEntityToDTOAndPopulateExtraFields(
+                                    sensorSystem,
+                                    readingCounts.getOrDefault(sensorSystem.getId(), 0L),
+                                    latestReadings.get(sensorSystem.getId()));
             sensorSystemDTOs.add(sensorSystemDTO);
         }
 
@@ -302,20 +368,57 @@ private List<SensorSystemDTO> populateSensorSystemDTOFromSensorSystemPage(
 
     private SensorSystemDTO mapSensorSystemEntityToDTOAndPopulateExtraFields(
             SensorSystem sensorSystem) {
-        SensorSystemDTO sensorSystemDTO = modelMapper.map(sensorSystem, SensorSystemDTO.class);
-        sensorSystemDTO.setReadingCount(
-                environmentalReadingRepository.countBySensorSystemId(sensorSystem.getId()));
-        EnvironmentalReading environmentalReading =
+        // One primary key read of the summary kept up to date on ingest
+        Optional<SensorReadingSummary> sensorReadingSummary =
+                sensorReadingSummaryRepository.findById(sensorSystem.getId());
+        if (sensorReadingSummary.isPresent()) {
+            return mapSensorSystemEntityToDTOAndPopulateExtraFields(
+                    sensorSystem, sensorReadingSummary.get());
+        }
+        if (isSummaryMaintained()) {
+            return mapSensorSystemEntityToDTOAndPopulateExtraFields(sensorSystem, 0, null);
+        }
+        return mapSensorSystemEntityToDTOAndPopulateExtraFields(
+                sensorSystem,
+                environmentalReadingRepository.countBySensorSystemId(sensorSystem.getId()),
                 environmentalReadingRepository.findFirstBySensorSystemIdOrderByTimestampDesc(
-                        sensorSystem.getId());
+                        sensorSystem.getId()));
+    }
 
-        if (environmentalReading != null) {
+    private SensorSystemDTO mapSensorSystemEntityToDTOAndPopulateExtraFields(
+            SensorSystem sensorSystem, SensorReadingSummary sensorReadingSummary) {
+        SensorSystemDTO sensorSystemDTO = modelMapper.map(sensorSystem, SensorSystemDTO.class);
+        sensorSystemDTO.setReadingCount(sensorReadingSummary.getReadingCount());
+        SummarizedReading latestReading = sensorReadingSummary.getLatestReading();
+        sensorSystemDTO.setLatestReading(
+                new BaseEnvironmentalReadingDTO(
+                        latestReading.temperature(),
+                        latestReading.humidity(),
+                        latestReading.timestamp()));
+        return sensorSystemDTO;
+    }
+
+    private SensorSystemDTO mapSensorSystemEntityToDTOAndPopulateExtraFields(
+            SensorSystem sensorSystem,
+            long readingCount,
+            EnvironmentalReading latestEnvironmentalReading) {
+        SensorSystemDTO sensorSystemDTO = modelMapper.map(sensorSystem, SensorSystemDTO.class);
+        sensorSystemDTO.setReadingCount(readingCount);
+        if (latestEnvironmentalReading != null) {
             sensorSystemDTO.setLatestReading(
-                    modelMapper.map(environmentalReading, BaseEnvironmentalReadingDTO.class));
+                    modelMapper.map(latestEnvironmentalReading, BaseEnvironmentalReadingDTO.class));
         }
         return sensorSystemDTO;
     }
 
+    /**
+     * Returns whether the reading summaries are maintained on ingest, which they only are on
+     * PostgreSQL. A SensorSystem without a summary then has no readings.
+     */
+    private boolean isSummaryMaintained() {
+        return environmentalReadingRepository.isCopySupported();
+    }
+
     /**
      * Resolves a {@link SensorLocation} reference by retrieving it from the repository if it has an
      * existing ID.
@@ -0,0 +1,75 @@
+package com.unconv.spring.tasks;
+
+import com.unconv.spring.config.ReadingPartitionConfig;
+import com.unconv.spring.model.DroppedPartitions;
+import com.unconv.spring.service.EnvironmentalReadingPartitionService;
+import com.unconv.spring.service.SensorReadingSummaryService;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled component that keeps the monthly partitions of the environmental readings table ahead
+ * of incoming readings and, when a retention is configured, drops partitions that have aged out.
+ * Dropping a partition bypasses the reading summaries, so the summaries of the sensor systems
+ * that had readings in it are rebuilt afterwards.
+ *
+ * <p>The task runs once at startup and then every day, so partitions for the coming months always
+ * exist well before the first reading for them arrives. It does nothing unless the table has been
+ * migrated to a partitioned table.
+ *
+ * @see EnvironmentalReadingPartitionService
+ * @see ReadingPartitionConfig
+ * @see SensorReadingSummaryService
+ */
+@Component
+@EnableScheduling
+public class EnvironmentalReadingPartitionMaintenance {
+
+    private final EnvironmentalReadingPartitionService environmentalReadingPartitionService;
+
+    private final SensorReadingSummaryService sensorReadingSummaryService;
+
+    private final ReadingPartitionConfig readingPartitionConfig;
+
+    /**
+     * Constructs an {@link EnvironmentalReadingPartitionMaintenance}.
+     *
+     * @param environmentalReadingPartitionService the service managing the partitions
+     * @param sensorReadingSummaryService the service rebuilding the summaries left stale by drops
+     * @param readingPartitionConfig how far ahead partitions are created and how long they are kept
+     */
+    public EnvironmentalReadingPartitionMaintenance(
+            EnvironmentalReadingPartitionService environmentalReadingPartitionService,
+            SensorReadingSummaryService sensorReadingSummaryService,
+            ReadingPartitionConfig readingPartitionConfig) {
+        this.environmentalReadingPartitionService = environmentalReadingPartitionService;
+        this.sensorReadingSummaryService = sensorReadingSummaryService;
+        this.readingPartitionConfig = readingPartitionConfig;
+    }
+
+    /**
+     * Creates the partitions of the current month and the configured number of months ahead, then
+     * drops the partitions older than the configured retention and rebuilds the summaries of the
+     * sensor systems that had readings in them.
+     */
+    @Scheduled(fixedRate = 86400000)
+    public void maintainPartitions() {
+        if (!environmentalReadingPartitionService.isPartitioned()) {
+            return;
+        }
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        environmentalReadingPartitionService.createPartitions(
+                currentMonth, currentMonth.plusMonths(readingPartitionConfig.getMonthsAhead()));
+        if (readingPartitionConfig.getRetainedMonths() > 0) {
+            DroppedPartitions droppedPartitions =
+                    environmentalReadingPartitionService.dropPartitionsBefore(
+                            currentMonth.minusMonths(readingPartitionConfig.getRetainedMonths()));
+            if (!droppedPartitions.months().isEmpty()) {
+                sensorReadingSummaryService.rebuildSummaries(droppedPartitions.sensorSystemIds());
+            }
+        }
+    }
+}
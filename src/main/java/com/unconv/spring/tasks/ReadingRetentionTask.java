@@ -0,0 +1,49 @@
+package com.unconv.spring.tasks;
+
+import com.unconv.spring.config.ReadingRetentionConfig;
+import com.unconv.spring.service.ReadingRetentionService;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled component that applies the retention policies of environmental readings.
+ *
+ * <p>The task runs every hour once enabled with {@code unconv.readings.retention.enabled}. Each
+ * run deletes raw readings that have outlived their retention, whose data lives on in the
+ * aggregates they were rolled up into, then deletes expired aggregates. The next run only starts
+ * an hour after the previous one has finished, so a large backlog is never worked on twice at the
+ * same time.
+ *
+ * @see ReadingRetentionService
+ * @see ReadingRetentionConfig
+ */
+@Component
+@EnableScheduling
+public class ReadingRetentionTask {
+
+    private final ReadingRetentionService readingRetentionService;
+
+    private final ReadingRetentionConfig readingRetentionConfig;
+
+    /**
+     * Constructs a {@link ReadingRetentionTask}.
+     *
+     * @param readingRetentionService the service applying the policies
+     * @param readingRetentionConfig whether the task is enabled
+     */
+    public ReadingRetentionTask(
+            ReadingRetentionService readingRetentionService,
+            ReadingRetentionConfig readingRetentionConfig) {
+        this.readingRetentionService = readingRetentionService;
+        this.readingRetentionConfig = readingRetentionConfig;
+    }
+
+    /** Applies the retention policies of all sensor systems, if retention is enabled. */
+    @Scheduled(fixedDelay = 3600000, initialDelay = 600000)
+    public void applyRetentionPolicies() {
+        if (readingRetentionConfig.isEnabled()) {
+            readingRetentionService.applyRetentionPolicies();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.unconv.spring.tasks;
+
+import com.unconv.spring.service.RecentReadingCounter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled component that reloads the recent reading counters of all sensor systems from the
+ * hourly aggregates.
+ *
+ * <p>The first run warms the counters a minute after startup. Later runs warm the sensor systems
+ * that went cold since, and correct the counts missed by this instance, such as readings inserted
+ * by other instances. The next run starts an hour after the previous one has finished.
+ *
+ * @see RecentReadingCounter
+ */
+@Component
+@EnableScheduling
+public class RecentReadingCounterReloadTask {
+
+    private final RecentReadingCounter recentReadingCounter;
+
+    /**
+     * Constructs a {@link RecentReadingCounterReloadTask}.
+     *
+     * @param recentReadingCounter the counter to reload
+     */
+    public RecentReadingCounterReloadTask(RecentReadingCounter recentReadingCounter) {
+        this.recentReadingCounter = recentReadingCounter;
+    }
+
+    /** Reloads the recent reading counters of all sensor systems. */
+    @Scheduled(fixedDelay = 3600000, initialDelay = 60000)
+    public void reloadCounters() {
+        recentReadingCounter.reload();
+    }
+}
@@ -1,19 +1,35 @@
 package com.unconv.spring.utils;
 
+import com.github.luben.zstd.ZstdInputStream;
 import com.unconv.spring.domain.EnvironmentalReading;
 import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.enums.CsvCompression;
 import com.unconv.spring.exception.ReadingsCSVProcessingException;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
 
 /** Utility class for handling CSV files related to environmental readings. */
 public class CSVUtil {
@@ -21,6 +37,29 @@ public class CSVUtil {
     /** The content type for CSV files. */
     public static final String TYPE = "text/csv";
 
+    /** The content type for gzip-compressed files. */
+    public static final String GZIP_TYPE = "application/gzip";
+
+    /** The legacy content type for gzip-compressed files still sent by some clients. */
+    public static final String X_GZIP_TYPE = "application/x-gzip";
+
+    /** The content type for zstd-compressed files. */
+    public static final String ZSTD_TYPE = "application/zstd";
+
+    private static final int DECOMPRESSION_BUFFER_SIZE = 64 * 1024;
+
+    private static final CSVFormat READINGS_FORMAT =
+            CSVFormat.DEFAULT
+                    .builder()
+                    .setHeader()
+                    .setSkipHeaderRecord(true)
+                    .setIgnoreHeaderCase(false)
+                    .setTrim(true)
+                    .get();
+
+    private static final CSVFormat VALUES_FORMAT =
+            CSVFormat.DEFAULT.builder().setTrim(true).get();
+
     /** Private constructor to hide the implicit public one */
     private CSVUtil() {
         // Private constructor to hide the implicit public one
@@ -33,7 +72,89 @@ private CSVUtil() {
      * @return true if the file is of CSV format, false otherwise
      */
     public static boolean isOfCSVFormat(MultipartFile file) {
-        return TYPE.equals(file.getContentType());
+        return isOfCSVFormat(file, null);
+    }
+
+    /**
+     * Checks if the provided file is of CSV format, plain or compressed.
+     *
+     * @param file the multipart file to check
+     * @param contentEncoding the Content-Encoding of the file part, or {@code null}
+     * @return true if the file is of CSV format, false otherwise
+     */
+    public static boolean isOfCSVFormat(MultipartFile file, String contentEncoding) {
+        return getCsvCompression(file.getContentType(), contentEncoding).isPresent();
+    }
+
+    /**
+     * Determines how an uploaded CSV file is compressed. A gzip or zstd file is recognised either
+     * by its content type ({@code application/gzip}, {@code application/x-gzip} or {@code
+     * application/zstd}), or by a {@code text/csv} content type with a {@code gzip} or {@code zstd}
+     * Content-Encoding.
+     *
+     * @param contentType the content type of the file
+     * @param contentEncoding the Content-Encoding of the file, or {@code null}
+     * @return the compression of the file, or empty if it is not a supported CSV upload
+     */
+    public static Optional<CsvCompression> getCsvCompression(
+            String contentType, String contentEncoding) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        if (!TYPE.equalsIgnoreCase(contentType)) {
+            return switch (contentType.toLowerCase(Locale.ROOT)) {
+                case GZIP_TYPE, X_GZIP_TYPE -> Optional.of(CsvCompression.GZIP);
+                case ZSTD_TYPE -> Optional.of(CsvCompression.ZSTD);
+                default -> Optional.empty();
+            };
+        }
+        if (contentEncoding == null) {
+            return Optional.of(CsvCompression.NONE);
+        }
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "", "identity" -> Optional.of(CsvCompression.NONE);
+            case "gzip", "x-gzip" -> Optional.of(CsvCompression.GZIP);
+            case "zstd" -> Optional.of(CsvCompression.ZSTD);
+            default -> Optional.empty();
+        };
+    }
+
+    /**
+     * Reads the Content-Encoding header of a part of a multipart request.
+     *
+     * @param request the multipart request
+     * @param partName the name of the part
+     * @return the Content-Encoding of the part, or {@code null} if it has none
+     */
+    public static String getContentEncoding(MultipartHttpServletRequest request, String partName) {
+        HttpHeaders headers = request.getMultipartHeaders(partName);
+        return headers == null ? null : headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    /**
+     * Wraps an input stream so that it yields the decompressed CSV text. Decompression happens as
+     * the stream is read, so the decompressed file is never held in memory or written to disk.
+     *
+     * @param inputStream the input stream of the uploaded file
+     * @param csvCompression the compression of the uploaded file
+     * @return a stream of the decompressed CSV text
+     * @throws IOException if the stream does not start with a valid compression header, in which
+     *     case the given stream is closed
+     */
+    public static InputStream decompress(InputStream inputStream, CsvCompression csvCompression)
+            throws IOException {
+        try {
+            return switch (csvCompression) {
+                case NONE -> inputStream;
+                case GZIP -> new GZIPInputStream(inputStream, DECOMPRESSION_BUFFER_SIZE);
+                case ZSTD ->
+                        new BufferedInputStream(
+                                new ZstdInputStream(inputStream), DECOMPRESSION_BUFFER_SIZE);
+            };
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
     }
 
     /**
@@ -47,38 +168,340 @@ public static boolean isOfCSVFormat(MultipartFile file) {
      */
     public static List<EnvironmentalReading> csvToEnvironmentalReadings(
             InputStream inputStream, SensorSystem sensorSystem) {
+        List<EnvironmentalReading> environmentalReadings = new ArrayList<>();
+        csvToEnvironmentalReadingChunks(
+                inputStream, sensorSystem, Integer.MAX_VALUE, environmentalReadings::addAll);
+        return environmentalReadings;
+    }
+
+    /**
+     * Streams a CSV file represented by an input stream as consecutive chunks of {@link
+     * EnvironmentalReading} objects. Records are read one at a time, so at most {@code chunkSize}
+     * readings are held in memory regardless of the size of the file.
+     *
+     * @param inputStream the input stream of the CSV file
+     * @param sensorSystem the sensor system associated with the environmental readings
+     * @param chunkSize the maximum number of readings handed to the consumer at once
+     * @param chunkConsumer the consumer receiving each chunk, in file order
+     * @return the number of readings parsed from the CSV file
+     * @throws ReadingsCSVProcessingException if the file cannot be read or a record is malformed
+     */
+    public static int csvToEnvironmentalReadingChunks(
+            InputStream inputStream,
+            SensorSystem sensorSystem,
+            int chunkSize,
+            Consumer<List<EnvironmentalReading>> chunkConsumer) {
+        return csvToEnvironmentalReadingChunks(
+                inputStream, sensorSystem, chunkSize, chunkConsumer, null);
+    }
+
+    /**
+     * Streams a CSV file represented by an input stream as consecutive chunks of {@link
+     * EnvironmentalReading} objects. Records are read one at a time, so at most {@code chunkSize}
+     * readings are held in memory regardless of the size of the file.
+     *
+     * @param inputStream the input stream of the CSV file
+     * @param sensorSystem the sensor system associated with the environmental readings
+     * @param chunkSize the maximum number of readings handed to the consumer at once
+     * @param chunkConsumer the consumer receiving each chunk, in file order
+     * @param malformedRecordHandler receives the error for each malformed record, which is then
+     *     skipped; if {@code null}, the first malformed record aborts parsing
+     * @return the number of readings parsed from the CSV file, excluding skipped records
+     * @throws ReadingsCSVProcessingException if the file cannot be read, or a record is malformed
+     *     and no handler is given
+     */
+    public static int csvToEnvironmentalReadingChunks(
+            InputStream inputStream,
+            SensorSystem sensorSystem,
+            int chunkSize,
+            Consumer<List<EnvironmentalReading>> chunkConsumer,
+            Consumer<ReadingsCSVProcessingException> malformedRecordHandler) {
         try (BufferedReader fileReader =
                         new BufferedReader(
                                 new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-                CSVParser csvParser =
-                        CSVFormat.DEFAULT
-                                .builder()
-                                .setHeader()
-                                .setSkipHeaderRecord(true)
-                                .setIgnoreHeaderCase(false)
-                                .setTrim(true)
-                                .get()
-                                .parse(fileReader)) {
-
-            List<EnvironmentalReading> environmentalReadings = new ArrayList<>();
-
-            Iterable<CSVRecord> csvRecords = csvParser.getRecords();
-
-            for (CSVRecord csvRecord : csvRecords) {
-                EnvironmentalReading environmentalReading =
-                        new EnvironmentalReading(
-                                null,
-                                Double.parseDouble(csvRecord.get("temperature")),
-                                Double.parseDouble(csvRecord.get("humidity")),
-                                OffsetDateTime.parse(csvRecord.get("timestamp")),
-                                sensorSystem);
-
-                environmentalReadings.add(environmentalReading);
+                CSVParser csvParser = READINGS_FORMAT.parse(fileReader)) {
+
+            ReadingColumns readingColumns = null;
+            int recordCount = 0;
+            List<EnvironmentalReading> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+
+            for (CSVRecord csvRecord : csvParser) {
+                if (readingColumns == null) {
+                    readingColumns = ReadingColumns.of(csvParser.getHeaderNames());
+                }
+                try {
+                    chunk.add(
+                            csvRecordToEnvironmentalReading(
+                                    csvRecord,
+                                    csvRecord.getRecordNumber(),
+                                    readingColumns,
+                                    sensorSystem));
+                } catch (ReadingsCSVProcessingException e) {
+                    if (malformedRecordHandler == null) {
+                        throw e;
+                    }
+                    malformedRecordHandler.accept(e);
+                    continue;
+                }
+                recordCount++;
+
+                if (chunk.size() == chunkSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+            }
+
+            return recordCount;
+        } catch (IOException | UncheckedIOException e) {
+            throw new ReadingsCSVProcessingException("Failed to parse CSV file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parallel variant of {@link #csvToEnvironmentalReadingChunks(InputStream, SensorSystem, int,
+     * Consumer)}. After the header, the input is split at line boundaries into blocks of {@code
+     * chunkSize} lines which are parsed concurrently on the given fork-join pool. Parsed chunks are
+     * handed to the consumer on the calling thread in file order, and only a bounded number of
+     * blocks is in flight at any time, so memory usage stays flat.
+     *
+     * <p>Because the input is split on line breaks, quoted values spanning several lines are not
+     * supported; reading files never contain them.
+     *
+     * @param inputStream the input stream of the CSV file
+     * @param sensorSystem the sensor system associated with the environmental readings
+     * @param chunkSize the number of lines parsed per task and handed to the consumer at once
+     * @param chunkConsumer the consumer receiving each chunk, in file order
+     * @param forkJoinPool the pool the blocks are parsed on
+     * @return the number of readings parsed from the CSV file
+     * @throws ReadingsCSVProcessingException if the file cannot be read or a record is malformed
+     */
+    public static int csvToEnvironmentalReadingChunksInParallel(
+            InputStream inputStream,
+            SensorSystem sensorSystem,
+            int chunkSize,
+            Consumer<List<EnvironmentalReading>> chunkConsumer,
+            ForkJoinPool forkJoinPool) {
+        return csvToEnvironmentalReadingChunksInParallel(
+                inputStream, sensorSystem, chunkSize, chunkConsumer, null, forkJoinPool);
+    }
+
+    /**
+     * Parallel variant of {@link #csvToEnvironmentalReadingChunks(InputStream, SensorSystem, int,
+     * Consumer, Consumer)}. Malformed records are reported to the handler on the calling thread,
+     * in file order, just before the chunk they belong to.
+     *
+     * @param inputStream the input stream of the CSV file
+     * @param sensorSystem the sensor system associated with the environmental readings
+     * @param chunkSize the number of lines parsed per task
+     * @param chunkConsumer the consumer receiving each non-empty chunk, in file order
+     * @param malformedRecordHandler receives the error for each malformed record, which is then
+     *     skipped; if {@code null}, the first malformed record aborts parsing
+     * @param forkJoinPool the pool the blocks are parsed on
+     * @return the number of readings parsed from the CSV file, excluding skipped records
+     * @throws ReadingsCSVProcessingException if the file cannot be read, or a record is malformed
+     *     and no handler is given
+     */
+    public static int csvToEnvironmentalReadingChunksInParallel(
+            InputStream inputStream,
+            SensorSystem sensorSystem,
+            int chunkSize,
+            Consumer<List<EnvironmentalReading>> chunkConsumer,
+            Consumer<ReadingsCSVProcessingException> malformedRecordHandler,
+            ForkJoinPool forkJoinPool) {
+        int maxBlocksInFlight = Math.max(2, forkJoinPool.getParallelism() * 2);
+        boolean skipMalformedRecords = malformedRecordHandler != null;
+        Deque<ForkJoinTask<ParsedBlock>> blocksInFlight = new ArrayDeque<>();
+
+        try (BufferedReader fileReader =
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+
+            String headerLine = fileReader.readLine();
+            ReadingColumns readingColumns = null;
+            int recordCount = 0;
+            long firstRecordNumber = 1;
+            List<String> block = new ArrayList<>(Math.min(chunkSize, 1024));
+
+            String line;
+            while ((line = fileReader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (readingColumns == null) {
+                    readingColumns = ReadingColumns.of(headerLine);
+                }
+                block.add(line);
+
+                if (block.size() == chunkSize) {
+                    if (blocksInFlight.size() == maxBlocksInFlight) {
+                        recordCount +=
+                                acceptNextBlock(
+                                        blocksInFlight, chunkConsumer, malformedRecordHandler);
+                    }
+                    ParsingTask parsingTask =
+                            new ParsingTask(
+                                    block,
+                                    firstRecordNumber,
+                                    readingColumns,
+                                    sensorSystem,
+                                    skipMalformedRecords);
+                    blocksInFlight.add(forkJoinPool.submit(parsingTask::parse));
+                    firstRecordNumber += block.size();
+                    block = new ArrayList<>(Math.min(chunkSize, 1024));
+                }
             }
 
-            return environmentalReadings;
-        } catch (Exception e) {
+            if (!block.isEmpty()) {
+                ParsingTask parsingTask =
+                        new ParsingTask(
+                                block,
+                                firstRecordNumber,
+                                readingColumns,
+                                sensorSystem,
+                                skipMalformedRecords);
+                blocksInFlight.add(forkJoinPool.submit(parsingTask::parse));
+            }
+            while (!blocksInFlight.isEmpty()) {
+                recordCount +=
+                        acceptNextBlock(blocksInFlight, chunkConsumer, malformedRecordHandler);
+            }
+
+            return recordCount;
+        } catch (IOException | UncheckedIOException e) {
             throw new ReadingsCSVProcessingException("Failed to parse CSV file: " + e.getMessage());
+        } finally {
+            blocksInFlight.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private static int acceptNextBlock(
+            Deque<ForkJoinTask<ParsedBlock>> blocksInFlight,
+            Consumer<List<EnvironmentalReading>> chunkConsumer,
+            Consumer<ReadingsCSVProcessingException> malformedRecordHandler) {
+        ParsedBlock parsedBlock = blocksInFlight.removeFirst().join();
+        if (malformedRecordHandler != null) {
+            parsedBlock.malformedRecords().forEach(malformedRecordHandler);
+        }
+        if (!parsedBlock.environmentalReadings().isEmpty()) {
+            chunkConsumer.accept(parsedBlock.environmentalReadings());
+        }
+        return parsedBlock.environmentalReadings().size();
+    }
+
+    /**
+     * A block of raw lines to be parsed on a fork-join worker.
+     *
+     * @param lines the raw record lines, without the header
+     * @param firstRecordNumber the number of the first line's record in the file
+     * @param readingColumns the positions of the reading columns in each record
+     * @param sensorSystem the sensor system associated with the environmental readings
+     * @param skipMalformedRecords whether malformed records are collected instead of thrown
+     */
+    private record ParsingTask(
+            List<String> lines,
+            long firstRecordNumber,
+            ReadingColumns readingColumns,
+            SensorSystem sensorSystem,
+            boolean skipMalformedRecords) {
+
+        ParsedBlock parse() {
+            List<EnvironmentalReading> environmentalReadings = new ArrayList<>(lines.size());
+            List<ReadingsCSVProcessingException> malformedRecords = new ArrayList<>();
+            String text = String.join("\n", lines);
+            try (CSVParser csvParser = VALUES_FORMAT.parse(new StringReader(text))) {
+                for (CSVRecord csvRecord : csvParser) {
+                    try {
+                        environmentalReadings.add(
+                                csvRecordToEnvironmentalReading(
+                                        csvRecord,
+                                        firstRecordNumber + csvRecord.getRecordNumber() - 1,
+                                        readingColumns,
+                                        sensorSystem));
+                    } catch (ReadingsCSVProcessingException e) {
+                        if (!skipMalformedRecords) {
+                            throw e;
+                        }
+                        malformedRecords.add(e);
+                    }
+                }
+                return new ParsedBlock(environmentalReadings, malformedRecords);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * The outcome of parsing one block.
+     *
+     * @param environmentalReadings the readings parsed from the block, in file order
+     * @param malformedRecords the errors for records that were skipped, in file order
+     */
+    private record ParsedBlock(
+            List<EnvironmentalReading> environmentalReadings,
+            List<ReadingsCSVProcessingException> malformedRecords) {}
+
+    /**
+     * Converts a single CSV record into an {@link EnvironmentalReading}.
+     *
+     * @param csvRecord the record holding the temperature, humidity and timestamp columns
+     * @param recordNumber the number of the record in the file, used in error messages
+     * @param readingColumns the positions of the reading columns in the record
+     * @param sensorSystem the sensor system associated with the environmental reading
+     * @return the parsed EnvironmentalReading
+     * @throws ReadingsCSVProcessingException if the record is missing a column or holds a value
+     *     that cannot be parsed
+     */
+    private static EnvironmentalReading csvRecordToEnvironmentalReading(
+            CSVRecord csvRecord,
+            long recordNumber,
+            ReadingColumns readingColumns,
+            SensorSystem sensorSystem) {
+        try {
+            return new EnvironmentalReading(
+                    null,
+                    Double.parseDouble(csvRecord.get(readingColumns.temperature())),
+                    Double.parseDouble(csvRecord.get(readingColumns.humidity())),
+                    OffsetDateTime.parse(csvRecord.get(readingColumns.timestamp())),
+                    sensorSystem);
+        } catch (RuntimeException e) {
+            throw new ReadingsCSVProcessingException(
+                    "Failed to parse CSV file: record " + recordNumber + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Positions of the columns read from each record.
+     *
+     * @param temperature the position of the temperature column
+     * @param humidity the position of the humidity column
+     * @param timestamp the position of the timestamp column
+     */
+    private record ReadingColumns(int temperature, int humidity, int timestamp) {
+
+        static ReadingColumns of(String headerLine) throws IOException {
+            try (CSVParser csvParser = VALUES_FORMAT.parse(new StringReader(headerLine))) {
+                return of(csvParser.iterator().next().toList());
+            }
+        }
+
+        static ReadingColumns of(List<String> headerNames) {
+            return new ReadingColumns(
+                    indexOf(headerNames, "temperature"),
+                    indexOf(headerNames, "humidity"),
+                    indexOf(headerNames, "timestamp"));
+        }
+
+        private static int indexOf(List<String> headerNames, String column) {
+            int index = headerNames.indexOf(column);
+            if (index < 0) {
+                throw new ReadingsCSVProcessingException(
+                        "Failed to parse CSV file: missing column " + column);
+            }
+            return index;
         }
     }
 }
@@ -0,0 +1,188 @@
+package com.unconv.spring.utils;
+
+import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Single-pass downsampler of environmental readings following Largest-Triangle-Three-Buckets.
+ *
+ * <p>Readings must be added in ascending order of their timestamp. Up to {@code maxPoints} of them
+ * are kept as they are. Once there are more, the first and last readings are kept, the window is
+ * split into {@code maxPoints - 2} buckets of equal duration, and from each bucket holding readings
+ * the one forming the largest triangle with the reading kept before it and the average of the next
+ * bucket is kept. A bucket is settled as soon as the one after it is complete, so only the readings
+ * of the last two buckets are held at any time, whatever the number of readings added.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public class LttbDownsampler implements Consumer<EnvironmentalReadingProjection> {
+
+    private final int maxPoints;
+
+    private final long startMillis;
+
+    private final double bucketMillis;
+
+    private final ToDoubleFunction<EnvironmentalReadingProjection> valueOf;
+
+    private final List<EnvironmentalReadingProjection> sampled = new ArrayList<>();
+
+    /** The readings of the complete bucket waiting for the average of the bucket after it. */
+    private List<EnvironmentalReadingProjection> pendingBucket = new ArrayList<>();
+
+    /** The readings of the bucket the latest reading fell into. */
+    private List<EnvironmentalReadingProjection> currentBucket = new ArrayList<>();
+
+    private long currentBucketIndex = -1;
+
+    private boolean downsampling;
+
+    /**
+     * Creates a downsampler for the readings taken from {@code start} up to {@code end}.
+     *
+     * @param maxPoints the maximum number of readings to keep; at least 3
+     * @param start the start of the window
+     * @param end the end of the window
+     * @param valueOf the value of a reading the triangles are measured on
+     * @throws IllegalArgumentException if fewer than 3 points are to be kept, or if {@code end} is
+     *     not after {@code start}
+     */
+    public LttbDownsampler(
+            int maxPoints,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            ToDoubleFunction<EnvironmentalReadingProjection> valueOf) {
+        if (maxPoints < 3) {
+            throw new IllegalArgumentException("At least 3 points must be kept: " + maxPoints);
+        }
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("End " + end + " is not after start " + start);
+        }
+        this.maxPoints = maxPoints;
+        this.startMillis = start.toInstant().toEpochMilli();
+        this.bucketMillis =
+                (double) (end.toInstant().toEpochMilli() - startMillis) / (maxPoints - 2);
+        this.valueOf = valueOf;
+    }
+
+    /**
+     * Adds a reading, later than the ones added before, to the downsampler.
+     *
+     * @param reading the reading
+     */
+    @Override
+    public void accept(EnvironmentalReadingProjection reading) {
+        if (downsampling) {
+            addToBucket(reading);
+            return;
+        }
+        sampled.add(reading);
+        if (sampled.size() > maxPoints) {
+            // Too many readings to keep them all; replay the ones after the first into buckets
+            downsampling = true;
+            List<EnvironmentalReadingProjection> readings = new ArrayList<>(sampled);
+            sampled.subList(1, sampled.size()).clear();
+            for (int i = 1; i < readings.size(); i++) {
+                addToBucket(readings.get(i));
+            }
+        }
+    }
+
+    /**
+     * Settles the remaining buckets and returns the kept readings. No reading may be added after.
+     *
+     * @return at most {@code maxPoints} of the added readings, in the order they were added
+     */
+    public List<EnvironmentalReadingProjection> finish() {
+        if (!downsampling) {
+            return sampled;
+        }
+        EnvironmentalReadingProjection last = currentBucket.remove(currentBucket.size() - 1);
+        double lastX = xOf(last);
+        double lastY = valueOf.applyAsDouble(last);
+        if (currentBucket.isEmpty()) {
+            // The last reading was alone in its bucket and stands in for its average
+            if (!pendingBucket.isEmpty()) {
+                sampled.add(largestTriangle(pendingBucket, lastX, lastY));
+            }
+        } else {
+            if (!pendingBucket.isEmpty()) {
+                sampled.add(
+                        largestTriangle(
+                                pendingBucket, averageX(currentBucket), averageY(currentBucket)));
+            }
+            sampled.add(largestTriangle(currentBucket, lastX, lastY));
+        }
+        sampled.add(last);
+        return sampled;
+    }
+
+    private void addToBucket(EnvironmentalReadingProjection reading) {
+        // Readings stamped outside the window fall into the bucket at its nearest edge
+        long bucketIndex =
+                Math.max(0, Math.min((long) (xOf(reading) / bucketMillis), maxPoints - 3));
+        if (bucketIndex != currentBucketIndex && !currentBucket.isEmpty()) {
+            if (!pendingBucket.isEmpty()) {
+                sampled.add(
+                        largestTriangle(
+                                pendingBucket, averageX(currentBucket), averageY(currentBucket)));
+            }
+            List<EnvironmentalReadingProjection> settledBucket = pendingBucket;
+            settledBucket.clear();
+            pendingBucket = currentBucket;
+            currentBucket = settledBucket;
+        }
+        currentBucketIndex = bucketIndex;
+        currentBucket.add(reading);
+    }
+
+    /**
+     * Returns the reading of a bucket forming the largest triangle with the last kept reading and
+     * the given point.
+     */
+    private EnvironmentalReadingProjection largestTriangle(
+            List<EnvironmentalReadingProjection> bucket, double nextX, double nextY) {
+        EnvironmentalReadingProjection previous = sampled.get(sampled.size() - 1);
+        double previousX = xOf(previous);
+        double previousY = valueOf.applyAsDouble(previous);
+        EnvironmentalReadingProjection largest = bucket.get(0);
+        double largestArea = -1;
+        for (EnvironmentalReadingProjection reading : bucket) {
+            // Twice the area, which orders the triangles all the same
+            double area =
+                    Math.abs(
+                            (previousX - nextX) * (valueOf.applyAsDouble(reading) - previousY)
+                                    - (previousX - xOf(reading)) * (nextY - previousY));
+            if (area > largestArea) {
+                largestArea = area;
+                largest = reading;
+            }
+        }
+        return largest;
+    }
+
+    private double averageX(List<EnvironmentalReadingProjection> bucket) {
+        double sum = 0;
+        for (EnvironmentalReadingProjection reading : bucket) {
+            sum += xOf(reading);
+        }
+        return sum / bucket.size();
+    }
+
+    private double averageY(List<EnvironmentalReadingProjection> bucket) {
+        double sum = 0;
+        for (EnvironmentalReadingProjection reading : bucket) {
+            sum += valueOf.applyAsDouble(reading);
+        }
+        return sum / bucket.size();
+    }
+
+    /** Returns the milliseconds from the start of the window to a reading. */
+    private double xOf(EnvironmentalReadingProjection reading) {
+        return reading.getTimestamp().toInstant().toEpochMilli() - startMillis;
+    }
+}
@@ -0,0 +1,152 @@
+package com.unconv.spring.utils;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch with bounded relative error, following the logarithmic mapping of
+ * DDSketch.
+ *
+ * <p>A value {@code v} is counted in the bin {@code ceil(ln|v| / ln(gamma))} of the store for its
+ * sign, where {@code gamma = (1 + a) / (1 - a)} for the relative accuracy {@code a}; values closer
+ * to zero than {@link #MIN_INDEXABLE_VALUE} are counted as zero. Any quantile estimated from the
+ * bins lies within {@code a} of the true value, relatively. Sketches are merged by adding the
+ * counts of equal bins, so the bins of each rollup bucket can be stored as rows and merged in the
+ * database with a plain {@code sum}.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public class QuantileSketch {
+
+    /** The relative accuracy guaranteed for every quantile. */
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    /** The base of the logarithmic bins. */
+    public static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+
+    /** The natural logarithm of {@link #GAMMA}, which bin indexes are computed with. */
+    public static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /** The magnitude below which values are counted as zero. */
+    public static final double MIN_INDEXABLE_VALUE = 1e-6;
+
+    private final NavigableMap<Integer, Long> positiveBins = new TreeMap<>();
+
+    private final NavigableMap<Integer, Long> negativeBins = new TreeMap<>();
+
+    private long zeroCount;
+
+    private long count;
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        addBin(signOf(value), binOf(value), 1);
+    }
+
+    /**
+     * Adds the count of a bin, as computed by {@link #signOf(double)} and {@link
+     * #binOf(double)}, to the sketch.
+     *
+     * @param sign the sign of the values in the bin: -1, 0 or 1
+     * @param bin the index of the bin; ignored for zero
+     * @param binCount the number of values in the bin
+     */
+    public void addBin(int sign, int bin, long binCount) {
+        if (sign > 0) {
+            positiveBins.merge(bin, binCount, Long::sum);
+        } else if (sign < 0) {
+            negativeBins.merge(bin, binCount, Long::sum);
+        } else {
+            zeroCount += binCount;
+        }
+        count += binCount;
+    }
+
+    /**
+     * Adds the values of another sketch to this one.
+     *
+     * @param other the sketch to merge
+     */
+    public void merge(QuantileSketch other) {
+        other.positiveBins.forEach((bin, binCount) -> addBin(1, bin, binCount));
+        other.negativeBins.forEach((bin, binCount) -> addBin(-1, bin, binCount));
+        addBin(0, 0, other.zeroCount);
+    }
+
+    /**
+     * Returns the number of values added to the sketch.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimates a quantile of the values added to the sketch.
+     *
+     * @param quantile the quantile, from 0 for the minimum to 1 for the maximum
+     * @return the estimated value, or {@code null} if the sketch is empty
+     * @throws IllegalArgumentException if the quantile is not between 0 and 1
+     */
+    public Double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            return null;
+        }
+        double rank = quantile * (count - 1);
+        long cumulativeCount = 0;
+        // The largest negative bins hold the smallest values
+        for (Map.Entry<Integer, Long> bin : negativeBins.descendingMap().entrySet()) {
+            cumulativeCount += bin.getValue();
+            if (cumulativeCount > rank) {
+                return -valueOf(bin.getKey());
+            }
+        }
+        cumulativeCount += zeroCount;
+        if (cumulativeCount > rank) {
+            return 0.0;
+        }
+        for (Map.Entry<Integer, Long> bin : positiveBins.entrySet()) {
+            cumulativeCount += bin.getValue();
+            if (cumulativeCount > rank) {
+                return valueOf(bin.getKey());
+            }
+        }
+        return valueOf(positiveBins.lastKey());
+    }
+
+    /**
+     * Returns the sign of the bin a value is counted in.
+     *
+     * @param value the value
+     * @return -1 or 1 for the negative or positive store, 0 for values counted as zero
+     */
+    public static int signOf(double value) {
+        return Math.abs(value) < MIN_INDEXABLE_VALUE ? 0 : (int) Math.signum(value);
+    }
+
+    /**
+     * Returns the index of the bin a value is counted in, within the store for its sign.
+     *
+     * @param value the value
+     * @return the index of the bin, 0 for values counted as zero
+     */
+    public static int binOf(double value) {
+        return Math.abs(value) < MIN_INDEXABLE_VALUE
+                ? 0
+                : (int) Math.ceil(Math.log(Math.abs(value)) / LOG_GAMMA);
+    }
+
+    /** Returns the magnitude that represents a bin, within the relative accuracy of its values. */
+    private static double valueOf(int bin) {
+        return 2 * Math.pow(GAMMA, bin) / (GAMMA + 1);
+    }
+}
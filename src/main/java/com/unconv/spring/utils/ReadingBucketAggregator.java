@@ -0,0 +1,175 @@
+package com.unconv.spring.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Single-pass aggregator of reading values into fixed-length time buckets.
+ *
+ * <p>Buckets are aligned to multiples of the interval since the Unix epoch, so that daily buckets
+ * start at UTC midnight. The bucket that the window start falls into is the first one, and the
+ * sum, count, minimum and maximum of each bucket are kept in primitive arrays indexed by its offset
+ * from that first bucket. Adding a value allocates nothing; an aggregator can be {@link #reset()
+ * reset} and reused for another series over the same window.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public class ReadingBucketAggregator {
+
+    private final long firstBucketStart;
+
+    private final long intervalSeconds;
+
+    private final OffsetDateTime start;
+
+    private final OffsetDateTime end;
+
+    private final long[] counts;
+
+    private final double[] sums;
+
+    private final double[] mins;
+
+    private final double[] maxs;
+
+    /**
+     * Creates an aggregator for the values taken after {@code start} and up to {@code end}.
+     *
+     * @param start the exclusive start of the window
+     * @param end the inclusive end of the window
+     * @param interval the length of each bucket; a whole number of seconds
+     * @throws IllegalArgumentException if the interval is shorter than a second or not a whole
+     *     number of seconds, or if {@code end} is before {@code start}
+     */
+    public ReadingBucketAggregator(OffsetDateTime start, OffsetDateTime end, Duration interval) {
+        if (interval.getSeconds() < 1 || interval.getNano() != 0) {
+            throw new IllegalArgumentException(
+                    "Interval must be a whole number of seconds: " + interval);
+        }
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End " + end + " is before start " + start);
+        }
+        this.start = start;
+        this.end = end;
+        this.intervalSeconds = interval.getSeconds();
+        this.firstBucketStart = bucketStartSeconds(start.toEpochSecond());
+        int bucketCount =
+                Math.toIntExact(
+                        (bucketStartSeconds(end.toEpochSecond()) - firstBucketStart)
+                                        / intervalSeconds
+                                + 1);
+        this.counts = new long[bucketCount];
+        this.sums = new double[bucketCount];
+        this.mins = new double[bucketCount];
+        this.maxs = new double[bucketCount];
+        reset();
+    }
+
+    /**
+     * Adds a value to the bucket its timestamp falls into. Values outside the window are ignored.
+     *
+     * @param timestamp the time the value was taken
+     * @param value the value
+     * @return true if the value was inside the window and added
+     */
+    public boolean add(OffsetDateTime timestamp, double value) {
+        if (!timestamp.isAfter(start) || timestamp.isAfter(end)) {
+            return false;
+        }
+        int bucket = (int) ((timestamp.toEpochSecond() - firstBucketStart) / intervalSeconds);
+        counts[bucket]++;
+        sums[bucket] += value;
+        if (value < mins[bucket]) {
+            mins[bucket] = value;
+        }
+        if (value > maxs[bucket]) {
+            maxs[bucket] = value;
+        }
+        return true;
+    }
+
+    /** Clears every bucket, keeping the window and the arrays. */
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        Arrays.fill(sums, 0.0);
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Returns the number of buckets spanning the window, including empty ones.
+     *
+     * @return the number of buckets
+     */
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * Returns the UTC start of a bucket.
+     *
+     * @param bucket the offset of the bucket from the first one
+     * @return the start of the bucket
+     */
+    public OffsetDateTime getBucketStart(int bucket) {
+        return OffsetDateTime.ofInstant(
+                Instant.ofEpochSecond(firstBucketStart + bucket * intervalSeconds), ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the number of values added to a bucket.
+     *
+     * @param bucket the offset of the bucket from the first one
+     * @return the number of values, zero for an empty bucket
+     */
+    public long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Returns the sum of the values added to a bucket.
+     *
+     * @param bucket the offset of the bucket from the first one
+     * @return the sum, zero for an empty bucket
+     */
+    public double getSum(int bucket) {
+        return sums[bucket];
+    }
+
+    /**
+     * Returns the smallest value added to a bucket.
+     *
+     * @param bucket the offset of the bucket from the first one
+     * @return the minimum, positive infinity for an empty bucket
+     */
+    public double getMin(int bucket) {
+        return mins[bucket];
+    }
+
+    /**
+     * Returns the largest value added to a bucket.
+     *
+     * @param bucket the offset of the bucket from the first one
+     * @return the maximum, negative infinity for an empty bucket
+     */
+    public double getMax(int bucket) {
+        return maxs[bucket];
+    }
+
+    /**
+     * Returns the mean of the values added to a bucket.
+     *
+     * @param bucket the offset of the bucket from the first one
+     * @return the mean, NaN for an empty bucket
+     */
+    public double getAverage(int bucket) {
+        return sums[bucket] / counts[bucket];
+    }
+
+    private long bucketStartSeconds(long epochSecond) {
+        return Math.floorDiv(epochSecond, intervalSeconds) * intervalSeconds;
+    }
+}
@@ -0,0 +1,64 @@
+package com.unconv.spring.utils;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Utility class for generating time-ordered version 7 UUIDs as defined by RFC 9562.
+ *
+ * <p>The most significant 48 bits hold the Unix epoch timestamp in milliseconds, followed by a
+ * 12-bit counter and 62 random bits. Consecutive identifiers sort in creation order, so inserts
+ * append to the right-hand edge of a primary-key index instead of landing on random pages.
+ *
+ * <p>Identifiers generated by the same JVM are strictly increasing: the counter is seeded randomly
+ * every millisecond and incremented for identifiers generated within the same millisecond. Should
+ * it overflow, or the clock move backwards, the timestamp of the previous identifier is advanced
+ * instead.
+ */
+public class UuidV7Generator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final int COUNTER_BITS = 12;
+
+    private static final int MAX_COUNTER = (1 << COUNTER_BITS) - 1;
+
+    private static final long VERSION_7 = 0x7000L;
+
+    private static final long VARIANT_RFC_9562 = 0x8000_0000_0000_0000L;
+
+    private static final long RANDOM_B_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private static long lastMillis;
+
+    private static int counter;
+
+    private UuidV7Generator() {}
+
+    /**
+     * Generates a new version 7 UUID.
+     *
+     * @return a UUID greater than any previously generated by this JVM
+     */
+    public static UUID generate() {
+        long timeAndCounter = nextTimeAndCounter(System.currentTimeMillis());
+        long millis = timeAndCounter >>> COUNTER_BITS;
+        long mostSigBits = (millis << 16) | VERSION_7 | (timeAndCounter & MAX_COUNTER);
+        long leastSigBits = VARIANT_RFC_9562 | (RANDOM.nextLong() & RANDOM_B_MASK);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static synchronized long nextTimeAndCounter(long currentMillis) {
+        if (currentMillis > lastMillis) {
+            lastMillis = currentMillis;
+            // Leave the upper half of the counter free for identifiers in the same millisecond
+            counter = RANDOM.nextInt(MAX_COUNTER >> 1);
+        } else if (counter < MAX_COUNTER) {
+            counter++;
+        } else {
+            lastMillis++;
+            counter = 0;
+        }
+        return lastMillis << COUNTER_BITS | counter;
+    }
+}
@@ -1,23 +1,35 @@
 package com.unconv.spring.web.rest;
 
+import static com.unconv.spring.consts.MessageConstants.ENVT_BATCH_REJ_NULL;
+import static com.unconv.spring.consts.MessageConstants.ENVT_EXPORT_REJ_RANGE;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_SENS;
 
 import com.unconv.spring.consts.AppConstants;
 import com.unconv.spring.domain.EnvironmentalReading;
 import com.unconv.spring.dto.EnvironmentalReadingDTO;
+import com.unconv.spring.enums.ReadingExportFormat;
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.model.response.BatchIngestResponse;
+import com.unconv.spring.model.response.CursorPagedResult;
 import com.unconv.spring.model.response.ExtremeReadingsResponse;
 import com.unconv.spring.model.response.MessageResponse;
 import com.unconv.spring.model.response.PagedResult;
+import com.unconv.spring.model.response.ReadingSeriesResponse;
 import com.unconv.spring.service.EnvironmentalReadingService;
 import com.unconv.spring.service.SensorSystemService;
 import com.unconv.spring.service.UnconvUserService;
+import com.unconv.spring.utils.CSVUtil;
 import jakarta.validation.Valid;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
@@ -31,6 +43,8 @@
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller class responsible for handling HTTP requests related to {@link EnvironmentalReading}.
@@ -120,6 +134,55 @@ public PagedResult<EnvironmentalReading> getAllEnvironmentalReadingsBySensorSyst
                 sensorSystemId, pageNo, pageSize, sortBy, sortDir);
     }
 
+    /**
+     * Retrieves a page of environmental readings ordered by timestamp, continuing from a cursor
+     * instead of a page number, so that deep pages cost as much as the first one.
+     *
+     * @param cursor The cursor of the page to retrieve, as returned with an earlier page; omitted
+     *     for the first page.
+     * @param pageSize The size of each page (default is 10).
+     * @param sortDir The direction of sorting of the first page (default is "desc" for
+     *     descending); later pages keep the direction of their cursor.
+     * @return A {@link CursorPagedResult} containing the page of {@link EnvironmentalReading}s and
+     *     the cursors of the pages around it.
+     */
+    @GetMapping("/Cursor")
+    public CursorPagedResult<EnvironmentalReading> getEnvironmentalReadingsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
+                    int pageSize,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_ER_SORT_DIRECTION, required = false)
+                    String sortDir) {
+        return environmentalReadingService.findEnvironmentalReadingsPage(cursor, pageSize, sortDir);
+    }
+
+    /**
+     * Retrieves a page of the EnvironmentalReadings of a specific SensorSystem ordered by
+     * timestamp, continuing from a cursor instead of a page number, so that deep pages cost as much
+     * as the first one.
+     *
+     * @param sensorSystemId The ID of the SensorSystem whose EnvironmentalReadings are to be
+     *     retrieved.
+     * @param cursor The cursor of the page to retrieve, as returned with an earlier page; omitted
+     *     for the first page.
+     * @param pageSize The size of each page (default is 10).
+     * @param sortDir The direction of sorting of the first page (default is "desc" for
+     *     descending); later pages keep the direction of their cursor.
+     * @return A {@link CursorPagedResult} containing the page of EnvironmentalReadings and the
+     *     cursors of the pages around it.
+     */
+    @GetMapping("/Cursor/SensorSystem/{sensorSystemId}")
+    public CursorPagedResult<EnvironmentalReading> getEnvironmentalReadingsPageBySensorSystemId(
+            @PathVariable UUID sensorSystemId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
+                    int pageSize,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_ER_SORT_DIRECTION, required = false)
+                    String sortDir) {
+        return environmentalReadingService.findEnvironmentalReadingsPageBySensorSystemId(
+                sensorSystemId, cursor, pageSize, sortDir);
+    }
+
     /**
      * Retrieves environmental readings for a specified sensor system within the last specified
      * interval. If no interval (hours) is provided, the default interval is the past 24 hours.
@@ -153,6 +216,103 @@ public ResponseEntity<List<EnvironmentalReading>> getReadingsInLastInterval(
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * Retrieves the environmental readings of a specified sensor system within the last specified
+     * interval in a compact form for charting: the sensor system is described once, followed by
+     * parallel arrays of the timestamps, temperatures and humidities of its readings. If no
+     * interval (hours) is provided, the default interval is the past 24 hours. If a maximum number
+     * of points is given, the readings are downsampled on the server with
+     * Largest-Triangle-Three-Buckets, keeping the shape of the chosen metric.
+     *
+     * @param hours an optional number of hours representing the time interval to look back from the
+     *     current time; if omitted, defaults to 24 hours
+     * @param maxPoints an optional maximum number of readings to return, at least 3; if omitted,
+     *     all readings of the interval are returned
+     * @param metric the metric whose shape downsampled readings follow (default is TEMPERATURE)
+     * @param sensorSystemId the unique identifier of the sensor system for which readings are
+     *     requested
+     * @return a {@link ResponseEntity} containing a {@link ReadingSeriesResponse} if the sensor
+     *     system exists, or a {@link ResponseEntity#notFound()} status if it does not
+     */
+    @GetMapping("/Interval/Columnar/SensorSystem/{sensorSystemId}")
+    public ResponseEntity<ReadingSeriesResponse> getReadingSeriesInLastInterval(
+            @RequestParam(required = false) Integer hours,
+            @RequestParam(required = false) Integer maxPoints,
+            @RequestParam(defaultValue = "TEMPERATURE") ReadingMetric metric,
+            @PathVariable UUID sensorSystemId) {
+        return sensorSystemService
+                .findSensorSystemById(sensorSystemId)
+                .map(
+                        sensorSystem -> {
+                            OffsetDateTime now = OffsetDateTime.now();
+                            OffsetDateTime startTime =
+                                    hours != null ? now.minusHours(hours) : now.minusDays(1);
+                            return ResponseEntity.ok(
+                                    maxPoints != null
+                                            ? environmentalReadingService
+                                                    .findDownsampledReadingSeries(
+                                                            sensorSystem,
+                                                            startTime,
+                                                            now,
+                                                            maxPoints,
+                                                            metric)
+                                            : environmentalReadingService.findReadingSeries(
+                                                    sensorSystem, startTime, now));
+                        })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Exports the readings of a specific sensor system taken over a time range in one response,
+     * streamed to the client as they are read from the database instead of being collected first.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param start the inclusive start of the range, as an ISO-8601 date-time with offset
+     * @param end the exclusive end of the range, as an ISO-8601 date-time with offset
+     * @param format the format of the export, {@code NDJSON} (default) or {@code CSV}
+     * @return a {@link ResponseEntity} streaming the readings in ascending order of their
+     *     timestamp, a 400 (Bad Request) status if the range is empty, or a 404 (Not Found) status
+     *     if the sensor system does not exist
+     */
+    @GetMapping("/Export/SensorSystem/{sensorSystemId}")
+    public ResponseEntity<StreamingResponseBody> exportReadings(
+            @PathVariable UUID sensorSystemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+            @RequestParam(defaultValue = "NDJSON") ReadingExportFormat format) {
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException(ENVT_EXPORT_REJ_RANGE);
+        }
+        return sensorSystemService
+                .findSensorSystemById(sensorSystemId)
+                .map(
+                        sensorSystem -> {
+                            StreamingResponseBody readings =
+                                    outputStream ->
+                                            environmentalReadingService.exportReadings(
+                                                    sensorSystem.getId(),
+                                                    start,
+                                                    end,
+                                                    format,
+                                                    outputStream);
+                            ContentDisposition contentDisposition =
+                                    ContentDisposition.attachment()
+                                            .filename(
+                                                    "readings-"
+                                                            + sensorSystem.getId()
+                                                            + "."
+                                                            + format.getFileExtension())
+                                            .build();
+                            return ResponseEntity.ok()
+                                    .contentType(MediaType.parseMediaType(format.getContentType()))
+                                    .header(
+                                            HttpHeaders.CONTENT_DISPOSITION,
+                                            contentDisposition.toString())
+                                    .body(readings);
+                        })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * Retrieves an EnvironmentalReading by its ID.
      *
@@ -229,42 +389,59 @@ public ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> createEnvironmen
             @RequestBody @Validated EnvironmentalReadingDTO environmentalReadingDTO,
             Authentication authentication) {
         environmentalReadingDTO.setId(null);
-        return sensorSystemService
-                .findSensorSystemById(environmentalReadingDTO.getSensorSystem().getId())
-                .map(
-                        (sensorSystem ->
-                                environmentalReadingService
-                                        .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
-                                                environmentalReadingDTO, authentication)))
-                .orElseGet(
-                        () -> {
-                            MessageResponse<EnvironmentalReadingDTO>
-                                    environmentalReadingDTOMessageResponse =
-                                            new MessageResponse<>(
-                                                    environmentalReadingDTO, ENVT_RECORD_REJ_SENS);
-                            return new ResponseEntity<>(
-                                    environmentalReadingDTOMessageResponse, HttpStatus.NOT_FOUND);
-                        });
+        return environmentalReadingService
+                .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
+                        environmentalReadingDTO, authentication);
+    }
+
+    /**
+     * Creates EnvironmentalReadings in bulk from a batch that may span several SensorSystems. Each
+     * reading is accepted or rejected on its own, so one bad reading does not fail the batch.
+     *
+     * @param environmentalReadingDTOs The EnvironmentalReadingDTOs containing the data for the new
+     *     EnvironmentalReadings.
+     * @param authentication Represents the authenticated user making the request.
+     * @return ResponseEntity containing a BatchIngestResponse with the outcome of each reading,
+     *     with status 201 (Created) if every reading was accepted or 207 (Multi-Status) otherwise.
+     * @throws IllegalArgumentException if the batch holds a null reading
+     */
+    @PostMapping("/Batch")
+    public ResponseEntity<BatchIngestResponse> createEnvironmentalReadingsInBatch(
+            @RequestBody List<EnvironmentalReadingDTO> environmentalReadingDTOs,
+            Authentication authentication) {
+        if (environmentalReadingDTOs.contains(null)) {
+            throw new IllegalArgumentException(ENVT_BATCH_REJ_NULL);
+        }
+        environmentalReadingDTOs.forEach(
+                environmentalReadingDTO -> environmentalReadingDTO.setId(null));
+        return environmentalReadingService
+                .validateSensorSystemsAndSaveEnvironmentalReadingsInBatch(
+                        environmentalReadingDTOs, authentication);
     }
 
     /**
      * Handles the file upload for environmental readings.
      *
      * @param sensorSystemId the ID of the sensor system
-     * @param file the multipart file containing the environmental readings data
+     * @param file the multipart file containing the environmental readings data, as plain CSV or
+     *     gzip- or zstd-compressed CSV identified by its Content-Type or Content-Encoding
+     * @param request the multipart request, used to read the Content-Encoding of the file part
      * @return ResponseEntity with a status and message indicating the result of the upload
      *     operation
      */
     @PostMapping("/Bulk/SensorSystem/{sensorSystemId}")
     public ResponseEntity<String> uploadFile(
-            @PathVariable UUID sensorSystemId, @RequestParam MultipartFile file) {
+            @PathVariable UUID sensorSystemId,
+            @RequestParam MultipartFile file,
+            MultipartHttpServletRequest request) {
+        String contentEncoding = CSVUtil.getContentEncoding(request, "file");
         return sensorSystemService
                 .findSensorSystemById(sensorSystemId)
                 .map(
                         (sensorSystem ->
                                 environmentalReadingService
                                         .verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings(
-                                                sensorSystem, file)))
+                                                sensorSystem, file, contentEncoding)))
                 .orElseGet(
                         () ->
                                 ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -0,0 +1,113 @@
+package com.unconv.spring.web.rest;
+
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_SENS;
+
+import com.unconv.spring.model.response.CsvImportJobResponse;
+import com.unconv.spring.model.response.MessageResponse;
+import com.unconv.spring.service.CsvImportJobService;
+import com.unconv.spring.service.SensorSystemService;
+import com.unconv.spring.utils.CSVUtil;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+/** Controller class for submitting, tracking and cancelling asynchronous CSV import jobs. */
+@RestController
+@RequestMapping("/EnvironmentalReading/Bulk")
+@Slf4j
+public class EnvironmentalReadingImportJobController {
+
+    private final CsvImportJobService csvImportJobService;
+
+    private final SensorSystemService sensorSystemService;
+
+    /**
+     * Constructs a new EnvironmentalReadingImportJobController with the specified services.
+     *
+     * @param csvImportJobService the service running CSV import jobs
+     * @param sensorSystemService the service for sensor systems
+     */
+    public EnvironmentalReadingImportJobController(
+            CsvImportJobService csvImportJobService, SensorSystemService sensorSystemService) {
+        this.csvImportJobService = csvImportJobService;
+        this.sensorSystemService = sensorSystemService;
+    }
+
+    /**
+     * Queues a CSV file of environmental readings for asynchronous import.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param file the multipart file containing the environmental readings data, as plain CSV or
+     *     gzip- or zstd-compressed CSV identified by its Content-Type or Content-Encoding
+     * @param request the multipart request, used to read the Content-Encoding of the file part
+     * @param authentication Represents the authenticated user making the request.
+     * @return ResponseEntity with status 202 (Accepted) and the queued job, or an error status as
+     *     described by {@link CsvImportJobService#verifyCSVFileAndSubmitCsvImportJob}; 404 (Not
+     *     Found) if the sensor system does not exist.
+     */
+    @PostMapping("/SensorSystem/{sensorSystemId}/Jobs")
+    public ResponseEntity<MessageResponse<CsvImportJobResponse>> submitCsvImportJob(
+            @PathVariable UUID sensorSystemId,
+            @RequestParam MultipartFile file,
+            MultipartHttpServletRequest request,
+            Authentication authentication) {
+        String contentEncoding = CSVUtil.getContentEncoding(request, "file");
+        return sensorSystemService
+                .findSensorSystemById(sensorSystemId)
+                .map(
+                        sensorSystem ->
+                                csvImportJobService.verifyCSVFileAndSubmitCsvImportJob(
+                                        sensorSystem, file, contentEncoding, authentication))
+                .orElseGet(
+                        () ->
+                                ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                        .body(new MessageResponse<>(null, ENVT_RECORD_REJ_SENS)));
+    }
+
+    /**
+     * Retrieves the progress of a CSV import job.
+     *
+     * @param jobId the ID of the job
+     * @param authentication Represents the authenticated user making the request.
+     * @return ResponseEntity with the job's progress, or 404 (Not Found) if the job is unknown,
+     *     expired or was submitted by another user.
+     */
+    @GetMapping("/Jobs/{jobId}")
+    public ResponseEntity<CsvImportJobResponse> getCsvImportJob(
+            @PathVariable UUID jobId, Authentication authentication) {
+        return csvImportJobService
+                .findCsvImportJobById(jobId, authentication.getName())
+                .map(CsvImportJobResponse::of)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancels a CSV import job. Readings already saved by a running job are rolled back.
+     *
+     * @param jobId the ID of the job
+     * @param authentication Represents the authenticated user making the request.
+     * @return ResponseEntity with status 202 (Accepted) and the job's state after the request, or
+     *     404 (Not Found) if the job is unknown, expired or was submitted by another user.
+     */
+    @DeleteMapping("/Jobs/{jobId}")
+    public ResponseEntity<CsvImportJobResponse> cancelCsvImportJob(
+            @PathVariable UUID jobId, Authentication authentication) {
+        return csvImportJobService
+                .cancelCsvImportJob(jobId, authentication.getName())
+                .map(CsvImportJobResponse::of)
+                .map(csvImportJobResponse -> ResponseEntity.accepted().body(csvImportJobResponse))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -1,15 +1,26 @@
 package com.unconv.spring.web.rest;
 
+import static com.unconv.spring.consts.MessageConstants.ENVT_STATS_REJ_INTERVAL;
+
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.enums.StatsAggregate;
+import com.unconv.spring.model.ReadingStatsQuery;
+import com.unconv.spring.model.response.ReadingStatsResponse;
 import com.unconv.spring.service.EnvironmentalReadingStatsService;
 import com.unconv.spring.service.SensorSystemService;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /** Controller class for handling environmental reading statistics requests. */
@@ -98,4 +109,47 @@ public ResponseEntity<Map<OffsetDateTime, Double>> getDailyTemperature(
                         })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Retrieves the requested aggregates of the requested metrics of the specified sensor system
+     * per bucket over a time range. Buckets are aligned to multiples of the interval since the
+     * Unix epoch, and only the ones holding readings are returned.
+     *
+     * @param sensorSystemId the ID of the sensor system
+     * @param start the inclusive start of the range, as an ISO-8601 date-time with offset
+     * @param end the exclusive end of the range, as an ISO-8601 date-time with offset
+     * @param interval the length of each bucket, as an ISO-8601 duration such as {@code PT15M}
+     * @param metrics the metrics to summarize; temperature by default
+     * @param aggregates the aggregate functions to apply to each metric; the average by default
+     * @return a {@link ResponseEntity} containing the stats, a 400 (Bad Request) status if the
+     *     query is invalid or spans too many buckets, or a 404 (Not Found) status if the sensor
+     *     system does not exist
+     */
+    @GetMapping("/SensorSystem/{sensorSystemId}")
+    public ResponseEntity<ReadingStatsResponse> getStats(
+            @PathVariable UUID sensorSystemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+            @RequestParam String interval,
+            @RequestParam(defaultValue = "TEMPERATURE") Set<ReadingMetric> metrics,
+            @RequestParam(defaultValue = "AVG") Set<StatsAggregate> aggregates) {
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(start, end, parseInterval(interval), metrics, aggregates);
+        return sensorSystemService
+                .findSensorSystemById(sensorSystemId)
+                .map(
+                        sensorSystem ->
+                                ResponseEntity.ok(
+                                        environmentalReadingStatsService.getStats(
+                                                sensorSystem.getId(), query)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static Duration parseInterval(String interval) {
+        try {
+            return Duration.parse(interval);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(ENVT_STATS_REJ_INTERVAL, e);
+        }
+    }
 }
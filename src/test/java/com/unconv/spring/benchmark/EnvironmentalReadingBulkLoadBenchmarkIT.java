@@ -0,0 +1,157 @@
+package com.unconv.spring.benchmark;
+
+import static com.unconv.spring.consts.AppConstants.CSV_IMPORT_CHUNK_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
+import com.unconv.spring.persistence.EnvironmentalReadingQuantileBinRepository;
+import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.persistence.UnconvUserRepository;
+import jakarta.persistence.EntityManager;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares the two bulk load paths used by the CSV import against PostgreSQL: batched JPA inserts
+ * with the persistence context flushed and cleared per chunk, and {@code COPY ... FROM STDIN}.
+ *
+ * <p>Skipped unless run with {@code -Dbenchmark=true}; the row count defaults to 200,000 and can
+ * be changed with {@code -Dbenchmark.rows=<n>}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EnvironmentalReadingBulkLoadBenchmarkIT extends AbstractIntegrationTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+
+    private static final int WARMUP_ROWS = 10_000;
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Autowired
+    private EnvironmentalReadingQuantileBinRepository environmentalReadingQuantileBinRepository;
+
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private EntityManager entityManager;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SensorSystem sensorSystem;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        environmentalReadingRepository.deleteAllInBatch();
+        sensorReadingSummaryRepository.deleteAllInBatch();
+        environmentalReadingQuantileBinRepository.deleteAllInBatch();
+        environmentalReadingAggregateRepository.deleteAllInBatch();
+
+        UnconvUser unconvUser =
+                unconvUserRepository.save(
+                        new UnconvUser(null, "BenchmarkUser", "benchmark@email.com", "password"));
+        sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "Benchmark sensor", null, unconvUser));
+    }
+
+    @Test
+    void compareBatchedJpaInsertsWithCopy() {
+        assertEquals(WARMUP_ROWS, load(WARMUP_ROWS, this::saveWithJpa));
+        assertEquals(WARMUP_ROWS, load(WARMUP_ROWS, environmentalReadingRepository::copyInsert));
+
+        long jpaNanos = timeLoad("batched JPA", this::saveWithJpa);
+        long copyNanos = timeLoad("COPY", environmentalReadingRepository::copyInsert);
+
+        log.info(
+                "COPY was {}x faster than batched JPA",
+                String.format("%.1f", (double) jpaNanos / copyNanos));
+    }
+
+    private long timeLoad(String path, Consumer<List<EnvironmentalReading>> chunkWriter) {
+        long startNanos = System.nanoTime();
+        assertEquals(ROWS, load(ROWS, chunkWriter));
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        log.info(
+                "{}: {} rows in {} ms ({} rows/s)",
+                path,
+                ROWS,
+                elapsedNanos / 1_000_000,
+                ROWS * 1_000_000_000L / elapsedNanos);
+        return elapsedNanos;
+    }
+
+    private long load(int rows, Consumer<List<EnvironmentalReading>> chunkWriter) {
+        environmentalReadingRepository.deleteAllInBatch();
+        sensorReadingSummaryRepository.deleteAllInBatch();
+        environmentalReadingQuantileBinRepository.deleteAllInBatch();
+        environmentalReadingAggregateRepository.deleteAllInBatch();
+        OffsetDateTime start = OffsetDateTime.now(ZoneOffset.UTC).minusYears(1);
+
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    List<EnvironmentalReading> chunk = new ArrayList<>(CSV_IMPORT_CHUNK_SIZE);
+                    for (int i = 0; i < rows; i++) {
+                        chunk.add(
+                                new EnvironmentalReading(
+                                        null,
+                                        20 + (i % 100) / 10.0,
+                                        40 + (i % 50) / 10.0,
+                                        start.plusMinutes(i),
+                                        sensorSystem));
+                        if (chunk.size() == CSV_IMPORT_CHUNK_SIZE) {
+                            chunkWriter.accept(chunk);
+                            chunk = new ArrayList<>(CSV_IMPORT_CHUNK_SIZE);
+                        }
+                    }
+                    if (!chunk.isEmpty()) {
+                        chunkWriter.accept(chunk);
+                    }
+                });
+
+        return environmentalReadingRepository.count();
+    }
+
+    private void saveWithJpa(List<EnvironmentalReading> chunk) {
+        environmentalReadingRepository.saveAll(chunk);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        environmentalReadingRepository.deleteAllInBatch();
+        sensorReadingSummaryRepository.deleteAllInBatch();
+        environmentalReadingQuantileBinRepository.deleteAllInBatch();
+        environmentalReadingAggregateRepository.deleteAllInBatch();
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+}
@@ -0,0 +1,148 @@
+package com.unconv.spring.benchmark;
+
+import static com.unconv.spring.consts.AppConstants.CSV_IMPORT_CHUNK_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.persistence.UnconvUserRepository;
+import com.unconv.spring.utils.UuidV7Generator;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares random version 4 UUIDs with time-ordered version 7 UUIDs as primary keys of {@code
+ * environmental_readings} on PostgreSQL, measuring insert throughput and the size of the
+ * primary-key index once all rows are loaded.
+ *
+ * <p>Skipped unless run with {@code -Dbenchmark=true}; the row count defaults to 1,000,000 and can
+ * be changed with {@code -Dbenchmark.rows=<n>}. The gap widens once the index outgrows the
+ * database cache.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EnvironmentalReadingIdGenerationBenchmarkIT extends AbstractIntegrationTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+
+    private static final int WARMUP_ROWS = 10_000;
+
+    private static final String PRIMARY_KEY_INDEX_SIZE_SQL =
+            "SELECT pg_relation_size(indexrelid) FROM pg_index"
+                    + " WHERE indrelid = 'environmental_readings'::regclass AND indisprimary";
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SensorSystem sensorSystem;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        truncate();
+
+        UnconvUser unconvUser =
+                unconvUserRepository.save(
+                        new UnconvUser(null, "BenchmarkUser", "benchmark@email.com", "password"));
+        sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "Benchmark sensor", null, unconvUser));
+    }
+
+    @Test
+    void compareRandomWithTimeOrderedIds() {
+        assertEquals(WARMUP_ROWS, load(WARMUP_ROWS, UUID::randomUUID));
+        assertEquals(WARMUP_ROWS, load(WARMUP_ROWS, UuidV7Generator::generate));
+
+        Result random = timeLoad("UUIDv4", UUID::randomUUID);
+        Result timeOrdered = timeLoad("UUIDv7", UuidV7Generator::generate);
+
+        log.info(
+                "UUIDv7 inserts were {}x faster and its primary-key index {}% smaller than UUIDv4",
+                String.format("%.2f", (double) random.elapsedNanos / timeOrdered.elapsedNanos),
+                100 - timeOrdered.indexBytes * 100 / random.indexBytes);
+    }
+
+    private Result timeLoad(String generator, Supplier<UUID> idGenerator) {
+        long startNanos = System.nanoTime();
+        assertEquals(ROWS, load(ROWS, idGenerator));
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Long indexBytes = jdbcTemplate.queryForObject(PRIMARY_KEY_INDEX_SIZE_SQL, Long.class);
+
+        log.info(
+                "{}: {} rows in {} ms ({} rows/s), primary-key index {} MB",
+                generator,
+                ROWS,
+                elapsedNanos / 1_000_000,
+                ROWS * 1_000_000_000L / elapsedNanos,
+                indexBytes / (1024 * 1024));
+        return new Result(elapsedNanos, indexBytes);
+    }
+
+    private long load(int rows, Supplier<UUID> idGenerator) {
+        truncate();
+        OffsetDateTime start = OffsetDateTime.now(ZoneOffset.UTC).minusYears(5);
+
+        for (int offset = 0; offset < rows; offset += CSV_IMPORT_CHUNK_SIZE) {
+            List<EnvironmentalReading> chunk = new ArrayList<>(CSV_IMPORT_CHUNK_SIZE);
+            for (int i = offset; i < Math.min(rows, offset + CSV_IMPORT_CHUNK_SIZE); i++) {
+                chunk.add(
+                        new EnvironmentalReading(
+                                idGenerator.get(),
+                                20 + (i % 100) / 10.0,
+                                40 + (i % 50) / 10.0,
+                                start.plusMinutes(i),
+                                sensorSystem));
+            }
+            transactionTemplate.executeWithoutResult(
+                    status -> environmentalReadingRepository.batchInsert(chunk));
+        }
+
+        return environmentalReadingRepository.count();
+    }
+
+    private void truncate() {
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        jdbcTemplate.execute(
+                                "TRUNCATE environmental_readings,"
+                                        + " environmental_reading_aggregates,"
+                                        + " environmental_reading_quantile_bins,"
+                                        + " sensor_reading_summaries"));
+    }
+
+    private record Result(long elapsedNanos, long indexBytes) {}
+
+    @AfterEach
+    void tearDown() {
+        truncate();
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+}
@@ -0,0 +1,122 @@
+package com.unconv.spring.benchmark;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.service.impl.EnvironmentalReadingStatsServiceImpl;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the in-memory hourly temperature averages of {@link
+ * EnvironmentalReadingStatsServiceImpl}, which aggregate into primitive arrays in a single pass,
+ * against the previous implementation that grouped the readings into a list per {@link
+ * OffsetDateTime} key and streamed each list again. The GC profiler reports the bytes allocated
+ * per operation alongside the average time.
+ *
+ * <p>Skipped unless run with {@code -Dbenchmark=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentalReadingStatsAggregationBenchmarkTest {
+
+    @Param({"1000", "100000"})
+    public int readingCount;
+
+    private final EnvironmentalReadingStatsServiceImpl environmentalReadingStatsService =
+            new EnvironmentalReadingStatsServiceImpl(null, null);
+
+    private List<EnvironmentalReading> environmentalReadings;
+
+    @Setup
+    public void generateReadings() {
+        Random random = new Random(42);
+        OffsetDateTime end = OffsetDateTime.now(ZoneOffset.UTC);
+        environmentalReadings = new ArrayList<>(readingCount);
+        for (int i = 0; i < readingCount; i++) {
+            environmentalReadings.add(
+                    new EnvironmentalReading(
+                            null,
+                            random.nextDouble(-20, 40),
+                            random.nextDouble(0, 100),
+                            end.minusSeconds(random.nextLong(Duration.ofHours(24).getSeconds())),
+                            null));
+        }
+    }
+
+    @Benchmark
+    public Map<OffsetDateTime, Double> singlePassAggregator() {
+        return environmentalReadingStatsService.getAverageTempsForHourly(environmentalReadings);
+    }
+
+    @Benchmark
+    public Map<OffsetDateTime, Double> groupingByTimestamp() {
+        OffsetDateTime startTime = OffsetDateTime.now(ZoneOffset.UTC).minusHours(24);
+        Duration interval = Duration.ofHours(1);
+
+        Map<OffsetDateTime, List<EnvironmentalReading>> groupedData =
+                environmentalReadings.stream()
+                        .filter(d -> d.getTimestamp().isAfter(startTime))
+                        .collect(
+                                Collectors.groupingBy(
+                                        d -> roundTimeToInterval(d.getTimestamp(), interval)));
+
+        return groupedData.entrySet().stream()
+                .collect(
+                        Collectors.toMap(
+                                Map.Entry::getKey, e -> calculateAverageTemp(e.getValue())));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void compareInMemoryAggregation() throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(getClass().getName())
+                                .addProfiler(GCProfiler.class)
+                                .build())
+                .run();
+    }
+
+    private static OffsetDateTime roundTimeToInterval(OffsetDateTime dateTime, Duration interval) {
+        long seconds = dateTime.toEpochSecond() / interval.getSeconds() * interval.getSeconds();
+        Instant instant = Instant.ofEpochSecond(seconds);
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static double calculateAverageTemp(List<EnvironmentalReading> data) {
+        double sum = data.stream().mapToDouble(EnvironmentalReading::getTemperature).sum();
+        return BigDecimal.valueOf(sum / data.size())
+                .setScale(3, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+}
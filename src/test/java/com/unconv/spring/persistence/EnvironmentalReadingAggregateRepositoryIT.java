@@ -0,0 +1,270 @@
+package com.unconv.spring.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.EnvironmentalReadingAggregate;
+import com.unconv.spring.domain.EnvironmentalReadingQuantileBin;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.utils.QuantileSketch;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks that the rollups and quantile bins of every resolution follow the readings inserted
+ * through the JDBC ingest paths and the readings taken out of them again.
+ */
+class EnvironmentalReadingAggregateRepositoryIT extends AbstractIntegrationTest {
+
+    private static final OffsetDateTime FIRST_DAY =
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Autowired
+    private EnvironmentalReadingQuantileBinRepository environmentalReadingQuantileBinRepository;
+
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SensorSystem sensorSystem;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        UnconvUser unconvUser =
+                unconvUserRepository.save(
+                        new UnconvUser(null, "RollupUser", "rollup@email.com", "password"));
+        sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "Rollup sensor", null, unconvUser));
+    }
+
+    @Test
+    void shouldRollUpBatchInsertedReadingsOnce() {
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.batchInsert(
+                                List.of(
+                                        reading(FIRST_DAY, 20.0, 40.0),
+                                        reading(FIRST_DAY.plusMinutes(5), 24.0, 60.0),
+                                        reading(FIRST_DAY.plusMinutes(50), 22.0, 50.0))));
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.batchInsert(
+                                List.of(
+                                        reading(FIRST_DAY, 20.0, 40.0),
+                                        reading(FIRST_DAY.plusHours(1), 30.0, 70.0))));
+
+        List<EnvironmentalReadingAggregate> quarterHourlyAggregates =
+                aggregates(AggregateResolution.QUARTER_HOURLY);
+        assertEquals(3, quarterHourlyAggregates.size());
+        assertAggregate(quarterHourlyAggregates.get(0), FIRST_DAY, 2, 20.0, 24.0, 44.0, 100.0);
+
+        List<EnvironmentalReadingAggregate> hourlyAggregates =
+                aggregates(AggregateResolution.HOURLY);
+        assertEquals(2, hourlyAggregates.size());
+        assertAggregate(hourlyAggregates.get(0), FIRST_DAY, 3, 20.0, 24.0, 66.0, 150.0);
+
+        List<EnvironmentalReadingAggregate> dailyAggregates = aggregates(AggregateResolution.DAILY);
+        assertEquals(1, dailyAggregates.size());
+        assertAggregate(dailyAggregates.get(0), FIRST_DAY, 4, 20.0, 30.0, 96.0, 220.0);
+    }
+
+    @Test
+    void shouldReportAndRollUpOnlyTheReadingsTheDatabaseInserted() {
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.batchInsert(
+                                List.of(reading(FIRST_DAY, 20.0, 40.0))));
+
+        boolean[] inserted =
+                transactionTemplate.execute(
+                        status ->
+                                environmentalReadingRepository.batchInsertIfAbsent(
+                                        List.of(
+                                                reading(FIRST_DAY, 20.0, 40.0),
+                                                reading(FIRST_DAY.plusMinutes(5), 24.0, 60.0),
+                                                reading(FIRST_DAY.plusMinutes(5), 26.0, 70.0),
+                                                reading(FIRST_DAY.plusMinutes(10), 22.0, 50.0))));
+
+        assertArrayEquals(new boolean[] {false, true, false, true}, inserted);
+        List<EnvironmentalReadingAggregate> dailyAggregates = aggregates(AggregateResolution.DAILY);
+        assertEquals(1, dailyAggregates.size());
+        assertAggregate(dailyAggregates.get(0), FIRST_DAY, 3, 20.0, 24.0, 66.0, 150.0);
+        assertEquals(
+                3,
+                sensorReadingSummaryRepository
+                        .findById(sensorSystem.getId())
+                        .orElseThrow()
+                        .getReadingCount());
+    }
+
+    @Test
+    void shouldRollUpCopiedReadings() {
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.copyInsert(
+                                List.of(
+                                        reading(FIRST_DAY, 20.0, 40.0),
+                                        reading(FIRST_DAY.plusMinutes(5), 24.0, 60.0))));
+
+        List<EnvironmentalReadingAggregate> quarterHourlyAggregates =
+                aggregates(AggregateResolution.QUARTER_HOURLY);
+        assertEquals(1, quarterHourlyAggregates.size());
+        assertAggregate(quarterHourlyAggregates.get(0), FIRST_DAY, 2, 20.0, 24.0, 44.0, 100.0);
+        assertEquals(1, aggregates(AggregateResolution.DAILY).size());
+    }
+
+    @Test
+    void shouldRecomputeExtremesOfRemovedReadings() {
+        EnvironmentalReading warmest = reading(FIRST_DAY.plusMinutes(10), 24.0, 60.0);
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.batchInsert(
+                                List.of(
+                                        reading(FIRST_DAY, 20.0, 40.0),
+                                        reading(FIRST_DAY.plusMinutes(5), 22.0, 50.0),
+                                        warmest)));
+
+        remove(warmest);
+
+        List<EnvironmentalReadingAggregate> quarterHourlyAggregates =
+                aggregates(AggregateResolution.QUARTER_HOURLY);
+        assertEquals(1, quarterHourlyAggregates.size());
+        assertAggregate(quarterHourlyAggregates.get(0), FIRST_DAY, 2, 20.0, 22.0, 42.0, 90.0);
+        assertEquals(50.0, quarterHourlyAggregates.get(0).getMaxHumidity());
+    }
+
+    @Test
+    void shouldDeleteAggregatesLeftWithoutReadings() {
+        EnvironmentalReading onlyReading = reading(FIRST_DAY, 20.0, 40.0);
+        transactionTemplate.executeWithoutResult(
+                status -> environmentalReadingRepository.batchInsert(List.of(onlyReading)));
+
+        remove(onlyReading);
+
+        assertEquals(0, environmentalReadingAggregateRepository.count());
+        assertEquals(0, environmentalReadingQuantileBinRepository.count());
+    }
+
+    @Test
+    void shouldCountReadingValuesInQuantileBins() {
+        EnvironmentalReading coldest = reading(FIRST_DAY.plusMinutes(10), -5.0, 40.0);
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.batchInsert(
+                                List.of(
+                                        reading(FIRST_DAY, 20.0, 40.0),
+                                        reading(FIRST_DAY.plusMinutes(5), 20.0, 0.0),
+                                        coldest)));
+
+        List<EnvironmentalReadingQuantileBin> temperatureBins =
+                quantileBins(AggregateResolution.DAILY, ReadingMetric.TEMPERATURE);
+        assertEquals(2, temperatureBins.size());
+        assertQuantileBin(temperatureBins.get(0), -5.0, 1);
+        assertQuantileBin(temperatureBins.get(1), 20.0, 2);
+        List<EnvironmentalReadingQuantileBin> humidityBins =
+                quantileBins(AggregateResolution.DAILY, ReadingMetric.HUMIDITY);
+        assertEquals(2, humidityBins.size());
+        assertQuantileBin(humidityBins.get(0), 0.0, 1);
+        assertQuantileBin(humidityBins.get(1), 40.0, 2);
+
+        remove(coldest);
+
+        temperatureBins =
+                quantileBins(AggregateResolution.QUARTER_HOURLY, ReadingMetric.TEMPERATURE);
+        assertEquals(1, temperatureBins.size());
+        assertQuantileBin(temperatureBins.get(0), 20.0, 2);
+        humidityBins = quantileBins(AggregateResolution.DAILY, ReadingMetric.HUMIDITY);
+        assertQuantileBin(humidityBins.get(1), 40.0, 1);
+    }
+
+    private void remove(EnvironmentalReading environmentalReading) {
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    jdbcTemplate.update(
+                            "DELETE FROM environmental_readings WHERE id = ?",
+                            environmentalReading.getId());
+                    environmentalReadingAggregateRepository.removeReadings(
+                            List.of(environmentalReading));
+                });
+    }
+
+    private EnvironmentalReading reading(
+            OffsetDateTime timestamp, double temperature, double humidity) {
+        return new EnvironmentalReading(null, temperature, humidity, timestamp, sensorSystem);
+    }
+
+    private List<EnvironmentalReadingAggregate> aggregates(AggregateResolution resolution) {
+        return environmentalReadingAggregateRepository
+                .findBySensorSystemIdAndResolutionOrderByBucketStart(
+                        sensorSystem.getId(), resolution);
+    }
+
+    private List<EnvironmentalReadingQuantileBin> quantileBins(
+            AggregateResolution resolution, ReadingMetric metric) {
+        return environmentalReadingQuantileBinRepository
+                .findBySensorSystemIdAndResolutionAndMetricOrderByBucketStartAscValueSignAscBinIndexAsc(
+                        sensorSystem.getId(), resolution, metric);
+    }
+
+    private static void assertQuantileBin(
+            EnvironmentalReadingQuantileBin quantileBin, double value, long readingCount) {
+        assertEquals(QuantileSketch.signOf(value), quantileBin.getValueSign());
+        assertEquals(QuantileSketch.binOf(value), quantileBin.getBinIndex());
+        assertEquals(readingCount, quantileBin.getReadingCount());
+    }
+
+    private static void assertAggregate(
+            EnvironmentalReadingAggregate aggregate,
+            OffsetDateTime bucketStart,
+            long readingCount,
+            double minTemperature,
+            double maxTemperature,
+            double sumTemperature,
+            double sumHumidity) {
+        assertTrue(bucketStart.isEqual(aggregate.getBucketStart()));
+        assertEquals(readingCount, aggregate.getReadingCount());
+        assertEquals(minTemperature, aggregate.getMinTemperature());
+        assertEquals(maxTemperature, aggregate.getMaxTemperature());
+        assertEquals(sumTemperature, aggregate.getSumTemperature(), 1e-9);
+        assertEquals(sumHumidity, aggregate.getSumHumidity(), 1e-9);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sensorReadingSummaryRepository.deleteAll();
+        environmentalReadingQuantileBinRepository.deleteAll();
+        environmentalReadingAggregateRepository.deleteAll();
+        environmentalReadingRepository.deleteAll();
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+}
@@ -0,0 +1,269 @@
+package com.unconv.spring.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Guards the index set of {@code environmental_readings}. The hottest derived queries of {@link
+ * EnvironmentalReadingRepository} are run against a seeded table of 100,000 readings, captured as
+ * Hibernate renders them and explained with the same arguments; a sequential scan of the readings
+ * table fails the test.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EnvironmentalReadingRepositoryQueryPlanIT extends AbstractIntegrationTest {
+
+    private static final int USERS = 20;
+
+    private static final int SENSOR_SYSTEMS_PER_USER = 5;
+
+    private static final int READINGS_PER_SENSOR_SYSTEM = 1_000;
+
+    private static final String SEED_READINGS_SQL =
+            "INSERT INTO environmental_readings (id, temperature, humidity, timestamp, sensor_id)"
+                    + " SELECT gen_random_uuid(), 15 + random() * 15, 30 + random() * 50,"
+                    + " TIMESTAMP '2024-01-01 00:00:00' + make_interval(mins => g),"
+                    + " CAST(? AS UUID) FROM generate_series(1, ?) g";
+
+    private static final String SEQUENTIAL_SCAN = "Seq Scan on environmental_readings";
+
+    private static final CapturingStatementInspector STATEMENT_INSPECTOR =
+            new CapturingStatementInspector();
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private UUID unconvUserId;
+
+    private UUID sensorSystemId;
+
+    @BeforeAll
+    void seedReadings() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Object[]> seedArguments = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            UnconvUser unconvUser =
+                    unconvUserRepository.save(
+                            new UnconvUser(
+                                    null,
+                                    "QueryPlanUser" + i,
+                                    "query-plan-" + i + "@email.com",
+                                    "password"));
+            for (int j = 0; j < SENSOR_SYSTEMS_PER_USER; j++) {
+                SensorSystem sensorSystem =
+                        sensorSystemRepository.save(
+                                new SensorSystem(null, "Query plan sensor " + j, null, unconvUser));
+                seedArguments.add(new Object[] {sensorSystem.getId(), READINGS_PER_SENSOR_SYSTEM});
+                if (sensorSystemId == null) {
+                    unconvUserId = unconvUser.getId();
+                    sensorSystemId = sensorSystem.getId();
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    jdbcTemplate.batchUpdate(SEED_READINGS_SQL, seedArguments);
+                    jdbcTemplate.execute("ANALYZE environmental_readings");
+                });
+    }
+
+    @Test
+    void shouldFindLatestReadingThroughSensorTimestampIndex() {
+        String plan =
+                explain(
+                        () ->
+                                environmentalReadingRepository
+                                        .findFirstBySensorSystemIdOrderByTimestampDesc(
+                                                sensorSystemId),
+                        sensorSystemId,
+                        1);
+
+        assertServedByIndex(plan, "uk_environmental_readings_sensor_timestamp");
+    }
+
+    @Test
+    void shouldCountReadingsInRangeThroughSensorTimestampIndex() {
+        OffsetDateTime start = OffsetDateTime.of(2024, 1, 1, 2, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime end = start.plusHours(2);
+
+        String plan =
+                explain(
+                        () ->
+                                environmentalReadingRepository
+                                        .countBySensorSystemIdAndTimestampBetween(
+                                                sensorSystemId, start, end),
+                        sensorSystemId,
+                        start,
+                        end);
+
+        assertServedByIndex(plan, "uk_environmental_readings_sensor_timestamp");
+    }
+
+    @Test
+    void shouldFindHighestTemperatureThroughTemperatureIndex() {
+        String plan =
+                explain(
+                        () ->
+                                environmentalReadingRepository
+                                        .findFirstBySensorSystemIdOrderByTemperatureDesc(
+                                                sensorSystemId),
+                        sensorSystemId,
+                        1);
+
+        assertServedByIndex(plan, "idx_environmental_readings_sensor_temperature");
+    }
+
+    @Test
+    void shouldFindLowestTemperatureThroughTemperatureIndex() {
+        String plan =
+                explain(
+                        () ->
+                                environmentalReadingRepository
+                                        .findFirstBySensorSystemIdOrderByTemperatureAsc(
+                                                sensorSystemId),
+                        sensorSystemId,
+                        1);
+
+        assertServedByIndex(plan, "idx_environmental_readings_sensor_temperature");
+    }
+
+    @Test
+    void shouldFindHighestHumidityThroughHumidityIndex() {
+        String plan =
+                explain(
+                        () ->
+                                environmentalReadingRepository
+                                        .findFirstBySensorSystemIdOrderByHumidityDesc(
+                                                sensorSystemId),
+                        sensorSystemId,
+                        1);
+
+        assertServedByIndex(plan, "idx_environmental_readings_sensor_humidity");
+    }
+
+    @Test
+    void shouldFindLowestHumidityThroughHumidityIndex() {
+        String plan =
+                explain(
+                        () ->
+                                environmentalReadingRepository
+                                        .findFirstBySensorSystemIdOrderByHumidityAsc(
+                                                sensorSystemId),
+                        sensorSystemId,
+                        1);
+
+        assertServedByIndex(plan, "idx_environmental_readings_sensor_humidity");
+    }
+
+    @Test
+    void shouldFindLatestReadingsOfUserWithoutSequentialScan() {
+        String plan =
+                explain(
+                        () ->
+                                environmentalReadingRepository
+                                        .findFirst10BySensorSystemUnconvUserIdOrderByTimestampDesc(
+                                                unconvUserId),
+                        unconvUserId,
+                        10);
+
+        assertFalse(plan.contains(SEQUENTIAL_SCAN), plan);
+    }
+
+    /**
+     * Runs a repository query and explains the SQL Hibernate issued for it.
+     *
+     * @param query the repository call
+     * @param arguments the bind values in order; the row limit comes last and is only bound when
+     *     Hibernate renders it as a parameter
+     * @return the text of the query plan
+     */
+    private String explain(Runnable query, Object... arguments) {
+        STATEMENT_INSPECTOR.clear();
+        query.run();
+        String sql = STATEMENT_INSPECTOR.firstStatement();
+        assertNotNull(sql, "The repository query issued no SQL");
+        int parameterCount = (int) sql.chars().filter(c -> c == '?').count();
+        return String.join(
+                "\n",
+                jdbcTemplate.queryForList(
+                        "EXPLAIN " + sql,
+                        String.class,
+                        Arrays.copyOf(arguments, parameterCount)));
+    }
+
+    private static void assertServedByIndex(String plan, String indexName) {
+        assertFalse(plan.contains(SEQUENTIAL_SCAN), plan);
+        assertTrue(plan.contains(indexName), plan);
+    }
+
+    @AfterAll
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(
+                status -> jdbcTemplate.execute("TRUNCATE environmental_readings"));
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+
+    /** Records the SQL Hibernate sends to the database, so that it can be explained. */
+    static class CapturingStatementInspector implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        String firstStatement() {
+            return statements.isEmpty() ? null : statements.get(0);
+        }
+    }
+
+    @TestConfiguration
+    static class StatementInspectorConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer() {
+            return properties ->
+                    properties.put(AvailableSettings.STATEMENT_INSPECTOR, STATEMENT_INSPECTOR);
+        }
+    }
+}
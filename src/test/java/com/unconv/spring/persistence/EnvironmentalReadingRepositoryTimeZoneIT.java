@@ -0,0 +1,141 @@
+package com.unconv.spring.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the JDBC reading queries in transactions whose session time zone is not UTC. Tests run on
+ * the schema generated by Hibernate, which stores timestamps with their time zone, so the column
+ * is changed for each test to a timestamp without time zone, as the Liquibase changelog leaves it,
+ * and changed back afterwards. Its values are then compared in the session time zone.
+ */
+class EnvironmentalReadingRepositoryTimeZoneIT extends AbstractIntegrationTest {
+
+    private static final OffsetDateTime FIRST_DAY =
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final String NON_UTC_TIME_ZONE_SQL = "SET LOCAL TIME ZONE 'America/New_York'";
+
+    private static final String INSERT_READING_SQL =
+            "INSERT INTO environmental_readings (id, temperature, humidity, timestamp, sensor_id)"
+                    + " VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SensorSystem sensorSystem;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        UnconvUser unconvUser =
+                unconvUserRepository.save(
+                        new UnconvUser(null, "TimeZoneUser", "timezone@email.com", "password"));
+        sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "Time zone sensor", null, unconvUser));
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    jdbcTemplate.execute(
+                            "ALTER TABLE environmental_readings ALTER COLUMN timestamp"
+                                    + " TYPE TIMESTAMP WITHOUT TIME ZONE");
+                    // Stored as the UTC wall clock time, as the changelog's column is written
+                    insertReading(FIRST_DAY.minusHours(1), 18.0);
+                    insertReading(FIRST_DAY, 20.0);
+                    insertReading(FIRST_DAY.plusHours(2), 22.0);
+                    insertReading(FIRST_DAY.plusHours(6), 24.0);
+                });
+    }
+
+    @Test
+    void shouldCountReadingsInUtcWhateverTheSessionTimeZone() {
+        long[] counts =
+                inNonUtcTransaction(
+                        () ->
+                                environmentalReadingRepository.countReadingsSince(
+                                        sensorSystem.getId(),
+                                        List.of(FIRST_DAY, FIRST_DAY.plusHours(1)),
+                                        FIRST_DAY.plusHours(3)));
+
+        assertArrayEquals(new long[] {2, 1}, counts);
+    }
+
+    @Test
+    void shouldStreamReadingsInUtcWhateverTheSessionTimeZone() {
+        List<EnvironmentalReadingProjection> streamedReadings = new ArrayList<>();
+
+        long streamed =
+                inNonUtcTransaction(
+                        () ->
+                                environmentalReadingRepository.streamReadings(
+                                        sensorSystem.getId(),
+                                        FIRST_DAY,
+                                        FIRST_DAY.plusHours(3),
+                                        streamedReadings::add));
+
+        assertEquals(2, streamed);
+        assertEquals(20.0, streamedReadings.get(0).getTemperature());
+        assertTrue(FIRST_DAY.isEqual(streamedReadings.get(0).getTimestamp()));
+        assertEquals(22.0, streamedReadings.get(1).getTemperature());
+        assertTrue(FIRST_DAY.plusHours(2).isEqual(streamedReadings.get(1).getTimestamp()));
+    }
+
+    private <T> T inNonUtcTransaction(Supplier<T> supplier) {
+        return transactionTemplate.execute(
+                status -> {
+                    jdbcTemplate.execute(NON_UTC_TIME_ZONE_SQL);
+                    return supplier.get();
+                });
+    }
+
+    private void insertReading(OffsetDateTime timestamp, double temperature) {
+        jdbcTemplate.update(
+                INSERT_READING_SQL,
+                UUID.randomUUID(),
+                temperature,
+                50.0,
+                timestamp.toLocalDateTime(),
+                sensorSystem.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    jdbcTemplate.execute("DELETE FROM environmental_readings");
+                    jdbcTemplate.execute(
+                            "ALTER TABLE environmental_readings ALTER COLUMN timestamp"
+                                    + " TYPE TIMESTAMP WITH TIME ZONE");
+                });
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+}
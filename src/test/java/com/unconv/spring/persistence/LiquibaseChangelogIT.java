@@ -0,0 +1,190 @@
+package com.unconv.spring.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Applies the Liquibase changelog to an empty PostgreSQL database of its own, rather than to the
+ * schema Hibernate generates for the other integration tests. The changelog is applied up to the
+ * changesets that move the readings into the partitioned table, readings are seeded into the
+ * unpartitioned table, and the rest is applied, so that the data-moving changesets run against
+ * stored rows.
+ */
+@Testcontainers
+class LiquibaseChangelogIT {
+
+    private static final String CHANGELOG = "db/changelog/master.xml";
+
+    /** Changesets 1749357518036-1 to -35, which precede the deduplication of the readings. */
+    private static final int CHANGESETS_BEFORE_PARTITIONING = 35;
+
+    private static final String INSERT_READING_SQL =
+            "INSERT INTO environmental_readings (id, temperature, humidity, timestamp, sensor_id)"
+                    + " VALUES (?, ?, ?, ?, ?)";
+
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                    + " WHERE i.inhparent = 'environmental_readings'::regclass";
+
+    private static final DateTimeFormatter PARTITION_MONTH =
+            DateTimeFormatter.ofPattern("'environmental_readings_y'yyyy'm'MM");
+
+    @Container
+    private static final PostgreSQLContainer postgres =
+            new PostgreSQLContainer("postgres:15")
+                    .withDatabaseName("liquibase-changelog-db")
+                    .withUsername("username")
+                    .withPassword("password");
+
+    @Test
+    void shouldMoveStoredReadingsIntoMonthlyPartitions() throws Exception {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource(
+                        postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // The views of changesets -34 and -35 are defined over the extension's functions
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_stat_statements");
+
+        UUID sensorSystemId = UUID.randomUUID();
+        UUID keptReadingId = UUID.fromString("00000000-0000-7000-8000-000000000001");
+        UUID duplicateReadingId = UUID.fromString("00000000-0000-7000-8000-000000000002");
+        UUID laterReadingId = UUID.randomUUID();
+        UUID marchReadingId = UUID.randomUUID();
+        LocalDateTime firstTimestamp = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+        try (Connection connection = dataSource.getConnection()) {
+            Database database =
+                    DatabaseFactory.getInstance()
+                            .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            Liquibase liquibase =
+                    new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database);
+            liquibase.update(
+                    CHANGESETS_BEFORE_PARTITIONING, new Contexts(), new LabelExpression());
+
+            jdbcTemplate.update(
+                    "INSERT INTO sensor_systems (id, sensorname) VALUES (?, ?)",
+                    sensorSystemId,
+                    "Migrated sensor");
+            jdbcTemplate.update(
+                    INSERT_READING_SQL, keptReadingId, 20.0, 40.0, firstTimestamp, sensorSystemId);
+            jdbcTemplate.update(
+                    INSERT_READING_SQL,
+                    duplicateReadingId,
+                    25.0,
+                    45.0,
+                    firstTimestamp,
+                    sensorSystemId);
+            jdbcTemplate.update(
+                    INSERT_READING_SQL,
+                    laterReadingId,
+                    22.0,
+                    50.0,
+                    firstTimestamp.plusDays(5),
+                    sensorSystemId);
+            jdbcTemplate.update(
+                    INSERT_READING_SQL,
+                    marchReadingId,
+                    18.0,
+                    60.0,
+                    LocalDateTime.of(2024, 3, 10, 8, 30),
+                    sensorSystemId);
+
+            liquibase.update(new Contexts(), new LabelExpression());
+        }
+
+        assertEquals(
+                "p",
+                jdbcTemplate.queryForObject(
+                        "SELECT CAST(relkind AS TEXT) FROM pg_class"
+                                + " WHERE relname = 'environmental_readings'",
+                        String.class));
+        assertEquals(
+                "PRIMARY KEY (id, \"timestamp\")",
+                jdbcTemplate.queryForObject(
+                        "SELECT pg_get_constraintdef(oid) FROM pg_constraint"
+                                + " WHERE conname = 'environmental_readings_pkey'"
+                                + " AND conrelid = 'environmental_readings'::regclass",
+                        String.class));
+        assertNull(
+                jdbcTemplate.queryForObject(
+                        "SELECT CAST(to_regclass('environmental_readings_unpartitioned') AS TEXT)",
+                        String.class));
+
+        // One partition per month from the oldest reading up to three months ahead
+        List<String> partitions = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+        LocalDate currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        for (LocalDate month = LocalDate.of(2024, 1, 1);
+                !month.isAfter(currentMonth.plusMonths(3));
+                month = month.plusMonths(1)) {
+            assertTrue(partitions.contains(PARTITION_MONTH.format(month)), month.toString());
+        }
+        assertTrue(partitions.contains("environmental_readings_default"));
+
+        // The duplicate is dropped and every other reading lands in the partition of its month
+        Map<String, Long> readingsPerPartition = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT CAST(tableoid::regclass AS TEXT), count(*) FROM environmental_readings"
+                        + " GROUP BY 1",
+                (RowCallbackHandler)
+                        rs -> readingsPerPartition.put(rs.getString(1), rs.getLong(2)));
+        assertEquals(
+                Map.of(
+                        "environmental_readings_y2024m01",
+                        2L,
+                        "environmental_readings_y2024m03",
+                        1L),
+                readingsPerPartition);
+        assertEquals(
+                20.0,
+                jdbcTemplate.queryForObject(
+                        "SELECT temperature FROM environmental_readings WHERE id = ?",
+                        Double.class,
+                        keptReadingId));
+        assertEquals(
+                0,
+                jdbcTemplate.queryForObject(
+                        "SELECT count(*) FROM environmental_readings WHERE id = ?",
+                        Integer.class,
+                        duplicateReadingId));
+
+        // The changesets after the move roll up and summarize the moved readings
+        assertEquals(
+                3,
+                jdbcTemplate.queryForObject(
+                        "SELECT count(*) FROM environmental_reading_aggregates"
+                                + " WHERE sensor_id = ? AND resolution = 'DAILY'",
+                        Integer.class,
+                        sensorSystemId));
+        assertEquals(
+                3L,
+                jdbcTemplate.queryForObject(
+                        "SELECT reading_count FROM sensor_reading_summaries WHERE sensor_id = ?",
+                        Long.class,
+                        sensorSystemId));
+    }
+}
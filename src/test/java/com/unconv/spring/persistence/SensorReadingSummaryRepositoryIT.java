@@ -0,0 +1,212 @@
+package com.unconv.spring.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorReadingSummary;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.model.SummarizedReading;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks that the reading summary of a sensor system follows the readings inserted through the
+ * JDBC ingest paths and the readings taken out of them again, and that it can be rebuilt from the
+ * stored readings.
+ */
+class SensorReadingSummaryRepositoryIT extends AbstractIntegrationTest {
+
+    private static final OffsetDateTime FIRST_DAY =
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Autowired
+    private EnvironmentalReadingQuantileBinRepository environmentalReadingQuantileBinRepository;
+
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SensorSystem sensorSystem;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        UnconvUser unconvUser =
+                unconvUserRepository.save(
+                        new UnconvUser(null, "SummaryUser", "summary@email.com", "password"));
+        sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "Summary sensor", null, unconvUser));
+    }
+
+    @Test
+    void shouldSummarizeIngestedReadings() {
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.batchInsert(
+                                List.of(
+                                        reading(FIRST_DAY.plusHours(1), 20.0, 40.0),
+                                        reading(FIRST_DAY.plusHours(2), 24.0, 60.0),
+                                        reading(FIRST_DAY.plusHours(3), 22.0, 50.0))));
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.copyInsert(
+                                List.of(
+                                        reading(FIRST_DAY, 24.0, 30.0),
+                                        reading(FIRST_DAY.plusHours(4), 18.0, 70.0))));
+
+        SensorReadingSummary sensorReadingSummary = summary();
+        assertEquals(5, sensorReadingSummary.getReadingCount());
+        assertTrue(FIRST_DAY.isEqual(sensorReadingSummary.getFirstTimestamp()));
+        assertReading(
+                sensorReadingSummary.getLatestReading(), FIRST_DAY.plusHours(4), 18.0, 70.0);
+        // The earliest of the readings sharing the highest temperature is kept
+        assertReading(sensorReadingSummary.getWarmestReading(), FIRST_DAY, 24.0, 30.0);
+        assertReading(
+                sensorReadingSummary.getColdestReading(), FIRST_DAY.plusHours(4), 18.0, 70.0);
+        assertReading(
+                sensorReadingSummary.getMostHumidReading(), FIRST_DAY.plusHours(4), 18.0, 70.0);
+        assertReading(sensorReadingSummary.getLeastHumidReading(), FIRST_DAY, 24.0, 30.0);
+    }
+
+    @Test
+    void shouldLookUpRemovedKeptReadingsAgain() {
+        EnvironmentalReading warmest = reading(FIRST_DAY, 30.0, 50.0);
+        EnvironmentalReading latest = reading(FIRST_DAY.plusHours(2), 10.0, 40.0);
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        environmentalReadingRepository.batchInsert(
+                                List.of(
+                                        warmest,
+                                        reading(FIRST_DAY.plusHours(1), 20.0, 60.0),
+                                        latest)));
+
+        remove(warmest, latest);
+
+        SensorReadingSummary sensorReadingSummary = summary();
+        assertEquals(1, sensorReadingSummary.getReadingCount());
+        assertTrue(FIRST_DAY.plusHours(1).isEqual(sensorReadingSummary.getFirstTimestamp()));
+        assertReading(
+                sensorReadingSummary.getLatestReading(), FIRST_DAY.plusHours(1), 20.0, 60.0);
+        assertReading(
+                sensorReadingSummary.getWarmestReading(), FIRST_DAY.plusHours(1), 20.0, 60.0);
+        assertReading(
+                sensorReadingSummary.getColdestReading(), FIRST_DAY.plusHours(1), 20.0, 60.0);
+        assertReading(
+                sensorReadingSummary.getLeastHumidReading(), FIRST_DAY.plusHours(1), 20.0, 60.0);
+    }
+
+    @Test
+    void shouldDeleteSummaryLeftWithoutReadings() {
+        EnvironmentalReading onlyReading = reading(FIRST_DAY, 20.0, 40.0);
+        transactionTemplate.executeWithoutResult(
+                status -> environmentalReadingRepository.batchInsert(List.of(onlyReading)));
+        assertEquals(1, sensorReadingSummaryRepository.count());
+
+        remove(onlyReading);
+
+        assertEquals(0, sensorReadingSummaryRepository.count());
+    }
+
+    @Test
+    void shouldRebuildSummaryFromStoredReadings() {
+        // Saved past the ingest paths, so no summary is kept
+        environmentalReadingRepository.saveAll(
+                List.of(
+                        reading(FIRST_DAY, 20.0, 40.0),
+                        reading(FIRST_DAY.plusHours(1), 26.0, 45.0),
+                        reading(FIRST_DAY.plusHours(2), 22.0, 35.0)));
+        assertTrue(sensorReadingSummaryRepository.findById(sensorSystem.getId()).isEmpty());
+
+        rebuild();
+
+        SensorReadingSummary sensorReadingSummary = summary();
+        assertEquals(3, sensorReadingSummary.getReadingCount());
+        assertTrue(FIRST_DAY.isEqual(sensorReadingSummary.getFirstTimestamp()));
+        assertReading(
+                sensorReadingSummary.getLatestReading(), FIRST_DAY.plusHours(2), 22.0, 35.0);
+        assertReading(
+                sensorReadingSummary.getWarmestReading(), FIRST_DAY.plusHours(1), 26.0, 45.0);
+        assertReading(sensorReadingSummary.getColdestReading(), FIRST_DAY, 20.0, 40.0);
+        assertReading(
+                sensorReadingSummary.getMostHumidReading(), FIRST_DAY.plusHours(1), 26.0, 45.0);
+        assertReading(
+                sensorReadingSummary.getLeastHumidReading(), FIRST_DAY.plusHours(2), 22.0, 35.0);
+
+        environmentalReadingRepository.deleteAll();
+        rebuild();
+
+        assertEquals(0, sensorReadingSummaryRepository.count());
+    }
+
+    private void rebuild() {
+        transactionTemplate.executeWithoutResult(
+                status -> sensorReadingSummaryRepository.rebuildSummary(sensorSystem.getId()));
+    }
+
+    private void remove(EnvironmentalReading... environmentalReadings) {
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    for (EnvironmentalReading environmentalReading : environmentalReadings) {
+                        jdbcTemplate.update(
+                                "DELETE FROM environmental_readings WHERE id = ?",
+                                environmentalReading.getId());
+                    }
+                    environmentalReadingAggregateRepository.removeReadings(
+                            List.of(environmentalReadings));
+                });
+    }
+
+    private EnvironmentalReading reading(
+            OffsetDateTime timestamp, double temperature, double humidity) {
+        return new EnvironmentalReading(null, temperature, humidity, timestamp, sensorSystem);
+    }
+
+    private SensorReadingSummary summary() {
+        return sensorReadingSummaryRepository.findById(sensorSystem.getId()).orElseThrow();
+    }
+
+    private static void assertReading(
+            SummarizedReading summarizedReading,
+            OffsetDateTime timestamp,
+            double temperature,
+            double humidity) {
+        assertTrue(timestamp.isEqual(summarizedReading.timestamp()));
+        assertEquals(temperature, summarizedReading.temperature());
+        assertEquals(humidity, summarizedReading.humidity());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sensorReadingSummaryRepository.deleteAll();
+        environmentalReadingQuantileBinRepository.deleteAll();
+        environmentalReadingAggregateRepository.deleteAll();
+        environmentalReadingRepository.deleteAll();
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+}
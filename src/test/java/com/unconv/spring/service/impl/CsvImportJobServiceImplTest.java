@@ -0,0 +1,181 @@
+package com.unconv.spring.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.unconv.spring.config.CsvImportConfig;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.enums.CsvImportJobStatus;
+import com.unconv.spring.model.CsvImportJob;
+import com.unconv.spring.model.response.CsvImportJobResponse;
+import com.unconv.spring.model.response.MessageResponse;
+import com.unconv.spring.service.EnvironmentalReadingService;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.Authentication;
+
+@ExtendWith(MockitoExtension.class)
+class CsvImportJobServiceImplTest {
+
+    @Mock private EnvironmentalReadingService environmentalReadingService;
+
+    @Mock private Authentication authentication;
+
+    private CsvImportJobServiceImpl csvImportJobService;
+
+    private SensorSystem sensorSystem;
+
+    private final MockMultipartFile csvFile =
+            new MockMultipartFile(
+                    "file",
+                    "readings.csv",
+                    "text/csv",
+                    "temperature,humidity,timestamp\n21.5,40.0,2024-01-01T00:00:00Z\n"
+                            .getBytes(StandardCharsets.UTF_8));
+
+    @BeforeEach
+    void setUp() {
+        CsvImportConfig csvImportConfig = new CsvImportConfig();
+        csvImportConfig.setAsyncWorkers(1);
+        csvImportConfig.setAsyncQueueCapacity(1);
+        csvImportJobService =
+                new CsvImportJobServiceImpl(environmentalReadingService, csvImportConfig);
+
+        sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        csvImportJobService.shutdown();
+    }
+
+    @Test
+    void shouldRejectFileThatIsNotOfCSVFormat() {
+        MockMultipartFile textFile =
+                new MockMultipartFile(
+                        "file", "readings.txt", "text/plain", "x".getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<MessageResponse<CsvImportJobResponse>> response =
+                csvImportJobService.verifyCSVFileAndSubmitCsvImportJob(
+                        sensorSystem, textFile, null, authentication);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(environmentalReadingService);
+    }
+
+    @Test
+    void shouldRunSubmittedCsvImportJobToCompletion() throws Exception {
+        when(authentication.getName()).thenReturn("username");
+        CountDownLatch imported = new CountDownLatch(1);
+        when(environmentalReadingService.parseFromCSVAndSaveEnvironmentalReading(
+                        any(InputStream.class),
+                        anyLong(),
+                        eq(sensorSystem),
+                        any(CsvImportJob.class)))
+                .thenAnswer(
+                        invocation -> {
+                            CsvImportJob csvImportJob = invocation.getArgument(3);
+                            csvImportJob.recordParsed(1);
+                            csvImportJob.recordInserted(1);
+                            imported.countDown();
+                            return 1;
+                        });
+
+        ResponseEntity<MessageResponse<CsvImportJobResponse>> response =
+                csvImportJobService.verifyCSVFileAndSubmitCsvImportJob(
+                        sensorSystem, csvFile, null, authentication);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertNotNull(response.getBody());
+        UUID jobId = response.getBody().entity().id();
+
+        assertTrue(imported.await(5, TimeUnit.SECONDS));
+        CsvImportJob csvImportJob =
+                csvImportJobService.findCsvImportJobById(jobId, "username").orElseThrow();
+        awaitFinished(csvImportJob);
+        assertEquals(CsvImportJobStatus.COMPLETED, csvImportJob.getStatus());
+        assertEquals(1, csvImportJob.getInserted());
+        assertTrue(csvImportJobService.findCsvImportJobById(jobId, "other").isEmpty());
+    }
+
+    @Test
+    void shouldCancelQueuedCsvImportJobWithoutRunningIt() throws Exception {
+        when(authentication.getName()).thenReturn("username");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(environmentalReadingService.parseFromCSVAndSaveEnvironmentalReading(
+                        any(InputStream.class),
+                        anyLong(),
+                        eq(sensorSystem),
+                        any(CsvImportJob.class)))
+                .thenAnswer(
+                        invocation -> {
+                            started.countDown();
+                            release.await(5, TimeUnit.SECONDS);
+                            return 1;
+                        });
+
+        UUID runningJobId =
+                csvImportJobService
+                        .verifyCSVFileAndSubmitCsvImportJob(
+                                sensorSystem, csvFile, null, authentication)
+                        .getBody()
+                        .entity()
+                        .id();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        UUID queuedJobId =
+                csvImportJobService
+                        .verifyCSVFileAndSubmitCsvImportJob(
+                                sensorSystem, csvFile, null, authentication)
+                        .getBody()
+                        .entity()
+                        .id();
+
+        ResponseEntity<MessageResponse<CsvImportJobResponse>> rejected =
+                csvImportJobService.verifyCSVFileAndSubmitCsvImportJob(
+                        sensorSystem, csvFile, null, authentication);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+
+        CsvImportJob queuedJob =
+                csvImportJobService.cancelCsvImportJob(queuedJobId, "username").orElseThrow();
+        assertEquals(CsvImportJobStatus.CANCELLED, queuedJob.getStatus());
+        assertTrue(csvImportJobService.cancelCsvImportJob(runningJobId, "other").isEmpty());
+
+        release.countDown();
+        CsvImportJob runningJob =
+                csvImportJobService.findCsvImportJobById(runningJobId, "username").orElseThrow();
+        awaitFinished(runningJob);
+        assertEquals(CsvImportJobStatus.COMPLETED, runningJob.getStatus());
+        verify(environmentalReadingService, never())
+                .parseFromCSVAndSaveEnvironmentalReading(
+                        any(InputStream.class), anyLong(), eq(sensorSystem), eq(queuedJob));
+    }
+
+    private static void awaitFinished(CsvImportJob csvImportJob) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!csvImportJob.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
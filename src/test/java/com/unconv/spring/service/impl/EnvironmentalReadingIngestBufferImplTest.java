@@ -0,0 +1,265 @@
+package com.unconv.spring.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.unconv.spring.config.WriteBehindIngestConfig;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.service.RecentReadingCounter;
+import com.unconv.spring.service.RecentReadingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class EnvironmentalReadingIngestBufferImplTest {
+
+    @Mock private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Mock private RecentReadingFilter recentReadingFilter;
+
+    @Mock private RecentReadingCounter recentReadingCounter;
+
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WriteBehindIngestConfig writeBehindIngestConfig;
+
+    private SensorSystem sensorSystem;
+
+    @BeforeEach
+    void setUp() {
+        writeBehindIngestConfig = new WriteBehindIngestConfig();
+        writeBehindIngestConfig.setEnabled(true);
+        writeBehindIngestConfig.setCapacity(10);
+        writeBehindIngestConfig.setMaxBatchSize(4);
+        writeBehindIngestConfig.setFlushInterval(Duration.ofMillis(20));
+        writeBehindIngestConfig.setWriteRetryBackoff(Duration.ofMillis(1));
+
+        sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void shouldRejectReadingsWhenNotStarted() {
+        EnvironmentalReadingIngestBufferImpl environmentalReadingIngestBuffer =
+                new EnvironmentalReadingIngestBufferImpl(
+                        writeBehindIngestConfig,
+                        environmentalReadingRepository,
+                        recentReadingFilter,
+                        recentReadingCounter,
+                        transactionManager,
+                        meterRegistry);
+
+        assertFalse(environmentalReadingIngestBuffer.offer(newEnvironmentalReading()));
+        verify(environmentalReadingRepository, never()).batchInsert(anyList());
+    }
+
+    @Test
+    void shouldNotStartWhenDisabled() {
+        writeBehindIngestConfig.setEnabled(false);
+        EnvironmentalReadingIngestBufferImpl environmentalReadingIngestBuffer =
+                new EnvironmentalReadingIngestBufferImpl(
+                        writeBehindIngestConfig,
+                        environmentalReadingRepository,
+                        recentReadingFilter,
+                        recentReadingCounter,
+                        transactionManager,
+                        meterRegistry);
+
+        environmentalReadingIngestBuffer.start();
+
+        assertFalse(environmentalReadingIngestBuffer.isRunning());
+        assertFalse(environmentalReadingIngestBuffer.offer(newEnvironmentalReading()));
+    }
+
+    @Test
+    void shouldWriteAllQueuedReadingsInGroupsAndDrainOnStop() {
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger largestGroup = new AtomicInteger();
+        when(environmentalReadingRepository.batchInsert(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<EnvironmentalReading> group = invocation.getArgument(0);
+                            written.addAndGet(group.size());
+                            largestGroup.accumulateAndGet(group.size(), Math::max);
+                            return group.size();
+                        });
+
+        EnvironmentalReadingIngestBufferImpl environmentalReadingIngestBuffer =
+                new EnvironmentalReadingIngestBufferImpl(
+                        writeBehindIngestConfig,
+                        environmentalReadingRepository,
+                        recentReadingFilter,
+                        recentReadingCounter,
+                        transactionManager,
+                        meterRegistry);
+        environmentalReadingIngestBuffer.start();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(environmentalReadingIngestBuffer.offer(newEnvironmentalReading()));
+        }
+        environmentalReadingIngestBuffer.stop();
+
+        assertFalse(environmentalReadingIngestBuffer.isRunning());
+        assertEquals(10, written.get());
+        assertTrue(largestGroup.get() <= writeBehindIngestConfig.getMaxBatchSize());
+    }
+
+    @Test
+    void shouldRejectReadingsWhenQueueIsFull() throws InterruptedException {
+        writeBehindIngestConfig.setCapacity(2);
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        AtomicInteger written = new AtomicInteger();
+        when(environmentalReadingRepository.batchInsert(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            writerBlocked.countDown();
+                            releaseWriter.await();
+                            List<EnvironmentalReading> group = invocation.getArgument(0);
+                            written.addAndGet(group.size());
+                            return group.size();
+                        });
+
+        EnvironmentalReadingIngestBufferImpl environmentalReadingIngestBuffer =
+                new EnvironmentalReadingIngestBufferImpl(
+                        writeBehindIngestConfig,
+                        environmentalReadingRepository,
+                        recentReadingFilter,
+                        recentReadingCounter,
+                        transactionManager,
+                        meterRegistry);
+        environmentalReadingIngestBuffer.start();
+
+        assertTrue(environmentalReadingIngestBuffer.offer(newEnvironmentalReading()));
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+
+        assertTrue(environmentalReadingIngestBuffer.offer(newEnvironmentalReading()));
+        assertTrue(environmentalReadingIngestBuffer.offer(newEnvironmentalReading()));
+        assertFalse(environmentalReadingIngestBuffer.offer(newEnvironmentalReading()));
+
+        releaseWriter.countDown();
+        environmentalReadingIngestBuffer.stop();
+
+        assertEquals(3, written.get());
+    }
+
+    @Test
+    void shouldWriteGoodReadingsOfGroupWhenOneViolatesConstraint() {
+        SensorSystem deletedSensorSystem = new SensorSystem();
+        deletedSensorSystem.setId(UUID.randomUUID());
+        EnvironmentalReading orphanedReading =
+                new EnvironmentalReading(
+                        UUID.randomUUID(), 21.5, 40.0, OffsetDateTime.now(), deletedSensorSystem);
+        Set<UUID> written = ConcurrentHashMap.newKeySet();
+        when(environmentalReadingRepository.batchInsert(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<EnvironmentalReading> group = invocation.getArgument(0);
+                            if (group.contains(orphanedReading)) {
+                                throw new DataIntegrityViolationException("Unknown sensor system");
+                            }
+                            group.forEach(reading -> written.add(reading.getId()));
+                            return group.size();
+                        });
+
+        EnvironmentalReadingIngestBufferImpl environmentalReadingIngestBuffer =
+                new EnvironmentalReadingIngestBufferImpl(
+                        writeBehindIngestConfig,
+                        environmentalReadingRepository,
+                        recentReadingFilter,
+                        recentReadingCounter,
+                        transactionManager,
+                        meterRegistry);
+        environmentalReadingIngestBuffer.start();
+
+        List<EnvironmentalReading> goodReadings =
+                List.of(
+                        newEnvironmentalReading(),
+                        newEnvironmentalReading(),
+                        newEnvironmentalReading());
+        assertTrue(environmentalReadingIngestBuffer.offer(goodReadings.get(0)));
+        assertTrue(environmentalReadingIngestBuffer.offer(orphanedReading));
+        assertTrue(environmentalReadingIngestBuffer.offer(goodReadings.get(1)));
+        assertTrue(environmentalReadingIngestBuffer.offer(goodReadings.get(2)));
+        environmentalReadingIngestBuffer.stop();
+
+        assertEquals(3, written.size());
+        for (EnvironmentalReading goodReading : goodReadings) {
+            assertTrue(written.contains(goodReading.getId()));
+        }
+        assertEquals(1.0, droppedReadings());
+    }
+
+    @Test
+    void shouldWriteGroupAgainAfterTransientFailure() {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        when(environmentalReadingRepository.batchInsert(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            if (attempts.incrementAndGet() == 1) {
+                                throw new TransientDataAccessResourceException(
+                                        "Connection reset");
+                            }
+                            List<EnvironmentalReading> group = invocation.getArgument(0);
+                            written.addAndGet(group.size());
+                            return group.size();
+                        });
+
+        EnvironmentalReadingIngestBufferImpl environmentalReadingIngestBuffer =
+                new EnvironmentalReadingIngestBufferImpl(
+                        writeBehindIngestConfig,
+                        environmentalReadingRepository,
+                        recentReadingFilter,
+                        recentReadingCounter,
+                        transactionManager,
+                        meterRegistry);
+        environmentalReadingIngestBuffer.start();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(environmentalReadingIngestBuffer.offer(newEnvironmentalReading()));
+        }
+        environmentalReadingIngestBuffer.stop();
+
+        assertEquals(3, written.get());
+        assertEquals(0.0, droppedReadings());
+    }
+
+    private double droppedReadings() {
+        return meterRegistry
+                .get(EnvironmentalReadingIngestBufferImpl.DROPPED_READINGS_METER)
+                .counter()
+                .count();
+    }
+
+    private EnvironmentalReading newEnvironmentalReading() {
+        return new EnvironmentalReading(
+                UUID.randomUUID(), 21.5, 40.0, OffsetDateTime.now(), sensorSystem);
+    }
+}
@@ -0,0 +1,237 @@
+package com.unconv.spring.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.model.DroppedPartitions;
+import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.persistence.UnconvUserRepository;
+import com.unconv.spring.service.EnvironmentalReadingPartitionService;
+import com.unconv.spring.service.RecentReadingFilter;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the partition service against a partitioned readings table. Tests run on the schema
+ * generated by Hibernate rather than on the Liquibase changelog, so the DDL below repeats the
+ * partitioned table as the changelog leaves it, after changesets 1749357518036-40, -43, -44, -45
+ * and -58, and must be kept in sync with them. The table generated by Hibernate is moved aside with
+ * its indexes for each test and restored afterwards.
+ */
+class EnvironmentalReadingPartitionServiceIT extends AbstractIntegrationTest {
+
+    private static final List<String> INDEX_NAMES =
+            List.of(
+                    "environmental_readings_pkey",
+                    "uk_environmental_readings_sensor_timestamp",
+                    "idx_environmental_readings_sensor_temperature",
+                    "idx_environmental_readings_sensor_humidity",
+                    "idx_environmental_readings_timestamp_id");
+
+    private static final List<String> PARTITION_TABLE_SQL =
+            List.of(
+                    "CREATE TABLE environmental_readings (id UUID NOT NULL,"
+                            + " humidity FLOAT8 NOT NULL, temperature FLOAT8 NOT NULL,"
+                            + " timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL, sensor_id UUID,"
+                            + " CONSTRAINT environmental_readings_pkey PRIMARY KEY (id, timestamp),"
+                            + " CONSTRAINT fkejggh95bcodf8julu8qaggqrs FOREIGN KEY (sensor_id)"
+                            + " REFERENCES sensor_systems (id)) PARTITION BY RANGE (timestamp)",
+                    "CREATE UNIQUE INDEX uk_environmental_readings_sensor_timestamp"
+                            + " ON environmental_readings (sensor_id, timestamp DESC)",
+                    "CREATE INDEX idx_environmental_readings_sensor_temperature"
+                            + " ON environmental_readings"
+                            + " (sensor_id, temperature, humidity, timestamp)",
+                    "CREATE INDEX idx_environmental_readings_sensor_humidity"
+                            + " ON environmental_readings"
+                            + " (sensor_id, humidity, temperature, timestamp)",
+                    "CREATE INDEX idx_environmental_readings_timestamp_id"
+                            + " ON environmental_readings (timestamp, id)",
+                    "CREATE TABLE environmental_readings_default"
+                            + " PARTITION OF environmental_readings DEFAULT");
+
+    private static final String PARTITION_OF_READING_SQL =
+            "SELECT tableoid::regclass::text FROM environmental_readings WHERE id = ?";
+
+    private static final String EXPLAIN_COUNT_IN_RANGE_SQL =
+            "EXPLAIN SELECT count(*) FROM environmental_readings"
+                    + " WHERE sensor_id = ? AND timestamp BETWEEN ? AND ?";
+
+    @Autowired private EnvironmentalReadingPartitionService environmentalReadingPartitionService;
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private RecentReadingFilter recentReadingFilter;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SensorSystem sensorSystem;
+
+    private YearMonth currentMonth;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        UnconvUser unconvUser =
+                unconvUserRepository.save(
+                        new UnconvUser(null, "PartitionUser", "partition@email.com", "password"));
+        sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "Partitioned sensor", null, unconvUser));
+        currentMonth = YearMonth.now(ZoneOffset.UTC);
+        List<String> statements = new ArrayList<>();
+        statements.add(
+                "ALTER TABLE environmental_readings RENAME TO environmental_readings_regular");
+        INDEX_NAMES.forEach(
+                indexName ->
+                        statements.add(
+                                String.format(
+                                        "ALTER INDEX %1$s RENAME TO %1$s_regular", indexName)));
+        statements.addAll(PARTITION_TABLE_SQL);
+        execute(statements);
+    }
+
+    @Test
+    void shouldCreateMissingPartitionsOnly() {
+        assertTrue(environmentalReadingPartitionService.isPartitioned());
+
+        assertEquals(
+                List.of(currentMonth, currentMonth.plusMonths(1), currentMonth.plusMonths(2)),
+                environmentalReadingPartitionService.createPartitions(
+                        currentMonth, currentMonth.plusMonths(2)));
+        assertEquals(
+                List.of(currentMonth.minusMonths(1)),
+                environmentalReadingPartitionService.createPartitions(
+                        currentMonth.minusMonths(1), currentMonth.plusMonths(2)));
+        assertEquals(
+                List.of(
+                        currentMonth.minusMonths(1),
+                        currentMonth,
+                        currentMonth.plusMonths(1),
+                        currentMonth.plusMonths(2)),
+                environmentalReadingPartitionService.findPartitions());
+    }
+
+    @Test
+    void shouldMoveReadingsFromDefaultPartitionIntoCreatedPartition() {
+        YearMonth month = currentMonth.minusMonths(2);
+        EnvironmentalReading environmentalReading = saveReadingIn(month);
+        assertEquals(
+                "environmental_readings_default",
+                jdbcTemplate.queryForObject(
+                        PARTITION_OF_READING_SQL, String.class, environmentalReading.getId()));
+
+        environmentalReadingPartitionService.createPartitions(month, month);
+
+        assertEquals(
+                partitionName(month),
+                jdbcTemplate.queryForObject(
+                        PARTITION_OF_READING_SQL, String.class, environmentalReading.getId()));
+        assertTrue(
+                environmentalReadingRepository.findById(environmentalReading.getId()).isPresent());
+    }
+
+    @Test
+    void shouldPruneRangeQueriesToMatchingPartition() {
+        environmentalReadingPartitionService.createPartitions(
+                currentMonth.minusMonths(2), currentMonth);
+        OffsetDateTime start = currentMonth.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        String plan =
+                String.join(
+                        "\n",
+                        jdbcTemplate.queryForList(
+                                EXPLAIN_COUNT_IN_RANGE_SQL,
+                                String.class,
+                                sensorSystem.getId(),
+                                start,
+                                start.plusDays(7)));
+
+        assertTrue(plan.contains(partitionName(currentMonth)));
+        assertFalse(plan.contains(partitionName(currentMonth.minusMonths(1))));
+        assertFalse(plan.contains(partitionName(currentMonth.minusMonths(2))));
+        assertFalse(plan.contains("environmental_readings_default"));
+    }
+
+    @Test
+    void shouldDropWholePartitionsBeforeMonth() {
+        environmentalReadingPartitionService.createPartitions(
+                currentMonth.minusMonths(2), currentMonth);
+        EnvironmentalReading droppedReading = saveReadingIn(currentMonth.minusMonths(2));
+        EnvironmentalReading retainedReading = saveReadingIn(currentMonth);
+        recentReadingFilter.recordStored(List.of(droppedReading));
+
+        assertEquals(
+                new DroppedPartitions(
+                        List.of(currentMonth.minusMonths(2)), Set.of(sensorSystem.getId())),
+                environmentalReadingPartitionService.dropPartitionsBefore(
+                        currentMonth.minusMonths(1)));
+
+        assertEquals(
+                List.of(currentMonth.minusMonths(1), currentMonth),
+                environmentalReadingPartitionService.findPartitions());
+        assertEquals(1, environmentalReadingRepository.count());
+        assertTrue(environmentalReadingRepository.findById(retainedReading.getId()).isPresent());
+        assertFalse(recentReadingFilter.isKnownDuplicate(droppedReading));
+    }
+
+    private EnvironmentalReading saveReadingIn(YearMonth month) {
+        return environmentalReadingRepository.save(
+                new EnvironmentalReading(
+                        null,
+                        21.5,
+                        45.0,
+                        month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC),
+                        sensorSystem));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format(
+                "environmental_readings_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private void execute(List<String> statements) {
+        transactionTemplate.executeWithoutResult(
+                status -> statements.forEach(jdbcTemplate::execute));
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<String> statements = new ArrayList<>();
+        statements.add("DROP TABLE environmental_readings");
+        INDEX_NAMES.forEach(
+                indexName ->
+                        statements.add(
+                                String.format(
+                                        "ALTER INDEX %1$s_regular RENAME TO %1$s", indexName)));
+        statements.add(
+                "ALTER TABLE environmental_readings_regular RENAME TO environmental_readings");
+        execute(statements);
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+}
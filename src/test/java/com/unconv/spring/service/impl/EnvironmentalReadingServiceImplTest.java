@@ -1,60 +1,96 @@
 package com.unconv.spring.service.impl;
 
+import static com.unconv.spring.consts.AppConstants.CSV_IMPORT_CHUNK_SIZE;
+import static com.unconv.spring.consts.AppConstants.MAX_BATCH_INGEST_SIZE;
+import static com.unconv.spring.consts.MessageConstants.ENVT_CURSOR_REJ_INVALID;
 import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_FORMAT_ERROR;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_ACCEPTED;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_DUPLICATE;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_QUEUED;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_BUSY;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_DLTD;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_INAT;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_SENS;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_USER;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.unconv.spring.config.CsvImportConfig;
 import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorReadingSummary;
 import com.unconv.spring.domain.SensorSystem;
 import com.unconv.spring.domain.UnconvUser;
 import com.unconv.spring.dto.EnvironmentalReadingDTO;
+import com.unconv.spring.enums.CsvCompression;
+import com.unconv.spring.enums.ReadingExportFormat;
 import com.unconv.spring.enums.SensorStatus;
+import com.unconv.spring.model.ReadingPageCursor;
+import com.unconv.spring.model.SensorIngestAuthorization;
+import com.unconv.spring.model.SummarizedReading;
+import com.unconv.spring.model.response.BatchIngestResponse;
+import com.unconv.spring.model.response.CursorPagedResult;
 import com.unconv.spring.model.response.ExtremeReadingsResponse;
 import com.unconv.spring.model.response.MessageResponse;
 import com.unconv.spring.model.response.PagedResult;
+import com.unconv.spring.model.response.ReadingSeriesResponse;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
 import com.unconv.spring.persistence.SensorSystemRepository;
 import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import com.unconv.spring.service.EnvironmentalReadingIngestBuffer;
+import com.unconv.spring.service.RecentReadingCounter;
+import com.unconv.spring.service.RecentReadingFilter;
+import com.unconv.spring.service.SensorIngestAuthorizationCache;
 import com.unconv.spring.utils.CSVUtil;
+import jakarta.validation.Validator;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 @ExtendWith(MockitoExtension.class)
@@ -62,9 +98,24 @@ class EnvironmentalReadingServiceImplTest {
 
     @Mock private EnvironmentalReadingRepository environmentalReadingRepository;
 
+    @Mock
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
     @Mock private SensorSystemRepository sensorSystemRepository;
 
-    @Mock private ModelMapper modelMapper;
+    @Mock private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Mock private Validator validator;
+
+    @Mock private EnvironmentalReadingIngestBuffer environmentalReadingIngestBuffer;
+
+    @Mock private RecentReadingFilter recentReadingFilter;
+
+    @Mock private RecentReadingCounter recentReadingCounter;
+
+    @Mock private SensorIngestAuthorizationCache sensorIngestAuthorizationCache;
+
+    @Spy private CsvImportConfig csvImportConfig = new CsvImportConfig();
 
     @Spy @InjectMocks private EnvironmentalReadingServiceImpl environmentalReadingService;
 
@@ -168,6 +219,172 @@ void findAllEnvironmentalReadingsBySensorSystemIdInDescendingOrder() {
         assertEquals(environmentalReadingList.get(0).getId(), result.data().get(0).getId());
     }
 
+    @Test
+    void findEnvironmentalReadingsPageBySensorSystemIdWithCursors() {
+        UUID sensorSystemId = UUID.randomUUID();
+        OffsetDateTime timestamp = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        List<EnvironmentalReading> environmentalReadings = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            environmentalReadings.add(
+                    new EnvironmentalReading(
+                            UUID.randomUUID(), 20.0, 40.0, timestamp.minusHours(i), null));
+        }
+        SensorReadingSummary sensorReadingSummary = new SensorReadingSummary();
+        sensorReadingSummary.setReadingCount(5);
+
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        when(sensorReadingSummaryRepository.findById(sensorSystemId))
+                .thenReturn(Optional.of(sensorReadingSummary));
+        when(environmentalReadingRepository.findBySensorSystemId(
+                        any(UUID.class), any(Pageable.class)))
+                .thenReturn(environmentalReadings);
+
+        CursorPagedResult<EnvironmentalReading> firstPage =
+                environmentalReadingService.findEnvironmentalReadingsPageBySensorSystemId(
+                        sensorSystemId, null, 2, "DESC");
+
+        assertEquals(environmentalReadings.subList(0, 2), firstPage.data());
+        assertEquals(5L, firstPage.totalElements());
+        assertTrue(firstPage.hasNext());
+        assertFalse(firstPage.hasPrevious());
+        assertNull(firstPage.previousCursor());
+
+        ReadingPageCursor nextCursor = ReadingPageCursor.decode(firstPage.nextCursor());
+        assertEquals(environmentalReadings.get(1).getId(), nextCursor.id());
+        assertTrue(nextCursor.descending());
+        assertFalse(nextCursor.backward());
+
+        // Stepping back from the third reading fetches the readings after it in ascending order
+        String previousCursor =
+                new ReadingPageCursor(
+                                environmentalReadings.get(2).getTimestamp(),
+                                environmentalReadings.get(2).getId(),
+                                true,
+                                true)
+                        .encode();
+        when(environmentalReadingRepository.findBySensorSystemIdAfterKey(
+                        sensorSystemId,
+                        environmentalReadings.get(2).getTimestamp(),
+                        environmentalReadings.get(2).getId(),
+                        3))
+                .thenReturn(List.of(environmentalReadings.get(1), environmentalReadings.get(0)));
+
+        CursorPagedResult<EnvironmentalReading> previousPage =
+                environmentalReadingService.findEnvironmentalReadingsPageBySensorSystemId(
+                        sensorSystemId, previousCursor, 2, "ASC");
+
+        assertEquals(environmentalReadings.subList(0, 2), previousPage.data());
+        assertTrue(previousPage.hasNext());
+        assertFalse(previousPage.hasPrevious());
+    }
+
+    @Test
+    void findEnvironmentalReadingsPageBySensorSystemIdLeavesTotalOutWithoutSummaries() {
+        UUID sensorSystemId = UUID.randomUUID();
+        EnvironmentalReading environmentalReading =
+                new EnvironmentalReading(
+                        UUID.randomUUID(),
+                        20.0,
+                        40.0,
+                        OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+                        null);
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(false);
+        when(environmentalReadingRepository.findBySensorSystemId(
+                        any(UUID.class), any(Pageable.class)))
+                .thenReturn(List.of(environmentalReading));
+
+        CursorPagedResult<EnvironmentalReading> page =
+                environmentalReadingService.findEnvironmentalReadingsPageBySensorSystemId(
+                        sensorSystemId, null, 2, "DESC");
+
+        assertEquals(List.of(environmentalReading), page.data());
+        assertNull(page.totalElements());
+        verifyNoInteractions(sensorReadingSummaryRepository);
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentExceptionWhenPageCursorIsInvalid() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(false);
+
+        IllegalArgumentException exception =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                environmentalReadingService.findEnvironmentalReadingsPage(
+                                        "not-a-cursor", 10, "DESC"));
+
+        assertEquals(ENVT_CURSOR_REJ_INVALID, exception.getMessage());
+    }
+
+    @Test
+    void exportReadingsWritesEachStreamedReadingInTheRequestedFormat() throws IOException {
+        UUID sensorSystemId = UUID.randomUUID();
+        OffsetDateTime start = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime end = start.plusDays(1);
+        when(environmentalReadingRepository.streamReadings(
+                        eq(sensorSystemId), eq(start), eq(end), any()))
+                .thenAnswer(
+                        invocation -> {
+                            Consumer<EnvironmentalReadingProjection> consumer =
+                                    invocation.getArgument(3);
+                            consumer.accept(new SummarizedReading(20.5, 40.0, start));
+                            consumer.accept(new SummarizedReading(-1.25, 55.0, start.plusHours(1)));
+                            return 2L;
+                        });
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long ndjsonExported =
+                environmentalReadingService.exportReadings(
+                        sensorSystemId, start, end, ReadingExportFormat.NDJSON, ndjson);
+        long csvExported =
+                environmentalReadingService.exportReadings(
+                        sensorSystemId, start, end, ReadingExportFormat.CSV, csv);
+
+        assertEquals(2, ndjsonExported);
+        assertEquals(2, csvExported);
+        assertEquals(
+                "{\"temperature\":20.5,\"humidity\":40.0,\"timestamp\":\"2024-01-01T00:00:00Z\"}\n"
+                        + "{\"temperature\":-1.25,\"humidity\":55.0,"
+                        + "\"timestamp\":\"2024-01-01T01:00:00Z\"}\n",
+                ndjson.toString(StandardCharsets.UTF_8));
+        assertEquals(
+                "temperature,humidity,timestamp\n"
+                        + "20.5,40.0,2024-01-01T00:00:00Z\n"
+                        + "-1.25,55.0,2024-01-01T01:00:00Z\n",
+                csv.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void findReadingSeriesLaysProjectedReadingsOutAsParallelArrays() {
+        SensorSystem sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+        sensorSystem.setSensorName("Series sensor");
+        OffsetDateTime start = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime end = start.plusDays(1);
+        when(environmentalReadingRepository
+                        .findBySensorSystemIdAndTimestampBetweenOrderByTimestampAsc(
+                                sensorSystem.getId(), start, end))
+                .thenReturn(
+                        List.of(
+                                new SummarizedReading(20.5, 40.0, start.plusHours(1)),
+                                new SummarizedReading(21.0, 42.5, start.plusHours(2))));
+
+        ReadingSeriesResponse readingSeries =
+                environmentalReadingService.findReadingSeries(sensorSystem, start, end);
+
+        assertEquals(sensorSystem.getId(), readingSeries.sensorSystemId());
+        assertEquals("Series sensor", readingSeries.sensorName());
+        assertArrayEquals(
+                new long[] {
+                    start.plusHours(1).toInstant().toEpochMilli(),
+                    start.plusHours(2).toInstant().toEpochMilli()
+                },
+                readingSeries.timestamps());
+        assertArrayEquals(new double[] {20.5, 21.0}, readingSeries.temperatures());
+        assertArrayEquals(new double[] {40.0, 42.5}, readingSeries.humidities());
+    }
+
     @Test
     void findEnvironmentalReadingById() {
         when(environmentalReadingRepository.findById(any(UUID.class)))
@@ -199,11 +416,45 @@ void saveEnvironmentalReading() {
 
         when(environmentalReadingRepository.save(any(EnvironmentalReading.class)))
                 .thenReturn(environmentalReading);
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
 
         EnvironmentalReading result =
                 environmentalReadingService.saveEnvironmentalReading(environmentalReading);
 
         assertEquals(environmentalReading.getId(), result.getId());
+        verify(environmentalReadingAggregateRepository, never()).removeReadings(anyList());
+        verify(environmentalReadingAggregateRepository)
+                .mergeReadings(List.of(environmentalReading));
+    }
+
+    @Test
+    void saveEnvironmentalReadingMovesUpdatedReadingBetweenRollups() {
+        SensorSystem sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+        OffsetDateTime timestamp = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        EnvironmentalReading storedReading =
+                new EnvironmentalReading(
+                        environmentalReadingId, 20.0, 40.0, timestamp, sensorSystem);
+        EnvironmentalReading updatedReading =
+                new EnvironmentalReading(
+                        environmentalReadingId, 25.0, 45.0, timestamp.plusHours(1), sensorSystem);
+
+        when(environmentalReadingRepository.findById(environmentalReadingId))
+                .thenReturn(Optional.of(storedReading));
+        when(environmentalReadingRepository.save(updatedReading)).thenReturn(updatedReading);
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+
+        environmentalReadingService.saveEnvironmentalReading(updatedReading);
+
+        ArgumentCaptor<List<EnvironmentalReading>> removedReadings =
+                ArgumentCaptor.forClass(List.class);
+        verify(environmentalReadingAggregateRepository).removeReadings(removedReadings.capture());
+        assertEquals(1, removedReadings.getValue().size());
+        assertEquals(20.0, removedReadings.getValue().get(0).getTemperature());
+        assertEquals(timestamp, removedReadings.getValue().get(0).getTimestamp());
+        verify(environmentalReadingAggregateRepository).mergeReadings(List.of(updatedReading));
+        verify(recentReadingFilter).forgetSensorSystem(sensorSystem.getId());
+        verify(recentReadingCounter).forgetSensorSystem(sensorSystem.getId());
     }
 
     @Test
@@ -222,17 +473,11 @@ void generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReadin
         environmentalReadingDTO.setTimestamp(OffsetDateTime.now());
         environmentalReadingDTO.setSensorSystem(sensorSystem);
 
-        EnvironmentalReading pEnvironmentalReading = new EnvironmentalReading();
-        pEnvironmentalReading.setSensorSystem(sensorSystem);
-
-        when(sensorSystemRepository.findSensorSystemById(any())).thenReturn(sensorSystem);
+        when(sensorIngestAuthorizationCache.find(any()))
+                .thenReturn(Optional.of(sensorIngestAuthorizationOf(sensorSystem)));
+        when(sensorSystemRepository.getReferenceById(any())).thenReturn(sensorSystem);
         when(authentication.getName()).thenReturn("TestUser");
-        when(modelMapper.map(any(EnvironmentalReadingDTO.class), eq(EnvironmentalReading.class)))
-                .thenReturn(pEnvironmentalReading);
-        when(environmentalReadingRepository.save(any(EnvironmentalReading.class)))
-                .thenReturn(pEnvironmentalReading);
-        when(modelMapper.map(any(EnvironmentalReading.class), eq(EnvironmentalReadingDTO.class)))
-                .thenReturn(environmentalReadingDTO);
+        when(environmentalReadingRepository.batchInsert(anyList())).thenReturn(1);
 
         // When
         ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
@@ -245,6 +490,173 @@ void generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReadin
         assertEquals(ENVT_RECORD_ACCEPTED, Objects.requireNonNull(response.getBody()).message());
     }
 
+    @Test
+    void shouldReturnOkWithoutStoringWhenReadingIsDuplicate() {
+        // Given
+        Authentication authentication = mock(Authentication.class);
+        EnvironmentalReadingDTO environmentalReadingDTO = new EnvironmentalReadingDTO();
+        SensorSystem sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+        sensorSystem.setSensorStatus(SensorStatus.ACTIVE);
+        UnconvUser unconvUser = new UnconvUser();
+        unconvUser.setUsername("TestUser");
+        sensorSystem.setUnconvUser(unconvUser);
+
+        environmentalReadingDTO.setTimestamp(OffsetDateTime.now());
+        environmentalReadingDTO.setSensorSystem(sensorSystem);
+
+        when(sensorIngestAuthorizationCache.find(any()))
+                .thenReturn(Optional.of(sensorIngestAuthorizationOf(sensorSystem)));
+        when(sensorSystemRepository.getReferenceById(any())).thenReturn(sensorSystem);
+        when(authentication.getName()).thenReturn("TestUser");
+        when(environmentalReadingRepository.batchInsert(anyList())).thenReturn(0);
+
+        // When
+        ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
+                environmentalReadingService
+                        .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
+                                environmentalReadingDTO, authentication);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ENVT_RECORD_DUPLICATE, Objects.requireNonNull(response.getBody()).message());
+        verify(recentReadingFilter).recordStored(anyList());
+    }
+
+    @Test
+    void shouldSkipDatabaseWhenRecentReadingFilterKnowsTheReading() {
+        // Given
+        Authentication authentication = mock(Authentication.class);
+        EnvironmentalReadingDTO environmentalReadingDTO = new EnvironmentalReadingDTO();
+        SensorSystem sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+        sensorSystem.setSensorStatus(SensorStatus.ACTIVE);
+        UnconvUser unconvUser = new UnconvUser();
+        unconvUser.setUsername("TestUser");
+        sensorSystem.setUnconvUser(unconvUser);
+
+        environmentalReadingDTO.setTimestamp(OffsetDateTime.now());
+        environmentalReadingDTO.setSensorSystem(sensorSystem);
+
+        when(sensorIngestAuthorizationCache.find(any()))
+                .thenReturn(Optional.of(sensorIngestAuthorizationOf(sensorSystem)));
+        when(sensorSystemRepository.getReferenceById(any())).thenReturn(sensorSystem);
+        when(authentication.getName()).thenReturn("TestUser");
+        when(recentReadingFilter.isKnownDuplicate(any(EnvironmentalReading.class)))
+                .thenReturn(true);
+
+        // When
+        ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
+                environmentalReadingService
+                        .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
+                                environmentalReadingDTO, authentication);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ENVT_RECORD_DUPLICATE, Objects.requireNonNull(response.getBody()).message());
+        verify(environmentalReadingRepository, never()).batchInsert(anyList());
+        verify(environmentalReadingIngestBuffer, never()).offer(any(EnvironmentalReading.class));
+    }
+
+    @Test
+    void shouldQueueEnvironmentalReadingWhenWriteBehindIngestIsEnabled() {
+        // Given
+        Authentication authentication = mock(Authentication.class);
+        EnvironmentalReadingDTO environmentalReadingDTO = new EnvironmentalReadingDTO();
+        SensorSystem sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+        sensorSystem.setSensorStatus(SensorStatus.ACTIVE);
+        sensorSystem.setDeleted(false);
+        UnconvUser unconvUser = new UnconvUser();
+        unconvUser.setUsername("TestUser");
+        sensorSystem.setUnconvUser(unconvUser);
+
+        environmentalReadingDTO.setTimestamp(OffsetDateTime.now());
+        environmentalReadingDTO.setSensorSystem(sensorSystem);
+
+        when(sensorIngestAuthorizationCache.find(any()))
+                .thenReturn(Optional.of(sensorIngestAuthorizationOf(sensorSystem)));
+        when(sensorSystemRepository.getReferenceById(any())).thenReturn(sensorSystem);
+        when(authentication.getName()).thenReturn("TestUser");
+        when(environmentalReadingIngestBuffer.isEnabled()).thenReturn(true);
+        when(environmentalReadingIngestBuffer.offer(any(EnvironmentalReading.class)))
+                .thenReturn(true);
+
+        // When
+        ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
+                environmentalReadingService
+                        .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
+                                environmentalReadingDTO, authentication);
+
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(ENVT_RECORD_QUEUED, Objects.requireNonNull(response.getBody()).message());
+        assertNotNull(response.getBody().entity().getId());
+        verify(environmentalReadingRepository, never()).save(any(EnvironmentalReading.class));
+    }
+
+    @Test
+    void shouldReturnTooManyRequestsWhenWriteBehindIngestQueueIsFull() {
+        // Given
+        Authentication authentication = mock(Authentication.class);
+        EnvironmentalReadingDTO environmentalReadingDTO = new EnvironmentalReadingDTO();
+        SensorSystem sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+        sensorSystem.setSensorStatus(SensorStatus.ACTIVE);
+        sensorSystem.setDeleted(false);
+        UnconvUser unconvUser = new UnconvUser();
+        unconvUser.setUsername("TestUser");
+        sensorSystem.setUnconvUser(unconvUser);
+
+        environmentalReadingDTO.setTimestamp(OffsetDateTime.now());
+        environmentalReadingDTO.setSensorSystem(sensorSystem);
+
+        when(sensorIngestAuthorizationCache.find(any()))
+                .thenReturn(Optional.of(sensorIngestAuthorizationOf(sensorSystem)));
+        when(sensorSystemRepository.getReferenceById(any())).thenReturn(sensorSystem);
+        when(authentication.getName()).thenReturn("TestUser");
+        when(environmentalReadingIngestBuffer.isEnabled()).thenReturn(true);
+        when(environmentalReadingIngestBuffer.offer(any(EnvironmentalReading.class)))
+                .thenReturn(false);
+        when(environmentalReadingIngestBuffer.getRetryAfter()).thenReturn(Duration.ofSeconds(2));
+
+        // When
+        ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
+                environmentalReadingService
+                        .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
+                                environmentalReadingDTO, authentication);
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(ENVT_RECORD_REJ_BUSY, Objects.requireNonNull(response.getBody()).message());
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenSavingEnvironmentalReadingForUnknownSensorSystem() {
+        // Given
+        Authentication authentication = mock(Authentication.class);
+        EnvironmentalReadingDTO environmentalReadingDTO = new EnvironmentalReadingDTO();
+        SensorSystem sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+
+        environmentalReadingDTO.setSensorSystem(sensorSystem);
+
+        when(sensorIngestAuthorizationCache.find(sensorSystem.getId()))
+                .thenReturn(Optional.empty());
+
+        // When
+        ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
+                environmentalReadingService
+                        .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
+                                environmentalReadingDTO, authentication);
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(ENVT_RECORD_REJ_SENS, Objects.requireNonNull(response.getBody()).message());
+        verify(sensorSystemRepository, never()).getReferenceById(any());
+    }
+
     @Test
     void shouldReturnUnauthorizedWhenSavingEnvironmentalReadingWithUserMismatched() {
         // Given
@@ -258,7 +670,8 @@ void shouldReturnUnauthorizedWhenSavingEnvironmentalReadingWithUserMismatched()
         environmentalReadingDTO.setSensorSystem(sensorSystem);
 
         when(authentication.getName()).thenReturn("wrongUser");
-        when(sensorSystemRepository.findSensorSystemById(any())).thenReturn(sensorSystem);
+        when(sensorIngestAuthorizationCache.find(any()))
+                .thenReturn(Optional.of(sensorIngestAuthorizationOf(sensorSystem)));
 
         // When
         ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
@@ -289,7 +702,8 @@ void shouldRejectWhenSavingEnvironmentalReadingWithSensorSystemDeleted() {
         EnvironmentalReading pEnvironmentalReading = new EnvironmentalReading();
         pEnvironmentalReading.setSensorSystem(sensorSystem);
 
-        when(sensorSystemRepository.findSensorSystemById(any())).thenReturn(sensorSystem);
+        when(sensorIngestAuthorizationCache.find(any()))
+                .thenReturn(Optional.of(sensorIngestAuthorizationOf(sensorSystem)));
         when(authentication.getName()).thenReturn("TestUser");
 
         ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
@@ -318,7 +732,8 @@ void shouldRejectWhenSavingEnvironmentalReadingWithInactiveSensorSystem() {
         EnvironmentalReading pEnvironmentalReading = new EnvironmentalReading();
         pEnvironmentalReading.setSensorSystem(sensorSystem);
 
-        when(sensorSystemRepository.findSensorSystemById(any())).thenReturn(sensorSystem);
+        when(sensorIngestAuthorizationCache.find(any()))
+                .thenReturn(Optional.of(sensorIngestAuthorizationOf(sensorSystem)));
         when(authentication.getName()).thenReturn("TestUser");
 
         ResponseEntity<MessageResponse<EnvironmentalReadingDTO>> response =
@@ -330,45 +745,188 @@ void shouldRejectWhenSavingEnvironmentalReadingWithInactiveSensorSystem() {
         assertEquals(ENVT_RECORD_REJ_INAT, Objects.requireNonNull(response.getBody()).message());
     }
 
+    @Test
+    void validateSensorSystemsAndSaveEnvironmentalReadingsInBatch() {
+        Authentication authentication = mock(Authentication.class);
+        UnconvUser unconvUser = new UnconvUser();
+        unconvUser.setUsername("TestUser");
+        UnconvUser otherUnconvUser = new UnconvUser();
+        otherUnconvUser.setUsername("OtherUser");
+
+        SensorSystem sensorSystem =
+                new SensorSystem(UUID.randomUUID(), "Own sensor", null, unconvUser);
+        SensorSystem otherSensorSystem =
+                new SensorSystem(UUID.randomUUID(), "Other sensor", null, otherUnconvUser);
+        SensorSystem unknownSensorSystem = new SensorSystem();
+        unknownSensorSystem.setId(UUID.randomUUID());
+
+        OffsetDateTime timestamp = OffsetDateTime.now().minusMinutes(5);
+        List<EnvironmentalReadingDTO> environmentalReadingDTOs =
+                List.of(
+                        new EnvironmentalReadingDTO(null, 21L, 40L, timestamp, sensorSystem),
+                        new EnvironmentalReadingDTO(null, 22L, 41L, timestamp, sensorSystem),
+                        new EnvironmentalReadingDTO(null, 23L, 42L, timestamp, otherSensorSystem),
+                        new EnvironmentalReadingDTO(
+                                null, 24L, 43L, timestamp, unknownSensorSystem));
+
+        when(authentication.getName()).thenReturn("TestUser");
+        when(sensorIngestAuthorizationCache.findAll(any()))
+                .thenReturn(
+                        Map.of(
+                                sensorSystem.getId(),
+                                sensorIngestAuthorizationOf(sensorSystem),
+                                otherSensorSystem.getId(),
+                                sensorIngestAuthorizationOf(otherSensorSystem)));
+        when(sensorSystemRepository.getReferenceById(sensorSystem.getId()))
+                .thenReturn(sensorSystem);
+        when(environmentalReadingRepository.batchInsertIfAbsent(any()))
+                .thenAnswer(
+                        invocation -> {
+                            List<EnvironmentalReading> readings = invocation.getArgument(0);
+                            readings.forEach(reading -> reading.setId(UUID.randomUUID()));
+                            boolean[] inserted = new boolean[readings.size()];
+                            Arrays.fill(inserted, true);
+                            return inserted;
+                        });
+
+        ResponseEntity<BatchIngestResponse> response =
+                environmentalReadingService
+                        .validateSensorSystemsAndSaveEnvironmentalReadingsInBatch(
+                                environmentalReadingDTOs, authentication);
+
+        BatchIngestResponse body = Objects.requireNonNull(response.getBody());
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(2, body.acceptedCount());
+        assertEquals(2, body.rejectedCount());
+        assertNotNull(body.results().get(0).id());
+        assertNotNull(body.results().get(1).id());
+        assertEquals(ENVT_RECORD_REJ_USER, body.results().get(2).message());
+        assertEquals(ENVT_RECORD_REJ_SENS, body.results().get(3).message());
+        verify(sensorIngestAuthorizationCache, times(1)).findAll(any());
+        verify(environmentalReadingRepository, times(1)).batchInsertIfAbsent(any());
+    }
+
+    @Test
+    void shouldThrowIllegalArgumentExceptionWhenBatchExceedsMaximumSize() {
+        Authentication authentication = mock(Authentication.class);
+        List<EnvironmentalReadingDTO> environmentalReadingDTOs =
+                Collections.nCopies(MAX_BATCH_INGEST_SIZE + 1, new EnvironmentalReadingDTO());
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        environmentalReadingService
+                                .validateSensorSystemsAndSaveEnvironmentalReadingsInBatch(
+                                        environmentalReadingDTOs, authentication));
+    }
+
     @Test
     void parseFromCSVAndSaveEnvironmentalReading() {
         SensorSystem mockSensorSystem = new SensorSystem();
-        String csvContent = "timestamp,value\n2024-01-01T00:00:00,23.5";
+        StringBuilder csvContent = new StringBuilder("temperature,humidity,timestamp\n");
+        for (int i = 0; i <= CSV_IMPORT_CHUNK_SIZE; i++) {
+            csvContent.append("23.5,45.0,2024-01-01T00:00:00Z\n");
+        }
         MockMultipartFile mockFile =
                 new MockMultipartFile(
                         "file",
                         "readings.csv",
                         "text/csv",
-                        csvContent.getBytes(StandardCharsets.UTF_8));
+                        csvContent.toString().getBytes(StandardCharsets.UTF_8));
 
-        EnvironmentalReading reading =
-                new EnvironmentalReading(
-                        UUID.randomUUID(),
-                        13L,
-                        75L,
-                        OffsetDateTime.of(LocalDateTime.of(2023, 1, 17, 17, 39), ZoneOffset.UTC),
-                        null);
+        int result =
+                environmentalReadingService.parseFromCSVAndSaveEnvironmentalReading(
+                        mockFile, mockSensorSystem);
 
-        List<EnvironmentalReading> readingList = List.of(reading);
+        assertEquals(CSV_IMPORT_CHUNK_SIZE + 1, result);
+        verify(environmentalReadingRepository, times(2)).batchInsert(anyList());
+        verify(recentReadingFilter, times(2)).recordStored(anyList());
+    }
 
-        // Mock the static method
-        try (MockedStatic<CSVUtil> mockedCsvUtil = mockStatic(CSVUtil.class)) {
-            mockedCsvUtil
-                    .when(
-                            () ->
-                                    CSVUtil.csvToEnvironmentalReadings(
-                                            any(InputStream.class), eq(mockSensorSystem)))
-                    .thenReturn(readingList);
+    @Test
+    void shouldCopyCSVChunksWhenDatabaseSupportsCopy() {
+        SensorSystem mockSensorSystem = new SensorSystem();
+        StringBuilder csvContent = new StringBuilder("temperature,humidity,timestamp\n");
+        for (int i = 0; i <= CSV_IMPORT_CHUNK_SIZE; i++) {
+            csvContent.append("23.5,45.0,2024-01-01T00:00:00Z\n");
+        }
+        MockMultipartFile mockFile =
+                new MockMultipartFile(
+                        "file",
+                        "readings.csv",
+                        "text/csv",
+                        csvContent.toString().getBytes(StandardCharsets.UTF_8));
 
-            when(environmentalReadingRepository.saveAll(readingList)).thenReturn(readingList);
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
 
-            int result =
-                    environmentalReadingService.parseFromCSVAndSaveEnvironmentalReading(
-                            mockFile, mockSensorSystem);
+        int result =
+                environmentalReadingService.parseFromCSVAndSaveEnvironmentalReading(
+                        mockFile, mockSensorSystem);
 
-            assertEquals(1, result);
-            verify(environmentalReadingRepository).saveAll(readingList);
+        assertEquals(CSV_IMPORT_CHUNK_SIZE + 1, result);
+        verify(environmentalReadingRepository, times(2)).copyInsert(anyList());
+        verify(environmentalReadingRepository, never()).batchInsert(anyList());
+    }
+
+    @Test
+    void shouldParseCSVChunksInParallelWhenFileExceedsThreshold() {
+        SensorSystem mockSensorSystem = new SensorSystem();
+        StringBuilder csvContent = new StringBuilder("temperature,humidity,timestamp\n");
+        for (int i = 0; i < CSV_IMPORT_CHUNK_SIZE * 3; i++) {
+            csvContent.append(i).append(",45.0,2024-01-01T00:00:00Z\n");
+        }
+        MockMultipartFile mockFile =
+                new MockMultipartFile(
+                        "file",
+                        "readings.csv",
+                        "text/csv",
+                        csvContent.toString().getBytes(StandardCharsets.UTF_8));
+
+        csvImportConfig.setParallelParseThreshold(DataSize.ofBytes(0));
+        ForkJoinPool csvParsingPool = new ForkJoinPool(2);
+        ReflectionTestUtils.setField(environmentalReadingService, "csvParsingPool", csvParsingPool);
+        List<Double> savedTemperatures = new ArrayList<>();
+        when(environmentalReadingRepository.batchInsert(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<EnvironmentalReading> chunk = invocation.getArgument(0);
+                            chunk.forEach(r -> savedTemperatures.add(r.getTemperature()));
+                            return chunk.size();
+                        });
+
+        int result =
+                environmentalReadingService.parseFromCSVAndSaveEnvironmentalReading(
+                        mockFile, mockSensorSystem);
+        csvParsingPool.shutdown();
+
+        assertEquals(CSV_IMPORT_CHUNK_SIZE * 3, result);
+        verify(environmentalReadingRepository, times(3)).batchInsert(anyList());
+        for (int i = 0; i < savedTemperatures.size(); i++) {
+            assertEquals((double) i, savedTemperatures.get(i));
+        }
+    }
+
+    @Test
+    void shouldDecompressGzipCSVFileWhileParsing() throws IOException {
+        SensorSystem mockSensorSystem = new SensorSystem();
+        StringBuilder csvContent = new StringBuilder("temperature,humidity,timestamp\n");
+        for (int i = 0; i < CSV_IMPORT_CHUNK_SIZE + 1; i++) {
+            csvContent.append(i).append(",45.0,2024-01-01T00:00:00Z\n");
         }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(csvContent.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        MockMultipartFile mockFile =
+                new MockMultipartFile(
+                        "file", "readings.csv.gz", "application/gzip", compressed.toByteArray());
+
+        int result =
+                environmentalReadingService.parseFromCSVAndSaveEnvironmentalReading(
+                        mockFile, mockSensorSystem);
+
+        assertEquals(CSV_IMPORT_CHUNK_SIZE + 1, result);
+        verify(environmentalReadingRepository, times(2)).batchInsert(anyList());
     }
 
     @Test
@@ -396,6 +954,31 @@ void deleteEnvironmentalReadingById() {
         verify(environmentalReadingRepository, times(1)).deleteById(environmentalReadingId);
     }
 
+    @Test
+    void deleteEnvironmentalReadingByIdRemovesReadingFromRollups() {
+        SensorSystem sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+        EnvironmentalReading storedReading =
+                new EnvironmentalReading(
+                        environmentalReadingId,
+                        20.0,
+                        40.0,
+                        OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+                        sensorSystem);
+        when(environmentalReadingRepository.findById(environmentalReadingId))
+                .thenReturn(Optional.of(storedReading));
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+
+        environmentalReadingService.deleteEnvironmentalReadingById(environmentalReadingId);
+
+        verify(environmentalReadingRepository).deleteById(environmentalReadingId);
+        ArgumentCaptor<List<EnvironmentalReading>> removedReadings =
+                ArgumentCaptor.forClass(List.class);
+        verify(environmentalReadingAggregateRepository).removeReadings(removedReadings.capture());
+        assertEquals(environmentalReadingId, removedReadings.getValue().get(0).getId());
+        assertEquals(20.0, removedReadings.getValue().get(0).getTemperature());
+    }
+
     @Test
     void verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings() {
         SensorSystem mockSensorSystem = new SensorSystem();
@@ -408,10 +991,13 @@ void verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings() {
                         csvContent.getBytes(StandardCharsets.UTF_8));
 
         try (MockedStatic<CSVUtil> mockedCsvUtil = mockStatic(CSVUtil.class)) {
-            mockedCsvUtil.when(() -> CSVUtil.isOfCSVFormat(mockFile)).thenReturn(true);
+            mockedCsvUtil
+                    .when(() -> CSVUtil.getCsvCompression("text/csv", null))
+                    .thenReturn(Optional.of(CsvCompression.NONE));
             doReturn(5)
                     .when(environmentalReadingService)
-                    .parseFromCSVAndSaveEnvironmentalReading(mockFile, mockSensorSystem);
+                    .parseFromCSVAndSaveEnvironmentalReading(
+                            mockFile, CsvCompression.NONE, mockSensorSystem);
 
             ResponseEntity<String> response =
                     environmentalReadingService
@@ -435,7 +1021,9 @@ void shouldReturnBadRequestWhenFileIsNotCSVFormat() {
                         "not csv".getBytes(StandardCharsets.UTF_8));
 
         try (MockedStatic<CSVUtil> mockedCsvUtil = mockStatic(CSVUtil.class)) {
-            mockedCsvUtil.when(() -> CSVUtil.isOfCSVFormat(mockFile)).thenReturn(false);
+            mockedCsvUtil
+                    .when(() -> CSVUtil.getCsvCompression("text/plain", null))
+                    .thenReturn(Optional.empty());
 
             ResponseEntity<String> response =
                     environmentalReadingService
@@ -458,10 +1046,13 @@ void shouldReturnExpectationFailedWhenExceptionOccursDuringParsing() {
                         "timestamp,value\n".getBytes(StandardCharsets.UTF_8));
 
         try (MockedStatic<CSVUtil> mockedCsvUtil = mockStatic(CSVUtil.class)) {
-            mockedCsvUtil.when(() -> CSVUtil.isOfCSVFormat(mockFile)).thenReturn(true);
+            mockedCsvUtil
+                    .when(() -> CSVUtil.getCsvCompression("text/csv", null))
+                    .thenReturn(Optional.of(CsvCompression.NONE));
             doThrow(new RuntimeException("Parsing error"))
                     .when(environmentalReadingService)
-                    .parseFromCSVAndSaveEnvironmentalReading(mockFile, sensorSystem);
+                    .parseFromCSVAndSaveEnvironmentalReading(
+                            mockFile, CsvCompression.NONE, sensorSystem);
 
             ResponseEntity<String> response =
                     environmentalReadingService
@@ -478,6 +1069,55 @@ void getExtremeReadingsResponseBySensorSystemId() {
         UUID sensorSystemId = UUID.randomUUID();
         OffsetDateTime now = OffsetDateTime.now();
 
+        SensorReadingSummary sensorReadingSummary = new SensorReadingSummary();
+        sensorReadingSummary.setSensorSystemId(sensorSystemId);
+        sensorReadingSummary.setWarmestTemperature(64.0);
+        sensorReadingSummary.setWarmestHumidity(34.0);
+        sensorReadingSummary.setWarmestTimestamp(now);
+        sensorReadingSummary.setColdestTemperature(12.0);
+        sensorReadingSummary.setColdestHumidity(30.0);
+        sensorReadingSummary.setColdestTimestamp(now.minusDays(1));
+        sensorReadingSummary.setMostHumidTemperature(50.0);
+        sensorReadingSummary.setMostHumidHumidity(80.0);
+        sensorReadingSummary.setMostHumidTimestamp(now.minusHours(2));
+        sensorReadingSummary.setLeastHumidTemperature(25.0);
+        sensorReadingSummary.setLeastHumidHumidity(20.0);
+        sensorReadingSummary.setLeastHumidTimestamp(now.minusHours(3));
+
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        when(sensorReadingSummaryRepository.findById(sensorSystemId))
+                .thenReturn(Optional.of(sensorReadingSummary));
+
+        ExtremeReadingsResponse response =
+                environmentalReadingService.getExtremeReadingsResponseBySensorSystemId(
+                        sensorSystemId);
+
+        assertNotNull(response);
+        assertEquals(64.0, response.getMaxTemperature().getTemperature());
+        assertEquals(12.0, response.getMinTemperature().getTemperature());
+        assertEquals(80.0, response.getMaxHumidity().getHumidity());
+        assertEquals(20.0, response.getMinHumidity().getHumidity());
+        assertEquals(now.minusHours(3), response.getMinHumidity().getTimestamp());
+    }
+
+    @Test
+    void getExtremeReadingsResponseBySensorSystemIdWithoutReadings() {
+        UUID sensorSystemId = UUID.randomUUID();
+
+        ExtremeReadingsResponse response =
+                environmentalReadingService.getExtremeReadingsResponseBySensorSystemId(
+                        sensorSystemId);
+
+        assertNotNull(response);
+        assertNull(response.getMaxTemperature());
+        assertNull(response.getMinHumidity());
+    }
+
+    @Test
+    void getExtremeReadingsResponseBySensorSystemIdWithoutSummary() {
+        UUID sensorSystemId = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+
         MockEnvironmentalReadingProjection maxTemp =
                 new MockEnvironmentalReadingProjection(64.0, 34.0, now);
         MockEnvironmentalReadingProjection minTemp =
@@ -487,6 +1127,7 @@ void getExtremeReadingsResponseBySensorSystemId() {
         MockEnvironmentalReadingProjection minHumidity =
                 new MockEnvironmentalReadingProjection(25.0, 20.0, now.minusHours(3));
 
+        // No summary is kept off PostgreSQL, so the readings are sorted instead
         when(environmentalReadingRepository.findFirstBySensorSystemIdOrderByTemperatureDesc(
                         sensorSystemId))
                 .thenReturn(maxTemp);
@@ -504,11 +1145,10 @@ void getExtremeReadingsResponseBySensorSystemId() {
                 environmentalReadingService.getExtremeReadingsResponseBySensorSystemId(
                         sensorSystemId);
 
-        assertNotNull(response);
-        assertEquals(64.0, response.getMaxTemperature().getTemperature());
-        assertEquals(12.0, response.getMinTemperature().getTemperature());
-        assertEquals(80.0, response.getMaxHumidity().getHumidity());
-        assertEquals(20.0, response.getMinHumidity().getHumidity());
+        assertEquals(maxTemp, response.getMaxTemperature());
+        assertEquals(minTemp, response.getMinTemperature());
+        assertEquals(maxHumidity, response.getMaxHumidity());
+        assertEquals(minHumidity, response.getMinHumidity());
     }
 
     @Test
@@ -536,6 +1176,15 @@ void findBySensorSystemIdAndTimestampBetween() {
                 .findBySensorSystemIdAndTimestampBetween(sensorSystemId, startTime, endTime);
     }
 
+    private static SensorIngestAuthorization sensorIngestAuthorizationOf(
+            SensorSystem sensorSystem) {
+        return new SensorIngestAuthorization(
+                sensorSystem.getId(),
+                sensorSystem.getUnconvUser().getUsername(),
+                sensorSystem.isDeleted(),
+                sensorSystem.getSensorStatus());
+    }
+
     public record MockEnvironmentalReadingProjection(
             double temperature, double humidity, OffsetDateTime timestamp)
             implements EnvironmentalReadingProjection {
@@ -0,0 +1,293 @@
+package com.unconv.spring.service.impl;
+
+import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.generateMockDataForDailyStats;
+import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.generateMockDataForHourlyStats;
+import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.generateMockDataForQuarterHourlyStats;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.enums.StatsAggregate;
+import com.unconv.spring.model.ReadingStatsQuery;
+import com.unconv.spring.model.response.ReadingStatsBucket;
+import com.unconv.spring.model.response.ReadingStatsResponse;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
+import com.unconv.spring.persistence.EnvironmentalReadingQuantileBinRepository;
+import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.persistence.UnconvUserRepository;
+import com.unconv.spring.service.EnvironmentalReadingStatsService;
+import com.unconv.spring.utils.QuantileSketch;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks that the averages read from the rollups match the ones computed in memory from the same
+ * readings, that the percentiles estimated from the rollups stay close to the exact ones, and that
+ * the buckets averaged in the database are aligned to UTC.
+ */
+class EnvironmentalReadingStatsServiceIT extends AbstractIntegrationTest {
+
+    private static final OffsetDateTime FIRST_DAY =
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired private EnvironmentalReadingStatsService environmentalReadingStatsService;
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Autowired
+    private EnvironmentalReadingQuantileBinRepository environmentalReadingQuantileBinRepository;
+
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SensorSystem sensorSystem;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        UnconvUser unconvUser =
+                unconvUserRepository.save(
+                        new UnconvUser(null, "StatsUser", "stats@email.com", "password"));
+        sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "Stats sensor", null, unconvUser));
+    }
+
+    @Test
+    void shouldAverageQuarterHourlyRollups() {
+        List<EnvironmentalReading> environmentalReadings =
+                insert(generateMockDataForQuarterHourlyStats(sensorSystem, 50));
+
+        Map<OffsetDateTime, Double> averageTemps =
+                environmentalReadingStatsService.getAverageTempsForQuarterHourly(
+                        sensorSystem.getId());
+
+        assertSameAverages(
+                expectedAverages(
+                        environmentalReadings, Duration.ofHours(3), Duration.ofMinutes(15)),
+                averageTemps);
+    }
+
+    @Test
+    void shouldAverageHourlyRollups() {
+        List<EnvironmentalReading> environmentalReadings =
+                insert(generateMockDataForHourlyStats(sensorSystem, 100));
+
+        Map<OffsetDateTime, Double> averageTemps =
+                environmentalReadingStatsService.getAverageTempsForHourly(sensorSystem.getId());
+
+        assertSameAverages(
+                expectedAverages(environmentalReadings, Duration.ofHours(24), Duration.ofHours(1)),
+                averageTemps);
+    }
+
+    @Test
+    void shouldAverageDailyRollups() {
+        List<EnvironmentalReading> environmentalReadings =
+                insert(generateMockDataForDailyStats(sensorSystem, 150));
+
+        Map<OffsetDateTime, Double> averageTemps =
+                environmentalReadingStatsService.getAverageTempsForDaily(sensorSystem.getId());
+
+        assertSameAverages(
+                expectedAverages(environmentalReadings, Duration.ofDays(7), Duration.ofDays(1)),
+                averageTemps);
+    }
+
+    @Test
+    void shouldAnswerStatsQueriesAlikeFromRollupsAndReadings() {
+        insert(
+                List.of(
+                        reading(FIRST_DAY.plusMinutes(10), 20.0),
+                        reading(FIRST_DAY.plusHours(5), 24.0),
+                        reading(FIRST_DAY.plusDays(1), 30.0),
+                        reading(FIRST_DAY.plusDays(2), 40.0)));
+        Set<ReadingMetric> metrics = EnumSet.allOf(ReadingMetric.class);
+        Set<StatsAggregate> rollupAggregates =
+                EnumSet.of(
+                        StatsAggregate.AVG,
+                        StatsAggregate.MIN,
+                        StatsAggregate.MAX,
+                        StatsAggregate.SUM,
+                        StatsAggregate.COUNT);
+
+        ReadingStatsResponse fromRollups =
+                environmentalReadingStatsService.getStats(
+                        sensorSystem.getId(),
+                        new ReadingStatsQuery(
+                                FIRST_DAY,
+                                FIRST_DAY.plusDays(2),
+                                Duration.ofDays(1),
+                                metrics,
+                                rollupAggregates));
+        ReadingStatsResponse fromReadings =
+                environmentalReadingStatsService.getStats(
+                        sensorSystem.getId(),
+                        new ReadingStatsQuery(
+                                FIRST_DAY,
+                                FIRST_DAY.plusDays(2),
+                                Duration.ofDays(1),
+                                metrics,
+                                EnumSet.allOf(StatsAggregate.class)));
+
+        assertEquals(AggregateResolution.DAILY, fromRollups.rollupResolution());
+        assertNull(fromReadings.rollupResolution());
+        assertEquals(2, fromRollups.buckets().size());
+        assertEquals(2, fromReadings.buckets().size());
+        for (int i = 0; i < fromRollups.buckets().size(); i++) {
+            ReadingStatsBucket rollupBucket = fromRollups.buckets().get(i);
+            ReadingStatsBucket readingBucket = fromReadings.buckets().get(i);
+            assertTrue(rollupBucket.bucketStart().isEqual(readingBucket.bucketStart()));
+            for (ReadingMetric metric : metrics) {
+                for (StatsAggregate aggregate : rollupAggregates) {
+                    assertEquals(
+                            rollupBucket.values().get(metric).get(aggregate),
+                            readingBucket.values().get(metric).get(aggregate));
+                }
+            }
+        }
+        Map<StatsAggregate, Double> firstDayTemperature =
+                fromReadings.buckets().get(0).values().get(ReadingMetric.TEMPERATURE);
+        assertEquals(22.0, firstDayTemperature.get(StatsAggregate.AVG));
+        assertEquals(2.828, firstDayTemperature.get(StatsAggregate.STDDEV));
+        assertNull(
+                fromReadings
+                        .buckets()
+                        .get(1)
+                        .values()
+                        .get(ReadingMetric.TEMPERATURE)
+                        .get(StatsAggregate.STDDEV));
+    }
+
+    @Test
+    void shouldEstimatePercentilesFromRollupsWithinRelativeAccuracy() {
+        List<EnvironmentalReading> environmentalReadings = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            environmentalReadings.add(reading(FIRST_DAY.plusMinutes(5L * i), 10.0 + i * 0.1));
+        }
+        insert(environmentalReadings);
+        Set<StatsAggregate> percentiles =
+                EnumSet.of(StatsAggregate.P50, StatsAggregate.P95, StatsAggregate.P99);
+        Set<StatsAggregate> withStandardDeviation = EnumSet.copyOf(percentiles);
+        withStandardDeviation.add(StatsAggregate.STDDEV);
+
+        Map<StatsAggregate, Double> fromRollups =
+                percentilesOfFirstDay(percentiles, AggregateResolution.DAILY);
+        Map<StatsAggregate, Double> fromReadings =
+                percentilesOfFirstDay(withStandardDeviation, null);
+
+        assertEquals(19.95, fromReadings.get(StatsAggregate.P50));
+        for (StatsAggregate percentile : percentiles) {
+            double exact = fromReadings.get(percentile);
+            // The exact percentiles interpolate between neighbouring readings
+            double tolerance = exact * 2 * QuantileSketch.RELATIVE_ACCURACY;
+            assertEquals(exact, fromRollups.get(percentile), tolerance);
+        }
+    }
+
+    private Map<StatsAggregate, Double> percentilesOfFirstDay(
+            Set<StatsAggregate> aggregates, AggregateResolution expectedRollupResolution) {
+        ReadingStatsResponse response =
+                environmentalReadingStatsService.getStats(
+                        sensorSystem.getId(),
+                        new ReadingStatsQuery(
+                                FIRST_DAY,
+                                FIRST_DAY.plusDays(1),
+                                Duration.ofDays(1),
+                                EnumSet.of(ReadingMetric.TEMPERATURE),
+                                aggregates));
+        assertEquals(expectedRollupResolution, response.rollupResolution());
+        assertEquals(1, response.buckets().size());
+        return response.buckets().get(0).values().get(ReadingMetric.TEMPERATURE);
+    }
+
+    private List<EnvironmentalReading> insert(List<EnvironmentalReading> environmentalReadings) {
+        transactionTemplate.executeWithoutResult(
+                status -> environmentalReadingRepository.batchInsert(environmentalReadings));
+        return environmentalReadings;
+    }
+
+    /**
+     * Averages the readings in memory per bucket, keeping every bucket from the one the trailing
+     * window starts in, as the rollups are read.
+     */
+    private static Map<OffsetDateTime, Double> expectedAverages(
+            List<EnvironmentalReading> environmentalReadings, Duration window, Duration interval) {
+        OffsetDateTime firstBucketStart =
+                bucketStart(OffsetDateTime.now(ZoneOffset.UTC).minus(window), interval);
+        return environmentalReadings.stream()
+                .collect(
+                        Collectors.groupingBy(
+                                environmentalReading ->
+                                        bucketStart(environmentalReading.getTimestamp(), interval),
+                                TreeMap::new,
+                                Collectors.averagingDouble(EnvironmentalReading::getTemperature)))
+                .tailMap(firstBucketStart);
+    }
+
+    private static OffsetDateTime bucketStart(OffsetDateTime timestamp, Duration interval) {
+        long seconds = timestamp.toEpochSecond() / interval.getSeconds() * interval.getSeconds();
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds), ZoneOffset.UTC);
+    }
+
+    private EnvironmentalReading reading(OffsetDateTime timestamp, double temperature) {
+        return new EnvironmentalReading(null, temperature, 50.0, timestamp, sensorSystem);
+    }
+
+    private static void assertSameAverages(
+            Map<OffsetDateTime, Double> expected, Map<OffsetDateTime, Double> actual) {
+        assertFalse(actual.isEmpty());
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach(
+                (bucketStart, averageTemp) -> {
+                    Double actualAverageTemp = actual.get(bucketStart);
+                    assertNotNull(actualAverageTemp);
+                    assertEquals(averageTemp, actualAverageTemp, 0.001);
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        environmentalReadingRepository.deleteAll();
+        sensorReadingSummaryRepository.deleteAll();
+        environmentalReadingQuantileBinRepository.deleteAll();
+        environmentalReadingAggregateRepository.deleteAll();
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+}
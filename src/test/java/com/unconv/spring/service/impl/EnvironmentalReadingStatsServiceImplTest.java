@@ -1,19 +1,39 @@
 package com.unconv.spring.service.impl;
 
-import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.generateMockDataForDailyStats;
-import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.generateMockDataForHourlyStats;
-import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.generateMockDataForQuarterHourlyStats;
+import static com.unconv.spring.consts.AppConstants.MAX_STATS_BUCKETS;
+import static com.unconv.spring.consts.MessageConstants.ENVT_STATS_REJ_BUCKETS;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
-import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.EnvironmentalReadingAggregate;
 import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.enums.ReadingMetric;
+import com.unconv.spring.enums.StatsAggregate;
+import com.unconv.spring.model.EnvironmentalReadingStatsBucket;
+import com.unconv.spring.model.MetricSummary;
+import com.unconv.spring.model.ReadingStatsQuery;
+import com.unconv.spring.model.SummarizedReading;
+import com.unconv.spring.model.response.ReadingStatsBucket;
+import com.unconv.spring.model.response.ReadingStatsResponse;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,8 +44,14 @@
 @ExtendWith(MockitoExtension.class)
 class EnvironmentalReadingStatsServiceImplTest {
 
+    private static final OffsetDateTime FIRST_DAY =
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
     @Mock private EnvironmentalReadingRepository environmentalReadingRepository;
 
+    @Mock
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
     @InjectMocks private EnvironmentalReadingStatsServiceImpl environmentalReadingStatsService;
 
     SensorSystem sensorSystem;
@@ -40,41 +66,385 @@ void setUp() {
 
     @Test
     void getAverageTempsForQuarterHourly() {
-
-        List<EnvironmentalReading> environmentalReadings =
-                generateMockDataForQuarterHourlyStats(sensorSystem, 5);
-
-        when(environmentalReadingRepository.findBySensorSystemIdAndTimestampBetween(
-                        any(UUID.class), any(OffsetDateTime.class), any(OffsetDateTime.class)))
-                .thenReturn(environmentalReadings);
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        OffsetDateTime bucketStart =
+                OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        when(environmentalReadingAggregateRepository
+                        .findBySensorSystemIdAndResolutionAndBucketStartGreaterThanEqualOrderByBucketStart(
+                                eq(sensorSystemId),
+                                eq(AggregateResolution.QUARTER_HOURLY),
+                                any(OffsetDateTime.class)))
+                .thenReturn(
+                        List.of(
+                                aggregate(bucketStart, 63.37035, 3),
+                                aggregate(bucketStart.plusMinutes(15), 22.0, 1)));
         Map<OffsetDateTime, Double> result =
                 environmentalReadingStatsService.getAverageTempsForQuarterHourly(sensorSystemId);
-        assertFalse(result.isEmpty());
+        assertEquals(2, result.size());
+        assertEquals(21.123, result.get(bucketStart));
+        assertEquals(22.0, result.get(bucketStart.plusMinutes(15)));
     }
 
     @Test
     void getAverageTempsForHourly() {
-        List<EnvironmentalReading> environmentalReadings =
-                generateMockDataForHourlyStats(sensorSystem, 5);
-
-        when(environmentalReadingRepository.findBySensorSystemIdAndTimestampBetween(
-                        any(UUID.class), any(OffsetDateTime.class), any(OffsetDateTime.class)))
-                .thenReturn(environmentalReadings);
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        OffsetDateTime bucketStart =
+                OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        when(environmentalReadingAggregateRepository
+                        .findBySensorSystemIdAndResolutionAndBucketStartGreaterThanEqualOrderByBucketStart(
+                                eq(sensorSystemId),
+                                eq(AggregateResolution.HOURLY),
+                                any(OffsetDateTime.class)))
+                .thenReturn(List.of(aggregate(bucketStart, 36.9132, 2)));
         Map<OffsetDateTime, Double> result =
                 environmentalReadingStatsService.getAverageTempsForHourly(sensorSystemId);
-        assertFalse(result.isEmpty());
+        assertEquals(Map.of(bucketStart, 18.457), result);
     }
 
     @Test
     void getAverageTempsForDaily() {
-        List<EnvironmentalReading> environmentalReadings =
-                generateMockDataForDailyStats(sensorSystem, 5);
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        OffsetDateTime bucketStart =
+                OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        when(environmentalReadingAggregateRepository
+                        .findBySensorSystemIdAndResolutionAndBucketStartGreaterThanEqualOrderByBucketStart(
+                                eq(sensorSystemId),
+                                eq(AggregateResolution.DAILY),
+                                any(OffsetDateTime.class)))
+                .thenReturn(List.of(aggregate(bucketStart, -432.0, 96)));
+        Map<OffsetDateTime, Double> result =
+                environmentalReadingStatsService.getAverageTempsForDaily(sensorSystemId);
+        assertEquals(Map.of(bucketStart, -4.5), result);
+    }
 
-        when(environmentalReadingRepository.findBySensorSystemIdAndTimestampBetween(
-                        any(UUID.class), any(OffsetDateTime.class), any(OffsetDateTime.class)))
-                .thenReturn(environmentalReadings);
+    @Test
+    void getAverageTempsForDailyWithoutReadings() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        when(environmentalReadingAggregateRepository
+                        .findBySensorSystemIdAndResolutionAndBucketStartGreaterThanEqualOrderByBucketStart(
+                                eq(sensorSystemId),
+                                eq(AggregateResolution.DAILY),
+                                any(OffsetDateTime.class)))
+                .thenReturn(List.of());
         Map<OffsetDateTime, Double> result =
                 environmentalReadingStatsService.getAverageTempsForDaily(sensorSystemId);
-        assertFalse(result.isEmpty());
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getAverageTempsForHourlyFromReadingsWhenRollupsAreNotMaintained() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(false);
+        OffsetDateTime bucketStart =
+                OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        when(environmentalReadingRepository.streamReadings(
+                        eq(sensorSystemId),
+                        any(OffsetDateTime.class),
+                        any(OffsetDateTime.class),
+                        any()))
+                .thenAnswer(
+                        invocation -> {
+                            Consumer<EnvironmentalReadingProjection> consumer =
+                                    invocation.getArgument(3);
+                            consumer.accept(new SummarizedReading(18.0, 40.0, bucketStart));
+                            consumer.accept(
+                                    new SummarizedReading(
+                                            19.0, 45.0, bucketStart.plusMinutes(30)));
+                            return 2L;
+                        });
+
+        Map<OffsetDateTime, Double> result =
+                environmentalReadingStatsService.getAverageTempsForHourly(sensorSystemId);
+
+        assertEquals(Map.of(bucketStart, 18.5), result);
+        verifyNoInteractions(environmentalReadingAggregateRepository);
+    }
+
+    @Test
+    void getStatsFromCoarsestAlignedRollups() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(2),
+                        Duration.ofDays(1),
+                        EnumSet.of(ReadingMetric.TEMPERATURE, ReadingMetric.HUMIDITY),
+                        EnumSet.of(StatsAggregate.AVG, StatsAggregate.MAX, StatsAggregate.COUNT));
+        when(environmentalReadingAggregateRepository.findStatsBuckets(
+                        sensorSystemId,
+                        AggregateResolution.DAILY,
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(2),
+                        Duration.ofDays(1),
+                        false))
+                .thenReturn(
+                        List.of(
+                                new EnvironmentalReadingStatsBucket(
+                                        FIRST_DAY,
+                                        3,
+                                        new MetricSummary(
+                                                63.37035, 20.0, 22.5, null, null, null, null),
+                                        new MetricSummary(
+                                                150.0, 40.0, 60.0, null, null, null, null))));
+
+        ReadingStatsResponse response =
+                environmentalReadingStatsService.getStats(sensorSystemId, query);
+
+        assertEquals(AggregateResolution.DAILY, response.rollupResolution());
+        assertEquals(1, response.buckets().size());
+        ReadingStatsBucket bucket = response.buckets().get(0);
+        assertEquals(FIRST_DAY, bucket.bucketStart());
+        assertEquals(
+                Map.of(
+                        StatsAggregate.AVG,
+                        21.123,
+                        StatsAggregate.MAX,
+                        22.5,
+                        StatsAggregate.COUNT,
+                        3.0),
+                bucket.values().get(ReadingMetric.TEMPERATURE));
+        assertEquals(50.0, bucket.values().get(ReadingMetric.HUMIDITY).get(StatsAggregate.AVG));
+        verify(environmentalReadingRepository, never())
+                .findStatsBuckets(any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void getStatsFromHourlyRollupsWhenRangeIsNotAlignedToDays() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY.plusHours(6),
+                        FIRST_DAY.plusDays(2),
+                        Duration.ofDays(1),
+                        EnumSet.of(ReadingMetric.TEMPERATURE),
+                        EnumSet.of(StatsAggregate.MIN));
+        when(environmentalReadingAggregateRepository.findStatsBuckets(
+                        any(UUID.class),
+                        eq(AggregateResolution.HOURLY),
+                        any(OffsetDateTime.class),
+                        any(OffsetDateTime.class),
+                        any(Duration.class),
+                        anyBoolean()))
+                .thenReturn(List.of());
+
+        ReadingStatsResponse response =
+                environmentalReadingStatsService.getStats(sensorSystemId, query);
+
+        assertEquals(AggregateResolution.HOURLY, response.rollupResolution());
+        assertTrue(response.buckets().isEmpty());
+    }
+
+    @Test
+    void getStatsFromReadingsForStandardDeviation() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(1),
+                        Duration.ofHours(1),
+                        EnumSet.of(ReadingMetric.HUMIDITY),
+                        EnumSet.of(StatsAggregate.STDDEV));
+        when(environmentalReadingRepository.findStatsBuckets(
+                        sensorSystemId,
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(1),
+                        Duration.ofHours(1),
+                        false))
+                .thenReturn(
+                        List.of(
+                                new EnvironmentalReadingStatsBucket(
+                                        FIRST_DAY,
+                                        2,
+                                        new MetricSummary(
+                                                42.0, 20.0, 22.0, 1.4142135, null, null, null),
+                                        new MetricSummary(
+                                                90.0, 40.0, 50.0, 7.0710678, null, null, null)),
+                                new EnvironmentalReadingStatsBucket(
+                                        FIRST_DAY.plusHours(1),
+                                        1,
+                                        new MetricSummary(24.0, 24.0, 24.0, null, null, null, null),
+                                        new MetricSummary(
+                                                60.0, 60.0, 60.0, null, null, null, null))));
+
+        ReadingStatsResponse response =
+                environmentalReadingStatsService.getStats(sensorSystemId, query);
+
+        assertNull(response.rollupResolution());
+        Map<ReadingMetric, Map<StatsAggregate, Double>> firstValues =
+                response.buckets().get(0).values();
+        assertEquals(7.071, firstValues.get(ReadingMetric.HUMIDITY).get(StatsAggregate.STDDEV));
+        assertFalse(firstValues.containsKey(ReadingMetric.TEMPERATURE));
+        Map<ReadingMetric, Map<StatsAggregate, Double>> secondValues =
+                response.buckets().get(1).values();
+        assertNull(secondValues.get(ReadingMetric.HUMIDITY).get(StatsAggregate.STDDEV));
+        verifyNoInteractions(environmentalReadingAggregateRepository);
+    }
+
+    @Test
+    void getStatsPercentilesFromRollupSketches() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(1),
+                        Duration.ofDays(1),
+                        EnumSet.of(ReadingMetric.TEMPERATURE),
+                        EnumSet.of(StatsAggregate.P50, StatsAggregate.P99));
+        when(environmentalReadingAggregateRepository.findStatsBuckets(
+                        sensorSystemId,
+                        AggregateResolution.DAILY,
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(1),
+                        Duration.ofDays(1),
+                        true))
+                .thenReturn(
+                        List.of(
+                                new EnvironmentalReadingStatsBucket(
+                                        FIRST_DAY,
+                                        100,
+                                        new MetricSummary(
+                                                2100.0, 15.0, 30.0, null, 20.9912, 28.5, 29.7),
+                                        new MetricSummary(
+                                                5000.0, 40.0, 60.0, null, 50.0, 58.0, 59.9))));
+
+        ReadingStatsResponse response =
+                environmentalReadingStatsService.getStats(sensorSystemId, query);
+
+        assertEquals(AggregateResolution.DAILY, response.rollupResolution());
+        assertEquals(
+                Map.of(StatsAggregate.P50, 20.991, StatsAggregate.P99, 29.7),
+                response.buckets().get(0).values().get(ReadingMetric.TEMPERATURE));
+        verify(environmentalReadingRepository, never())
+                .findStatsBuckets(any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void getStatsFromReadingsWhenRollupsAreNotMaintained() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(false);
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(2),
+                        Duration.ofDays(1),
+                        EnumSet.of(ReadingMetric.TEMPERATURE),
+                        EnumSet.of(StatsAggregate.AVG));
+        when(environmentalReadingRepository.findStatsBuckets(
+                        sensorSystemId,
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(2),
+                        Duration.ofDays(1),
+                        false))
+                .thenReturn(
+                        List.of(
+                                new EnvironmentalReadingStatsBucket(
+                                        FIRST_DAY,
+                                        2,
+                                        new MetricSummary(
+                                                42.0, 20.0, 22.0, 1.414, null, null, null),
+                                        new MetricSummary(
+                                                90.0, 40.0, 50.0, 7.071, null, null, null))));
+
+        ReadingStatsResponse response =
+                environmentalReadingStatsService.getStats(sensorSystemId, query);
+
+        assertNull(response.rollupResolution());
+        assertEquals(
+                21.0,
+                response.buckets()
+                        .get(0)
+                        .values()
+                        .get(ReadingMetric.TEMPERATURE)
+                        .get(StatsAggregate.AVG));
+        verifyNoInteractions(environmentalReadingAggregateRepository);
+    }
+
+    @Test
+    void getStatsFromReadingsForIntervalShorterThanRollups() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY,
+                        FIRST_DAY.plusHours(1),
+                        Duration.ofMinutes(5),
+                        EnumSet.of(ReadingMetric.TEMPERATURE),
+                        EnumSet.of(StatsAggregate.AVG));
+        when(environmentalReadingRepository.findStatsBuckets(
+                        sensorSystemId,
+                        FIRST_DAY,
+                        FIRST_DAY.plusHours(1),
+                        Duration.ofMinutes(5),
+                        false))
+                .thenReturn(List.of());
+
+        ReadingStatsResponse response =
+                environmentalReadingStatsService.getStats(sensorSystemId, query);
+
+        assertNull(response.rollupResolution());
+    }
+
+    @Test
+    void getStatsRejectsTooManyBuckets() {
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY,
+                        FIRST_DAY.plusDays(365),
+                        Duration.ofMinutes(15),
+                        EnumSet.of(ReadingMetric.TEMPERATURE),
+                        EnumSet.of(StatsAggregate.AVG));
+
+        IllegalArgumentException exception =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () -> environmentalReadingStatsService.getStats(sensorSystemId, query));
+
+        assertEquals(ENVT_STATS_REJ_BUCKETS.formatted(MAX_STATS_BUCKETS), exception.getMessage());
+        verifyNoInteractions(
+                environmentalReadingRepository, environmentalReadingAggregateRepository);
+    }
+
+    @Test
+    void getStatsAllowsExactlyTheMaximumBuckets() {
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY,
+                        FIRST_DAY.plusHours(MAX_STATS_BUCKETS),
+                        Duration.ofHours(1),
+                        EnumSet.of(ReadingMetric.TEMPERATURE),
+                        EnumSet.of(StatsAggregate.AVG));
+        when(environmentalReadingAggregateRepository.findStatsBuckets(
+                        any(UUID.class),
+                        any(AggregateResolution.class),
+                        any(OffsetDateTime.class),
+                        any(OffsetDateTime.class),
+                        any(Duration.class),
+                        anyBoolean()))
+                .thenReturn(List.of());
+
+        assertDoesNotThrow(() -> environmentalReadingStatsService.getStats(sensorSystemId, query));
+    }
+
+    @Test
+    void getStatsRejectsEmptyRange() {
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        FIRST_DAY,
+                        FIRST_DAY,
+                        Duration.ofHours(1),
+                        EnumSet.of(ReadingMetric.TEMPERATURE),
+                        EnumSet.of(StatsAggregate.AVG));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> environmentalReadingStatsService.getStats(sensorSystemId, query));
+    }
+
+    private EnvironmentalReadingAggregate aggregate(
+            OffsetDateTime bucketStart, double sumTemperature, long readingCount) {
+        EnvironmentalReadingAggregate aggregate = new EnvironmentalReadingAggregate();
+        aggregate.setSensorSystem(sensorSystem);
+        aggregate.setBucketStart(bucketStart);
+        aggregate.setReadingCount(readingCount);
+        aggregate.setSumTemperature(sumTemperature);
+        return aggregate;
     }
 }
@@ -0,0 +1,209 @@
+package com.unconv.spring.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.common.AbstractIntegrationTest;
+import com.unconv.spring.config.ReadingRetentionConfig;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.EnvironmentalReadingAggregate;
+import com.unconv.spring.domain.SensorReadingSummary;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.enums.AggregateResolution;
+import com.unconv.spring.model.ReadingRetentionResult;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
+import com.unconv.spring.persistence.EnvironmentalReadingQuantileBinRepository;
+import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.persistence.UnconvUserRepository;
+import com.unconv.spring.service.ReadingRetentionService;
+import com.unconv.spring.service.RecentReadingFilter;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReadingRetentionServiceIT extends AbstractIntegrationTest {
+
+    private static final OffsetDateTime FIRST_DAY =
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired private ReadingRetentionService readingRetentionService;
+
+    @Autowired private ReadingRetentionConfig readingRetentionConfig;
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Autowired
+    private EnvironmentalReadingQuantileBinRepository environmentalReadingQuantileBinRepository;
+
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private RecentReadingFilter recentReadingFilter;
+
+    @Autowired private UnconvUserRepository unconvUserRepository;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SensorSystem sensorSystem;
+
+    private List<EnvironmentalReading> environmentalReadings;
+
+    private int defaultBatchSize;
+
+    @BeforeEach
+    void setUp() {
+        defaultBatchSize = readingRetentionConfig.getBatchSize();
+        readingRetentionConfig.setBatchSize(2);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        UnconvUser unconvUser =
+                unconvUserRepository.save(
+                        new UnconvUser(null, "RetentionUser", "retention@email.com", "password"));
+        sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "Retention sensor", null, unconvUser));
+        environmentalReadings =
+                List.of(
+                        reading(FIRST_DAY, 20.0, 40.0),
+                        reading(FIRST_DAY.plusMinutes(5), 22.0, 50.0),
+                        reading(FIRST_DAY.plusMinutes(20), 24.0, 60.0),
+                        reading(FIRST_DAY.plusDays(1), 30.0, 70.0),
+                        reading(OffsetDateTime.now(ZoneOffset.UTC).minusHours(1), 25.0, 55.0));
+        transactionTemplate.executeWithoutResult(
+                status -> environmentalReadingRepository.batchInsert(environmentalReadings));
+    }
+
+    @Test
+    void shouldDeleteExpiredReadingsAndKeepTheirAggregates() {
+        long compacted =
+                readingRetentionService.compactReadingsBefore(
+                        sensorSystem.getId(), FIRST_DAY.plusDays(2));
+
+        assertEquals(4, compacted);
+        assertEquals(1, environmentalReadingRepository.countBySensorSystemId(sensorSystem.getId()));
+        SensorReadingSummary sensorReadingSummary =
+                sensorReadingSummaryRepository.findById(sensorSystem.getId()).orElseThrow();
+        assertEquals(1, sensorReadingSummary.getReadingCount());
+        assertEquals(25.0, sensorReadingSummary.getWarmestTemperature());
+
+        List<EnvironmentalReadingAggregate> quarterHourlyAggregates =
+                aggregates(AggregateResolution.QUARTER_HOURLY);
+        assertEquals(4, quarterHourlyAggregates.size());
+        assertAggregate(quarterHourlyAggregates.get(0), FIRST_DAY, 2, 20.0, 22.0, 42.0, 90.0);
+        assertAggregate(
+                quarterHourlyAggregates.get(1),
+                FIRST_DAY.plusMinutes(15),
+                1,
+                24.0,
+                24.0,
+                24.0,
+                60.0);
+        assertAggregate(
+                quarterHourlyAggregates.get(2), FIRST_DAY.plusDays(1), 1, 30.0, 30.0, 30.0, 70.0);
+
+        List<EnvironmentalReadingAggregate> hourlyAggregates =
+                aggregates(AggregateResolution.HOURLY);
+        assertEquals(3, hourlyAggregates.size());
+        assertAggregate(hourlyAggregates.get(0), FIRST_DAY, 3, 20.0, 24.0, 66.0, 150.0);
+
+        List<EnvironmentalReadingAggregate> dailyAggregates = aggregates(AggregateResolution.DAILY);
+        assertEquals(3, dailyAggregates.size());
+        assertAggregate(dailyAggregates.get(0), FIRST_DAY, 3, 20.0, 24.0, 66.0, 150.0);
+        assertAggregate(dailyAggregates.get(1), FIRST_DAY.plusDays(1), 1, 30.0, 30.0, 30.0, 70.0);
+    }
+
+    @Test
+    void shouldForgetCompactedSensorSystemInDuplicateFilter() {
+        recentReadingFilter.recordStored(environmentalReadings);
+        EnvironmentalReading compactedReading = environmentalReadings.get(0);
+        assertTrue(recentReadingFilter.isKnownDuplicate(compactedReading));
+
+        readingRetentionService.compactReadingsBefore(sensorSystem.getId(), FIRST_DAY.plusDays(2));
+
+        assertFalse(recentReadingFilter.isKnownDuplicate(compactedReading));
+    }
+
+    @Test
+    void shouldDeleteExpiredAggregatesOfResolutionOnly() {
+        readingRetentionService.compactReadingsBefore(sensorSystem.getId(), FIRST_DAY.plusDays(2));
+
+        long deleted =
+                readingRetentionService.deleteAggregatesBefore(
+                        sensorSystem.getId(),
+                        AggregateResolution.QUARTER_HOURLY,
+                        FIRST_DAY.plusDays(1));
+
+        assertEquals(2, deleted);
+        assertEquals(2, aggregates(AggregateResolution.QUARTER_HOURLY).size());
+        assertEquals(3, aggregates(AggregateResolution.HOURLY).size());
+        assertEquals(3, aggregates(AggregateResolution.DAILY).size());
+    }
+
+    @Test
+    void shouldApplyPolicyOfSensorSystem() {
+        ReadingRetentionConfig.Policy policy = new ReadingRetentionConfig.Policy();
+        policy.setQuarterHourly(null);
+        readingRetentionConfig.getSensorSystems().put(sensorSystem.getId(), policy);
+
+        ReadingRetentionResult result = readingRetentionService.applyRetentionPolicies();
+
+        assertEquals(new ReadingRetentionResult(4, 0), result);
+        assertEquals(1, environmentalReadingRepository.countBySensorSystemId(sensorSystem.getId()));
+        assertEquals(4, aggregates(AggregateResolution.QUARTER_HOURLY).size());
+    }
+
+    private EnvironmentalReading reading(
+            OffsetDateTime timestamp, double temperature, double humidity) {
+        return new EnvironmentalReading(null, temperature, humidity, timestamp, sensorSystem);
+    }
+
+    private List<EnvironmentalReadingAggregate> aggregates(AggregateResolution resolution) {
+        return environmentalReadingAggregateRepository
+                .findBySensorSystemIdAndResolutionOrderByBucketStart(
+                        sensorSystem.getId(), resolution);
+    }
+
+    private static void assertAggregate(
+            EnvironmentalReadingAggregate aggregate,
+            OffsetDateTime bucketStart,
+            long readingCount,
+            double minTemperature,
+            double maxTemperature,
+            double sumTemperature,
+            double sumHumidity) {
+        assertTrue(bucketStart.isEqual(aggregate.getBucketStart()));
+        assertEquals(readingCount, aggregate.getReadingCount());
+        assertEquals(minTemperature, aggregate.getMinTemperature());
+        assertEquals(maxTemperature, aggregate.getMaxTemperature());
+        assertEquals(sumTemperature, aggregate.getSumTemperature(), 1e-9);
+        assertEquals(sumHumidity, aggregate.getSumHumidity(), 1e-9);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readingRetentionConfig.setBatchSize(defaultBatchSize);
+        readingRetentionConfig.getSensorSystems().clear();
+        sensorReadingSummaryRepository.deleteAll();
+        environmentalReadingQuantileBinRepository.deleteAll();
+        environmentalReadingAggregateRepository.deleteAll();
+        environmentalReadingRepository.deleteAll();
+        sensorSystemRepository.deleteAll();
+        unconvUserRepository.deleteAll();
+    }
+}
@@ -0,0 +1,173 @@
+package com.unconv.spring.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.model.HourlyReadingCount;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class RecentReadingCounterImplTest {
+
+    private static final OffsetDateTime CURRENT_HOUR =
+            OffsetDateTime.of(2024, 1, 8, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final Instant NOW = CURRENT_HOUR.plusMinutes(30).toInstant();
+
+    private static final List<Integer> WINDOWS = List.of(1, 3, 24, 168);
+
+    @Mock private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SensorSystem sensorSystem;
+
+    private RecentReadingCounterImpl recentReadingCounter;
+
+    @BeforeEach
+    void setUp() {
+        sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+
+        recentReadingCounter =
+                new RecentReadingCounterImpl(
+                        environmentalReadingAggregateRepository, transactionManager);
+    }
+
+    @Test
+    void shouldCountTrailingWindowsFromReloadedAggregates() {
+        when(environmentalReadingAggregateRepository.findHourlyReadingCounts(
+                        CURRENT_HOUR.minusHours(167), CURRENT_HOUR.plusHours(1)))
+                .thenReturn(
+                        List.of(
+                                hourlyCount(CURRENT_HOUR, 2),
+                                hourlyCount(CURRENT_HOUR.minusHours(2), 3),
+                                hourlyCount(CURRENT_HOUR.minusHours(23), 4),
+                                hourlyCount(CURRENT_HOUR.minusHours(167), 5)));
+
+        recentReadingCounter.reload(NOW);
+
+        assertEquals(
+                Map.of(1, 2L, 3, 5L, 24, 9L, 168, 14L),
+                recentReadingCounter.findRecentCounts(sensorSystem.getId(), WINDOWS, NOW).get());
+    }
+
+    @Test
+    void shouldStayColdUntilReloaded() {
+        recentReadingCounter.record(List.of(reading(CURRENT_HOUR)), NOW);
+
+        assertTrue(
+                recentReadingCounter
+                        .findRecentCounts(sensorSystem.getId(), WINDOWS, NOW)
+                        .isEmpty());
+    }
+
+    @Test
+    void shouldCountRecordedReadingsWithinCountedHours() {
+        warmUp();
+
+        recentReadingCounter.record(
+                List.of(
+                        reading(CURRENT_HOUR.plusMinutes(10)),
+                        reading(CURRENT_HOUR.minusHours(5)),
+                        reading(CURRENT_HOUR.plusHours(1)),
+                        reading(CURRENT_HOUR.minusHours(168))),
+                NOW);
+
+        assertEquals(
+                Map.of(1, 2L, 3, 2L, 24, 3L, 168, 3L),
+                recentReadingCounter.findRecentCounts(sensorSystem.getId(), WINDOWS, NOW).get());
+    }
+
+    @Test
+    void shouldMoveOnToLaterHours() {
+        warmUp();
+
+        Instant twoHoursLater = NOW.plusSeconds(2 * 3600);
+        Instant aWeekLater = NOW.plusSeconds(168 * 3600);
+
+        assertEquals(
+                Map.of(1, 0L, 3, 1L, 24, 1L, 168, 1L),
+                recentReadingCounter
+                        .findRecentCounts(sensorSystem.getId(), WINDOWS, twoHoursLater)
+                        .get());
+        assertEquals(
+                Map.of(1, 0L, 3, 0L, 24, 0L, 168, 0L),
+                recentReadingCounter
+                        .findRecentCounts(sensorSystem.getId(), WINDOWS, aWeekLater)
+                        .get());
+    }
+
+    @Test
+    void shouldForgetSensorSystemWhenNotAllReadingsWereInserted() {
+        warmUp();
+
+        recentReadingCounter.recordInserted(List.of(reading(CURRENT_HOUR)), 0);
+        assertTrue(
+                recentReadingCounter
+                        .findRecentCounts(sensorSystem.getId(), WINDOWS, NOW)
+                        .isPresent());
+
+        recentReadingCounter.recordInserted(
+                List.of(reading(CURRENT_HOUR), reading(CURRENT_HOUR.plusMinutes(1))), 1);
+        assertTrue(
+                recentReadingCounter
+                        .findRecentCounts(sensorSystem.getId(), WINDOWS, NOW)
+                        .isEmpty());
+    }
+
+    @Test
+    void shouldDropSensorSystemsWithoutRecentAggregatesOnReload() {
+        warmUp();
+
+        when(environmentalReadingAggregateRepository.findHourlyReadingCounts(any(), any()))
+                .thenReturn(List.of());
+        recentReadingCounter.reload(NOW);
+
+        assertTrue(
+                recentReadingCounter
+                        .findRecentCounts(sensorSystem.getId(), WINDOWS, NOW)
+                        .isEmpty());
+    }
+
+    @Test
+    void shouldRejectWindowsLongerThanCountedHours() {
+        List<Integer> windows = List.of(169);
+        UUID sensorSystemId = sensorSystem.getId();
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> recentReadingCounter.findRecentCounts(sensorSystemId, windows, NOW));
+    }
+
+    private void warmUp() {
+        when(environmentalReadingAggregateRepository.findHourlyReadingCounts(any(), any()))
+                .thenReturn(List.of(hourlyCount(CURRENT_HOUR, 1)));
+        recentReadingCounter.reload(NOW);
+    }
+
+    private HourlyReadingCount hourlyCount(OffsetDateTime hourStart, long readingCount) {
+        return new HourlyReadingCount(sensorSystem.getId(), hourStart, readingCount);
+    }
+
+    private EnvironmentalReading reading(OffsetDateTime timestamp) {
+        return new EnvironmentalReading(null, 20.0, 40.0, timestamp, sensorSystem);
+    }
+}
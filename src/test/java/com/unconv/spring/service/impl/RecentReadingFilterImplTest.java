@@ -0,0 +1,120 @@
+package com.unconv.spring.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.config.IngestDeduplicationConfig;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class RecentReadingFilterImplTest {
+
+    private static final OffsetDateTime TIMESTAMP =
+            OffsetDateTime.of(2023, 3, 17, 7, 9, 0, 0, ZoneOffset.UTC);
+
+    private IngestDeduplicationConfig ingestDeduplicationConfig;
+
+    private SensorSystem sensorSystem;
+
+    @BeforeEach
+    void setUp() {
+        ingestDeduplicationConfig = new IngestDeduplicationConfig();
+        ingestDeduplicationConfig.setRecentTimestampsPerSensor(2);
+
+        sensorSystem = new SensorSystem();
+        sensorSystem.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void shouldKnowRecordedReadingsOfSameSensorSystem() {
+        RecentReadingFilterImpl recentReadingFilter =
+                new RecentReadingFilterImpl(ingestDeduplicationConfig);
+        recentReadingFilter.recordStored(List.of(reading(sensorSystem, TIMESTAMP)));
+
+        SensorSystem otherSensorSystem = new SensorSystem();
+        otherSensorSystem.setId(UUID.randomUUID());
+
+        assertTrue(recentReadingFilter.isKnownDuplicate(reading(sensorSystem, TIMESTAMP)));
+        assertTrue(
+                recentReadingFilter.isKnownDuplicate(
+                        reading(
+                                sensorSystem,
+                                TIMESTAMP.withOffsetSameInstant(ZoneOffset.ofHours(5)))));
+        assertFalse(
+                recentReadingFilter.isKnownDuplicate(
+                        reading(sensorSystem, TIMESTAMP.plusSeconds(1))));
+        assertFalse(recentReadingFilter.isKnownDuplicate(reading(otherSensorSystem, TIMESTAMP)));
+    }
+
+    @Test
+    void shouldEvictOldestTimestampWhenCapacityIsReached() {
+        RecentReadingFilterImpl recentReadingFilter =
+                new RecentReadingFilterImpl(ingestDeduplicationConfig);
+        recentReadingFilter.recordStored(
+                List.of(
+                        reading(sensorSystem, TIMESTAMP),
+                        reading(sensorSystem, TIMESTAMP.plusMinutes(1)),
+                        reading(sensorSystem, TIMESTAMP.plusMinutes(2))));
+
+        assertFalse(recentReadingFilter.isKnownDuplicate(reading(sensorSystem, TIMESTAMP)));
+        assertTrue(
+                recentReadingFilter.isKnownDuplicate(
+                        reading(sensorSystem, TIMESTAMP.plusMinutes(1))));
+        assertTrue(
+                recentReadingFilter.isKnownDuplicate(
+                        reading(sensorSystem, TIMESTAMP.plusMinutes(2))));
+    }
+
+    @Test
+    void shouldForgetSensorSystem() {
+        RecentReadingFilterImpl recentReadingFilter =
+                new RecentReadingFilterImpl(ingestDeduplicationConfig);
+        recentReadingFilter.recordStored(List.of(reading(sensorSystem, TIMESTAMP)));
+
+        recentReadingFilter.forgetSensorSystem(sensorSystem.getId());
+
+        assertFalse(recentReadingFilter.isKnownDuplicate(reading(sensorSystem, TIMESTAMP)));
+    }
+
+    @Test
+    void shouldNeverReportDuplicatesWhenDisabled() {
+        ingestDeduplicationConfig.setRecentTimestampsPerSensor(0);
+        RecentReadingFilterImpl recentReadingFilter =
+                new RecentReadingFilterImpl(ingestDeduplicationConfig);
+        recentReadingFilter.recordStored(List.of(reading(sensorSystem, TIMESTAMP)));
+
+        assertFalse(recentReadingFilter.isKnownDuplicate(reading(sensorSystem, TIMESTAMP)));
+    }
+
+    @Test
+    void shouldRecordReadingsOnlyAfterTransactionCommits() {
+        RecentReadingFilterImpl recentReadingFilter =
+                new RecentReadingFilterImpl(ingestDeduplicationConfig);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            recentReadingFilter.recordStored(List.of(reading(sensorSystem, TIMESTAMP)));
+
+            assertFalse(recentReadingFilter.isKnownDuplicate(reading(sensorSystem, TIMESTAMP)));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(recentReadingFilter.isKnownDuplicate(reading(sensorSystem, TIMESTAMP)));
+    }
+
+    private static EnvironmentalReading reading(
+            SensorSystem sensorSystem, OffsetDateTime timestamp) {
+        return new EnvironmentalReading(null, 21L, 40L, timestamp, sensorSystem);
+    }
+}
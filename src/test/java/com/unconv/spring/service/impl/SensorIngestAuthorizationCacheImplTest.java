@@ -0,0 +1,166 @@
+package com.unconv.spring.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.unconv.spring.config.IngestAuthorizationCacheConfig;
+import com.unconv.spring.enums.SensorStatus;
+import com.unconv.spring.model.SensorIngestAuthorization;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SensorIngestAuthorizationCacheImplTest {
+
+    @Mock private SensorSystemRepository sensorSystemRepository;
+
+    private IngestAuthorizationCacheConfig ingestAuthorizationCacheConfig;
+
+    private SensorIngestAuthorization sensorIngestAuthorization;
+
+    @BeforeEach
+    void setUp() {
+        ingestAuthorizationCacheConfig = new IngestAuthorizationCacheConfig();
+        sensorIngestAuthorization =
+                new SensorIngestAuthorization(
+                        UUID.randomUUID(), "TestUser", false, SensorStatus.ACTIVE);
+    }
+
+    @Test
+    void shouldLoadAuthorizationOnlyOnce() {
+        SensorIngestAuthorizationCacheImpl sensorIngestAuthorizationCache =
+                new SensorIngestAuthorizationCacheImpl(
+                        ingestAuthorizationCacheConfig, sensorSystemRepository);
+        when(sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(anyCollection()))
+                .thenReturn(List.of(sensorIngestAuthorization));
+
+        UUID sensorSystemId = sensorIngestAuthorization.sensorSystemId();
+        assertEquals(
+                Optional.of(sensorIngestAuthorization),
+                sensorIngestAuthorizationCache.find(sensorSystemId));
+        assertEquals(
+                Optional.of(sensorIngestAuthorization),
+                sensorIngestAuthorizationCache.find(sensorSystemId));
+
+        verify(sensorSystemRepository, times(1))
+                .findSensorIngestAuthorizationsByIdIn(List.of(sensorSystemId));
+    }
+
+    @Test
+    void shouldLoadOnlyMissingAuthorizations() {
+        SensorIngestAuthorizationCacheImpl sensorIngestAuthorizationCache =
+                new SensorIngestAuthorizationCacheImpl(
+                        ingestAuthorizationCacheConfig, sensorSystemRepository);
+        UUID sensorSystemId = sensorIngestAuthorization.sensorSystemId();
+        UUID unknownSensorSystemId = UUID.randomUUID();
+        when(sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(List.of(sensorSystemId)))
+                .thenReturn(List.of(sensorIngestAuthorization));
+        when(sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(
+                        List.of(unknownSensorSystemId)))
+                .thenReturn(List.of());
+
+        sensorIngestAuthorizationCache.find(sensorSystemId);
+        Map<UUID, SensorIngestAuthorization> sensorIngestAuthorizations =
+                sensorIngestAuthorizationCache.findAll(
+                        List.of(sensorSystemId, unknownSensorSystemId));
+
+        assertEquals(Map.of(sensorSystemId, sensorIngestAuthorization), sensorIngestAuthorizations);
+        verify(sensorSystemRepository, times(1))
+                .findSensorIngestAuthorizationsByIdIn(List.of(unknownSensorSystemId));
+    }
+
+    @Test
+    void shouldReloadAuthorizationAfterInvalidation() {
+        SensorIngestAuthorizationCacheImpl sensorIngestAuthorizationCache =
+                new SensorIngestAuthorizationCacheImpl(
+                        ingestAuthorizationCacheConfig, sensorSystemRepository);
+        UUID sensorSystemId = sensorIngestAuthorization.sensorSystemId();
+        SensorIngestAuthorization inactiveSensorIngestAuthorization =
+                new SensorIngestAuthorization(
+                        sensorSystemId, "TestUser", false, SensorStatus.INACTIVE);
+        when(sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(anyCollection()))
+                .thenReturn(List.of(sensorIngestAuthorization))
+                .thenReturn(List.of(inactiveSensorIngestAuthorization));
+
+        sensorIngestAuthorizationCache.find(sensorSystemId);
+        sensorIngestAuthorizationCache.invalidate(sensorSystemId);
+
+        assertEquals(
+                Optional.of(inactiveSensorIngestAuthorization),
+                sensorIngestAuthorizationCache.find(sensorSystemId));
+    }
+
+    @Test
+    void shouldNotCacheAuthorizationLoadedWhileInvalidated() {
+        SensorIngestAuthorizationCacheImpl sensorIngestAuthorizationCache =
+                new SensorIngestAuthorizationCacheImpl(
+                        ingestAuthorizationCacheConfig, sensorSystemRepository);
+        UUID sensorSystemId = sensorIngestAuthorization.sensorSystemId();
+        when(sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(anyCollection()))
+                .thenAnswer(
+                        invocation -> {
+                            sensorIngestAuthorizationCache.invalidate(sensorSystemId);
+                            return List.of(sensorIngestAuthorization);
+                        });
+
+        assertTrue(sensorIngestAuthorizationCache.find(sensorSystemId).isPresent());
+        assertTrue(sensorIngestAuthorizationCache.find(sensorSystemId).isPresent());
+
+        verify(sensorSystemRepository, times(2))
+                .findSensorIngestAuthorizationsByIdIn(anyCollection());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedAuthorizationWhenFull() {
+        ingestAuthorizationCacheConfig.setMaxEntries(1);
+        SensorIngestAuthorizationCacheImpl sensorIngestAuthorizationCache =
+                new SensorIngestAuthorizationCacheImpl(
+                        ingestAuthorizationCacheConfig, sensorSystemRepository);
+        UUID sensorSystemId = sensorIngestAuthorization.sensorSystemId();
+        SensorIngestAuthorization otherSensorIngestAuthorization =
+                new SensorIngestAuthorization(
+                        UUID.randomUUID(), "TestUser", false, SensorStatus.ACTIVE);
+        when(sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(List.of(sensorSystemId)))
+                .thenReturn(List.of(sensorIngestAuthorization));
+        when(sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(
+                        List.of(otherSensorIngestAuthorization.sensorSystemId())))
+                .thenReturn(List.of(otherSensorIngestAuthorization));
+
+        sensorIngestAuthorizationCache.find(sensorSystemId);
+        sensorIngestAuthorizationCache.find(otherSensorIngestAuthorization.sensorSystemId());
+        sensorIngestAuthorizationCache.find(sensorSystemId);
+
+        verify(sensorSystemRepository, times(2))
+                .findSensorIngestAuthorizationsByIdIn(List.of(sensorSystemId));
+    }
+
+    @Test
+    void shouldReloadExpiredAuthorization() {
+        ingestAuthorizationCacheConfig.setTimeToLive(Duration.ZERO);
+        SensorIngestAuthorizationCacheImpl sensorIngestAuthorizationCache =
+                new SensorIngestAuthorizationCacheImpl(
+                        ingestAuthorizationCacheConfig, sensorSystemRepository);
+        UUID sensorSystemId = sensorIngestAuthorization.sensorSystemId();
+        when(sensorSystemRepository.findSensorIngestAuthorizationsByIdIn(anyCollection()))
+                .thenReturn(List.of(sensorIngestAuthorization));
+
+        sensorIngestAuthorizationCache.find(sensorSystemId);
+        sensorIngestAuthorizationCache.find(sensorSystemId);
+
+        verify(sensorSystemRepository, times(2))
+                .findSensorIngestAuthorizationsByIdIn(anyCollection());
+    }
+}
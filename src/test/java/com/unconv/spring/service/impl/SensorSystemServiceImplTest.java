@@ -6,13 +6,17 @@
 import static org.instancio.Select.field;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.unconv.spring.domain.EnvironmentalReading;
 import com.unconv.spring.domain.SensorLocation;
+import com.unconv.spring.domain.SensorReadingSummary;
 import com.unconv.spring.domain.SensorSystem;
 import com.unconv.spring.domain.UnconvUser;
 import com.unconv.spring.dto.SensorSystemDTO;
@@ -20,13 +24,16 @@
 import com.unconv.spring.enums.SensorStatus;
 import com.unconv.spring.model.response.MessageResponse;
 import com.unconv.spring.model.response.PagedResult;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
 import com.unconv.spring.persistence.SensorLocationRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
 import com.unconv.spring.persistence.SensorSystemRepository;
 import com.unconv.spring.persistence.UnconvUserRepository;
-import java.time.LocalDateTime;
+import com.unconv.spring.projection.SensorReadingCountProjection;
+import com.unconv.spring.service.RecentReadingCounter;
+import com.unconv.spring.service.SensorIngestAuthorizationCache;
 import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -60,8 +67,16 @@ class SensorSystemServiceImplTest {
 
     @Mock private EnvironmentalReadingRepository environmentalReadingRepository;
 
+    @Mock private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Mock private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
     @Mock private UnconvUserRepository unconvUserRepository;
 
+    @Mock private SensorIngestAuthorizationCache sensorIngestAuthorizationCache;
+
+    @Mock private RecentReadingCounter recentReadingCounter;
+
     @InjectMocks private SensorSystemServiceImpl sensorSystemService;
 
     private SensorSystem sensorSystem;
@@ -146,17 +161,10 @@ void findAllSensorSystemsByUnconvUserIdInDescendingOrder() {
 
         Page<SensorSystem> sensorLocationPage = new PageImpl<>(sensorSystemList);
 
-        when(environmentalReadingRepository.findFirstBySensorSystemIdOrderByTimestampDesc(
-                        any(UUID.class)))
-                .thenReturn(
-                        new EnvironmentalReading(
-                                UUID.randomUUID(),
-                                13L,
-                                75L,
-                                OffsetDateTime.of(
-                                        LocalDateTime.of(2023, 1, 17, 17, 39), ZoneOffset.UTC),
-                                sensorSystem))
-                .thenReturn(null);
+        SensorReadingSummary sensorReadingSummary = Instancio.create(SensorReadingSummary.class);
+        sensorReadingSummary.setSensorSystemId(sensorSystemList.get(2).getId());
+        when(sensorReadingSummaryRepository.findAllById(anyList()))
+                .thenReturn(List.of(sensorReadingSummary));
 
         when(sensorSystemRepository.findByUnconvUserIdAndDeletedFalse(
                         any(UUID.class), any(Pageable.class)))
@@ -168,6 +176,79 @@ void findAllSensorSystemsByUnconvUserIdInDescendingOrder() {
 
         assertEquals(sensorSystemList.size(), result.data().size());
         assertEquals(sensorSystemList.get(0).getId(), result.data().get(0).getId());
+        assertEquals(
+                sensorReadingSummary.getReadingCount(), result.data().get(2).getReadingCount());
+        assertEquals(
+                sensorReadingSummary.getLatestTemperature(),
+                result.data().get(2).getLatestReading().getTemperature());
+        assertNull(result.data().get(0).getLatestReading());
+        // The summaries of the whole page are read at once
+        verify(sensorReadingSummaryRepository)
+                .findAllById(sensorSystemList.stream().map(SensorSystem::getId).toList());
+        verify(sensorReadingSummaryRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void findAllSensorSystemsByUnconvUserIdResolvesSensorsWithoutSummaryTogether() {
+        List<SensorSystem> sensorSystemList =
+                Instancio.ofList(SensorSystem.class)
+                        .size(3)
+                        .supply(field(SensorSystem::getId), UUID::randomUUID)
+                        .create();
+        List<UUID> sensorSystemIds = sensorSystemList.stream().map(SensorSystem::getId).toList();
+        SensorSystem sensorSystemWithReadings = sensorSystemList.get(1);
+
+        when(sensorSystemRepository.findByUnconvUserIdAndDeletedFalse(
+                        any(UUID.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(sensorSystemList));
+        // No summaries are kept off PostgreSQL
+        when(environmentalReadingRepository.countBySensorSystemIds(sensorSystemIds))
+                .thenReturn(
+                        List.of(new MockSensorReadingCount(sensorSystemWithReadings.getId(), 4)));
+        when(environmentalReadingRepository.findLatestBySensorSystemIds(sensorSystemIds))
+                .thenReturn(
+                        List.of(
+                                new EnvironmentalReading(
+                                        UUID.randomUUID(),
+                                        13.0,
+                                        75.0,
+                                        OffsetDateTime.now(),
+                                        sensorSystemWithReadings)));
+
+        PagedResult<SensorSystemDTO> result =
+                sensorSystemService.findAllSensorSystemsByUnconvUserId(
+                        UUID.randomUUID(), 0, 10, "id", "ASC");
+
+        assertEquals(0, result.data().get(0).getReadingCount());
+        assertNull(result.data().get(0).getLatestReading());
+        assertEquals(4, result.data().get(1).getReadingCount());
+        assertEquals(13.0, result.data().get(1).getLatestReading().getTemperature());
+        verify(environmentalReadingRepository, never()).countBySensorSystemId(any(UUID.class));
+        verify(environmentalReadingRepository, never())
+                .findFirstBySensorSystemIdOrderByTimestampDesc(any(UUID.class));
+    }
+
+    @Test
+    void findAllSensorSystemsByUnconvUserIdTreatsSensorsWithoutSummaryAsEmptyOnPostgres() {
+        List<SensorSystem> sensorSystemList =
+                Instancio.ofList(SensorSystem.class)
+                        .size(3)
+                        .supply(field(SensorSystem::getId), UUID::randomUUID)
+                        .create();
+
+        when(sensorSystemRepository.findByUnconvUserIdAndDeletedFalse(
+                        any(UUID.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(sensorSystemList));
+        when(environmentalReadingRepository.isCopySupported()).thenReturn(true);
+
+        PagedResult<SensorSystemDTO> result =
+                sensorSystemService.findAllSensorSystemsByUnconvUserId(
+                        UUID.randomUUID(), 0, 10, "id", "ASC");
+
+        assertEquals(0, result.data().get(2).getReadingCount());
+        assertNull(result.data().get(2).getLatestReading());
+        verify(environmentalReadingRepository, never()).countBySensorSystemIds(anyList());
+        verify(environmentalReadingRepository, never()).findLatestBySensorSystemIds(anyList());
     }
 
     @Test
@@ -197,23 +278,40 @@ void findSensorSystemDTOById() {
     void findSensorSystemDTOByIdWithReadingsPresent() {
         when(sensorSystemRepository.findById(any(UUID.class)))
                 .thenReturn(Optional.of(sensorSystem));
+        SensorReadingSummary sensorReadingSummary = Instancio.create(SensorReadingSummary.class);
+        when(sensorReadingSummaryRepository.findById(any(UUID.class)))
+                .thenReturn(Optional.of(sensorReadingSummary));
+
+        Optional<SensorSystemDTO> result =
+                sensorSystemService.findSensorSystemDTOById(sensorSystemId);
+
+        assertTrue(result.isPresent());
+        assertEquals(sensorSystem.getId(), result.get().getId());
+        assertNotEquals(null, result.get().getLatestReading());
+        assertEquals(
+                sensorReadingSummary.getLatestTemperature(),
+                result.get().getLatestReading().getTemperature());
+        assertEquals(sensorReadingSummary.getReadingCount(), result.get().getReadingCount());
+    }
+
+    @Test
+    void findSensorSystemDTOByIdWithReadingsButNoSummary() {
+        when(sensorSystemRepository.findById(any(UUID.class)))
+                .thenReturn(Optional.of(sensorSystem));
+        // No summary is kept off PostgreSQL, so the readings are counted instead
+        when(environmentalReadingRepository.countBySensorSystemId(sensorSystemId)).thenReturn(3L);
         when(environmentalReadingRepository.findFirstBySensorSystemIdOrderByTimestampDesc(
-                        any(UUID.class)))
+                        sensorSystemId))
                 .thenReturn(
                         new EnvironmentalReading(
-                                UUID.randomUUID(),
-                                13L,
-                                75L,
-                                OffsetDateTime.of(
-                                        LocalDateTime.of(2023, 1, 17, 17, 39), ZoneOffset.UTC),
-                                sensorSystem));
+                                UUID.randomUUID(), 13.0, 75.0, OffsetDateTime.now(), sensorSystem));
 
         Optional<SensorSystemDTO> result =
                 sensorSystemService.findSensorSystemDTOById(sensorSystemId);
 
         assertTrue(result.isPresent());
-        assertEquals(sensorSystem.getId(), result.get().getId());
-        assertNotEquals(null, result.get().getLatestReading());
+        assertEquals(3L, result.get().getReadingCount());
+        assertEquals(13.0, result.get().getLatestReading().getTemperature());
     }
 
     @Test
@@ -269,6 +367,7 @@ void saveSensorSystem() {
         SensorSystem result = sensorSystemService.saveSensorSystem(sensorSystem);
 
         assertEquals(sensorSystem.getId(), result.getId());
+        verify(sensorIngestAuthorizationCache, times(1)).invalidate(sensorSystem.getId());
     }
 
     @Test
@@ -471,6 +570,7 @@ void deleteSensorSystemById() {
 
         assertTrue(result);
         verify(sensorSystemRepository, times(1)).deleteById(sensorSystemId);
+        verify(sensorIngestAuthorizationCache, times(1)).invalidate(sensorSystemId);
     }
 
     @Test
@@ -482,6 +582,19 @@ void deleteSensorSystemByIdWithReadingsPresent() {
         boolean result = sensorSystemService.deleteSensorSystemById(sensorSystemId);
         assertFalse(result);
         verify(sensorSystemRepository, times(0)).deleteById(sensorSystemId);
+        verify(sensorIngestAuthorizationCache, times(1)).invalidate(sensorSystemId);
+    }
+
+    @Test
+    void deleteSensorSystemByIdWithOnlyAggregatesPresent() {
+        when(environmentalReadingAggregateRepository.existsBySensorSystemId(sensorSystemId))
+                .thenReturn(true);
+        when(sensorSystemRepository.findSensorSystemById(any(UUID.class))).thenReturn(sensorSystem);
+
+        boolean result = sensorSystemService.deleteSensorSystemById(sensorSystemId);
+        assertFalse(result);
+        assertTrue(sensorSystem.isDeleted());
+        verify(sensorSystemRepository, times(0)).deleteById(sensorSystemId);
     }
 
     @Test
@@ -523,9 +636,30 @@ void findAllSensorSystemsBySensorName() {
 
     @Test
     void findRecentStatsBySensorSystemId() {
+        Map<Integer, Long> recentCounts = Map.of(1, 2L, 3, 5L, 8, 9L, 24, 20L, 168, 64L);
+        when(recentReadingCounter.findRecentCounts(sensorSystemId, List.of(1, 3, 8, 24, 168)))
+                .thenReturn(Optional.of(recentCounts));
+
         Map<Integer, Long> result =
                 sensorSystemService.findRecentStatsBySensorSystemId(sensorSystemId);
-        assertEquals(5, result.size());
+
+        assertEquals(recentCounts, result);
+        verify(environmentalReadingRepository, never())
+                .countReadingsSince(any(UUID.class), anyList(), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void findRecentStatsBySensorSystemIdWithColdCounters() {
+        when(recentReadingCounter.findRecentCounts(sensorSystemId, List.of(1, 3, 8, 24, 168)))
+                .thenReturn(Optional.empty());
+        when(environmentalReadingRepository.countReadingsSince(
+                        eq(sensorSystemId), anyList(), any(OffsetDateTime.class)))
+                .thenReturn(new long[] {2, 5, 9, 20, 64});
+
+        Map<Integer, Long> result =
+                sensorSystemService.findRecentStatsBySensorSystemId(sensorSystemId);
+
+        assertEquals(Map.of(1, 2L, 3, 5L, 8, 9L, 24, 20L, 168, 64L), result);
     }
 
     @Test
@@ -566,4 +700,17 @@ void findAllBySensorSystemsBySensorNameAndUnconvUserId() {
                 .findDistinctBySensorNameContainsIgnoreCaseAndUnconvUserIdOrderBySensorNameAsc(
                         sensorName, unconvUserId);
     }
+
+    private record MockSensorReadingCount(UUID sensorSystemId, long readingCount)
+            implements SensorReadingCountProjection {
+        @Override
+        public UUID getSensorSystemId() {
+            return sensorSystemId;
+        }
+
+        @Override
+        public long getReadingCount() {
+            return readingCount;
+        }
+    }
 }
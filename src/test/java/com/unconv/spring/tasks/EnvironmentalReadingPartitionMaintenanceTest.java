@@ -0,0 +1,102 @@
+package com.unconv.spring.tasks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.unconv.spring.config.ReadingPartitionConfig;
+import com.unconv.spring.model.DroppedPartitions;
+import com.unconv.spring.service.EnvironmentalReadingPartitionService;
+import com.unconv.spring.service.SensorReadingSummaryService;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class EnvironmentalReadingPartitionMaintenanceTest {
+
+    @Mock private EnvironmentalReadingPartitionService environmentalReadingPartitionService;
+
+    @Mock private SensorReadingSummaryService sensorReadingSummaryService;
+
+    private ReadingPartitionConfig readingPartitionConfig;
+
+    private EnvironmentalReadingPartitionMaintenance environmentalReadingPartitionMaintenance;
+
+    @BeforeEach
+    void setUp() {
+        readingPartitionConfig = new ReadingPartitionConfig();
+        environmentalReadingPartitionMaintenance =
+                new EnvironmentalReadingPartitionMaintenance(
+                        environmentalReadingPartitionService,
+                        sensorReadingSummaryService,
+                        readingPartitionConfig);
+    }
+
+    @Test
+    void shouldDoNothingWhenTableIsNotPartitioned() {
+        when(environmentalReadingPartitionService.isPartitioned()).thenReturn(false);
+
+        environmentalReadingPartitionMaintenance.maintainPartitions();
+
+        verify(environmentalReadingPartitionService).isPartitioned();
+        verifyNoMoreInteractions(environmentalReadingPartitionService);
+    }
+
+    @Test
+    void shouldCreatePartitionsAheadAndKeepAllPartitionsByDefault() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        when(environmentalReadingPartitionService.isPartitioned()).thenReturn(true);
+
+        environmentalReadingPartitionMaintenance.maintainPartitions();
+
+        verify(environmentalReadingPartitionService)
+                .createPartitions(currentMonth, currentMonth.plusMonths(3));
+        verify(environmentalReadingPartitionService, never()).dropPartitionsBefore(any());
+        verifyNoInteractions(sensorReadingSummaryService);
+    }
+
+    @Test
+    void shouldDropPartitionsOlderThanRetainedMonthsAndRebuildTheirSummaries() {
+        readingPartitionConfig.setMonthsAhead(1);
+        readingPartitionConfig.setRetainedMonths(12);
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        Set<UUID> sensorSystemIds = Set.of(UUID.randomUUID(), UUID.randomUUID());
+        when(environmentalReadingPartitionService.isPartitioned()).thenReturn(true);
+        when(environmentalReadingPartitionService.dropPartitionsBefore(
+                        currentMonth.minusMonths(12)))
+                .thenReturn(
+                        new DroppedPartitions(
+                                List.of(currentMonth.minusMonths(13)), sensorSystemIds));
+
+        environmentalReadingPartitionMaintenance.maintainPartitions();
+
+        verify(environmentalReadingPartitionService)
+                .createPartitions(currentMonth, currentMonth.plusMonths(1));
+        verify(sensorReadingSummaryService).rebuildSummaries(sensorSystemIds);
+    }
+
+    @Test
+    void shouldNotRebuildSummariesWhenNoPartitionIsDropped() {
+        readingPartitionConfig.setRetainedMonths(12);
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        when(environmentalReadingPartitionService.isPartitioned()).thenReturn(true);
+        when(environmentalReadingPartitionService.dropPartitionsBefore(
+                        currentMonth.minusMonths(12)))
+                .thenReturn(new DroppedPartitions(List.of(), Set.of()));
+
+        environmentalReadingPartitionMaintenance.maintainPartitions();
+
+        verifyNoInteractions(sensorReadingSummaryService);
+    }
+}
@@ -0,0 +1,190 @@
+package com.unconv.spring.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.enums.CsvCompression;
+import com.unconv.spring.exception.ReadingsCSVProcessingException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+class CSVUtilTest {
+
+    private static final ForkJoinPool FORK_JOIN_POOL = new ForkJoinPool(4);
+
+    private static final OffsetDateTime START =
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final SensorSystem sensorSystem = new SensorSystem();
+
+    @AfterAll
+    static void tearDown() {
+        FORK_JOIN_POOL.shutdown();
+    }
+
+    @Test
+    void shouldParseInParallelInFileOrderMatchingSequentialParse() {
+        String csv = readingsCsv("timestamp,temperature,humidity", 1_050);
+
+        List<EnvironmentalReading> sequential = new ArrayList<>();
+        int sequentialCount =
+                CSVUtil.csvToEnvironmentalReadingChunks(
+                        toInputStream(csv), sensorSystem, 100, sequential::addAll);
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<EnvironmentalReading> parallel = new ArrayList<>();
+        int parallelCount =
+                CSVUtil.csvToEnvironmentalReadingChunksInParallel(
+                        toInputStream(csv),
+                        sensorSystem,
+                        100,
+                        chunk -> {
+                            chunkSizes.add(chunk.size());
+                            parallel.addAll(chunk);
+                        },
+                        FORK_JOIN_POOL);
+
+        assertEquals(1_050, sequentialCount);
+        assertEquals(1_050, parallelCount);
+        assertEquals(11, chunkSizes.size());
+        assertEquals(50, chunkSizes.get(10));
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getTemperature(), parallel.get(i).getTemperature());
+            assertEquals(sequential.get(i).getTimestamp(), parallel.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    void shouldReportRecordNumberOfMalformedRecordWhenParsingInParallel() {
+        String csv = readingsCsv("temperature,humidity,timestamp", 250) + "oops,1.0,bad\n";
+
+        ReadingsCSVProcessingException exception =
+                assertThrows(
+                        ReadingsCSVProcessingException.class,
+                        () ->
+                                CSVUtil.csvToEnvironmentalReadingChunksInParallel(
+                                        toInputStream(csv),
+                                        sensorSystem,
+                                        100,
+                                        chunk -> {},
+                                        FORK_JOIN_POOL));
+
+        assertTrue(exception.getMessage().contains("record 251"));
+    }
+
+    @Test
+    void shouldRejectFileWithMissingColumnWhenParsingInParallel() {
+        String csv = "temperature,timestamp\n21.0,2024-01-01T00:00:00Z\n";
+
+        assertThrows(
+                ReadingsCSVProcessingException.class,
+                () ->
+                        CSVUtil.csvToEnvironmentalReadingChunksInParallel(
+                                toInputStream(csv),
+                                sensorSystem,
+                                100,
+                                chunk -> {},
+                                FORK_JOIN_POOL));
+    }
+
+    @Test
+    void shouldDetectCompressionFromContentTypeOrContentEncoding() {
+        assertEquals(Optional.of(CsvCompression.NONE), CSVUtil.getCsvCompression("text/csv", null));
+        assertEquals(
+                Optional.of(CsvCompression.GZIP),
+                CSVUtil.getCsvCompression("application/gzip", null));
+        assertEquals(
+                Optional.of(CsvCompression.GZIP),
+                CSVUtil.getCsvCompression("application/x-gzip", null));
+        assertEquals(
+                Optional.of(CsvCompression.ZSTD),
+                CSVUtil.getCsvCompression("application/zstd", null));
+        assertEquals(
+                Optional.of(CsvCompression.GZIP), CSVUtil.getCsvCompression("text/csv", "gzip"));
+        assertEquals(
+                Optional.of(CsvCompression.ZSTD), CSVUtil.getCsvCompression("text/csv", "ZSTD"));
+        assertEquals(Optional.empty(), CSVUtil.getCsvCompression("text/csv", "br"));
+        assertEquals(Optional.empty(), CSVUtil.getCsvCompression("text/plain", "gzip"));
+        assertEquals(Optional.empty(), CSVUtil.getCsvCompression(null, null));
+    }
+
+    @Test
+    void shouldParseGzipAndZstdCompressedFilesLikePlainFiles() throws IOException {
+        String csv = readingsCsv("temperature,humidity,timestamp", 250);
+        byte[] plain = csv.getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(gzip)) {
+            outputStream.write(plain);
+        }
+        ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new ZstdOutputStream(zstd)) {
+            outputStream.write(plain);
+        }
+
+        List<EnvironmentalReading> expected =
+                CSVUtil.csvToEnvironmentalReadings(toInputStream(csv), sensorSystem);
+        assertTimestampsMatch(expected, parseCompressed(gzip.toByteArray(), CsvCompression.GZIP));
+        assertTimestampsMatch(expected, parseCompressed(zstd.toByteArray(), CsvCompression.ZSTD));
+    }
+
+    @Test
+    void shouldRejectStreamWithoutGzipHeader() {
+        assertThrows(
+                IOException.class,
+                () -> CSVUtil.decompress(toInputStream("temperature\n"), CsvCompression.GZIP));
+    }
+
+    private List<EnvironmentalReading> parseCompressed(
+            byte[] compressed, CsvCompression csvCompression) throws IOException {
+        List<EnvironmentalReading> environmentalReadings = new ArrayList<>();
+        try (InputStream inputStream =
+                CSVUtil.decompress(new ByteArrayInputStream(compressed), csvCompression)) {
+            CSVUtil.csvToEnvironmentalReadingChunks(
+                    inputStream, sensorSystem, 100, environmentalReadings::addAll);
+        }
+        return environmentalReadings;
+    }
+
+    private static void assertTimestampsMatch(
+            List<EnvironmentalReading> expected, List<EnvironmentalReading> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+        }
+    }
+
+    private static String readingsCsv(String header, int rows) {
+        List<String> columns = List.of(header.split(","));
+        StringBuilder csv = new StringBuilder(header).append('\n');
+        for (int i = 0; i < rows; i++) {
+            String[] values = new String[3];
+            values[columns.indexOf("temperature")] = String.valueOf(i / 10.0);
+            values[columns.indexOf("humidity")] = String.valueOf(i % 100);
+            values[columns.indexOf("timestamp")] = START.plusMinutes(i).toString();
+            csv.append(String.join(",", values)).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static InputStream toInputStream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package com.unconv.spring.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.unconv.spring.model.SummarizedReading;
+import com.unconv.spring.projection.EnvironmentalReadingProjection;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LttbDownsamplerTest {
+
+    private static final OffsetDateTime START =
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void testKeepsAllReadingsUpToMaxPoints() {
+        LttbDownsampler downsampler = temperatureDownsampler(5, START.plusMinutes(5));
+        for (int i = 0; i < 5; i++) {
+            downsampler.accept(new SummarizedReading(20.0 + i, 40.0, START.plusMinutes(i)));
+        }
+
+        List<EnvironmentalReadingProjection> sampled = downsampler.finish();
+
+        assertEquals(5, sampled.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(20.0 + i, sampled.get(i).getTemperature());
+        }
+    }
+
+    @Test
+    void testKeepsEndsAndSpikesWithinMaxPoints() {
+        LttbDownsampler downsampler = temperatureDownsampler(12, START.plusMinutes(1000));
+        for (int i = 0; i < 1000; i++) {
+            double temperature = i == 437 ? 35.0 : i == 801 ? 5.0 : 20.0 + (i % 2) * 0.1;
+            downsampler.accept(new SummarizedReading(temperature, 40.0, START.plusMinutes(i)));
+        }
+
+        List<EnvironmentalReadingProjection> sampled = downsampler.finish();
+
+        assertTrue(sampled.size() <= 12);
+        assertTrue(START.isEqual(sampled.get(0).getTimestamp()));
+        assertTrue(START.plusMinutes(999).isEqual(sampled.get(sampled.size() - 1).getTimestamp()));
+        assertTrue(sampled.stream().anyMatch(reading -> reading.getTemperature() == 35.0));
+        assertTrue(sampled.stream().anyMatch(reading -> reading.getTemperature() == 5.0));
+        for (int i = 1; i < sampled.size(); i++) {
+            assertTrue(sampled.get(i - 1).getTimestamp().isBefore(sampled.get(i).getTimestamp()));
+        }
+    }
+
+    @Test
+    void testFollowsChosenMetric() {
+        LttbDownsampler downsampler =
+                new LttbDownsampler(
+                        4,
+                        START,
+                        START.plusMinutes(100),
+                        EnvironmentalReadingProjection::getHumidity);
+        for (int i = 0; i < 100; i++) {
+            double humidity = i == 30 ? 90.0 : 40.0;
+            downsampler.accept(new SummarizedReading(20.0, humidity, START.plusMinutes(i)));
+        }
+
+        List<EnvironmentalReadingProjection> sampled = downsampler.finish();
+
+        assertEquals(4, sampled.size());
+        assertEquals(90.0, sampled.get(1).getHumidity());
+    }
+
+    @Test
+    void testRejectsFewerThanThreePoints() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> temperatureDownsampler(2, START.plusHours(1)));
+    }
+
+    private static LttbDownsampler temperatureDownsampler(int maxPoints, OffsetDateTime end) {
+        return new LttbDownsampler(
+                maxPoints, START, end, EnvironmentalReadingProjection::getTemperature);
+    }
+}
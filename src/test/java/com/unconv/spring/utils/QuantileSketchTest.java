@@ -0,0 +1,79 @@
+package com.unconv.spring.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class QuantileSketchTest {
+
+    @Test
+    void testGetQuantileIsWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] values = new double[10_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble(-20, 40);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[] {0.0, 0.05, 0.5, 0.95, 0.99, 1.0}) {
+            double expected = values[(int) (quantile * (values.length - 1))];
+            assertEquals(
+                    expected,
+                    sketch.getQuantile(quantile),
+                    Math.abs(expected) * QuantileSketch.RELATIVE_ACCURACY + 1e-9);
+        }
+        assertEquals(values.length, sketch.getCount());
+    }
+
+    @Test
+    void testMergeMatchesSingleSketch() {
+        QuantileSketch whole = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < 100; i++) {
+            double value = i - 10.0;
+            whole.add(value);
+            (i % 3 == 0 ? first : second).add(value);
+        }
+
+        first.merge(second);
+
+        assertEquals(whole.getCount(), first.getCount());
+        for (double quantile : new double[] {0.0, 0.1, 0.5, 0.95, 0.99, 1.0}) {
+            assertEquals(whole.getQuantile(quantile), first.getQuantile(quantile));
+        }
+    }
+
+    @Test
+    void testAddBinRebuildsSketchFromStoredBins() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.addBin(QuantileSketch.signOf(-5.0), QuantileSketch.binOf(-5.0), 1);
+        sketch.addBin(QuantileSketch.signOf(0.0), QuantileSketch.binOf(0.0), 1);
+        sketch.addBin(QuantileSketch.signOf(20.0), QuantileSketch.binOf(20.0), 2);
+
+        assertEquals(4, sketch.getCount());
+        assertEquals(-5.0, sketch.getQuantile(0.0), 5.0 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(0.0, sketch.getQuantile(0.4));
+        assertEquals(20.0, sketch.getQuantile(0.7), 20.0 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(20.0, sketch.getQuantile(1.0), 20.0 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void testGetQuantileOfEmptySketchIsNull() {
+        assertNull(new QuantileSketch().getQuantile(0.5));
+    }
+
+    @Test
+    void testGetQuantileRejectsOutOfRangeQuantile() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(1.0);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.getQuantile(1.5));
+    }
+}
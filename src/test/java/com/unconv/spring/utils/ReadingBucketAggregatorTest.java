@@ -0,0 +1,93 @@
+package com.unconv.spring.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+
+class ReadingBucketAggregatorTest {
+
+    private static final OffsetDateTime START =
+            OffsetDateTime.of(2024, 1, 1, 0, 10, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void testAddAggregatesValuesPerBucket() {
+        ReadingBucketAggregator aggregator =
+                new ReadingBucketAggregator(START, START.plusMinutes(30), Duration.ofMinutes(15));
+
+        assertTrue(aggregator.add(START.plusMinutes(1), 20.0));
+        assertTrue(aggregator.add(START.plusMinutes(4), 24.0));
+        assertTrue(aggregator.add(START.plusMinutes(25), -3.5));
+
+        assertEquals(3, aggregator.getBucketCount());
+        assertEquals(
+                OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+                aggregator.getBucketStart(0));
+        assertEquals(2, aggregator.getCount(0));
+        assertEquals(44.0, aggregator.getSum(0));
+        assertEquals(20.0, aggregator.getMin(0));
+        assertEquals(24.0, aggregator.getMax(0));
+        assertEquals(22.0, aggregator.getAverage(0));
+        assertEquals(0, aggregator.getCount(1));
+        assertEquals(1, aggregator.getCount(2));
+        assertEquals(-3.5, aggregator.getMin(2));
+        assertEquals(-3.5, aggregator.getMax(2));
+    }
+
+    @Test
+    void testAddIgnoresValuesOutsideWindow() {
+        ReadingBucketAggregator aggregator =
+                new ReadingBucketAggregator(START, START.plusHours(1), Duration.ofMinutes(15));
+
+        assertFalse(aggregator.add(START, 20.0));
+        assertFalse(aggregator.add(START.minusMinutes(1), 20.0));
+        assertFalse(aggregator.add(START.plusHours(1).plusNanos(1), 20.0));
+        assertTrue(aggregator.add(START.plusHours(1), 20.0));
+
+        assertEquals(1, aggregator.getCount(aggregator.getBucketCount() - 1));
+    }
+
+    @Test
+    void testBucketsAreAlignedToUtc() {
+        OffsetDateTime start = OffsetDateTime.of(2024, 1, 1, 22, 0, 0, 0, ZoneOffset.ofHours(5));
+        ReadingBucketAggregator aggregator =
+                new ReadingBucketAggregator(start, start.plusDays(1), Duration.ofDays(1));
+
+        aggregator.add(start.plusHours(1), 10.0);
+
+        assertEquals(
+                OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+                aggregator.getBucketStart(0));
+        assertEquals(1, aggregator.getCount(0));
+    }
+
+    @Test
+    void testResetClearsBuckets() {
+        ReadingBucketAggregator aggregator =
+                new ReadingBucketAggregator(START, START.plusMinutes(30), Duration.ofMinutes(15));
+        aggregator.add(START.plusMinutes(1), 20.0);
+
+        aggregator.reset();
+        aggregator.add(START.plusMinutes(2), 30.0);
+
+        assertEquals(1, aggregator.getCount(0));
+        assertEquals(30.0, aggregator.getSum(0));
+        assertEquals(30.0, aggregator.getMin(0));
+        assertEquals(30.0, aggregator.getMax(0));
+    }
+
+    @Test
+    void testConstructorRejectsFractionalInterval() {
+        OffsetDateTime end = START.plusHours(1);
+        Duration interval = Duration.ofMillis(1500);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new ReadingBucketAggregator(START, end, interval));
+    }
+}
@@ -0,0 +1,41 @@
+package com.unconv.spring.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void testGenerateSetsVersionVariantAndTimestamp() {
+        long beforeMillis = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.generate();
+        long afterMillis = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version(), "The generated UUID is not version 7.");
+        assertEquals(2, uuid.variant(), "The generated UUID does not use the RFC variant.");
+
+        long timestampMillis = uuid.getMostSignificantBits() >>> 16;
+        // Identifiers generated in a burst may run slightly ahead of the clock
+        assertTrue(
+                timestampMillis >= beforeMillis && timestampMillis <= afterMillis + 1000,
+                "The timestamp of the generated UUID is not the current time.");
+    }
+
+    @Test
+    void testGenerateIsStrictlyIncreasing() {
+        UUID previous = UuidV7Generator.generate();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.generate();
+            assertTrue(
+                    Long.compareUnsigned(
+                                    next.getMostSignificantBits(),
+                                    previous.getMostSignificantBits())
+                            > 0,
+                    "The generated UUIDs are not in increasing order.");
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.unconv.spring.web.controllers;
+
+import static com.unconv.spring.consts.AppConstants.PROFILE_TEST;
+import static com.unconv.spring.enums.DefaultUserRole.UNCONV_USER;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unconv.spring.domain.EnvironmentalReading;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.domain.UnconvRole;
+import com.unconv.spring.domain.UnconvUser;
+import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorSystemRepository;
+import com.unconv.spring.persistence.UnconvRoleRepository;
+import com.unconv.spring.service.UnconvUserService;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Runs the reading endpoints against the embedded H2 database the application falls back to when
+ * no PostgreSQL datasource is configured. The hourly and daily rollups and the reading summaries
+ * are only kept on PostgreSQL, so these requests must neither write nor rely on them on H2.
+ */
+@ActiveProfiles({PROFILE_TEST})
+@SpringBootTest(
+        webEnvironment = RANDOM_PORT,
+        properties = {
+            "spring.datasource.url=jdbc:h2:mem:environmental-reading-h2-it;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password="
+        })
+@AutoConfigureMockMvc
+class EnvironmentalReadingControllerH2IT {
+
+    @Autowired private MockMvc mockMvc;
+
+    @Autowired private ObjectMapper objectMapper;
+
+    @Autowired private WebApplicationContext webApplicationContext;
+
+    @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
+
+    @Autowired private SensorSystemRepository sensorSystemRepository;
+
+    @Autowired private UnconvUserService unconvUserService;
+
+    @Autowired private UnconvRoleRepository unconvRoleRepository;
+
+    private EnvironmentalReading environmentalReading;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc =
+                MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                        .defaultRequest(
+                                MockMvcRequestBuilders.get("/")
+                                        .with(user("UnconvUser").roles(UNCONV_USER.name())))
+                        .apply(springSecurity())
+                        .build();
+
+        environmentalReadingRepository.deleteAllInBatch();
+
+        UnconvRole userUnconvRole = unconvRoleRepository.findByName(UNCONV_USER.name());
+        UnconvUser unconvUser =
+                new UnconvUser(null, "UnconvUser", "unconvuser@email.com", "password");
+        unconvUser.setUnconvRoles(Set.of(userUnconvRole));
+        UnconvUser savedUnconvUser =
+                unconvUserService.saveUnconvUser(unconvUser, unconvUser.getPassword());
+
+        SensorSystem sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(null, "H2 sensor", null, savedUnconvUser));
+
+        environmentalReading =
+                environmentalReadingRepository.save(
+                        new EnvironmentalReading(
+                                null,
+                                21.5,
+                                40.0,
+                                OffsetDateTime.now(ZoneOffset.UTC)
+                                        .minusHours(1)
+                                        .truncatedTo(ChronoUnit.SECONDS),
+                                sensorSystem));
+    }
+
+    @Test
+    void shouldUpdateEnvironmentalReading() throws Exception {
+        environmentalReading.setTemperature(45.0);
+
+        this.mockMvc
+                .perform(
+                        put("/EnvironmentalReading/{id}", environmentalReading.getId())
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(environmentalReading)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(environmentalReading.getId().toString())))
+                .andExpect(jsonPath("$.temperature", is(45.0)));
+
+        assertEquals(
+                45.0,
+                environmentalReadingRepository
+                        .findById(environmentalReading.getId())
+                        .orElseThrow()
+                        .getTemperature());
+    }
+
+    @Test
+    void shouldDeleteEnvironmentalReading() throws Exception {
+        this.mockMvc
+                .perform(
+                        delete("/EnvironmentalReading/{id}", environmentalReading.getId())
+                                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(environmentalReading.getId().toString())));
+
+        assertFalse(environmentalReadingRepository.existsById(environmentalReading.getId()));
+    }
+
+    @Test
+    void shouldFetchExtremeReadingsWithoutSummary() throws Exception {
+        this.mockMvc
+                .perform(
+                        get(
+                                "/EnvironmentalReading/Extreme/SensorSystem/{sensorSystemId}",
+                                environmentalReading.getSensorSystem().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxTemperature.temperature", is(21.5)))
+                .andExpect(jsonPath("$.minHumidity.humidity", is(40.0)));
+    }
+
+    @Test
+    void shouldFetchHourlyAverageTemperaturesFromReadingsWithoutRollups() throws Exception {
+        this.mockMvc
+                .perform(
+                        get(
+                                "/EnvironmentalReadingStats/Hourly/SensorSystem/{sensorSystemId}",
+                                environmentalReading.getSensorSystem().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasItem(21.5)));
+    }
+
+    @Test
+    void shouldFetchStatsFromReadingsWithoutRollups() throws Exception {
+        OffsetDateTime start = environmentalReading.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+
+        this.mockMvc
+                .perform(
+                        get(
+                                        "/EnvironmentalReadingStats/SensorSystem/{sensorSystemId}",
+                                        environmentalReading.getSensorSystem().getId())
+                                .param("start", start.toString())
+                                .param("end", start.plusHours(1).toString())
+                                .param("interval", "PT1H")
+                                .param("metrics", "TEMPERATURE,HUMIDITY")
+                                .param("aggregates", "AVG,MAX,P50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rollupResolution", is(nullValue())))
+                .andExpect(jsonPath("$.buckets.size()", is(1)))
+                .andExpect(jsonPath("$.buckets[0].readingCount", is(1)))
+                .andExpect(jsonPath("$.buckets[0].values.TEMPERATURE.AVG", is(21.5)))
+                .andExpect(jsonPath("$.buckets[0].values.TEMPERATURE.P50", is(21.5)))
+                .andExpect(jsonPath("$.buckets[0].values.HUMIDITY.MAX", is(40.0)));
+    }
+
+    @Test
+    void shouldFetchCursorPageWithoutTotalWithoutSummary() throws Exception {
+        this.mockMvc
+                .perform(
+                        get(
+                                "/EnvironmentalReading/Cursor/SensorSystem/{sensorSystemId}",
+                                environmentalReading.getSensorSystem().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.size()", is(1)))
+                .andExpect(jsonPath("$.totalElements", is(nullValue())));
+    }
+
+    @Test
+    void shouldFetchSensorSystemWithReadingCountWithoutSummary() throws Exception {
+        this.mockMvc
+                .perform(
+                        get("/SensorSystem/{id}", environmentalReading.getSensorSystem().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.readingCount", is(1)))
+                .andExpect(jsonPath("$.latestReading.temperature", is(21.5)));
+    }
+
+    @Test
+    void shouldFetchSensorSystemPageWithReadingCountsWithoutSummaries() throws Exception {
+        SensorSystem sensorSystem = environmentalReading.getSensorSystem();
+        String sensorSystemPath = "$.data[?(@.id == '" + sensorSystem.getId() + "')]";
+
+        this.mockMvc
+                .perform(
+                        get(
+                                "/SensorSystem/UnconvUser/{unconvUserId}",
+                                sensorSystem.getUnconvUser().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(sensorSystemPath + ".readingCount", hasItem(1)))
+                .andExpect(
+                        jsonPath(sensorSystemPath + ".latestReading.temperature", hasItem(21.5)));
+    }
+}
@@ -1,9 +1,14 @@
 package com.unconv.spring.web.controllers;
 
 import static com.unconv.spring.consts.AppConstants.ACCESS_TOKEN;
+import static com.unconv.spring.consts.AppConstants.MAX_BATCH_INGEST_SIZE;
 import static com.unconv.spring.consts.AppConstants.MAX_PAGE_SIZE;
+import static com.unconv.spring.consts.MessageConstants.ENVT_BATCH_REJ_NULL;
+import static com.unconv.spring.consts.MessageConstants.ENVT_BATCH_REJ_SIZE;
+import static com.unconv.spring.consts.MessageConstants.ENVT_EXPORT_REJ_RANGE;
 import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_FORMAT_ERROR;
 import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_REJ_ERR;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_DUPLICATE;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_DLTD;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_INAT;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_SENS;
@@ -20,14 +25,19 @@
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.matchesPattern;
 import static org.instancio.Select.field;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
@@ -36,6 +46,7 @@
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -50,27 +61,38 @@
 import com.unconv.spring.dto.SensorAuthTokenDTO;
 import com.unconv.spring.enums.DefaultUserRole;
 import com.unconv.spring.enums.SensorStatus;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
+import com.unconv.spring.persistence.EnvironmentalReadingQuantileBinRepository;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
 import com.unconv.spring.persistence.SensorAuthTokenRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
 import com.unconv.spring.persistence.SensorSystemRepository;
 import com.unconv.spring.persistence.UnconvRoleRepository;
 import com.unconv.spring.persistence.UnconvUserRepository;
 import com.unconv.spring.service.EnvironmentalReadingService;
 import com.unconv.spring.service.SensorAuthTokenService;
+import com.unconv.spring.service.SensorReadingSummaryService;
 import com.unconv.spring.service.UnconvUserService;
 import com.unconv.spring.utils.AccessTokenGenerator;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.instancio.Instancio;
 import org.instancio.Model;
@@ -80,12 +102,20 @@
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 class EnvironmentalReadingControllerIT extends AbstractIntegrationTest {
 
     @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
 
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Autowired
+    private EnvironmentalReadingQuantileBinRepository environmentalReadingQuantileBinRepository;
+
     @Autowired private EnvironmentalReadingService environmentalReadingService;
 
     @Autowired private SensorAuthTokenService sensorAuthTokenService;
@@ -94,6 +124,10 @@ class EnvironmentalReadingControllerIT extends AbstractIntegrationTest {
 
     @Autowired private SensorSystemRepository sensorSystemRepository;
 
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Autowired private SensorReadingSummaryService sensorReadingSummaryService;
+
     @Autowired private UnconvUserService unconvUserService;
 
     @Autowired private UnconvUserRepository unconvUserRepository;
@@ -106,6 +140,12 @@ class EnvironmentalReadingControllerIT extends AbstractIntegrationTest {
 
     private static int totalPages;
 
+    private static final String COLUMNAR_INTERVAL_PATH =
+            "/EnvironmentalReading/Interval/Columnar/SensorSystem/{sensorSystemId}";
+
+    private static final String EXPORT_PATH =
+            "/EnvironmentalReading/Export/SensorSystem/{sensorSystemId}";
+
     private static final Model<EnvironmentalReading> environemntalReadingModel =
             Instancio.of(EnvironmentalReading.class)
                     .supply(
@@ -315,6 +355,77 @@ void shouldFetchAllEnvironmentalReadingsOfSpecificSensorInDescendingOrder() thro
                 .andExpect(jsonPath("$.hasPrevious", is(false)));
     }
 
+    @Test
+    void shouldWalkThroughEnvironmentalReadingsOfSpecificSensorWithCursors() throws Exception {
+        SensorSystem sensorSystem = environmentalReadingList.get(0).getSensorSystem();
+        // Saved past the ingest paths, which keep the summary up to date
+        sensorReadingSummaryService.rebuildSummary(sensorSystem.getId());
+
+        List<UUID> expectedIds =
+                environmentalReadingList.stream()
+                        .sorted(Comparator.comparing(EnvironmentalReading::getTimestamp))
+                        .map(EnvironmentalReading::getId)
+                        .toList();
+        int pageSize = 10;
+
+        List<UUID> fetchedIds = new ArrayList<>();
+        List<String> previousCursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = fetchCursorPage(sensorSystem.getId(), cursor, pageSize);
+            assertEquals(expectedIds.size(), page.get("totalElements").asInt());
+            assertEquals(cursor != null, page.get("hasPrevious").asBoolean());
+            page.get("data").forEach(reading -> fetchedIds.add(readingId(reading)));
+            previousCursors.add(page.path("previousCursor").asText(null));
+            cursor = page.path("nextCursor").asText(null);
+        } while (cursor != null);
+
+        assertEquals(expectedIds, fetchedIds);
+        assertEquals(totalPages, previousCursors.size());
+
+        // Stepping back from the last page returns the page before it
+        String lastPreviousCursor = previousCursors.get(totalPages - 1);
+        JsonNode secondToLastPage =
+                fetchCursorPage(sensorSystem.getId(), lastPreviousCursor, pageSize);
+        List<UUID> secondToLastIds = new ArrayList<>();
+        secondToLastPage.get("data").forEach(reading -> secondToLastIds.add(readingId(reading)));
+        int secondToLastStart = (totalPages - 2) * pageSize;
+        assertEquals(
+                expectedIds.subList(secondToLastStart, secondToLastStart + pageSize),
+                secondToLastIds);
+        assertTrue(secondToLastPage.get("hasNext").asBoolean());
+    }
+
+    @Test
+    void shouldReturn400WhenFetchingEnvironmentalReadingsWithInvalidCursor() throws Exception {
+        this.mockMvc
+                .perform(get("/EnvironmentalReading/Cursor").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode fetchCursorPage(UUID sensorSystemId, String cursor, int pageSize)
+            throws Exception {
+        MockHttpServletRequestBuilder request =
+                get("/EnvironmentalReading/Cursor/SensorSystem/{sensorSystemId}", sensorSystemId)
+                        .param("sortDir", "asc")
+                        .param("pageSize", String.valueOf(pageSize));
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        String responseBody =
+                this.mockMvc
+                        .perform(request)
+                        .andExpect(status().isOk())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
+        return objectMapper.readTree(responseBody);
+    }
+
+    private static UUID readingId(JsonNode reading) {
+        return UUID.fromString(reading.get("id").asText());
+    }
+
     @Test
     void shouldFindEnvironmentalReadingsOfSpecificSensorWithoutSpecifiedInterval()
             throws Exception {
@@ -399,6 +510,89 @@ void shouldFindEnvironmentalReadingsOfSpecificSensorWithSpecifiedInterval() thro
                 .andExpect(jsonPath("$.size()", is(15)));
     }
 
+    @Test
+    void shouldFindReadingSeriesOfSpecificSensorWithSpecifiedInterval() throws Exception {
+        SensorSystem sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(
+                                null,
+                                "Charting sensor",
+                                null,
+                                environmentalReadingList.get(0).getSensorSystem().getUnconvUser()));
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<EnvironmentalReading> recentReadings =
+                environmentalReadingRepository.saveAll(
+                        List.of(
+                                new EnvironmentalReading(
+                                        null, 21.5, 45.0, now.minusHours(2), sensorSystem),
+                                new EnvironmentalReading(
+                                        null, 20.25, 50.0, now.minusHours(4), sensorSystem)));
+
+        this.mockMvc
+                .perform(get(COLUMNAR_INTERVAL_PATH, sensorSystem.getId()).param("hours", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sensorSystemId", is(sensorSystem.getId().toString())))
+                .andExpect(jsonPath("$.sensorName", is(sensorSystem.getSensorName())))
+                .andExpect(jsonPath("$.sensorSystem").doesNotExist())
+                .andExpect(jsonPath("$.timestamps", hasSize(recentReadings.size())))
+                .andExpect(
+                        jsonPath(
+                                "$.timestamps[0]",
+                                is(now.minusHours(4).toInstant().toEpochMilli())))
+                .andExpect(jsonPath("$.temperatures", contains(20.25, 21.5)))
+                .andExpect(jsonPath("$.humidities", contains(50.0, 45.0)));
+    }
+
+    @Test
+    void shouldDownsampleReadingSeriesOfSpecificSensorToMaxPoints() throws Exception {
+        SensorSystem sensorSystem =
+                sensorSystemRepository.save(
+                        new SensorSystem(
+                                null,
+                                "Charting sensor",
+                                null,
+                                environmentalReadingList.get(0).getSensorSystem().getUnconvUser()));
+        OffsetDateTime first = OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS).minusHours(4);
+        List<EnvironmentalReading> recentReadings = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            double temperature = i == 120 ? 40.0 : 20.0 + (i % 3) * 0.1;
+            recentReadings.add(
+                    new EnvironmentalReading(
+                            null, temperature, 50.0, first.plusMinutes(i), sensorSystem));
+        }
+        environmentalReadingRepository.saveAll(recentReadings);
+        long lastTimestamp = first.plusMinutes(199).toInstant().toEpochMilli();
+
+        this.mockMvc
+                .perform(
+                        get(COLUMNAR_INTERVAL_PATH, sensorSystem.getId())
+                                .param("hours", "5")
+                                .param("maxPoints", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.timestamps.size()", lessThanOrEqualTo(20)))
+                .andExpect(jsonPath("$.timestamps[0]", is(first.toInstant().toEpochMilli())))
+                .andExpect(jsonPath("$.timestamps[-1]", is(lastTimestamp)))
+                .andExpect(jsonPath("$.temperatures", hasItem(40.0)));
+    }
+
+    @Test
+    void shouldReturn400WhenDownsamplingReadingSeriesToTooFewPoints() throws Exception {
+        SensorSystem sensorSystem = environmentalReadingList.get(0).getSensorSystem();
+
+        this.mockMvc
+                .perform(
+                        get(COLUMNAR_INTERVAL_PATH, sensorSystem.getId())
+                                .param("maxPoints", "2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturn404WhenFetchingReadingSeriesOfUnknownSensor() throws Exception {
+        this.mockMvc
+                .perform(get(COLUMNAR_INTERVAL_PATH, UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldReturn404WhenFetchingEnvironmentalReadingsOfSpecificSensorWithoutSpecifiedInterval()
             throws Exception {
@@ -440,6 +634,14 @@ void shouldFindExtremeEnvironmentalReadingsOfSpecificSensor() throws Exception {
 
         assert !savedEnvironmentalReadingsOfSpecificSensor.isEmpty();
 
+        // Saved past the ingest paths, which keep the summary up to date
+        sensorReadingSummaryService.rebuildSummary(savedSensorSystem.getId());
+        double maxTemperature =
+                savedEnvironmentalReadingsOfSpecificSensor.stream()
+                        .mapToDouble(EnvironmentalReading::getTemperature)
+                        .max()
+                        .orElseThrow();
+
         this.mockMvc
                 .perform(
                         get(
@@ -448,7 +650,7 @@ void shouldFindExtremeEnvironmentalReadingsOfSpecificSensor() throws Exception {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.*", is(instanceOf(List.class))))
                 .andExpect(jsonPath("$.size()", is(4)))
-                .andExpect(jsonPath("$.maxTemperature.temperature", notNullValue()))
+                .andExpect(jsonPath("$.maxTemperature.temperature", is(maxTemperature)))
                 .andExpect(jsonPath("$.maxHumidity.humidity", notNullValue()))
                 .andExpect(jsonPath("$.minTemperature.temperature", notNullValue()))
                 .andExpect(jsonPath("$.minHumidity.humidity", notNullValue()))
@@ -469,6 +671,115 @@ void shouldReturn404WhenFetchingExtremeEnvironmentalReadingsOfSpecificSensor()
                 .andReturn();
     }
 
+    @Test
+    void shouldExportEnvironmentalReadingsOfSpecificSensorAsNdjson() throws Exception {
+        SensorSystem sensorSystem = environmentalReadingList.get(0).getSensorSystem();
+        List<EnvironmentalReading> sortedReadings =
+                environmentalReadingList.stream()
+                        .sorted(Comparator.comparing(EnvironmentalReading::getTimestamp))
+                        .toList();
+        OffsetDateTime start = sortedReadings.get(0).getTimestamp().minusSeconds(1);
+        OffsetDateTime end =
+                sortedReadings.get(sortedReadings.size() - 1).getTimestamp().plusSeconds(1);
+
+        String[] lines =
+                exportReadings(sensorSystem.getId(), start, end, "NDJSON", "application/x-ndjson")
+                        .split("\n");
+
+        assertEquals(sortedReadings.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode exportedReading = objectMapper.readTree(lines[i]);
+            EnvironmentalReading environmentalReading = sortedReadings.get(i);
+            assertEquals(
+                    environmentalReading.getTemperature(),
+                    exportedReading.get("temperature").asDouble());
+            assertEquals(
+                    environmentalReading.getHumidity(), exportedReading.get("humidity").asDouble());
+            // Timestamps are stored to the microsecond
+            OffsetDateTime timestamp =
+                    OffsetDateTime.parse(exportedReading.get("timestamp").asText());
+            assertTrue(
+                    Duration.between(environmentalReading.getTimestamp(), timestamp)
+                                    .abs()
+                                    .toNanos()
+                            < 1000);
+        }
+    }
+
+    @Test
+    void shouldExportEnvironmentalReadingsOfSpecificSensorAsCsv() throws Exception {
+        SensorSystem sensorSystem = environmentalReadingList.get(0).getSensorSystem();
+        OffsetDateTime start =
+                environmentalReadingList.stream()
+                        .map(EnvironmentalReading::getTimestamp)
+                        .min(Comparator.naturalOrder())
+                        .orElseThrow()
+                        .minusSeconds(1);
+
+        String[] lines =
+                exportReadings(
+                                sensorSystem.getId(),
+                                start,
+                                OffsetDateTime.now(ZoneOffset.UTC),
+                                "CSV",
+                                "text/csv")
+                        .split("\n");
+
+        assertEquals("temperature,humidity,timestamp", lines[0]);
+        assertEquals(environmentalReadingList.size() + 1, lines.length);
+    }
+
+    @Test
+    void shouldReturn400WhenExportingEnvironmentalReadingsOverEmptyRange() throws Exception {
+        SensorSystem sensorSystem = environmentalReadingList.get(0).getSensorSystem();
+        String now = OffsetDateTime.now(ZoneOffset.UTC).toString();
+
+        this.mockMvc
+                .perform(
+                        get(EXPORT_PATH, sensorSystem.getId())
+                                .param("start", now)
+                                .param("end", now))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is(ENVT_EXPORT_REJ_RANGE)));
+    }
+
+    @Test
+    void shouldReturn404WhenExportingEnvironmentalReadingsOfUnknownSensor() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        this.mockMvc
+                .perform(
+                        get(EXPORT_PATH, UUID.randomUUID())
+                                .param("start", now.minusDays(1).toString())
+                                .param("end", now.toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    private String exportReadings(
+            UUID sensorSystemId,
+            OffsetDateTime start,
+            OffsetDateTime end,
+            String format,
+            String contentType)
+            throws Exception {
+        MvcResult mvcResult =
+                this.mockMvc
+                        .perform(
+                                get(EXPORT_PATH, sensorSystemId)
+                                        .param("start", start.toString())
+                                        .param("end", end.toString())
+                                        .param("format", format))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+        return this.mockMvc
+                .perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
     @Test
     void shouldFindEnvironmentalReadingById() throws Exception {
         EnvironmentalReading environmentalReading = environmentalReadingList.get(0);
@@ -562,6 +873,102 @@ void shouldCreateNewEnvironmentalReading() throws Exception {
                 .andReturn();
     }
 
+    @Test
+    void shouldIgnoreDuplicateEnvironmentalReadingForSameSensorSystemAndTimestamp()
+            throws Exception {
+        UnconvUser unconvUser =
+                new UnconvUser(null, "UnconvUser", "unconvuser@email.com", "password");
+        unconvUser.setUnconvRoles(unconvRoleSet);
+        UnconvUser savedUnconvUser =
+                unconvUserService.saveUnconvUser(unconvUser, unconvUser.getPassword());
+        SensorSystem sensorSystem = new SensorSystem(null, "Sensor system", null, savedUnconvUser);
+        SensorSystem savedSensorSystem = sensorSystemRepository.save(sensorSystem);
+        EnvironmentalReadingDTO environmentalReadingDTO =
+                new EnvironmentalReadingDTO(
+                        null,
+                        3L,
+                        56L,
+                        OffsetDateTime.of(LocalDateTime.of(2023, 3, 17, 7, 9), ZoneOffset.UTC),
+                        savedSensorSystem);
+
+        this.mockMvc
+                .perform(
+                        post("/EnvironmentalReading")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(environmentalReadingDTO)))
+                .andExpect(status().isCreated());
+
+        this.mockMvc
+                .perform(
+                        post("/EnvironmentalReading")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(environmentalReadingDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message", is(ENVT_RECORD_DUPLICATE)));
+
+        assertEquals(
+                1, environmentalReadingRepository.countBySensorSystemId(savedSensorSystem.getId()));
+    }
+
+    @Test
+    void shouldRejectEnvironmentalReadingOnceSensorSystemIsUpdatedToInactive() throws Exception {
+        UnconvUser unconvUser =
+                new UnconvUser(null, "UnconvUser", "unconvuser@email.com", "password");
+        unconvUser.setUnconvRoles(unconvRoleSet);
+        UnconvUser savedUnconvUser =
+                unconvUserService.saveUnconvUser(unconvUser, unconvUser.getPassword());
+        SensorSystem sensorSystem = new SensorSystem(null, "Sensor system", null, savedUnconvUser);
+        SensorSystem savedSensorSystem = sensorSystemRepository.save(sensorSystem);
+
+        this.mockMvc
+                .perform(
+                        post("/EnvironmentalReading")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                new EnvironmentalReadingDTO(
+                                                        null,
+                                                        3L,
+                                                        56L,
+                                                        OffsetDateTime.of(
+                                                                LocalDateTime.of(
+                                                                        2023, 3, 17, 7, 9),
+                                                                ZoneOffset.UTC),
+                                                        savedSensorSystem))))
+                .andExpect(status().isCreated());
+
+        savedSensorSystem.setSensorStatus(SensorStatus.INACTIVE);
+        this.mockMvc
+                .perform(
+                        put("/SensorSystem/{id}", savedSensorSystem.getId())
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(savedSensorSystem)))
+                .andExpect(status().isOk());
+
+        this.mockMvc
+                .perform(
+                        post("/EnvironmentalReading")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                new EnvironmentalReadingDTO(
+                                                        null,
+                                                        4L,
+                                                        57L,
+                                                        OffsetDateTime.of(
+                                                                LocalDateTime.of(
+                                                                        2023, 3, 17, 7, 10),
+                                                                ZoneOffset.UTC),
+                                                        savedSensorSystem))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is(ENVT_RECORD_REJ_INAT)));
+    }
+
     @Test
     void shouldCreateNewEnvironmentalReadingWithSensorAuthToken() throws Exception {
         UUID alreadyExistingUUID = environmentalReadingList.get(0).getId();
@@ -948,6 +1355,109 @@ void shouldReturn400WhenCreatingNewEnvironmentalReadingWithValuesHigherThanLimit
                                 is("must be less than or equal to 9999.000")));
     }
 
+    @Test
+    void shouldCreateNewEnvironmentalReadingsInBatchAndRejectUnknownSensorSystem()
+            throws Exception {
+        SensorSystem savedSensorSystem = environmentalReadingList.get(0).getSensorSystem();
+        SensorSystem unknownSensorSystem =
+                new SensorSystem(UUID.randomUUID(), "Unknown sensor", null, null);
+
+        List<EnvironmentalReadingDTO> environmentalReadingDTOs =
+                List.of(
+                        new EnvironmentalReadingDTO(
+                                null,
+                                21L,
+                                40L,
+                                OffsetDateTime.of(
+                                        LocalDateTime.of(2023, 3, 17, 7, 9), ZoneOffset.UTC),
+                                savedSensorSystem),
+                        new EnvironmentalReadingDTO(
+                                null,
+                                22L,
+                                41L,
+                                OffsetDateTime.of(
+                                        LocalDateTime.of(2023, 3, 17, 7, 10), ZoneOffset.UTC),
+                                savedSensorSystem),
+                        new EnvironmentalReadingDTO(
+                                null,
+                                23L,
+                                42L,
+                                OffsetDateTime.of(
+                                        LocalDateTime.of(2023, 3, 17, 7, 11), ZoneOffset.UTC),
+                                unknownSensorSystem));
+
+        this.mockMvc
+                .perform(
+                        post("/EnvironmentalReading/Batch")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(environmentalReadingDTOs)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.acceptedCount", is(2)))
+                .andExpect(jsonPath("$.rejectedCount", is(1)))
+                .andExpect(jsonPath("$.results[0].accepted", is(true)))
+                .andExpect(jsonPath("$.results[0].id", notNullValue()))
+                .andExpect(jsonPath("$.results[2].accepted", is(false)))
+                .andExpect(jsonPath("$.results[2].message", is(ENVT_RECORD_REJ_SENS)));
+
+        assertEquals(
+                environmentalReadingList.size() + 2,
+                environmentalReadingRepository.countBySensorSystemId(savedSensorSystem.getId()));
+    }
+
+    @Test
+    void shouldReturn400WhenCreatingEnvironmentalReadingsInBatchAboveMaximumSize()
+            throws Exception {
+        SensorSystem savedSensorSystem = environmentalReadingList.get(0).getSensorSystem();
+        EnvironmentalReadingDTO environmentalReadingDTO =
+                new EnvironmentalReadingDTO(
+                        null,
+                        21L,
+                        40L,
+                        OffsetDateTime.of(LocalDateTime.of(2023, 3, 17, 7, 9), ZoneOffset.UTC),
+                        savedSensorSystem);
+
+        this.mockMvc
+                .perform(
+                        post("/EnvironmentalReading/Batch")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                Collections.nCopies(
+                                                        MAX_BATCH_INGEST_SIZE + 1,
+                                                        environmentalReadingDTO))))
+                .andExpect(status().isBadRequest())
+                .andExpect(
+                        jsonPath(
+                                "$.detail",
+                                is(ENVT_BATCH_REJ_SIZE.formatted(MAX_BATCH_INGEST_SIZE))));
+    }
+
+    @Test
+    void shouldReturn400WhenCreatingEnvironmentalReadingsInBatchWithNullReading()
+            throws Exception {
+        SensorSystem savedSensorSystem = environmentalReadingList.get(0).getSensorSystem();
+        EnvironmentalReadingDTO environmentalReadingDTO =
+                new EnvironmentalReadingDTO(
+                        null,
+                        21L,
+                        40L,
+                        OffsetDateTime.of(LocalDateTime.of(2023, 3, 17, 7, 9), ZoneOffset.UTC),
+                        savedSensorSystem);
+
+        this.mockMvc
+                .perform(
+                        post("/EnvironmentalReading/Batch")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                Arrays.asList(environmentalReadingDTO, null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is(ENVT_BATCH_REJ_NULL)));
+    }
+
     @Test
     void shouldCreateNewEnvironmentalReadingWhenUploadingAsBulk() throws Exception {
         UnconvUser unconvUser =
@@ -991,10 +1501,13 @@ void shouldCreateNewEnvironmentalReadingWhenUploadingAsBulk() throws Exception {
             stringBuilder.append(environmentalReadingDTO.toCSVString()).append("\n");
         }
 
-        String expectedResponse =
-                "Uploaded the file successfully: test.csv with "
-                        + environmentalReadingDTOsOfSpecificSensorForBulkData.size()
-                        + " records";
+        String expectedResponsePattern =
+                Pattern.quote(
+                                "Uploaded the file successfully: test.csv with "
+                                        + environmentalReadingDTOsOfSpecificSensorForBulkData
+                                                .size()
+                                        + " records")
+                        + " in \\d+ ms \\(\\d+ records/s\\)";
 
         // Create a MockMultipartFile with the CSV content
         MockMultipartFile csvFile =
@@ -1012,7 +1525,7 @@ void shouldCreateNewEnvironmentalReadingWhenUploadingAsBulk() throws Exception {
                                 .file(csvFile)
                                 .with(csrf()))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$", is(expectedResponse)));
+                .andExpect(jsonPath("$", matchesPattern(expectedResponsePattern)));
     }
 
     @Test
@@ -1426,6 +1939,9 @@ void shouldReturn404WhenDeletingNonExistingEnvironmentalReading() throws Excepti
     @AfterEach
     void tearDown() {
         environmentalReadingRepository.deleteAll();
+        sensorReadingSummaryRepository.deleteAll();
+        environmentalReadingQuantileBinRepository.deleteAll();
+        environmentalReadingAggregateRepository.deleteAll();
         sensorAuthTokenRepository.deleteAll();
         sensorSystemRepository.deleteAll();
 
@@ -4,6 +4,7 @@
 import static com.unconv.spring.consts.AppConstants.DEFAULT_ER_SORT_DIRECTION;
 import static com.unconv.spring.consts.AppConstants.PROFILE_TEST;
 import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_ACCEPTED;
+import static com.unconv.spring.consts.MessageConstants.ENVT_RECORD_REJ_SENS;
 import static com.unconv.spring.consts.MessageConstants.ENVT_VALID_SENSOR_SYSTEM;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -12,6 +13,7 @@
 import static org.instancio.Select.field;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
@@ -38,6 +40,8 @@
 import com.unconv.spring.dto.EnvironmentalReadingDTO;
 import com.unconv.spring.enums.SensorLocationType;
 import com.unconv.spring.enums.SensorStatus;
+import com.unconv.spring.model.response.BatchIngestItemResult;
+import com.unconv.spring.model.response.BatchIngestResponse;
 import com.unconv.spring.model.response.ExtremeReadingsResponse;
 import com.unconv.spring.model.response.MessageResponse;
 import com.unconv.spring.model.response.PagedResult;
@@ -57,6 +61,7 @@
 import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import org.instancio.Instancio;
 import org.instancio.Model;
 import org.junit.jupiter.api.BeforeEach;
@@ -516,8 +521,6 @@ void shouldCreateNewEnvironmentalReading() throws Exception {
                         OffsetDateTime.of(LocalDateTime.of(2023, 3, 7, 7, 56), ZoneOffset.UTC),
                         mSensorSystem);
 
-        given(sensorSystemService.findSensorSystemById(mSensorSystem.getId()))
-                .willReturn(Optional.of(mSensorSystem));
         given(
                         environmentalReadingService
                                 .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
@@ -569,8 +572,17 @@ void shouldReturn404WhenCreatingEnvironmentalReadingWithNonExistingSensorSystem(
                         OffsetDateTime.of(LocalDateTime.of(2023, 3, 7, 7, 56), ZoneOffset.UTC),
                         mSensorSystem);
 
-        given(sensorSystemService.findSensorSystemById(mSensorSystem.getId()))
-                .willReturn(Optional.empty());
+        given(
+                        environmentalReadingService
+                                .generateTimestampIfRequiredAndValidatedUnconvUserAndSaveEnvironmentalReading(
+                                        any(EnvironmentalReadingDTO.class),
+                                        any(Authentication.class)))
+                .willAnswer(
+                        invocation ->
+                                new ResponseEntity<>(
+                                        new MessageResponse<>(
+                                                invocation.getArgument(0), ENVT_RECORD_REJ_SENS),
+                                        HttpStatus.NOT_FOUND));
 
         this.mockMvc
                 .perform(
@@ -587,6 +599,65 @@ void shouldReturn404WhenCreatingEnvironmentalReadingWithNonExistingSensorSystem(
                 .andReturn();
     }
 
+    @Test
+    void shouldCreateNewEnvironmentalReadingsInBatch() throws Exception {
+        List<EnvironmentalReadingDTO> environmentalReadingDTOs =
+                List.of(
+                        new EnvironmentalReadingDTO(
+                                null,
+                                21L,
+                                40L,
+                                OffsetDateTime.of(
+                                        LocalDateTime.of(2023, 3, 7, 7, 56), ZoneOffset.UTC),
+                                mSensorSystem),
+                        new EnvironmentalReadingDTO(
+                                null,
+                                22L,
+                                41L,
+                                OffsetDateTime.of(
+                                        LocalDateTime.of(2023, 3, 7, 7, 57), ZoneOffset.UTC),
+                                mSensorSystem));
+
+        given(
+                        environmentalReadingService
+                                .validateSensorSystemsAndSaveEnvironmentalReadingsInBatch(
+                                        any(), any(Authentication.class)))
+                .willAnswer(
+                        invocation -> {
+                            List<EnvironmentalReadingDTO> environmentalReadingDTOsArg =
+                                    invocation.getArgument(0);
+                            List<BatchIngestItemResult> results =
+                                    IntStream.range(0, environmentalReadingDTOsArg.size())
+                                            .mapToObj(
+                                                    index ->
+                                                            BatchIngestItemResult.accepted(
+                                                                    index,
+                                                                    UUID.randomUUID(),
+                                                                    ENVT_RECORD_ACCEPTED))
+                                            .toList();
+                            return new ResponseEntity<>(
+                                    new BatchIngestResponse(results), HttpStatus.CREATED);
+                        });
+
+        this.mockMvc
+                .perform(
+                        post("/EnvironmentalReading/Batch")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(environmentalReadingDTOs)))
+                .andDo(
+                        document(
+                                "shouldCreateNewEnvironmentalReadingsInBatch",
+                                preprocessRequest(prettyPrint),
+                                preprocessResponse(prettyPrint)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.acceptedCount", is(environmentalReadingDTOs.size())))
+                .andExpect(jsonPath("$.rejectedCount", is(0)))
+                .andExpect(jsonPath("$.results", hasSize(environmentalReadingDTOs.size())))
+                .andExpect(jsonPath("$.results[0].id", notNullValue()))
+                .andExpect(jsonPath("$.results[0].message", is(ENVT_RECORD_ACCEPTED)));
+    }
+
     @Test
     void shouldCreateNewEnvironmentalReadingWhenUploadingAsBulk() throws Exception {
         UnconvUser unconvUser =
@@ -635,7 +706,9 @@ void shouldCreateNewEnvironmentalReadingWhenUploadingAsBulk() throws Exception {
         given(
                         environmentalReadingService
                                 .verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings(
-                                        any(SensorSystem.class), any(MultipartFile.class)))
+                                        any(SensorSystem.class),
+                                        any(MultipartFile.class),
+                                        isNull()))
                 .willReturn(ResponseEntity.status(HttpStatus.CREATED).body(expectedResponse));
 
         // Create a MockMultipartFile with the CSV content
@@ -709,7 +782,9 @@ void shouldReturn404WhenUploadingAsBulkWithNonExistingSensorSystem() throws Exce
         given(
                         environmentalReadingService
                                 .verifyCSVFileAndValidateSensorSystemAndParseEnvironmentalReadings(
-                                        any(SensorSystem.class), any(MultipartFile.class)))
+                                        any(SensorSystem.class),
+                                        any(MultipartFile.class),
+                                        isNull()))
                 .willReturn(ResponseEntity.status(HttpStatus.CREATED).body(expectedResponse));
 
         // Create a MockMultipartFile with the CSV content
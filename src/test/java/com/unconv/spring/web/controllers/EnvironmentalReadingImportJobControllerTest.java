@@ -0,0 +1,189 @@
+package com.unconv.spring.web.controllers;
+
+import static com.unconv.spring.consts.AppConstants.PROFILE_TEST;
+import static com.unconv.spring.consts.MessageConstants.ENVT_FILE_JOB_ACCEPTED;
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessResponse;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.unconv.spring.common.AbstractControllerTest;
+import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.enums.CsvImportJobStatus;
+import com.unconv.spring.model.CsvImportJob;
+import com.unconv.spring.model.response.CsvImportJobResponse;
+import com.unconv.spring.model.response.MessageResponse;
+import com.unconv.spring.security.MethodSecurityConfig;
+import com.unconv.spring.service.CsvImportJobService;
+import com.unconv.spring.service.SensorSystemService;
+import com.unconv.spring.web.rest.EnvironmentalReadingImportJobController;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.multipart.MultipartFile;
+
+@WebMvcTest(controllers = EnvironmentalReadingImportJobController.class)
+@ActiveProfiles(PROFILE_TEST)
+@AutoConfigureRestDocs(outputDir = "target/snippets/EnvironmentalReadingImportJob")
+@Import(MethodSecurityConfig.class)
+class EnvironmentalReadingImportJobControllerTest extends AbstractControllerTest {
+
+    private static final String BULK_JOBS_URL =
+            "/EnvironmentalReading/Bulk/SensorSystem/{sensorSystemId}/Jobs";
+
+    @MockBean private CsvImportJobService csvImportJobService;
+
+    @MockBean private SensorSystemService sensorSystemService;
+
+    private final SensorSystem sensorSystem =
+            SensorSystem.builder().id(UUID.randomUUID()).sensorName("Sensor ABCD").build();
+
+    private final MockMultipartFile csvFile =
+            new MockMultipartFile(
+                    "file",
+                    "test.csv",
+                    "text/csv",
+                    "temperature,humidity,timestamp\n21.5,40.0,2024-01-01T00:00:00Z\n"
+                            .getBytes(StandardCharsets.UTF_8));
+
+    @BeforeEach
+    void setUp() {
+        configureMockMvcWithObjectMapper();
+    }
+
+    @Test
+    void shouldReturn202WhenSubmittingCsvImportJob() throws Exception {
+        CsvImportJob csvImportJob =
+                new CsvImportJob(sensorSystem.getId(), "test.csv", "username");
+
+        given(sensorSystemService.findSensorSystemById(sensorSystem.getId()))
+                .willReturn(Optional.of(sensorSystem));
+        given(
+                        csvImportJobService.verifyCSVFileAndSubmitCsvImportJob(
+                                eq(sensorSystem),
+                                any(MultipartFile.class),
+                                isNull(),
+                                any(Authentication.class)))
+                .willReturn(
+                        ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .body(
+                                        new MessageResponse<>(
+                                                CsvImportJobResponse.of(csvImportJob),
+                                                ENVT_FILE_JOB_ACCEPTED.formatted("test.csv"))));
+
+        this.mockMvc
+                .perform(
+                        multipart(BULK_JOBS_URL, sensorSystem.getId())
+                                .file(csvFile)
+                                .with(csrf()))
+                .andDo(
+                        document(
+                                "shouldReturn202WhenSubmittingCsvImportJob",
+                                preprocessResponse(prettyPrint)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.entity.id", is(csvImportJob.getId().toString())))
+                .andExpect(jsonPath("$.entity.status", is(CsvImportJobStatus.QUEUED.name())));
+    }
+
+    @Test
+    void shouldReturn404WhenSubmittingCsvImportJobForNonExistingSensorSystem() throws Exception {
+        UUID sensorSystemId = UUID.randomUUID();
+
+        given(sensorSystemService.findSensorSystemById(sensorSystemId))
+                .willReturn(Optional.empty());
+
+        this.mockMvc
+                .perform(
+                        multipart(BULK_JOBS_URL, sensorSystemId)
+                                .file(csvFile)
+                                .with(csrf()))
+                .andDo(
+                        document(
+                                "shouldReturn404WhenSubmittingCsvImportJobForNonExistingSensorSystem",
+                                preprocessResponse(prettyPrint)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnProgressOfCsvImportJob() throws Exception {
+        CsvImportJob csvImportJob =
+                new CsvImportJob(sensorSystem.getId(), "test.csv", "username");
+        csvImportJob.markRunning();
+        csvImportJob.recordParsed(1000);
+        csvImportJob.recordInserted(1000);
+        csvImportJob.recordRejected("Failed to parse CSV file: record 1001: bad value");
+
+        given(csvImportJobService.findCsvImportJobById(csvImportJob.getId(), "username"))
+                .willReturn(Optional.of(csvImportJob));
+
+        this.mockMvc
+                .perform(get("/EnvironmentalReading/Bulk/Jobs/{jobId}", csvImportJob.getId()))
+                .andDo(
+                        document(
+                                "shouldReturnProgressOfCsvImportJob",
+                                preprocessResponse(prettyPrint)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is(CsvImportJobStatus.RUNNING.name())))
+                .andExpect(jsonPath("$.parsed", is(1001)))
+                .andExpect(jsonPath("$.inserted", is(1000)))
+                .andExpect(jsonPath("$.rejected", is(1)));
+    }
+
+    @Test
+    void shouldReturn404WhenFetchingUnknownCsvImportJob() throws Exception {
+        UUID jobId = UUID.randomUUID();
+
+        given(csvImportJobService.findCsvImportJobById(jobId, "username"))
+                .willReturn(Optional.empty());
+
+        this.mockMvc
+                .perform(get("/EnvironmentalReading/Bulk/Jobs/{jobId}", jobId))
+                .andDo(
+                        document(
+                                "shouldReturn404WhenFetchingUnknownCsvImportJob",
+                                preprocessResponse(prettyPrint)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturn202WhenCancellingCsvImportJob() throws Exception {
+        CsvImportJob csvImportJob =
+                new CsvImportJob(sensorSystem.getId(), "test.csv", "username");
+        csvImportJob.requestCancel();
+        csvImportJob.markFinished(CsvImportJobStatus.CANCELLED, null);
+
+        given(csvImportJobService.cancelCsvImportJob(csvImportJob.getId(), "username"))
+                .willReturn(Optional.of(csvImportJob));
+
+        this.mockMvc
+                .perform(
+                        delete("/EnvironmentalReading/Bulk/Jobs/{jobId}", csvImportJob.getId())
+                                .with(csrf()))
+                .andDo(
+                        document(
+                                "shouldReturn202WhenCancellingCsvImportJob",
+                                preprocessResponse(prettyPrint)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status", is(CsvImportJobStatus.CANCELLED.name())));
+    }
+}
@@ -16,7 +16,10 @@
 import com.unconv.spring.domain.UnconvRole;
 import com.unconv.spring.domain.UnconvUser;
 import com.unconv.spring.enums.DefaultUserRole;
+import com.unconv.spring.persistence.EnvironmentalReadingAggregateRepository;
+import com.unconv.spring.persistence.EnvironmentalReadingQuantileBinRepository;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
 import com.unconv.spring.persistence.SensorSystemRepository;
 import com.unconv.spring.persistence.UnconvRoleRepository;
 import com.unconv.spring.persistence.UnconvUserRepository;
@@ -38,11 +41,21 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 class EnvironmentalReadingStatsControllerIT extends AbstractIntegrationTest {
 
     @Autowired private EnvironmentalReadingRepository environmentalReadingRepository;
 
+    @Autowired
+    private EnvironmentalReadingAggregateRepository environmentalReadingAggregateRepository;
+
+    @Autowired
+    private EnvironmentalReadingQuantileBinRepository environmentalReadingQuantileBinRepository;
+
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
     @Autowired private EnvironmentalReadingStatsService environmentalReadingStatsService;
 
     @Autowired private SensorSystemRepository sensorSystemRepository;
@@ -53,6 +66,10 @@ class EnvironmentalReadingStatsControllerIT extends AbstractIntegrationTest {
 
     @Autowired private UnconvRoleRepository unconvRoleRepository;
 
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
     private final Set<UnconvRole> unconvRoleSet = new HashSet<>();
 
     private static final Model<EnvironmentalReading> environemntalReadingModel =
@@ -78,6 +95,7 @@ class EnvironmentalReadingStatsControllerIT extends AbstractIntegrationTest {
     @BeforeEach
     void setUp() {
         initializeMockMvc();
+        transactionTemplate = new TransactionTemplate(transactionManager);
 
         environmentalReadingRepository.deleteAllInBatch();
 
@@ -130,7 +148,8 @@ void shouldReturn200AndAverageTemperaturesAsMapForQuarterHourly() throws Excepti
     private Map<OffsetDateTime, Double> setupTestDataForQuarterHourly(SensorSystem sensorSystem) {
         List<EnvironmentalReading> environmentalReadings =
                 generateMockDataForQuarterHourlyStats(sensorSystem, 25);
-        environmentalReadingRepository.saveAll(environmentalReadings);
+        transactionTemplate.executeWithoutResult(
+                status -> environmentalReadingRepository.batchInsert(environmentalReadings));
         return environmentalReadingStatsService.getAverageTempsForQuarterHourly(
                 sensorSystem.getId());
     }
@@ -173,7 +192,8 @@ void shouldReturn200AndAverageTemperaturesAsMapForHourly() throws Exception {
     private Map<OffsetDateTime, Double> setupTestDataForHourly(SensorSystem sensorSystem) {
         List<EnvironmentalReading> environmentalReadings =
                 generateMockDataForHourlyStats(sensorSystem, 75);
-        environmentalReadingRepository.saveAll(environmentalReadings);
+        transactionTemplate.executeWithoutResult(
+                status -> environmentalReadingRepository.batchInsert(environmentalReadings));
         return environmentalReadingStatsService.getAverageTempsForHourly(sensorSystem.getId());
     }
 
@@ -201,13 +221,17 @@ void shouldReturn200AndAverageTemperaturesAsMapForDaily() throws Exception {
     private Map<OffsetDateTime, Double> setupTestDataForDaily(SensorSystem sensorSystem) {
         List<EnvironmentalReading> environmentalReadings =
                 generateMockDataForDailyStats(sensorSystem, 150);
-        environmentalReadingRepository.saveAll(environmentalReadings);
+        transactionTemplate.executeWithoutResult(
+                status -> environmentalReadingRepository.batchInsert(environmentalReadings));
         return environmentalReadingStatsService.getAverageTempsForDaily(sensorSystem.getId());
     }
 
     @AfterEach
     void tearDown() {
         environmentalReadingRepository.deleteAll();
+        sensorReadingSummaryRepository.deleteAll();
+        environmentalReadingQuantileBinRepository.deleteAll();
+        environmentalReadingAggregateRepository.deleteAll();
         sensorSystemRepository.deleteAll();
         unconvUserRepository.deleteAll();
 
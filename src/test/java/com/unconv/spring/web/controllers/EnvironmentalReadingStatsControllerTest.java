@@ -1,10 +1,12 @@
 package com.unconv.spring.web.controllers;
 
 import static com.unconv.spring.consts.AppConstants.PROFILE_TEST;
+import static com.unconv.spring.consts.MessageConstants.ENVT_STATS_REJ_INTERVAL;
 import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.calculateAverageTempsForDaily;
 import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.calculateAverageTempsForHourly;
 import static com.unconv.spring.utils.EnvironmentalReadingStatsUtils.calculateAverageTempsForQuarterHourly;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessResponse;
@@ -16,14 +18,23 @@
 import com.unconv.spring.common.AbstractControllerTest;
 import com.unconv.spring.domain.SensorLocation;
 import com.unconv.spring.domain.SensorSystem;
+import com.unconv.spring.enums.ReadingMetric;
 import com.unconv.spring.enums.SensorLocationType;
+import com.unconv.spring.enums.StatsAggregate;
+import com.unconv.spring.model.ReadingStatsQuery;
+import com.unconv.spring.model.response.ReadingStatsBucket;
+import com.unconv.spring.model.response.ReadingStatsResponse;
 import com.unconv.spring.security.MethodSecurityConfig;
 import com.unconv.spring.service.EnvironmentalReadingStatsService;
 import com.unconv.spring.service.SensorSystemService;
 import com.unconv.spring.web.rest.EnvironmentalReadingStatsController;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import net.minidev.json.JSONArray;
 import org.junit.jupiter.api.BeforeEach;
@@ -158,4 +169,88 @@ void shouldReturn200AndAverageTemperaturesAsMapForDaily() throws Exception {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.*", instanceOf(JSONArray.class)));
     }
+
+    @Test
+    void shouldReturn200AndStatsForQuery() throws Exception {
+        UUID sensorSystemId = sensorSystem.getId();
+        OffsetDateTime start = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime end = start.plusDays(1);
+        ReadingStatsQuery query =
+                new ReadingStatsQuery(
+                        start,
+                        end,
+                        Duration.ofHours(1),
+                        Set.of(ReadingMetric.TEMPERATURE, ReadingMetric.HUMIDITY),
+                        Set.of(StatsAggregate.AVG, StatsAggregate.STDDEV));
+
+        given(sensorSystemService.findSensorSystemById(sensorSystemId))
+                .willReturn(Optional.of(sensorSystem));
+
+        given(environmentalReadingStatsService.getStats(sensorSystemId, query))
+                .willReturn(
+                        new ReadingStatsResponse(
+                                start,
+                                end,
+                                Duration.ofHours(1),
+                                null,
+                                List.of(
+                                        new ReadingStatsBucket(
+                                                start,
+                                                2,
+                                                Map.of(
+                                                        ReadingMetric.TEMPERATURE,
+                                                        Map.of(
+                                                                StatsAggregate.AVG,
+                                                                21.0,
+                                                                StatsAggregate.STDDEV,
+                                                                1.414),
+                                                        ReadingMetric.HUMIDITY,
+                                                        Map.of(
+                                                                StatsAggregate.AVG,
+                                                                45.0,
+                                                                StatsAggregate.STDDEV,
+                                                                7.071))))));
+
+        this.mockMvc
+                .perform(
+                        get(
+                                        "/EnvironmentalReadingStats/SensorSystem/{sensorSystemId}",
+                                        sensorSystemId)
+                                .param("start", start.toString())
+                                .param("end", end.toString())
+                                .param("interval", "PT1H")
+                                .param("metrics", "TEMPERATURE,HUMIDITY")
+                                .param("aggregates", "AVG,STDDEV")
+                                .with(csrf()))
+                .andDo(
+                        document(
+                                "shouldReturn200AndStatsForQuery",
+                                preprocessResponse(prettyPrint)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets.size()", is(1)))
+                .andExpect(jsonPath("$.buckets[0].readingCount", is(2)))
+                .andExpect(jsonPath("$.buckets[0].values.TEMPERATURE.AVG", is(21.0)))
+                .andExpect(jsonPath("$.buckets[0].values.HUMIDITY.STDDEV", is(7.071)));
+    }
+
+    @Test
+    void shouldReturn400WhenStatsIntervalIsInvalid() throws Exception {
+        UUID sensorSystemId = sensorSystem.getId();
+
+        this.mockMvc
+                .perform(
+                        get(
+                                        "/EnvironmentalReadingStats/SensorSystem/{sensorSystemId}",
+                                        sensorSystemId)
+                                .param("start", "2024-01-01T00:00:00Z")
+                                .param("end", "2024-01-02T00:00:00Z")
+                                .param("interval", "hourly")
+                                .with(csrf()))
+                .andDo(
+                        document(
+                                "shouldReturn400WhenStatsIntervalIsInvalid",
+                                preprocessResponse(prettyPrint)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is(ENVT_STATS_REJ_INTERVAL)));
+    }
 }
@@ -12,6 +12,7 @@
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.nullValue;
 import static org.instancio.Select.field;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -35,10 +36,13 @@
 import com.unconv.spring.enums.SensorStatus;
 import com.unconv.spring.persistence.EnvironmentalReadingRepository;
 import com.unconv.spring.persistence.SensorLocationRepository;
+import com.unconv.spring.persistence.SensorReadingSummaryRepository;
 import com.unconv.spring.persistence.SensorSystemRepository;
 import com.unconv.spring.persistence.UnconvRoleRepository;
 import com.unconv.spring.persistence.UnconvUserRepository;
+import com.unconv.spring.service.SensorReadingSummaryService;
 import com.unconv.spring.service.UnconvUserService;
+import jakarta.persistence.EntityManagerFactory;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.charset.Charset;
@@ -53,6 +57,8 @@
 import java.util.Set;
 import java.util.UUID;
 import net.minidev.json.JSONArray;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.instancio.Instancio;
 import org.instancio.Model;
 import org.junit.jupiter.api.AfterEach;
@@ -75,6 +81,12 @@ class SensorSystemControllerIT extends AbstractIntegrationTest {
 
     @Autowired private UnconvUserService unconvUserService;
 
+    @Autowired private SensorReadingSummaryRepository sensorReadingSummaryRepository;
+
+    @Autowired private SensorReadingSummaryService sensorReadingSummaryService;
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
     private static int totalPages;
 
     private List<SensorSystem> sensorSystemList = null;
@@ -305,6 +317,84 @@ void shouldFetchAllSensorSystemsOfSpecificUnconvUserInDescendingOrder() throws E
                 .andExpect(jsonPath("$.hasPrevious", is(false)));
     }
 
+    @Test
+    void shouldFetchSensorSystemsOfSpecificUnconvUserWithSameQueriesWhateverThePageSize()
+            throws Exception {
+        UnconvUser savedUnconvUser = saveUnconvUserWithSensorSystems(12, 12);
+
+        assertSameStatementsWhateverThePageSize(savedUnconvUser);
+    }
+
+    @Test
+    void shouldFetchSensorSystemsWithoutReadingsWithSameQueriesWhateverThePageSize()
+            throws Exception {
+        UnconvUser savedUnconvUser = saveUnconvUserWithSensorSystems(12, 6);
+
+        assertSameStatementsWhateverThePageSize(savedUnconvUser);
+    }
+
+    private UnconvUser saveUnconvUserWithSensorSystems(
+            int sensorSystemCount, int sensorSystemsWithReadings) {
+        UnconvUser unconvUser =
+                new UnconvUser(null, "Specific UnconvUser", "unconvuser@email.com", "password");
+        unconvUser.setUnconvRoles(unconvRoleSet);
+        UnconvUser savedUnconvUser =
+                unconvUserService.saveUnconvUser(unconvUser, unconvUser.getPassword());
+
+        List<SensorSystem> sensorSystemsOfSpecificUnconvUser =
+                Instancio.ofList(SensorSystem.class)
+                        .size(sensorSystemCount)
+                        .supply(field(SensorSystem::isDeleted), () -> false)
+                        .supply(field(SensorSystem::getUnconvUser), () -> savedUnconvUser)
+                        .ignore(field(SensorSystem::getId))
+                        .ignore(field(SensorSystem::getSensorLocation))
+                        .ignore(field(SensorSystem::getHumidityThreshold))
+                        .ignore(field(SensorSystem::getTemperatureThreshold))
+                        .create();
+
+        List<SensorSystem> savedSensorSystemsOfSpecificUnconvUser =
+                sensorSystemRepository.saveAll(sensorSystemsOfSpecificUnconvUser);
+
+        for (SensorSystem sensorSystem :
+                savedSensorSystemsOfSpecificUnconvUser.subList(0, sensorSystemsWithReadings)) {
+            environmentalReadingRepository.saveAll(
+                    Instancio.ofList(environemntalReadingModel)
+                            .size(3)
+                            .supply(
+                                    field(EnvironmentalReading::getSensorSystem),
+                                    () -> sensorSystem)
+                            .create());
+            // Saved past the ingest paths, which keep the summaries up to date
+            sensorReadingSummaryService.rebuildSummary(sensorSystem.getId());
+        }
+
+        return savedUnconvUser;
+    }
+
+    private void assertSameStatementsWhateverThePageSize(UnconvUser unconvUser) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statementsOfSmallPage =
+                countStatementsFetchingSensorSystemsPage(statistics, unconvUser, 2);
+        long statementsOfLargePage =
+                countStatementsFetchingSensorSystemsPage(statistics, unconvUser, 10);
+
+        // The readings of the whole page are resolved at once rather than per sensor
+        assertEquals(statementsOfSmallPage, statementsOfLargePage);
+    }
+
+    private long countStatementsFetchingSensorSystemsPage(
+            Statistics statistics, UnconvUser unconvUser, int pageSize) throws Exception {
+        statistics.clear();
+        this.mockMvc
+                .perform(
+                        get("/SensorSystem/UnconvUser/{unconvUserId}", unconvUser.getId())
+                                .param("pageSize", String.valueOf(pageSize)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.size()", is(pageSize)))
+                .andExpect(jsonPath("$.data[0].readingCount", is(notNullValue())));
+        return statistics.getPrepareStatementCount();
+    }
+
     @Test
     void shouldFindSensorSystemDTOById() throws Exception {
         SensorSystem sensorSystem = sensorSystemList.get(0);
@@ -335,6 +425,8 @@ void shouldFindSensorSystemDTOByIdWithReadingsPresent() throws Exception {
         assert !savedEnvironmentalReadingsOfSpecificSensor.isEmpty();
 
         UUID sensorSystemId = sensorSystem.getId();
+        // Saved past the ingest paths, which keep the summary up to date
+        sensorReadingSummaryService.rebuildSummary(sensorSystemId);
 
         this.mockMvc
                 .perform(get("/SensorSystem/{id}", sensorSystemId))
@@ -924,6 +1016,7 @@ void tearDown() {
             unconvUser.getUnconvRoles().removeAll(unconvRoleSet);
             unconvUserRepository.save(unconvUser);
         }
+        sensorReadingSummaryRepository.deleteAll();
         environmentalReadingRepository.deleteAll();
         sensorSystemRepository.deleteAll();
         sensorLocationRepository.deleteAll();